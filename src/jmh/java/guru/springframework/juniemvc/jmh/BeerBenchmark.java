@@ -0,0 +1,69 @@
+package guru.springframework.juniemvc.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.mappers.BeerMapper;
+import guru.springframework.juniemvc.mappers.BeerMapperImpl;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerPatchDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeerBenchmark {
+
+    private final BeerMapper mapper = new BeerMapperImpl();
+    private final ObjectMapper objectMapper = Fixtures.objectMapper();
+
+    private Beer beer;
+    private BeerDto dto;
+    private BeerPatchDto patch;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        beer = Fixtures.beer(1);
+        dto = mapper.toDto(beer);
+        patch = BeerPatchDto.builder().beerName("Galaxy Cat Updated").price(new BigDecimal("10.49")).build();
+        json = objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public BeerDto toDto() {
+        return mapper.toDto(beer);
+    }
+
+    @Benchmark
+    public Beer updateFromPatch() {
+        // patching the same instance repeatedly writes the same values, so every invocation does equal work
+        mapper.updateFromPatch(beer, patch);
+        return beer;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public BeerDto deserialize() throws IOException {
+        return objectMapper.readValue(json, BeerDto.class);
+    }
+}
@@ -0,0 +1,62 @@
+package guru.springframework.juniemvc.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.mappers.BeerOrderMapper;
+import guru.springframework.juniemvc.mappers.BeerOrderMapperImpl;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeerOrderBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int lines;
+
+    private final BeerOrderMapper mapper = new BeerOrderMapperImpl();
+    private final ObjectMapper objectMapper = Fixtures.objectMapper();
+
+    private BeerOrder order;
+    private BeerOrderResponse response;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        order = Fixtures.order(lines);
+        response = mapper.toResponse(order);
+        json = objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public BeerOrderResponse toResponse() {
+        return mapper.toResponse(order);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public BeerOrderResponse deserialize() throws IOException {
+        return objectMapper.readValue(json, BeerOrderResponse.class);
+    }
+}
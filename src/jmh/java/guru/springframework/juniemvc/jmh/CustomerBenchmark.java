@@ -0,0 +1,75 @@
+package guru.springframework.juniemvc.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.Customer;
+import guru.springframework.juniemvc.mappers.CustomerMapper;
+import guru.springframework.juniemvc.mappers.CustomerMapperImpl;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerUpdateRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerBenchmark {
+
+    private final CustomerMapper mapper = new CustomerMapperImpl();
+    private final ObjectMapper objectMapper = Fixtures.objectMapper();
+
+    private Customer customer;
+    private CustomerCreateRequest create;
+    private CustomerUpdateRequest update;
+    private CustomerResponse response;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        customer = Fixtures.customer();
+        create = new CustomerCreateRequest("Alice", "alice@example.com", "+1-234", "1 Main St", null, "Springfield", "IL", "62704");
+        update = new CustomerUpdateRequest("Alice2", null, "+1-999", "2 Main St", null, "New City", "IL", "62705");
+        response = mapper.toResponse(customer);
+        json = objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public CustomerResponse toResponse() {
+        return mapper.toResponse(customer);
+    }
+
+    @Benchmark
+    public Customer toEntity() {
+        return mapper.toEntity(create);
+    }
+
+    @Benchmark
+    public Customer updateEntity() {
+        mapper.updateEntity(customer, update);
+        return customer;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public CustomerResponse deserialize() throws IOException {
+        return objectMapper.readValue(json, CustomerResponse.class);
+    }
+}
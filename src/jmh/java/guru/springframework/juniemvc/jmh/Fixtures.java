@@ -0,0 +1,84 @@
+package guru.springframework.juniemvc.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.entities.BeerOrderLine;
+import guru.springframework.juniemvc.entities.Customer;
+import guru.springframework.juniemvc.entities.LineStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Detached entities shaped like the ones the services hand to the mappers, and an {@link ObjectMapper} configured
+ * the way Spring MVC builds its own.
+ */
+final class Fixtures {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private Fixtures() {}
+
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    static Beer beer(int id) {
+        Beer beer = Beer.builder()
+                .id(id)
+                .version(3)
+                .beerName("Galaxy Cat IPA " + id)
+                .upc("0123456789" + id)
+                .quantityOnHand(42)
+                .price(new BigDecimal("9.99"))
+                .description("Hazy, juicy and dangerously drinkable")
+                .createdDate(CREATED)
+                .updatedDate(CREATED.plusDays(1))
+                .build();
+        beer.setBeerStyle("IPA");
+        return beer;
+    }
+
+    static BeerOrder order(int lines) {
+        BeerOrder order = BeerOrder.builder()
+                .id(101)
+                .version(1)
+                .customerRef("PO-2025-000123")
+                .paymentAmount(new BigDecimal("59.98"))
+                .createdDate(CREATED)
+                .updatedDate(CREATED.plusHours(1))
+                .build();
+        for (int i = 0; i < lines; i++) {
+            order.addLine(BeerOrderLine.builder()
+                    .id(i + 1)
+                    .version(0)
+                    .beer(beer(i + 1))
+                    .orderQuantity(12)
+                    .quantityAllocated(i % 2 == 0 ? 12 : 4)
+                    .status(i % 2 == 0 ? LineStatus.ALLOCATED : LineStatus.BACKORDER)
+                    .createdDate(CREATED)
+                    .updatedDate(CREATED)
+                    .build());
+        }
+        return order;
+    }
+
+    static Customer customer() {
+        Customer customer = Customer.builder()
+                .name("Alice")
+                .email("alice@example.com")
+                .phoneNumber("+1-234")
+                .addressLine1("1 Main St")
+                .city("Springfield")
+                .state("IL")
+                .postalCode("62704")
+                .build();
+        customer.setId(7);
+        customer.setVersion(2);
+        customer.setCreatedDate(CREATED);
+        customer.setUpdatedDate(CREATED);
+        return customer;
+    }
+}
@@ -0,0 +1,154 @@
+package guru.springframework.juniemvc.jmh;
+
+import guru.springframework.juniemvc.JuniemvcApplication;
+import guru.springframework.juniemvc.mappers.BeerMapper;
+import guru.springframework.juniemvc.mappers.BeerOrderMapper;
+import guru.springframework.juniemvc.mappers.CustomerMapper;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.repositories.CustomerRepository;
+import guru.springframework.juniemvc.services.BeerOrderService;
+import guru.springframework.juniemvc.services.BeerService;
+import guru.springframework.juniemvc.services.CustomerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GET read paths three ways: {@code entity} loads managed entities in a read-write transaction (hydration,
+ * persistence context entries and dirty-checking snapshots) and maps them with MapStruct, {@code readOnly} does the
+ * same in a read-only transaction (no snapshots, no flush), and {@code projection} runs the constructor-expression
+ * queries the services now use. The repositories are called directly, so the DTO cache does not hide the cost. The
+ * {@code gc.alloc.rate.norm} column of the GC profiler gives the bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    private static final int BEERS = 1_000;
+    private static final int CUSTOMERS = 500;
+    private static final int ORDER_LINES = 20;
+
+    @Param({"entity", "readOnly", "projection"})
+    public String read;
+
+    private ConfigurableApplicationContext context;
+    private BeerRepository beerRepository;
+    private CustomerRepository customerRepository;
+    private BeerOrderRepository beerOrderRepository;
+    private BeerMapper beerMapper;
+    private CustomerMapper customerMapper;
+    private BeerOrderMapper beerOrderMapper;
+    private BeerOrderService beerOrderService;
+    private TransactionTemplate transaction;
+
+    private final Pageable beerPage = PageRequest.of(2, 25, Sort.by("beerName"));
+    private final Pageable customerPage = PageRequest.of(1, 50, Sort.by("name"));
+    private Integer orderId;
+
+    @Setup
+    public void setUp() {
+        // command-line arguments, so they win over the application.properties on the classpath
+        context = new SpringApplicationBuilder(JuniemvcApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmhread;DB_CLOSE_DELAY=-1",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        beerRepository = context.getBean(BeerRepository.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        beerOrderRepository = context.getBean(BeerOrderRepository.class);
+        beerMapper = context.getBean(BeerMapper.class);
+        customerMapper = context.getBean(CustomerMapper.class);
+        beerOrderMapper = context.getBean(BeerOrderMapper.class);
+        beerOrderService = context.getBean(BeerOrderService.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(read.equals("readOnly"));
+
+        BeerService beerService = context.getBean(BeerService.class);
+        List<Integer> beerIds = new ArrayList<>(BEERS);
+        for (int i = 0; i < BEERS; i++) {
+            beerIds.add(beerService.create(BeerDto.builder()
+                    .beerName("Benchmark Beer " + i)
+                    .beerStyle(i % 2 == 0 ? "IPA" : "LAGER")
+                    .upc("JMH-" + i)
+                    .quantityOnHand(100)
+                    .price(new BigDecimal("4.50"))
+                    .description("Read path benchmark beer " + i)
+                    .build()).getId());
+        }
+        CustomerService customerService = context.getBean(CustomerService.class);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerService.create(new CustomerCreateRequest("Customer " + i, "c" + i + "@example.com", "+1-555-" + i,
+                    i + " Main St", null, "Springfield", "IL", "62704"));
+        }
+        List<BeerOrderLineCreateItem> lines = beerIds.subList(0, ORDER_LINES).stream()
+                .map(id -> new BeerOrderLineCreateItem(id, 2))
+                .toList();
+        orderId = beerOrderService.create(new BeerOrderCreateRequest("PO-JMH-READ", new BigDecimal("90.00"), lines)).id();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BeerDto> beerPage() {
+        if (read.equals("projection")) {
+            return beerRepository.findDtosBy(beerPage);
+        }
+        return transaction.execute(status -> beerRepository.findAll(beerPage).map(beerMapper::toDto));
+    }
+
+    @Benchmark
+    public Page<CustomerResponse> customerPage() {
+        if (read.equals("projection")) {
+            return customerRepository.findResponsesBy(customerPage);
+        }
+        return transaction.execute(status -> customerRepository.findAll(customerPage).map(customerMapper::toResponse));
+    }
+
+    @Benchmark
+    public BeerOrderResponse orderById() {
+        if (read.equals("projection")) {
+            return beerOrderService.getById(orderId);
+        }
+        return transaction.execute(status ->
+                beerOrderMapper.toResponse(beerOrderRepository.findAllWithLinesByIdIn(List.of(orderId)).get(0)));
+    }
+}
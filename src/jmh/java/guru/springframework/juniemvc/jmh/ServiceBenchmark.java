@@ -0,0 +1,118 @@
+package guru.springframework.juniemvc.jmh;
+
+import guru.springframework.juniemvc.JuniemvcApplication;
+import guru.springframework.juniemvc.config.CacheNames;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.services.BeerOrderService;
+import guru.springframework.juniemvc.services.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service hot paths against the real Spring context on an in-memory H2 database, so JPA, transactions and caching
+ * are part of what is measured. {@code instrumented=false} switches off the service and repository timers, so the
+ * two runs show what the metrics cost on these paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int BEERS = 1_000;
+    private static final int ORDER_LINES = 10;
+
+    @Param({"true", "false"})
+    public boolean instrumented;
+
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+    private BeerOrderService beerOrderService;
+    private Cache beerLists;
+
+    private final Pageable page = PageRequest.of(2, 25, Sort.by("beerName"));
+    private BeerOrderCreateRequest order;
+
+    @Setup
+    public void setUp() {
+        // command-line arguments, so they win over the application.properties on the classpath
+        context = new SpringApplicationBuilder(JuniemvcApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--management.observations.annotations.enabled=" + instrumented,
+                        "--management.metrics.data.repository.autotime.enabled=" + instrumented);
+        beerService = context.getBean(BeerService.class);
+        beerOrderService = context.getBean(BeerOrderService.class);
+        beerLists = context.getBean(CacheManager.class).getCache(CacheNames.BEER_LISTS);
+
+        List<Integer> beerIds = new ArrayList<>(BEERS);
+        for (int i = 0; i < BEERS; i++) {
+            beerIds.add(beerService.create(BeerDto.builder()
+                    .beerName("Benchmark Beer " + i)
+                    .beerStyle(i % 2 == 0 ? "IPA" : "LAGER")
+                    .upc("JMH-" + i)
+                    .quantityOnHand(100)
+                    .price(new BigDecimal("4.50"))
+                    .build()).getId());
+        }
+        List<BeerOrderLineCreateItem> lines = beerIds.subList(0, ORDER_LINES).stream()
+                .map(id -> new BeerOrderLineCreateItem(id, 2))
+                .toList();
+        order = new BeerOrderCreateRequest("PO-JMH", new BigDecimal("90.00"), lines);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BeerDto> listCached() {
+        return beerService.list(page, null, "ipa");
+    }
+
+    @Benchmark
+    public Page<BeerDto> listUncached() {
+        // clearing the DTO cache first makes every call pay for the page query, the count query and the mapping
+        beerLists.clear();
+        return beerService.list(page, null, "ipa");
+    }
+
+    @Benchmark
+    public BeerOrderResponse createOrder() {
+        return beerOrderService.create(order);
+    }
+}
@@ -0,0 +1,22 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the Hibernate second-level cache regions holding beers, bound from {@code juniemvc.cache.beer.*}.
+ *
+ * @param maxSize           beers kept per region (by id and by upc); least recently used entries are evicted first
+ * @param expireAfterWrite  time after which an entry is dropped even if it was never invalidated
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.cache.beer")
+public record BeerCacheProperties(
+        @Positive @DefaultValue("10000") long maxSize,
+        @NotNull @DefaultValue("10m") Duration expireAfterWrite
+) {}
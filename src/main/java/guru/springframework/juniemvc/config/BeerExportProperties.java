@@ -0,0 +1,25 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Typed settings for the streaming catalog export, bound from {@code juniemvc.export.*}.
+ *
+ * @param fetchSize     rows the JDBC driver fetches per round trip while the export reads the cursor
+ * @param clearEvery    rows written between two clears of the persistence context
+ * @param bufferSize    output buffered before it is written to the response
+ * @param maxConcurrent exports running at once; more are answered with 503. Each one holds a JDBC connection for
+ *                      the whole download, so keep this well below the pool size
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.export")
+public record BeerExportProperties(
+        @Positive @DefaultValue("500") int fetchSize,
+        @Positive @DefaultValue("1000") int clearEvery,
+        @DefaultValue("64KB") DataSize bufferSize,
+        @Positive @DefaultValue("2") int maxConcurrent
+) {}
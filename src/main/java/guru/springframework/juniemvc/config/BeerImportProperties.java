@@ -0,0 +1,23 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Typed settings for the bulk catalog import, bound from {@code juniemvc.import.*}.
+ *
+ * @param chunkSize       rows upserted per transaction: one lookup by upc, then batched inserts and updates
+ * @param maxErrors       rejected rows reported individually in the response
+ * @param maxRecordLength characters a CSV record may have; a longer one rejects the file, so an unterminated
+ *                        quote cannot buffer the rest of the upload
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.import")
+public record BeerImportProperties(
+        @Positive @DefaultValue("1000") int chunkSize,
+        @PositiveOrZero @DefaultValue("100") int maxErrors,
+        @Positive @DefaultValue("65536") int maxRecordLength
+) {}
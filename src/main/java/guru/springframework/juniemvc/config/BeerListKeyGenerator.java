@@ -0,0 +1,32 @@
+package guru.springframework.juniemvc.config;
+
+import guru.springframework.juniemvc.entities.Beer;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+
+/**
+ * Builds keys for {@link CacheNames#BEER_LISTS} from {@code (Pageable, beerName, beerStyle)} arguments.
+ * Filters are normalized the way the queries compare them, so e.g. {@code beerStyle=ipa} and
+ * {@code beerStyle= IPA } share one entry, and blank filters are treated as absent.
+ */
+class BeerListKeyGenerator implements KeyGenerator {
+
+    record BeerListKey(String method, int page, int size, String sort, String beerName, String beerStyle) {}
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        Pageable pageable = (Pageable) params[0];
+        String beerName = (String) params[1];
+        String beerStyle = (String) params[2];
+        return new BeerListKey(
+                method.getName(),
+                pageable.isPaged() ? pageable.getPageNumber() : -1,
+                pageable.isPaged() ? pageable.getPageSize() : -1,
+                pageable.getSort().toString(),
+                beerName == null || beerName.isBlank() ? null : beerName.toLowerCase(Locale.ROOT),
+                beerStyle == null || beerStyle.isBlank() ? null : Beer.normalizeStyle(beerStyle));
+    }
+}
@@ -0,0 +1,69 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Typed settings for beer order processing, bound from {@code juniemvc.orders.*}.
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.orders")
+public record BeerOrderProperties(
+        @Valid @DefaultValue Batch batch,
+        @Valid @DefaultValue Allocation allocation,
+        @Valid @DefaultValue Stream stream
+) {
+
+    /**
+     * Bulk ingestion via {@code POST /api/v1/beer-orders:batch}.
+     *
+     * @param chunkSize orders persisted per transaction
+     * @param maxSize   upper bound of orders accepted in one request
+     */
+    public record Batch(
+            @Positive @DefaultValue("100") int chunkSize,
+            @Positive @DefaultValue("5000") int maxSize
+    ) {}
+
+    /**
+     * Asynchronous stock allocation of new orders.
+     *
+     * @param queueCapacity   order ids waiting for allocation; order creation answers 503 while the queue is full
+     * @param batchSize       orders allocated together, with one stock update per distinct beer
+     * @param sweepInterval   how often an idle worker re-queues orders that never got allocated, and backorders whose
+     *                        beer is in stock again
+     * @param shutdownTimeout how long shutdown waits for the worker to drain the queue
+     * @param maxAttempts     failed allocations after which an order is parked: no longer re-queued by the worker
+     */
+    public record Allocation(
+            @Positive @DefaultValue("10000") int queueCapacity,
+            @Positive @DefaultValue("500") int batchSize,
+            @DefaultValue("30s") Duration sweepInterval,
+            @DefaultValue("30s") Duration shutdownTimeout,
+            @Positive @DefaultValue("5") int maxAttempts
+    ) {}
+
+    /**
+     * Live order updates via {@code GET /api/v1/beer-orders/{id}/stream}.
+     *
+     * @param timeout        how long one SSE connection stays open; clients reconnect with {@code Last-Event-ID}
+     * @param heartbeat      interval of keep-alive comments that also detect closed connections
+     * @param maxSubscribers open streams accepted at once; more are answered with 503
+     * @param sendBuffer     events waiting to be written to one client; a client further behind is disconnected and
+     *                       resumes with {@code Last-Event-ID}
+     * @param senderThreads  threads writing to the clients; a client that stops reading holds one until its write
+     *                       times out, the others keep going on the rest
+     */
+    public record Stream(
+            @DefaultValue("30m") Duration timeout,
+            @DefaultValue("15s") Duration heartbeat,
+            @Positive @DefaultValue("10000") int maxSubscribers,
+            @Positive @DefaultValue("64") int sendBuffer,
+            @Positive @DefaultValue("16") int senderThreads
+    ) {}
+}
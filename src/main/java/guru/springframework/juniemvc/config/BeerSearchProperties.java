@@ -0,0 +1,23 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Typed settings for the in-process beer search index, bound from {@code juniemvc.search.*}.
+ *
+ * @param defaultLimit         hits returned when the request does not ask for a limit
+ * @param maxLimit             upper bound of hits a request may ask for
+ * @param maxPrefixExpansions  indexed terms a trailing partial word may expand to
+ * @param rebuildChunkSize     beers read per query when the index is built at startup
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.search")
+public record BeerSearchProperties(
+        @Positive @DefaultValue("20") int defaultLimit,
+        @Positive @DefaultValue("100") int maxLimit,
+        @Positive @DefaultValue("64") int maxPrefixExpansions,
+        @Positive @DefaultValue("1000") int rebuildChunkSize
+) {}
@@ -0,0 +1,16 @@
+package guru.springframework.juniemvc.config;
+
+/**
+ * Names of the application-level (Spring Cache) caches configured in {@link DtoCacheConfig}.
+ */
+public final class CacheNames {
+
+    /** {@code BeerDto} by beer id. */
+    public static final String BEER_BY_ID = "beerById";
+    /** Beer list and slice results by normalized query; see {@link BeerListKeyGenerator}. */
+    public static final String BEER_LISTS = "beerLists";
+    /** Key generator bean for {@link #BEER_LISTS}. */
+    public static final String BEER_LIST_KEY_GENERATOR = "beerListKeyGenerator";
+
+    private CacheNames() {}
+}
@@ -0,0 +1,63 @@
+package guru.springframework.juniemvc.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a {@link BulkheadDataSource} in front of the application DataSource and publishes its permits as
+ * {@code juniemvc.datasource.bulkhead.*} gauges. Sized from the Hikari pool by default, so callers queue on the
+ * semaphore (fair, bounded wait) rather than piling up inside the pool.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+class DataSourceBulkheadConfig {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor dataSourceBulkheadPostProcessor(ObjectProvider<DataSourceBulkheadProperties> properties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                    return bean;
+                }
+                DataSourceBulkheadProperties settings = properties.getObject();
+                if (!settings.enabled()) {
+                    return bean;
+                }
+                BulkheadDataSource bulkhead = new BulkheadDataSource(dataSource, permits(dataSource, settings), settings.acquireTimeout());
+                meterRegistry.ifAvailable(registry -> bind(registry, bulkhead));
+                log.info("DataSource bulkhead for '{}': {} concurrent connections, acquire timeout {}",
+                        beanName, bulkhead.maxConcurrent(), settings.acquireTimeout());
+                return bulkhead;
+            }
+        };
+    }
+
+    private static int permits(DataSource dataSource, DataSourceBulkheadProperties settings) {
+        if (settings.maxConcurrent() > 0) {
+            return settings.maxConcurrent();
+        }
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        // an unset Hikari pool size reads as -1 until the pool starts, then defaults to 10
+        return hikari != null && hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+    }
+
+    private static void bind(MeterRegistry registry, BulkheadDataSource bulkhead) {
+        Gauge.builder("juniemvc.datasource.bulkhead.available", bulkhead, BulkheadDataSource::available)
+                .description("Free connection permits").register(registry);
+        Gauge.builder("juniemvc.datasource.bulkhead.waiting", bulkhead, BulkheadDataSource::waiting)
+                .description("Callers waiting for a connection permit").register(registry);
+    }
+}
@@ -0,0 +1,23 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Bounded admission to the JDBC pool, bound from {@code juniemvc.datasource.bulkhead.*}.
+ *
+ * @param enabled        wrap the application DataSource in the bulkhead
+ * @param maxConcurrent  connections handed out at once; 0 uses the Hikari {@code maximum-pool-size}
+ * @param acquireTimeout how long a caller waits for a permit before the request fails with 503
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.datasource.bulkhead")
+public record DataSourceBulkheadProperties(
+        @DefaultValue("true") boolean enabled,
+        @PositiveOrZero @DefaultValue("0") int maxConcurrent,
+        @DefaultValue("5s") Duration acquireTimeout
+) {}
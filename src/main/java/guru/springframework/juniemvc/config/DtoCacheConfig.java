@@ -0,0 +1,49 @@
+package guru.springframework.juniemvc.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Application-level caches of mapped DTOs, in front of the Hibernate second-level cache: a hit skips the
+ * query or cache lookup as well as entity-to-DTO mapping. Entries are evicted by the write paths of
+ * {@code BeerServiceImpl} and expire after their TTL.
+ */
+@Configuration(proxyBeanMethods = false)
+// outside the transaction advice: a hit opens no transaction and takes no connection, and a miss is cached after commit
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+class DtoCacheConfig {
+
+    @Bean
+    CacheManager cacheManager(DtoCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // only the caches registered here exist; an unknown cache name fails instead of creating an unbounded cache
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(CacheNames.BEER_BY_ID, build(properties.beerById(), properties.recordStats()));
+        cacheManager.registerCustomCache(CacheNames.BEER_LISTS, build(properties.beerLists(), properties.recordStats()));
+        return cacheManager;
+    }
+
+    @Bean(CacheNames.BEER_LIST_KEY_GENERATOR)
+    KeyGenerator beerListKeyGenerator() {
+        return new BeerListKeyGenerator();
+    }
+
+    private static Cache<Object, Object> build(DtoCacheProperties.Spec spec, boolean recordStats) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(spec.maxSize())
+                .expireAfterWrite(spec.ttl());
+        if (recordStats) {
+            builder.recordStats();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,35 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the Caffeine caches of mapped beer DTOs, bound from {@code juniemvc.cache.dto.*}.
+ *
+ * @param beerById    single beers by id
+ * @param beerLists   list/slice results by normalized query
+ * @param recordStats whether hit/miss/eviction counts are recorded (exported as {@code cache.*} meters)
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.cache.dto")
+public record DtoCacheProperties(
+        @Valid @DefaultValue Spec beerById,
+        @Valid @DefaultValue Spec beerLists,
+        @DefaultValue("true") boolean recordStats
+) {
+
+    /**
+     * @param maxSize entries kept before the least valuable ones are evicted
+     * @param ttl     time after which an entry expires even if no write evicted it
+     */
+    public record Spec(
+            @Positive @DefaultValue("1000") long maxSize,
+            @NotNull @DefaultValue("60s") Duration ttl
+    ) {}
+}
@@ -0,0 +1,42 @@
+package guru.springframework.juniemvc.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Request, service and repository timers.
+ * <p>
+ * Controllers are timed by Spring MVC ({@code http.server.requests}) and repositories by Spring Data
+ * ({@code spring.data.repository.invocations}); service implementations carry {@code @Timed("juniemvc.service")},
+ * which Boot's {@code TimedAspect} ({@code management.observations.annotations.enabled}) turns into one timer
+ * tagged with {@code class} and {@code method}. All three, and the allocation worker's timers, publish histogram
+ * buckets for Prometheus plus client-side p50/p95/p99.
+ */
+@Configuration(proxyBeanMethods = false)
+class MetricsConfig {
+
+    static final List<String> TIMED = List.of("http.server.requests", "spring.data.repository.invocations", "juniemvc.service",
+            "juniemvc.allocation.latency", "juniemvc.allocation.batch");
+
+    @Bean
+    MeterFilter latencyDistributions() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!TIMED.contains(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .percentiles(0.5, 0.95, 0.99)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Transactional outbox relay and event feed, bound from {@code juniemvc.outbox.*}.
+ *
+ * @param batchSize      events published per relay transaction
+ * @param pollInterval   pause of the relay when it found nothing to publish
+ * @param sink           built-in sink the relay publishes to: {@code memory}, {@code file} or {@code none} (when
+ *                       the application provides its own {@code OutboxSink} beans)
+ * @param memoryCapacity most recent events kept by the {@code memory} sink
+ * @param file           NDJSON file the {@code file} sink appends to
+ * @param defaultLimit   events per {@code GET /api/v1/events} response when no {@code limit} is given
+ * @param maxLimit       upper bound of {@code limit}
+ * @param maxWait        upper bound of the {@code wait} a consumer may block for new events
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.outbox")
+public record OutboxProperties(
+        @Positive @DefaultValue("200") int batchSize,
+        @DefaultValue("200ms") Duration pollInterval,
+        @NotNull @DefaultValue("memory") String sink,
+        @Positive @DefaultValue("1000") int memoryCapacity,
+        @DefaultValue("target/outbox-events.ndjson") Path file,
+        @Positive @DefaultValue("100") int defaultLimit,
+        @Positive @DefaultValue("1000") int maxLimit,
+        @DefaultValue("30s") Duration maxWait
+) {}
@@ -0,0 +1,26 @@
+package guru.springframework.juniemvc.config;
+
+import guru.springframework.juniemvc.web.QueryBudgetFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks {@link QueryCounter} into Hibernate so every prepared statement is counted against the current request,
+ * and registers the {@link QueryBudgetFilter} that scopes and checks the count.
+ */
+@Configuration(proxyBeanMethods = false)
+class QueryBudgetConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, QueryCounter.INSPECTOR);
+    }
+
+    @Bean
+    QueryBudgetFilter queryBudgetFilter(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        return new QueryBudgetFilter(properties, meterRegistry);
+    }
+}
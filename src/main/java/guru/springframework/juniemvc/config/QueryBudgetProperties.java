@@ -0,0 +1,49 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.List;
+
+/**
+ * Per-request SQL statement budgets, bound from {@code juniemvc.query-budget.*}.
+ *
+ * @param exposeHeader  add the {@code X-Query-Count} response header (meant for dev and test, not production)
+ * @param failOnExceed  answer an over-budget request with 500 instead of only logging it
+ * @param defaultBudget statements allowed for endpoints without an explicit entry; 0 disables the check
+ * @param endpoints     budgets of individual endpoints, matched by HTTP method and handler pattern
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.query-budget")
+public record QueryBudgetProperties(
+        @DefaultValue("false") boolean exposeHeader,
+        @DefaultValue("false") boolean failOnExceed,
+        @PositiveOrZero @DefaultValue("25") int defaultBudget,
+        @Valid @DefaultValue List<Endpoint> endpoints
+) {
+
+    /**
+     * @param method        HTTP method, e.g. {@code GET}
+     * @param pattern       handler pattern as mapped, e.g. {@code /api/v1/beer/{id}}
+     * @param maxStatements statements allowed per request; 0 disables the check
+     */
+    public record Endpoint(
+            @NotBlank String method,
+            @NotBlank String pattern,
+            @PositiveOrZero int maxStatements
+    ) {}
+
+    /** Budget of the endpoint, or 0 when it is unchecked. */
+    public int budgetFor(String method, String pattern) {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.method().equalsIgnoreCase(method) && endpoint.pattern().equals(pattern)) {
+                return endpoint.maxStatements();
+            }
+        }
+        return defaultBudget;
+    }
+}
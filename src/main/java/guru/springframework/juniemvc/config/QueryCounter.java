@@ -0,0 +1,40 @@
+package guru.springframework.juniemvc.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and
+ * {@link #stop()}. Statements outside such a scope (startup, background work) are not counted.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    /** Registered as Hibernate's {@code hibernate.session_factory.statement_inspector}; leaves the SQL unchanged. */
+    static final StatementInspector INSPECTOR = sql -> {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    };
+
+    private QueryCounter() {}
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /** Statements counted so far in the current scope, or 0 when none is open. */
+    public static int current() {
+        int[] count = COUNT.get();
+        return count == null ? 0 : count[0];
+    }
+
+    /** Closes the scope and returns its count. */
+    public static int stop() {
+        int count = current();
+        COUNT.remove();
+        return count;
+    }
+}
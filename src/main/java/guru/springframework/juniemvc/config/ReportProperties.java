@@ -0,0 +1,17 @@
+package guru.springframework.juniemvc.config;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Reporting endpoints over the daily rollups, bound from {@code juniemvc.reports.*}.
+ *
+ * @param maxDays longest date range, in days, a single report may cover
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.reports")
+public record ReportProperties(
+        @Positive @DefaultValue("366") int maxDays
+) {}
@@ -0,0 +1,60 @@
+package guru.springframework.juniemvc.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache on a local Caffeine JCache provider.
+ * <p>
+ * Regions are created here, with explicit bounds, rather than on demand by Hibernate
+ * ({@code missing_cache_strategy=fail}), so an entity mapped to an unconfigured region fails fast
+ * instead of silently getting an unbounded cache.
+ */
+@Configuration(proxyBeanMethods = false)
+class SecondLevelCacheConfig {
+
+    /** Region of {@code Beer} entities by id. */
+    static final String BEER_REGION = "beer";
+    /** Region resolving {@code Beer.upc} to the beer id. */
+    static final String BEER_UPC_REGION = "beer-upc";
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(BeerCacheProperties properties) {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        // a private manager per application context; the provider's default one would be shared across contexts
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("juniemvc-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(BEER_REGION, regionConfiguration(properties));
+        cacheManager.createCache(BEER_UPC_REGION, regionConfiguration(properties));
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put("hibernate.cache.use_second_level_cache", "true");
+            hibernateProperties.put("hibernate.cache.region.factory_class", "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // feeds the hibernate.second.level.cache.* hit/miss/put meters
+            hibernateProperties.put("hibernate.generate_statistics", "true");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(BeerCacheProperties properties) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(properties.maxSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(properties.expireAfterWrite().toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
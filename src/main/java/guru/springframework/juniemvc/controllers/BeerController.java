@@ -2,11 +2,15 @@ package guru.springframework.juniemvc.controllers;
 
 import guru.springframework.juniemvc.models.BeerDto;
 import guru.springframework.juniemvc.models.BeerPatchDto;
+import guru.springframework.juniemvc.models.CursorPage;
+import guru.springframework.juniemvc.models.SliceResponse;
 import guru.springframework.juniemvc.services.BeerService;
+import guru.springframework.juniemvc.web.ETags;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 
@@ -27,9 +31,17 @@ class BeerController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BeerDto> getById(@PathVariable Integer id) {
+    public ResponseEntity<BeerDto> getById(@PathVariable Integer id, WebRequest request) {
+        // version-only query first: an unchanged beer is answered with 304 without loading or serializing it
+        Integer version = beerService.getVersion(id).orElse(null);
+        if (version == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (request.checkNotModified(ETags.of(id, version))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(id, version)).build();
+        }
         return beerService.getById(id)
-                .map(ResponseEntity::ok)
+                .map(body -> ResponseEntity.ok().eTag(ETags.of(body.getId(), body.getVersion())).body(body))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
@@ -41,17 +53,38 @@ class BeerController {
         return ResponseEntity.ok(beerService.list(pageable, beerName, beerStyle));
     }
 
+    // slice mode: same paging and filters as list, but hasNext instead of totals (no COUNT query)
+    @GetMapping(params = {"slice=true", "!cursor"})
+    public ResponseEntity<SliceResponse<BeerDto>> listSlice(
+            org.springframework.data.domain.Pageable pageable,
+            @RequestParam(value = "beerName", required = false) String beerName,
+            @RequestParam(value = "beerStyle", required = false) String beerStyle) {
+        return ResponseEntity.ok(SliceResponse.of(beerService.listSlice(pageable, beerName, beerStyle)));
+    }
+
+    // cursor mode: selected whenever the cursor parameter is present (an empty value requests the first page)
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<BeerDto>> scroll(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            org.springframework.data.domain.Pageable pageable,
+            @RequestParam(value = "beerName", required = false) String beerName,
+            @RequestParam(value = "beerStyle", required = false) String beerStyle) {
+        return ResponseEntity.ok(beerService.scroll(cursor, pageable, beerName, beerStyle));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<BeerDto> update(@PathVariable Integer id, @Valid @RequestBody BeerDto beerDto) {
-        return beerService.update(id, beerDto)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<BeerDto> update(@PathVariable Integer id, @Valid @RequestBody BeerDto beerDto,
+                                          @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return beerService.update(id, beerDto, ETags.expectedVersions(ifMatch, id))
+                .map(body -> ResponseEntity.ok().eTag(ETags.of(body.getId(), body.getVersion())).body(body))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<BeerDto> patch(@PathVariable Integer id, @RequestBody BeerPatchDto beerPatchDto) {
-        return beerService.patch(id, beerPatchDto)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<BeerDto> patch(@PathVariable Integer id, @RequestBody BeerPatchDto beerPatchDto,
+                                         @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return beerService.patch(id, beerPatchDto, ETags.expectedVersions(ifMatch, id))
+                .map(body -> ResponseEntity.ok().eTag(ETags.of(body.getId(), body.getVersion())).body(body))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
@@ -0,0 +1,107 @@
+package guru.springframework.juniemvc.controllers;
+
+import guru.springframework.juniemvc.config.BeerExportProperties;
+import guru.springframework.juniemvc.exceptions.TooManyExportsException;
+import guru.springframework.juniemvc.exceptions.UnsupportedFileFormatException;
+import guru.springframework.juniemvc.models.BeerFileFormat;
+import guru.springframework.juniemvc.services.BeerExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full catalog download. The export is written synchronously to the servlet output stream instead of through a
+ * {@code StreamingResponseBody}, so a long download is not cut off by the async request timeout.
+ * <p>
+ * A download holds a JDBC connection, and with it a DataSource bulkhead permit, until the client has read the last
+ * byte, so a few slow clients could starve every other request of connections. Exports therefore get their own
+ * limit, {@code juniemvc.export.max-concurrent}, well below the pool size; an export beyond it is answered with 503
+ * at once instead of waiting.
+ */
+@RestController
+@RequestMapping("/api/v1/beer/export")
+class BeerExportController {
+
+    private final BeerExportService beerExportService;
+    private final int maxConcurrent;
+    private final Semaphore permits;
+
+    BeerExportController(BeerExportService beerExportService, BeerExportProperties properties) {
+        this.beerExportService = beerExportService;
+        this.maxConcurrent = properties.maxConcurrent();
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    @GetMapping
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+        BeerFileFormat exportFormat = BeerFileFormat.of(format);
+        if (exportFormat == null) {
+            throw new UnsupportedFileFormatException(format);
+        }
+        if (!permits.tryAcquire()) {
+            throw new TooManyExportsException(maxConcurrent);
+        }
+        try {
+            write(exportFormat, acceptEncoding, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void write(BeerFileFormat exportFormat, String acceptEncoding, HttpServletResponse response) throws IOException {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        response.setContentType(exportFormat.mediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("beers." + exportFormat.extension()).build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192);
+            beerExportService.export(exportFormat, out);
+            out.finish();
+        } else {
+            OutputStream out = response.getOutputStream();
+            beerExportService.export(exportFormat, out);
+        }
+        response.flushBuffer();
+    }
+
+    // gzip must be listed with a non-zero q-value; "gzip;q=0" explicitly refuses it
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            if (!params[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim().toLowerCase(Locale.ROOT);
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            return q > 0;
+        }
+        return false;
+    }
+}
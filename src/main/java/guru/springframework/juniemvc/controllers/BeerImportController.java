@@ -0,0 +1,48 @@
+package guru.springframework.juniemvc.controllers;
+
+import guru.springframework.juniemvc.exceptions.UnsupportedFileFormatException;
+import guru.springframework.juniemvc.models.BeerFileFormat;
+import guru.springframework.juniemvc.models.BeerImportDtos.BeerImportResponse;
+import guru.springframework.juniemvc.services.BeerImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bulk upsert of the catalog by upc from an NDJSON or CSV upload, optionally gzip-compressed. The body is read
+ * straight from the servlet input stream as the service consumes it, never buffered as a whole.
+ */
+@RestController
+@RequestMapping("/api/v1/beer/import")
+class BeerImportController {
+
+    private final BeerImportService beerImportService;
+
+    BeerImportController(BeerImportService beerImportService) {
+        this.beerImportService = beerImportService;
+    }
+
+    @PostMapping(consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<BeerImportResponse> importBeers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            HttpServletRequest request) throws IOException {
+        BeerFileFormat format = BeerFileFormat.ofContentType(contentType);
+        if (format == null) {
+            throw new UnsupportedFileFormatException(contentType);
+        }
+        InputStream body = request.getInputStream();
+        if (contentEncoding != null && contentEncoding.trim().equalsIgnoreCase("gzip")) {
+            body = new GZIPInputStream(body, 8192);
+        }
+        return ResponseEntity.ok(beerImportService.importBeers(format, body));
+    }
+}
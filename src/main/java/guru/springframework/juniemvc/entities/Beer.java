@@ -3,12 +3,18 @@ package guru.springframework.juniemvc.entities;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Locale;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 /**
@@ -21,10 +27,14 @@ import org.hibernate.annotations.UpdateTimestamp;
 @AllArgsConstructor
 @Entity
 @Table(name = "beer")
+// READ_WRITE keeps the cache consistent with concurrent updates (soft locks + version); regions are bounded in SecondLevelCacheConfig
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "beer")
+@NaturalIdCache(region = "beer-upc")
 public class Beer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_seq")
+    @SequenceGenerator(name = "beer_seq", sequenceName = "beer_seq", allocationSize = 50)
     private Integer id;
 
     @Version
@@ -37,6 +47,12 @@ public class Beer {
     @Column(length = 40, nullable = false)
     private String beerStyle;
 
+    // upper-cased, trimmed copy of beerStyle backing the indexed case-insensitive style filter (see V7)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "beer_style_normalized", length = 40, nullable = false)
+    private String beerStyleNormalized;
+
+    @NaturalId(mutable = true)
     @Column(length = 30, unique = true, nullable = false)
     private String upc;
 
@@ -54,4 +70,21 @@ public class Beer {
 
     @UpdateTimestamp
     private LocalDateTime updatedDate;
+
+    public void setBeerStyle(String beerStyle) {
+        this.beerStyle = beerStyle;
+        this.beerStyleNormalized = normalizeStyle(beerStyle);
+    }
+
+    /** Canonical form used for style comparisons; callers filtering by style must normalize the same way. */
+    public static String normalizeStyle(String beerStyle) {
+        return beerStyle == null ? null : beerStyle.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // the builder bypasses setBeerStyle
+    @PrePersist
+    @PreUpdate
+    void normalizeBeerStyle() {
+        this.beerStyleNormalized = normalizeStyle(beerStyle);
+    }
 }
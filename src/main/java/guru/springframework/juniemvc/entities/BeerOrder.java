@@ -20,7 +20,8 @@ import java.util.List;
 public class BeerOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_order_seq")
+    @SequenceGenerator(name = "beer_order_seq", sequenceName = "beer_order_seq", allocationSize = 50)
     private Integer id;
 
     @Version
@@ -36,15 +37,22 @@ public class BeerOrder {
     // enum status of the order, NEW, PAID, CANCELLED, INPROCESS, COMPLETE.
     @Enumerated(EnumType.STRING)
     @Column(length = 40, nullable = false)
+    @Builder.Default
     private OrderStatus status = OrderStatus.NEW;
 
+    // keyset sort key of the order search (see V10)
     @CreationTimestamp
-    @Column(updatable = false)
+    @Column(updatable = false, nullable = false)
     private LocalDateTime createdDate;
 
     @UpdateTimestamp
     private LocalDateTime updatedDate;
 
+    // failed allocations; the worker stops re-queuing the order at juniemvc.orders.allocation.max-attempts (see V13)
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer allocationFailures = 0;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = true)
     @JoinColumn(name = "customer_id")
     private Customer customer;
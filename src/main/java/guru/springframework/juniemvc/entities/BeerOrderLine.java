@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class BeerOrderLine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_order_line_seq")
+    @SequenceGenerator(name = "beer_order_line_seq", sequenceName = "beer_order_line_seq", allocationSize = 50)
     private Integer id;
 
     @Version
@@ -35,10 +36,12 @@ public class BeerOrderLine {
     private Integer orderQuantity;
 
     @Column(nullable = false)
+    @Builder.Default
     private Integer quantityAllocated = 0;
 
     @Enumerated(EnumType.STRING)
     @Column(length = 40, nullable = false)
+    @Builder.Default
     private LineStatus status = LineStatus.NEW;
 
     @CreationTimestamp
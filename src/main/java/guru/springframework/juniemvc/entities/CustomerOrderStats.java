@@ -0,0 +1,39 @@
+package guru.springframework.juniemvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+
+/**
+ * Lifetime order totals of one customer, kept in step with order creation by incrementing the row in the same
+ * transaction (see V11). Holds one row per customer and goes away with the customer.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "customer_order_stats")
+public class CustomerOrderStats {
+
+    @Id
+    private Integer customerId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "customer_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Customer customer;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Column(precision = 19, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal totalSpend = BigDecimal.ZERO;
+}
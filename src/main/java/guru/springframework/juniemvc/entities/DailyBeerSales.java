@@ -0,0 +1,34 @@
+package guru.springframework.juniemvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Units of one beer ordered on one day. A reporting rollup: written only by the outbox relay (see V12 and
+ * {@code SalesRollupWriter}), never through this entity.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "daily_beer_sales")
+@IdClass(DailyBeerSales.Key.class)
+public class DailyBeerSales {
+
+    public record Key(LocalDate salesDate, Integer beerId) implements Serializable {}
+
+    @Id
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "beer_id")
+    private Integer beerId;
+
+    @Column(nullable = false)
+    private Long unitsOrdered;
+
+    @Column(nullable = false)
+    private Long orderLines;
+}
@@ -0,0 +1,39 @@
+package guru.springframework.juniemvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Orders that reached a status on one day: NEW counts the orders created that day, every other status the
+ * orders allocation moved into it. {@code backorderedCount} counts the orders allocation left with backordered
+ * lines that day, under the status they had then, so NEW orders with nothing in stock are told apart from those
+ * not allocated yet. A reporting rollup: written only by the outbox relay (see V12, V14 and
+ * {@code SalesRollupWriter}).
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "daily_order_status")
+@IdClass(DailyOrderStatus.Key.class)
+public class DailyOrderStatus {
+
+    public record Key(LocalDate statusDate, OrderStatus status) implements Serializable {}
+
+    @Id
+    @Column(name = "status_date")
+    private LocalDate statusDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 40)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false)
+    private Long backorderedCount;
+}
@@ -0,0 +1,34 @@
+package guru.springframework.juniemvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Units of one (normalized) beer style ordered on one day, with the style the beer had when the order was
+ * aggregated. A reporting rollup: written only by the outbox relay (see V12 and {@code SalesRollupWriter}).
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "daily_style_sales")
+@IdClass(DailyStyleSales.Key.class)
+public class DailyStyleSales {
+
+    public record Key(LocalDate salesDate, String beerStyle) implements Serializable {}
+
+    @Id
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "beer_style", length = 40)
+    private String beerStyle;
+
+    @Column(nullable = false)
+    private Long unitsOrdered;
+
+    @Column(nullable = false)
+    private Long orderLines;
+}
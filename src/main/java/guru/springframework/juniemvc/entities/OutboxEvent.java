@@ -0,0 +1,47 @@
+package guru.springframework.juniemvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event written in the same transaction as the state change it describes. {@code position} stays null until the
+ * outbox relay published the event; positions are assigned by the relay in publish order.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(unique = true)
+    private Long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 40, nullable = false)
+    private OutboxEventType type;
+
+    // every event belongs to an order; shipment events carry their order's id
+    @Column(name = "beer_order_id", nullable = false)
+    private Integer beerOrderId;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdDate;
+
+    private LocalDateTime publishedDate;
+}
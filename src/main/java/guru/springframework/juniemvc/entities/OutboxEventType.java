@@ -0,0 +1,10 @@
+package guru.springframework.juniemvc.entities;
+
+public enum OutboxEventType {
+    ORDER_CREATED,
+    // allocation moved the order to another status
+    ORDER_STATUS_CHANGED,
+    // allocation changed line quantities or statuses without changing the order status
+    ORDER_LINES_CHANGED,
+    SHIPMENT_CREATED
+}
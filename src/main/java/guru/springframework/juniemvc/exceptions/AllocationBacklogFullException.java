@@ -0,0 +1,7 @@
+package guru.springframework.juniemvc.exceptions;
+
+public class AllocationBacklogFullException extends RuntimeException {
+    public AllocationBacklogFullException(int capacity) {
+        super("Allocation queue is full (" + capacity + " orders waiting), retry later");
+    }
+}
@@ -1,7 +1,13 @@
 package guru.springframework.juniemvc.exceptions;
 
+import java.util.Collection;
+
 public class BeerNotFoundException extends RuntimeException {
     public BeerNotFoundException(Integer beerId) {
         super("Beer not found: id=" + beerId);
     }
+
+    public BeerNotFoundException(Collection<Integer> beerIds) {
+        super("Beer not found: ids=" + beerIds);
+    }
 }
@@ -0,0 +1,7 @@
+package guru.springframework.juniemvc.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
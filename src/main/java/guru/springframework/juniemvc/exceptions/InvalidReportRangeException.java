@@ -0,0 +1,7 @@
+package guru.springframework.juniemvc.exceptions;
+
+public class InvalidReportRangeException extends RuntimeException {
+    public InvalidReportRangeException(String message) {
+        super(message);
+    }
+}
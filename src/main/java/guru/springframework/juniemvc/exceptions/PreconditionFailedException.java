@@ -0,0 +1,7 @@
+package guru.springframework.juniemvc.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
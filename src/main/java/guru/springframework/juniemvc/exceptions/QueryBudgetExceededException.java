@@ -0,0 +1,7 @@
+package guru.springframework.juniemvc.exceptions;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String endpoint, int statements, int budget) {
+        super(endpoint + " issued " + statements + " SQL statements, budget is " + budget);
+    }
+}
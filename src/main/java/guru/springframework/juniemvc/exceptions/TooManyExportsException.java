@@ -0,0 +1,7 @@
+package guru.springframework.juniemvc.exceptions;
+
+public class TooManyExportsException extends RuntimeException {
+    public TooManyExportsException(int maxConcurrent) {
+        super("Too many catalog exports in progress (limit " + maxConcurrent + "), retry later");
+    }
+}
@@ -0,0 +1,7 @@
+package guru.springframework.juniemvc.exceptions;
+
+public class TooManyOrderStreamsException extends RuntimeException {
+    public TooManyOrderStreamsException(int maxSubscribers) {
+        super("Too many open order streams (limit " + maxSubscribers + "), retry later");
+    }
+}
@@ -0,0 +1,11 @@
+package guru.springframework.juniemvc.exceptions;
+
+public class UnsupportedFileFormatException extends RuntimeException {
+    public UnsupportedFileFormatException(String format) {
+        super("Unsupported file format: " + format + " (expected ndjson or csv)");
+    }
+
+    public UnsupportedFileFormatException(String format, String problem) {
+        super("Unsupported " + format + " file: " + problem);
+    }
+}
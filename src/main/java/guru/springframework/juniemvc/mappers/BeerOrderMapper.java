@@ -4,6 +4,7 @@ import guru.springframework.juniemvc.entities.BeerOrder;
 import guru.springframework.juniemvc.entities.BeerOrderLine;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineResponse;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -15,6 +16,10 @@ public interface BeerOrderMapper {
     @Mapping(target = "lines", expression = "java(toLineResponses(entity.getLines()))")
     BeerOrderResponse toResponse(BeerOrder entity);
 
+    // customer.id is read from the uninitialized proxy, so the customer is not loaded
+    @Mapping(target = "customerId", source = "customer.id")
+    BeerOrderSummary toSummary(BeerOrder entity);
+
     @Mapping(target = "beerId", source = "beer.id")
     BeerOrderLineResponse toResponse(BeerOrderLine line);
 
@@ -0,0 +1,13 @@
+package guru.springframework.juniemvc.mappers;
+
+import guru.springframework.juniemvc.entities.OutboxEvent;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface OutboxEventMapper {
+
+    @Mapping(target = "occurredAt", source = "createdDate")
+    OutboxEventResponse toResponse(OutboxEvent entity);
+}
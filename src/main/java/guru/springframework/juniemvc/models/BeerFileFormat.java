@@ -0,0 +1,53 @@
+package guru.springframework.juniemvc.models;
+
+import java.util.Locale;
+
+/**
+ * Catalog file formats: {@code GET /api/v1/beer/export} selects one with {@code format=ndjson|csv}, {@code POST
+ * /api/v1/beer/import} by the request {@code Content-Type}.
+ */
+public enum BeerFileFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    BeerFileFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /** Case-insensitive lookup; null for an unknown format. */
+    public static BeerFileFormat of(String value) {
+        for (BeerFileFormat format : values()) {
+            if (format.extension.equals(value.trim().toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /** Format whose media type matches a {@code Content-Type}, parameters ignored; null when none does. */
+    public static BeerFileFormat ofContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String mediaType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        for (BeerFileFormat format : values()) {
+            if (format.mediaType.equals(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package guru.springframework.juniemvc.models;
+
+import java.util.List;
+
+// Result of POST /api/v1/beer/import
+public final class BeerImportDtos {
+
+    private BeerImportDtos() {}
+
+    /**
+     * Counts over the whole upload. {@code errors} lists the first rejected rows only, up to
+     * {@code juniemvc.import.max-errors}; {@code rejected} counts all of them.
+     */
+    public record BeerImportResponse(
+            long inserted,
+            long updated,
+            long rejected,
+            List<BeerImportError> errors
+    ) {}
+
+    // line is where the row starts in the upload (1-based, the CSV header is line 1)
+    public record BeerImportError(
+            long line,
+            String upc,
+            String error
+    ) {}
+}
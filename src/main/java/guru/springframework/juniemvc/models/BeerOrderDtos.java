@@ -22,8 +22,15 @@ public final class BeerOrderDtos {
             @PositiveOrZero
             BigDecimal paymentAmount,
             @NotEmpty
-            List<@Valid BeerOrderLineCreateItem> lines
-    ) {}
+            List<@Valid BeerOrderLineCreateItem> lines,
+            // optional; the order counts towards this customer's history and totals
+            @Positive
+            Integer customerId
+    ) {
+        public BeerOrderCreateRequest(String customerRef, BigDecimal paymentAmount, List<BeerOrderLineCreateItem> lines) {
+            this(customerRef, paymentAmount, lines, null);
+        }
+    }
 
     public record BeerOrderLineCreateItem(
             @NotNull @Positive Integer beerId,
@@ -42,10 +49,56 @@ public final class BeerOrderDtos {
             List<BeerOrderLineResponse> lines
     ) {}
 
+    // Search: one row per order, without lines
+    public record BeerOrderSummary(
+            Integer id,
+            Integer version,
+            Integer customerId,
+            String customerRef,
+            BigDecimal paymentAmount,
+            OrderStatus status,
+            LocalDateTime createdDate,
+            LocalDateTime updatedDate
+    ) {}
+
+    // Search filters; null fields do not filter. createdFrom is inclusive, createdTo exclusive
+    public record BeerOrderSearchCriteria(
+            OrderStatus status,
+            Integer customerId,
+            String customerRef,
+            LocalDateTime createdFrom,
+            LocalDateTime createdTo
+    ) {}
+
     public record BeerOrderLineResponse(
             Integer beerId,
             Integer orderQuantity,
             Integer quantityAllocated,
             LineStatus status
     ) {}
+
+    // Batch Request: items are validated one by one so a bad order does not reject the batch
+    public record BeerOrderBatchRequest(
+            @NotEmpty
+            List<BeerOrderCreateRequest> orders
+    ) {}
+
+    // Batch Response: one result per request item, in request order
+    public record BeerOrderBatchResponse(
+            int created,
+            int rejected,
+            List<BeerOrderBatchItemResult> results
+    ) {}
+
+    public record BeerOrderBatchItemResult(
+            int index,
+            BatchItemStatus status,
+            BeerOrderResponse order,
+            String error
+    ) {}
+
+    public enum BatchItemStatus {
+        CREATED,
+        REJECTED
+    }
 }
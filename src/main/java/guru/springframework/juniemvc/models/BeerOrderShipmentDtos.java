@@ -16,6 +16,7 @@ public final class BeerOrderShipmentDtos {
 
     public record BeerOrderShipmentResponse(
             Integer id,
+            Integer version,
             LocalDate shipmentDate,
             String carrier,
             String trackingNumber
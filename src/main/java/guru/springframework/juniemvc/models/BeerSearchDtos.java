@@ -0,0 +1,18 @@
+package guru.springframework.juniemvc.models;
+
+import java.util.List;
+
+public final class BeerSearchDtos {
+
+    private BeerSearchDtos() {}
+
+    public record BeerSearchHit(
+            double score,
+            BeerDto beer
+    ) {}
+
+    public record BeerSearchResponse(
+            String query,
+            List<BeerSearchHit> hits
+    ) {}
+}
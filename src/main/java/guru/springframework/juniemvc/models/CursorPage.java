@@ -0,0 +1,14 @@
+package guru.springframework.juniemvc.models;
+
+import java.util.List;
+
+/**
+ * Keyset (cursor) page of results. Unlike a Spring Data {@code Page} it carries no totals, so no
+ * COUNT query is needed; {@code nextCursor} is an opaque token for the following page, or null on the last page.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {}
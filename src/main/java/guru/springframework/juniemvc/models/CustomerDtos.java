@@ -1,9 +1,11 @@
 package guru.springframework.juniemvc.models;
 
+import guru.springframework.juniemvc.entities.OrderStatus;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public final class CustomerDtos {
@@ -46,4 +48,26 @@ public final class CustomerDtos {
             LocalDateTime createdDate,
             LocalDateTime updatedDate
     ) {}
+
+    // Order history: one row per order, aggregated over its lines
+    public record CustomerOrderSummary(
+            Integer id,
+            String customerRef,
+            OrderStatus status,
+            BigDecimal paymentAmount,
+            LocalDateTime createdDate,
+            Long lineCount,
+            Long totalQuantity
+    ) {}
+
+    public record CustomerOrderTotals(
+            Long orderCount,
+            BigDecimal totalSpend
+    ) {}
+
+    public record CustomerOrderHistory(
+            Integer customerId,
+            CustomerOrderTotals summary,
+            CursorPage<CustomerOrderSummary> orders
+    ) {}
 }
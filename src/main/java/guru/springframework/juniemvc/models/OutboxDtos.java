@@ -0,0 +1,33 @@
+package guru.springframework.juniemvc.models;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.entities.OutboxEventType;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+
+import java.time.LocalDateTime;
+
+// Outbox events as published to sinks and served by GET /api/v1/events
+public final class OutboxDtos {
+
+    private OutboxDtos() {}
+
+    /**
+     * A published event. {@code position} is the consumer cursor: pass the last one seen as {@code after}.
+     * {@code payload} is the JSON written with the event: a {@link BeerOrderResponse} for {@code ORDER_CREATED},
+     * an {@link OrderChangedPayload} for status and line changes, a shipment response for {@code SHIPMENT_CREATED}.
+     */
+    public record OutboxEventResponse(
+            Long id,
+            Long position,
+            OutboxEventType type,
+            Integer beerOrderId,
+            LocalDateTime occurredAt,
+            @JsonRawValue String payload
+    ) {}
+
+    public record OrderChangedPayload(
+            OrderStatus previousStatus,
+            BeerOrderResponse order
+    ) {}
+}
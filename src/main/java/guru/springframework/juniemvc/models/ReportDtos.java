@@ -0,0 +1,32 @@
+package guru.springframework.juniemvc.models;
+
+import guru.springframework.juniemvc.entities.OrderStatus;
+
+import java.time.LocalDate;
+
+// Rows of the reporting endpoints, one per day and key, read from the daily rollups
+public final class ReportDtos {
+
+    private ReportDtos() {}
+
+    public record BeerSalesRow(
+            LocalDate date,
+            Integer beerId,
+            Long unitsOrdered,
+            Long orderLines
+    ) {}
+
+    public record StyleSalesRow(
+            LocalDate date,
+            String beerStyle,
+            Long unitsOrdered,
+            Long orderLines
+    ) {}
+
+    public record OrderStatusRow(
+            LocalDate date,
+            OrderStatus status,
+            Long orders,
+            Long backordered
+    ) {}
+}
@@ -0,0 +1,20 @@
+package guru.springframework.juniemvc.models;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Offset page without totals, returned by list endpoints in slice mode ({@code slice=true}).
+ * Backed by a Spring Data {@link Slice}, so only the page query runs and no COUNT query is issued.
+ */
+public record SliceResponse<T>(
+        List<T> content,
+        int page,
+        int size,
+        boolean hasNext
+) {
+    public static <T> SliceResponse<T> of(Slice<T> slice) {
+        return new SliceResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+}
@@ -0,0 +1,23 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.Beer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Beer lookups that go through the Hibernate second-level cache. Derived and JPQL queries such as
+ * {@code findAllById} or {@code findByUpc} always hit the database.
+ */
+public interface BeerLookupRepository {
+
+    /**
+     * Loads beers by id, serving cached ones from the second-level cache and fetching only the rest in one query.
+     * Ids without a beer are skipped; the result order is unspecified.
+     */
+    List<Beer> loadAllById(Collection<Integer> ids);
+
+    /** Resolves a beer by its natural key through the natural-id cache. */
+    Optional<Beer> loadByUpc(String upc);
+}
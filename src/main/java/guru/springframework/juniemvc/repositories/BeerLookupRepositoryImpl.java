@@ -0,0 +1,40 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.Beer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+// transactional like SimpleJpaRepository: the unwrapped Session must stay open for the whole lookup
+@Transactional(readOnly = true)
+class BeerLookupRepositoryImpl implements BeerLookupRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Beer> loadAllById(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Beer> beers = entityManager.unwrap(Session.class)
+                .byMultipleIds(Beer.class)
+                .enableOrderedReturn(false)
+                .multiLoad(new ArrayList<>(ids));
+        return beers.stream().filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public Optional<Beer> loadByUpc(String upc) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Beer.class)
+                .loadOptional(upc);
+    }
+}
@@ -0,0 +1,25 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of {@link BeerOrderRepository#findLineRowsById}: the order columns, repeated for each of its lines, and the
+ * columns of that line, which are null for an order without lines.
+ */
+public record BeerOrderLineRow(
+        Integer id,
+        Integer version,
+        String customerRef,
+        BigDecimal paymentAmount,
+        OrderStatus status,
+        LocalDateTime createdDate,
+        LocalDateTime updatedDate,
+        Integer beerId,
+        Integer orderQuantity,
+        Integer quantityAllocated,
+        LineStatus lineStatus
+) {}
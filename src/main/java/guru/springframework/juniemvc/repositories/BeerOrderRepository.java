@@ -1,13 +1,108 @@
 package guru.springframework.juniemvc.repositories;
 
 import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerOrderSummary;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerOrderTotals;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface BeerOrderRepository extends JpaRepository<BeerOrder, Integer> {
+public interface BeerOrderRepository extends JpaRepository<BeerOrder, Integer>, JpaSpecificationExecutor<BeerOrder> {
+
+    // read side of GET /api/v1/beer-orders/{id}: one row per line built by a constructor expression, no entities
+    @Query("""
+            select new guru.springframework.juniemvc.repositories.BeerOrderLineRow(o.id, o.version, o.customerRef,
+                o.paymentAmount, o.status, o.createdDate, o.updatedDate, l.beer.id, l.orderQuantity, l.quantityAllocated,
+                l.status)
+            from BeerOrder o left join o.lines l
+            where o.id = :id
+            order by l.id""")
+    List<BeerOrderLineRow> findLineRowsById(@Param("id") Integer id);
+
+    @Query("select coalesce(o.version, 0) from BeerOrder o where o.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Integer id);
 
     @EntityGraph(attributePaths = "lines")
-    Optional<BeerOrder> findByIdWithLines(Integer id);
+    @Query("select o from BeerOrder o where o.id in :ids order by o.id")
+    List<BeerOrder> findAllWithLinesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // orders in the given status that still have lines nobody tried to allocate, unless parked after failed attempts
+    @Query("""
+            select o.id from BeerOrder o
+            where o.status = :status and o.allocationFailures < :maxFailures
+              and exists (select l.id from BeerOrderLine l where l.beerOrder = o and l.status = :lineStatus)
+            order by o.id""")
+    List<Integer> findIdsWithLineStatus(@Param("status") OrderStatus status, @Param("lineStatus") LineStatus lineStatus,
+                                        @Param("maxFailures") int maxFailures, Limit limit);
+
+    // orders in one of the given statuses with lines in the given status whose beer is in stock again
+    @Query("""
+            select o.id from BeerOrder o
+            where o.status in :statuses and o.allocationFailures < :maxFailures
+              and exists (select l.id from BeerOrderLine l
+                          where l.beerOrder = o and l.status = :lineStatus and l.beer.quantityOnHand > 0)
+            order by o.id""")
+    List<Integer> findIdsWithLineStatusInStock(@Param("statuses") Collection<OrderStatus> statuses,
+                                               @Param("lineStatus") LineStatus lineStatus,
+                                               @Param("maxFailures") int maxFailures, Limit limit);
+
+    // the same, restricted to lines of the given beers
+    @Query("""
+            select o.id from BeerOrder o
+            where o.status in :statuses and o.allocationFailures < :maxFailures
+              and exists (select l.id from BeerOrderLine l
+                          where l.beerOrder = o and l.status = :lineStatus and l.beer.id in :beerIds
+                            and l.beer.quantityOnHand > 0)
+            order by o.id""")
+    List<Integer> findIdsWithLineStatusInStock(@Param("statuses") Collection<OrderStatus> statuses,
+                                               @Param("lineStatus") LineStatus lineStatus,
+                                               @Param("beerIds") Collection<Integer> beerIds,
+                                               @Param("maxFailures") int maxFailures, Limit limit);
+
+    @Modifying
+    @Query("update BeerOrder o set o.allocationFailures = o.allocationFailures + 1 where o.id = :id")
+    int incrementAllocationFailures(@Param("id") Integer id);
+
+    @Query("select o.allocationFailures from BeerOrder o where o.id = :id")
+    Optional<Integer> findAllocationFailuresById(@Param("id") Integer id);
+
+    // order history of a customer: line count and quantity aggregated per order in the query, newest first
+    String CUSTOMER_ORDER_SUMMARY = """
+            select new guru.springframework.juniemvc.models.CustomerDtos$CustomerOrderSummary(o.id, o.customerRef, o.status,
+                o.paymentAmount, o.createdDate, count(l), coalesce(sum(l.orderQuantity), 0L))
+            from BeerOrder o left join o.lines l
+            where o.customer.id = :customerId""";
+
+    String CUSTOMER_ORDER_SUMMARY_ORDER = """
+            group by o.id, o.customerRef, o.status, o.paymentAmount, o.createdDate
+            order by o.createdDate desc, o.id desc""";
+
+    @Query(CUSTOMER_ORDER_SUMMARY + "\n" + CUSTOMER_ORDER_SUMMARY_ORDER)
+    List<CustomerOrderSummary> findCustomerOrderSummaries(@Param("customerId") Integer customerId, Limit limit);
+
+    // the page after the order (createdDate, id), on the same (customer_id, created_date, id) index range
+    @Query(CUSTOMER_ORDER_SUMMARY + " and (o.createdDate < :createdDate or (o.createdDate = :createdDate and o.id < :id))\n"
+            + CUSTOMER_ORDER_SUMMARY_ORDER)
+    List<CustomerOrderSummary> findCustomerOrderSummariesBefore(@Param("customerId") Integer customerId,
+                                                                @Param("createdDate") LocalDateTime createdDate,
+                                                                @Param("id") Integer id, Limit limit);
+
+    // totals of customers without a customer_order_stats row
+    @Query("""
+            select new guru.springframework.juniemvc.models.CustomerDtos$CustomerOrderTotals(count(o),
+                coalesce(sum(o.paymentAmount), 0bd))
+            from BeerOrder o
+            where o.customer.id = :customerId""")
+    CustomerOrderTotals sumCustomerOrders(@Param("customerId") Integer customerId);
 }
@@ -1,9 +1,15 @@
 package guru.springframework.juniemvc.repositories;
 
 import guru.springframework.juniemvc.entities.BeerOrderShipment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -11,5 +17,10 @@ public interface BeerOrderShipmentRepository extends JpaRepository<BeerOrderShip
 
     Page<BeerOrderShipment> findAllByBeerOrderId(Integer beerOrderId, Pageable pageable);
 
+    Window<BeerOrderShipment> findAllByBeerOrderId(Integer beerOrderId, ScrollPosition position, Sort sort, Limit limit);
+
     Optional<BeerOrderShipment> findByIdAndBeerOrderId(Integer id, Integer beerOrderId);
+
+    @Query("select coalesce(s.version, 0) from BeerOrderShipment s where s.id = :id and s.beerOrder.id = :beerOrderId")
+    Optional<Integer> findVersionByIdAndBeerOrderId(@Param("id") Integer id, @Param("beerOrderId") Integer beerOrderId);
 }
@@ -0,0 +1,37 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the order search. Each one is a plain comparison on a column that leads one of the V10 indexes, so
+ * any combination, ordered by {@code (createdDate, id)}, is answered from an index range.
+ */
+public final class BeerOrderSpecifications {
+
+    private BeerOrderSpecifications() {}
+
+    public static Specification<BeerOrder> hasStatus(OrderStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    // compares the customer_id foreign key; no join to customer
+    public static Specification<BeerOrder> hasCustomerId(Integer customerId) {
+        return (root, query, cb) -> cb.equal(root.get("customer").get("id"), customerId);
+    }
+
+    public static Specification<BeerOrder> hasCustomerRef(String customerRef) {
+        return (root, query, cb) -> cb.equal(root.get("customerRef"), customerRef);
+    }
+
+    public static Specification<BeerOrder> createdFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdDate"), from);
+    }
+
+    public static Specification<BeerOrder> createdBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("createdDate"), to);
+    }
+}
@@ -1,17 +1,88 @@
 package guru.springframework.juniemvc.repositories;
 
 import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface BeerRepository extends JpaRepository<Beer, Integer> {
+public interface BeerRepository extends JpaRepository<Beer, Integer>, BeerLookupRepository, BeerStreamRepository,
+        BeerStockRepository {
+
+    // list endpoints: the constructor expression builds the DTOs in the query, so no entity is hydrated, registered
+    // in the persistence context or snapshotted for dirty checking. Style filters compare the indexed
+    // beer_style_normalized column; pass Beer.normalizeStyle(style). Slice variants fetch size + 1 rows to detect a
+    // next page instead of running a COUNT query
+
+    String DTO = "select new guru.springframework.juniemvc.models.BeerDto(b.id, b.version, b.beerName, b.beerStyle, b.upc,"
+            + " b.quantityOnHand, b.price, b.description, b.createdDate, b.updatedDate) from Beer b";
+    String COUNT = "select count(b) from Beer b";
+    // same predicate as the derived ContainingIgnoreCase finders, wildcards in the name escaped
+    String NAME_MATCHES = " upper(b.beerName) like concat('%', upper(:#{escape(#beerName)}), '%') escape '\\'";
+    String STYLE_MATCHES = " b.beerStyleNormalized = :beerStyleNormalized";
+
+    @Query(value = DTO, countQuery = COUNT)
+    Page<BeerDto> findDtosBy(Pageable pageable);
+
+    @Query(value = DTO + " where" + NAME_MATCHES, countQuery = COUNT + " where" + NAME_MATCHES)
+    Page<BeerDto> findDtosByBeerName(@Param("beerName") String beerName, Pageable pageable);
+
+    @Query(value = DTO + " where" + STYLE_MATCHES, countQuery = COUNT + " where" + STYLE_MATCHES)
+    Page<BeerDto> findDtosByBeerStyleNormalized(@Param("beerStyleNormalized") String beerStyleNormalized, Pageable pageable);
+
+    @Query(value = DTO + " where" + NAME_MATCHES + " and" + STYLE_MATCHES,
+            countQuery = COUNT + " where" + NAME_MATCHES + " and" + STYLE_MATCHES)
+    Page<BeerDto> findDtosByBeerNameAndBeerStyleNormalized(@Param("beerName") String beerName,
+                                                           @Param("beerStyleNormalized") String beerStyleNormalized, Pageable pageable);
+
+    @Query(DTO)
+    Slice<BeerDto> findDtoSliceBy(Pageable pageable);
+
+    @Query(DTO + " where" + NAME_MATCHES)
+    Slice<BeerDto> findDtoSliceByBeerName(@Param("beerName") String beerName, Pageable pageable);
+
+    @Query(DTO + " where" + STYLE_MATCHES)
+    Slice<BeerDto> findDtoSliceByBeerStyleNormalized(@Param("beerStyleNormalized") String beerStyleNormalized, Pageable pageable);
+
+    @Query(DTO + " where" + NAME_MATCHES + " and" + STYLE_MATCHES)
+    Slice<BeerDto> findDtoSliceByBeerNameAndBeerStyleNormalized(@Param("beerName") String beerName,
+                                                                @Param("beerStyleNormalized") String beerStyleNormalized, Pageable pageable);
+
+    // keyset (cursor) variants: no COUNT query, cost independent of how deep the client pages. Keyset scrolling
+    // needs entities to read the cursor from, so these load read-only ones that keep no snapshot
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Beer> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Beer> findByBeerNameContainingIgnoreCase(String beerName, ScrollPosition position, Sort sort, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Beer> findByBeerStyleNormalized(String beerStyleNormalized, ScrollPosition position, Sort sort, Limit limit);
 
-    Page<Beer> findByBeerNameContainingIgnoreCase(String beerName, Pageable pageable);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Beer> findByBeerNameContainingIgnoreCaseAndBeerStyleNormalized(String beerName, String beerStyleNormalized, ScrollPosition position, Sort sort, Limit limit);
 
-    Page<Beer> findByBeerStyleIgnoreCase(String beerStyle, Pageable pageable);
+    // bulk import: existing beers of one chunk by their unique upc (ux_beer_upc)
+    List<Beer> findAllByUpcIn(Collection<String> upcs);
 
-    Page<Beer> findByBeerNameContainingIgnoreCaseAndBeerStyleIgnoreCase(String beerName, String beerStyle, Pageable pageable);
+    // stock allocation: the level observed before a compare-and-set; the updates are in BeerStockRepository
+    @Query("select coalesce(b.quantityOnHand, 0) from Beer b where b.id = :id")
+    Optional<Integer> findQuantityOnHandById(@Param("id") Integer id);
 }
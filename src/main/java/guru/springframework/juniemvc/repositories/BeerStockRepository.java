@@ -0,0 +1,20 @@
+package guru.springframework.juniemvc.repositories;
+
+/**
+ * Stock allocation with conditional single-row UPDATEs, so concurrent allocations never drive stock negative.
+ * The updates are native and declare no query space, so Hibernate does not invalidate the whole {@code beer}
+ * second-level cache region; only the updated beer is evicted, when the update runs and again after the
+ * transaction completes. Must be called inside a transaction.
+ */
+public interface BeerStockRepository {
+
+    /**
+     * Takes {@code quantity} units if at least that many are on hand; returns 0 when the stock is short.
+     */
+    int decrementQuantityOnHand(Integer id, int quantity);
+
+    /**
+     * Compare-and-set of the stock level: succeeds only if the quantity on hand is still {@code expected}.
+     */
+    int compareAndSetQuantityOnHand(Integer id, int expected, int quantity);
+}
@@ -0,0 +1,60 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.Beer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// joins the allocation transaction, so the stock change commits with the order lines
+@Transactional(propagation = Propagation.MANDATORY)
+class BeerStockRepositoryImpl implements BeerStockRepository {
+
+    private static final String DECREMENT = """
+            update beer set quantity_on_hand = quantity_on_hand - :quantity, version = coalesce(version, 0) + 1
+            where id = :id and quantity_on_hand >= :quantity""";
+
+    private static final String COMPARE_AND_SET = """
+            update beer set quantity_on_hand = :quantity, version = coalesce(version, 0) + 1
+            where id = :id and coalesce(quantity_on_hand, 0) = :expected""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int decrementQuantityOnHand(Integer id, int quantity) {
+        return update(id, nativeQuery(DECREMENT).setParameter("quantity", quantity));
+    }
+
+    @Override
+    public int compareAndSetQuantityOnHand(Integer id, int expected, int quantity) {
+        return update(id, nativeQuery(COMPARE_AND_SET).setParameter("expected", expected).setParameter("quantity", quantity));
+    }
+
+    private NativeQuery<?> nativeQuery(String sql) {
+        // a native update without a query space would invalidate every second-level cache region
+        return entityManager.unwrap(Session.class).createNativeQuery(sql).addSynchronizedQuerySpace("");
+    }
+
+    private int update(Integer id, NativeQuery<?> query) {
+        entityManager.flush();
+        int updated = query.setParameter("id", id).executeUpdate();
+        if (updated > 0) {
+            Cache cache = entityManager.unwrap(Session.class).getSessionFactory().getCache();
+            cache.evictEntityData(Beer.class, id);
+            // a reader that loaded the row before the commit may have put it back in the meantime
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictEntityData(Beer.class, id);
+                }
+            });
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,18 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.Beer;
+
+import java.util.stream.Stream;
+
+/**
+ * Forward-only reads of the whole catalog for exports.
+ */
+public interface BeerStreamRepository {
+
+    /**
+     * All beers in id order, fetched from the JDBC cursor {@code fetchSize} rows at a time. Loaded beers are
+     * read-only and bypass the second-level cache. The stream must be consumed and closed inside the caller's
+     * transaction, which should clear the persistence context every few rows to keep memory flat.
+     */
+    Stream<Beer> streamAllOrderById(int fetchSize);
+}
@@ -0,0 +1,28 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.Beer;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+
+import java.util.stream.Stream;
+
+// not transactional itself: the stream lives as long as the caller's transaction
+class BeerStreamRepositoryImpl implements BeerStreamRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Beer> streamAllOrderById(int fetchSize) {
+        return entityManager.createQuery("select b from Beer b order by b.id", Beer.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS)
+                .setHint(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS)
+                .getResultStream();
+    }
+}
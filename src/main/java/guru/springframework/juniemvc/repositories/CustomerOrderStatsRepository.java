@@ -0,0 +1,18 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.CustomerOrderStats;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerOrderTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface CustomerOrderStatsRepository extends JpaRepository<CustomerOrderStats, Integer>, CustomerOrderTotalsWriter {
+
+    @Query("""
+            select new guru.springframework.juniemvc.models.CustomerDtos$CustomerOrderTotals(s.orderCount, s.totalSpend)
+            from CustomerOrderStats s
+            where s.customerId = :customerId""")
+    Optional<CustomerOrderTotals> findTotalsByCustomerId(@Param("customerId") Integer customerId);
+}
@@ -0,0 +1,13 @@
+package guru.springframework.juniemvc.repositories;
+
+import java.math.BigDecimal;
+
+/**
+ * Adds orders to the lifetime totals of a customer (see V11) with one {@code MERGE}: the existing row is
+ * incremented in the database, and a customer without a row gets one holding the totals of all its orders,
+ * including those flushed but not yet committed by the caller.
+ */
+public interface CustomerOrderTotalsWriter {
+
+    void addOrders(Integer customerId, long orders, BigDecimal spend);
+}
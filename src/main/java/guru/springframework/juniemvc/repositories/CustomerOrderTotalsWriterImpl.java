@@ -0,0 +1,55 @@
+package guru.springframework.juniemvc.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// joins the order transaction, so the totals change exactly when the orders are committed
+@Transactional(propagation = Propagation.MANDATORY)
+class CustomerOrderTotalsWriterImpl implements CustomerOrderTotalsWriter {
+
+    private static final String DUPLICATE_KEY = "23505";
+
+    // the orders of the customer are only aggregated when it has no row yet
+    private static final String MERGE_ORDERS = """
+            merge into customer_order_stats t
+            using (select v.customer_id, v.orders, v.spend,
+                          case when x.customer_id is null then (select count(*) from beer_order o where o.customer_id = v.customer_id) end all_orders,
+                          case when x.customer_id is null then (select coalesce(sum(o.payment_amount), 0) from beer_order o where o.customer_id = v.customer_id) end all_spend
+                   from (values (cast(? as int), cast(? as bigint), cast(? as decimal(19,2)))) v (customer_id, orders, spend)
+                   left join customer_order_stats x on x.customer_id = v.customer_id) s
+            on t.customer_id = s.customer_id
+            when matched then update set order_count = t.order_count + s.orders, total_spend = t.total_spend + s.spend
+            when not matched then insert (customer_id, order_count, total_spend) values (s.customer_id, s.all_orders, s.all_spend)""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void addOrders(Integer customerId, long orders, BigDecimal spend) {
+        // the new orders have to be in the table for the aggregate of a customer without a row
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement merge = connection.prepareStatement(MERGE_ORDERS)) {
+                merge.setInt(1, customerId);
+                merge.setLong(2, orders);
+                merge.setBigDecimal(3, spend);
+                try {
+                    merge.executeUpdate();
+                } catch (SQLException ex) {
+                    if (!DUPLICATE_KEY.equals(ex.getSQLState())) {
+                        throw ex;
+                    }
+                    // a concurrent first order inserted the row after our lookup; its totals lack our orders, so add them
+                    merge.executeUpdate();
+                }
+            }
+        });
+    }
+}
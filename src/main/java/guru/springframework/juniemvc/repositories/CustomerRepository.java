@@ -1,10 +1,49 @@
 package guru.springframework.juniemvc.repositories;
 
 import guru.springframework.juniemvc.entities.Customer;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 public interface CustomerRepository extends JpaRepository<Customer, Integer> {
     Optional<Customer> findByEmail(String email);
+
+    @Query("select coalesce(c.version, 0) from Customer c where c.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Integer id);
+
+    @Query("select c.id from Customer c where c.id in :ids")
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    // read side: responses built by a constructor expression, so no entity is hydrated or snapshotted
+    String RESPONSE = "select new guru.springframework.juniemvc.models.CustomerDtos$CustomerResponse(c.id, c.version, c.name,"
+            + " c.email, c.phoneNumber, c.addressLine1, c.addressLine2, c.city, c.state, c.postalCode, c.createdDate,"
+            + " c.updatedDate) from Customer c";
+
+    @Query(RESPONSE + " where c.id = :id")
+    Optional<CustomerResponse> findResponseById(@Param("id") Integer id);
+
+    @Query(value = RESPONSE, countQuery = "select count(c) from Customer c")
+    Page<CustomerResponse> findResponsesBy(Pageable pageable);
+
+    @Query(RESPONSE)
+    Slice<CustomerResponse> findResponseSliceBy(Pageable pageable);
+
+    // keyset scrolling reads the cursor from entities; they are loaded read-only, without snapshots
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Customer> findBy(ScrollPosition position, Sort sort, Limit limit);
 }
@@ -0,0 +1,23 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // unpublished events, oldest first
+    List<OutboxEvent> findByPositionIsNullOrderById(Limit limit);
+
+    // published events after a consumer's cursor
+    List<OutboxEvent> findByPositionGreaterThanOrderByPosition(Long position, Limit limit);
+
+    // published events of one order after a cursor
+    List<OutboxEvent> findByBeerOrderIdAndPositionGreaterThanOrderByPosition(Integer beerOrderId, Long position, Limit limit);
+
+    @Query("select coalesce(max(e.position), 0) from OutboxEvent e")
+    long findMaxPosition();
+}
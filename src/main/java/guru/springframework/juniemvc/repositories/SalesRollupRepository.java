@@ -0,0 +1,56 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.DailyBeerSales;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.models.ReportDtos.BeerSalesRow;
+import guru.springframework.juniemvc.models.ReportDtos.OrderStatusRow;
+import guru.springframework.juniemvc.models.ReportDtos.StyleSalesRow;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The daily reporting rollups (see V12). Reads are range scans of a few rows per day on the primary keys, or on
+ * the (key, date) indexes when filtered by one beer, style or status; {@code beer_order_line} is never touched.
+ */
+public interface SalesRollupRepository extends Repository<DailyBeerSales, DailyBeerSales.Key>, SalesRollupWriter {
+
+    String BEER_SALES = """
+            select new guru.springframework.juniemvc.models.ReportDtos$BeerSalesRow(r.salesDate, r.beerId, r.unitsOrdered,
+                r.orderLines)
+            from DailyBeerSales r
+            where r.salesDate between :from and :to""";
+
+    String STYLE_SALES = """
+            select new guru.springframework.juniemvc.models.ReportDtos$StyleSalesRow(r.salesDate, r.beerStyle, r.unitsOrdered,
+                r.orderLines)
+            from DailyStyleSales r
+            where r.salesDate between :from and :to""";
+
+    String ORDER_STATUSES = """
+            select new guru.springframework.juniemvc.models.ReportDtos$OrderStatusRow(r.statusDate, r.status, r.orderCount,
+                r.backorderedCount)
+            from DailyOrderStatus r
+            where r.statusDate between :from and :to""";
+
+    @Query(BEER_SALES + " order by r.salesDate, r.beerId")
+    List<BeerSalesRow> findBeerSales(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(BEER_SALES + " and r.beerId = :beerId order by r.salesDate")
+    List<BeerSalesRow> findBeerSales(@Param("beerId") Integer beerId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(STYLE_SALES + " order by r.salesDate, r.beerStyle")
+    List<StyleSalesRow> findStyleSales(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(STYLE_SALES + " and r.beerStyle = :style order by r.salesDate")
+    List<StyleSalesRow> findStyleSales(@Param("style") String style, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(ORDER_STATUSES + " order by r.statusDate, r.status")
+    List<OrderStatusRow> findOrderStatuses(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(ORDER_STATUSES + " and r.status = :status order by r.statusDate")
+    List<OrderStatusRow> findOrderStatuses(@Param("status") OrderStatus status, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,27 @@
+package guru.springframework.juniemvc.repositories;
+
+import guru.springframework.juniemvc.entities.OrderStatus;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Adds deltas to the daily rollups (see V12). Each call is one JDBC batch of {@code MERGE} statements that
+ * increment the existing row or insert it, so callers must be the rollups' only writer: the outbox relay.
+ */
+public interface SalesRollupWriter {
+
+    /** Units and lines ordered of one beer on one day. */
+    record BeerSalesDelta(LocalDate date, Integer beerId, long units, long lines) {}
+
+    /** Orders that reached a status on one day, and orders left with backordered lines in that status. */
+    record OrderStatusDelta(LocalDate date, OrderStatus status, long orders, long backordered) {}
+
+    /**
+     * Adds to {@code daily_beer_sales} and, under the beer's current normalized style, to
+     * {@code daily_style_sales}; the style is resolved in the statement itself.
+     */
+    void addBeerSales(Collection<BeerSalesDelta> deltas);
+
+    void addOrderStatuses(Collection<OrderStatusDelta> deltas);
+}
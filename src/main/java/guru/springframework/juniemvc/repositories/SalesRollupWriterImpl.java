@@ -0,0 +1,86 @@
+package guru.springframework.juniemvc.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+
+// joins the relay transaction, so the rollups change exactly when the events are marked published
+@Transactional(propagation = Propagation.MANDATORY)
+class SalesRollupWriterImpl implements SalesRollupWriter {
+
+    private static final String MERGE_BEER_SALES = """
+            merge into daily_beer_sales t
+            using (values (cast(? as date), cast(? as int), cast(? as bigint), cast(? as bigint))) s (sales_date, beer_id, units, lines)
+            on t.sales_date = s.sales_date and t.beer_id = s.beer_id
+            when matched then update set units_ordered = t.units_ordered + s.units, order_lines = t.order_lines + s.lines
+            when not matched then insert (sales_date, beer_id, units_ordered, order_lines) values (s.sales_date, s.beer_id, s.units, s.lines)""";
+
+    private static final String MERGE_STYLE_SALES = """
+            merge into daily_style_sales t
+            using (select cast(? as date) sales_date, b.beer_style_normalized beer_style, cast(? as bigint) units, cast(? as bigint) lines
+                   from beer b where b.id = ?) s
+            on t.sales_date = s.sales_date and t.beer_style = s.beer_style
+            when matched then update set units_ordered = t.units_ordered + s.units, order_lines = t.order_lines + s.lines
+            when not matched then insert (sales_date, beer_style, units_ordered, order_lines) values (s.sales_date, s.beer_style, s.units, s.lines)""";
+
+    private static final String MERGE_ORDER_STATUS = """
+            merge into daily_order_status t
+            using (values (cast(? as date), cast(? as varchar(40)), cast(? as bigint), cast(? as bigint))) s (status_date, status, orders, backordered)
+            on t.status_date = s.status_date and t.status = s.status
+            when matched then update set order_count = t.order_count + s.orders, backordered_count = t.backordered_count + s.backordered
+            when not matched then insert (status_date, status, order_count, backordered_count) values (s.status_date, s.status, s.orders, s.backordered)""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void addBeerSales(Collection<BeerSalesDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement beers = connection.prepareStatement(MERGE_BEER_SALES);
+                 PreparedStatement styles = connection.prepareStatement(MERGE_STYLE_SALES)) {
+                for (BeerSalesDelta delta : deltas) {
+                    beers.setDate(1, Date.valueOf(delta.date()));
+                    beers.setInt(2, delta.beerId());
+                    beers.setLong(3, delta.units());
+                    beers.setLong(4, delta.lines());
+                    beers.addBatch();
+                    styles.setDate(1, Date.valueOf(delta.date()));
+                    styles.setLong(2, delta.units());
+                    styles.setLong(3, delta.lines());
+                    styles.setInt(4, delta.beerId());
+                    styles.addBatch();
+                }
+                beers.executeBatch();
+                styles.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public void addOrderStatuses(Collection<OrderStatusDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statuses = connection.prepareStatement(MERGE_ORDER_STATUS)) {
+                for (OrderStatusDelta delta : deltas) {
+                    statuses.setDate(1, Date.valueOf(delta.date()));
+                    statuses.setString(2, delta.status().name());
+                    statuses.setLong(3, delta.orders());
+                    statuses.setLong(4, delta.backordered());
+                    statuses.addBatch();
+                }
+                statuses.executeBatch();
+            }
+        });
+    }
+}
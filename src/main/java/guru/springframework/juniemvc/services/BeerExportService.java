@@ -0,0 +1,15 @@
+package guru.springframework.juniemvc.services;
+
+import guru.springframework.juniemvc.models.BeerFileFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface BeerExportService {
+
+    /**
+     * Writes every beer, in id order, to {@code out} and returns the number of rows. Memory use does not depend on
+     * the size of the catalog. {@code out} is flushed but not closed.
+     */
+    long export(BeerFileFormat format, OutputStream out) throws IOException;
+}
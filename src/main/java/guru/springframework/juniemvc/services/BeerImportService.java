@@ -0,0 +1,18 @@
+package guru.springframework.juniemvc.services;
+
+import guru.springframework.juniemvc.models.BeerFileFormat;
+import guru.springframework.juniemvc.models.BeerImportDtos.BeerImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BeerImportService {
+
+    /**
+     * Upserts every row of {@code in} by upc: unknown upcs are inserted, known ones get the non-empty fields of the
+     * row. The input is parsed as it arrives and written in chunks, so memory does not depend on its size. Invalid
+     * rows are rejected and counted without failing the import; a CSV header row without a {@code upc} column
+     * fails it with {@link guru.springframework.juniemvc.exceptions.UnsupportedFileFormatException}.
+     */
+    BeerImportResponse importBeers(BeerFileFormat format, InputStream in) throws IOException;
+}
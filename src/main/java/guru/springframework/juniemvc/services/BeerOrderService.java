@@ -1,14 +1,44 @@
 package guru.springframework.juniemvc.services;
 
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchResponse;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderSearchCriteria;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderSummary;
+import guru.springframework.juniemvc.models.CursorPage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 public interface BeerOrderService {
 
     @Transactional
     BeerOrderResponse create(BeerOrderCreateRequest request);
 
+    /**
+     * Creates many orders at once. Not transactional as a whole: orders are persisted in chunks,
+     * each in its own transaction, and invalid orders are reported per item instead of failing the batch.
+     */
+    BeerOrderBatchResponse createAll(List<BeerOrderCreateRequest> requests);
+
     @Transactional(readOnly = true)
     BeerOrderResponse getById(Integer id);
+
+    @Transactional(readOnly = true)
+    Integer getVersion(Integer id);
+
+    /**
+     * Keyset page of orders matching {@code criteria}, newest first unless {@code pageable} sorts by
+     * {@code createdDate} and/or {@code id}; continues after {@code cursor} (first page when blank).
+     */
+    @Transactional(readOnly = true)
+    CursorPage<BeerOrderSummary> search(BeerOrderSearchCriteria criteria, String cursor, Pageable pageable);
+
+    /**
+     * Same page as {@link #search} with the lines of each order. The orders are paged first and the lines of the
+     * page are then loaded with one {@code IN} query, so a page costs two statements whatever its size.
+     */
+    @Transactional(readOnly = true)
+    CursorPage<BeerOrderResponse> searchWithLines(BeerOrderSearchCriteria criteria, String cursor, Pageable pageable);
 }
@@ -2,18 +2,25 @@ package guru.springframework.juniemvc.services;
 
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentRequest;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentResponse;
+import guru.springframework.juniemvc.models.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Set;
+
 public interface BeerOrderShipmentService {
 
     BeerOrderShipmentResponse create(Integer beerOrderId, BeerOrderShipmentRequest request);
 
     BeerOrderShipmentResponse getById(Integer beerOrderId, Integer id);
 
+    Integer getVersion(Integer beerOrderId, Integer id);
+
     Page<BeerOrderShipmentResponse> list(Integer beerOrderId, Pageable pageable);
 
-    BeerOrderShipmentResponse update(Integer beerOrderId, Integer id, BeerOrderShipmentRequest request);
+    CursorPage<BeerOrderShipmentResponse> scroll(Integer beerOrderId, String cursor, Pageable pageable);
+
+    BeerOrderShipmentResponse update(Integer beerOrderId, Integer id, BeerOrderShipmentRequest request, Set<Integer> expectedVersions);
 
     void delete(Integer beerOrderId, Integer id);
 }
@@ -0,0 +1,15 @@
+package guru.springframework.juniemvc.services;
+
+import guru.springframework.juniemvc.models.BeerSearchDtos.BeerSearchResponse;
+
+public interface BeerSearchService {
+
+    /**
+     * Ranked search over beer name and description. Every word of {@code query} must match;
+     * the last one may be incomplete. A null {@code limit} falls back to the configured default.
+     */
+    BeerSearchResponse search(String query, Integer limit);
+
+    /** Rebuilds the index from the database; returns the number of indexed beers. */
+    int reindex();
+}
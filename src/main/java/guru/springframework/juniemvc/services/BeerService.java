@@ -2,21 +2,46 @@ package guru.springframework.juniemvc.services;
 
 import guru.springframework.juniemvc.models.BeerDto;
 import guru.springframework.juniemvc.models.BeerPatchDto;
+import guru.springframework.juniemvc.models.CursorPage;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface BeerService {
 
     BeerDto create(BeerDto beerDto);
 
+    @Transactional(readOnly = true)
     Optional<BeerDto> getById(Integer id);
 
+    /** Current version of the beer, served from the second-level cache when present; drives ETag checks. */
+    @Transactional(readOnly = true)
+    Optional<Integer> getVersion(Integer id);
+
+    @Transactional(readOnly = true)
     Page<BeerDto> list(Pageable pageable, String beerName, String beerStyle);
 
-    Optional<BeerDto> update(Integer id, BeerDto beerDto);
+    /** Same filters as {@link #list} but without the total count query. */
+    @Transactional(readOnly = true)
+    Slice<BeerDto> listSlice(Pageable pageable, String beerName, String beerStyle);
+
+    /**
+     * Keyset variant of {@link #list}: continues after {@code cursor} (first page when blank)
+     * and skips the total count. Only the page size and sort of {@code pageable} are used.
+     */
+    @Transactional(readOnly = true)
+    CursorPage<BeerDto> scroll(String cursor, Pageable pageable, String beerName, String beerStyle);
+
+    /**
+     * @param expectedVersions versions of which the beer must still have one (from {@code If-Match}), or null for an
+     *                         unconditional update
+     */
+    Optional<BeerDto> update(Integer id, BeerDto beerDto, Set<Integer> expectedVersions);
 
-    Optional<BeerDto> patch(Integer id, BeerPatchDto beerPatchDto);
+    Optional<BeerDto> patch(Integer id, BeerPatchDto beerPatchDto, Set<Integer> expectedVersions);
 
     boolean delete(Integer id);
 }
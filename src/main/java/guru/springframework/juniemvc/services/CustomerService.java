@@ -1,13 +1,17 @@
 package guru.springframework.juniemvc.services;
 
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerOrderHistory;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerUpdateRequest;
+import guru.springframework.juniemvc.models.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.Set;
 
 public interface CustomerService {
 
@@ -17,11 +21,31 @@ public interface CustomerService {
     @Transactional(readOnly = true)
     Optional<CustomerResponse> getById(Integer id);
 
+    @Transactional(readOnly = true)
+    Optional<Integer> getVersion(Integer id);
+
     @Transactional(readOnly = true)
     Page<CustomerResponse> list(Pageable pageable);
 
+    /** Like {@link #list} but without the total count query. */
+    @Transactional(readOnly = true)
+    Slice<CustomerResponse> listSlice(Pageable pageable);
+
+    /** Keyset variant of {@link #list}: no total count, continues after {@code cursor} (first page when blank). */
+    @Transactional(readOnly = true)
+    CursorPage<CustomerResponse> scroll(String cursor, Pageable pageable);
+
+    /**
+     * Lifetime order totals plus one page of the customer's order summaries, newest first, continuing after
+     * {@code cursor} (first page when blank).
+     *
+     * @throws guru.springframework.juniemvc.exceptions.CustomerNotFoundException if the customer does not exist
+     */
+    @Transactional(readOnly = true)
+    CustomerOrderHistory getOrderHistory(Integer id, String cursor, Pageable pageable);
+
     @Transactional
-    Optional<CustomerResponse> update(Integer id, CustomerUpdateRequest cmd);
+    Optional<CustomerResponse> update(Integer id, CustomerUpdateRequest cmd, Set<Integer> expectedVersions);
 
     @Transactional
     boolean delete(Integer id);
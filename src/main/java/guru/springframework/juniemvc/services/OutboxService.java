@@ -0,0 +1,22 @@
+package guru.springframework.juniemvc.services;
+
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface OutboxService {
+
+    /**
+     * Published events with a position greater than {@code after}, oldest first. When there are none yet, waits up
+     * to {@code wait} for the relay to publish more before answering, so consumers can tail the feed without
+     * polling in a tight loop. {@code limit} defaults to and is capped by the configured limits, {@code wait} is
+     * capped by {@code juniemvc.outbox.max-wait}.
+     */
+    List<OutboxEventResponse> eventsAfter(long after, Integer limit, Duration wait);
+
+    /**
+     * Published events of one order with a position greater than {@code after}, oldest first, without waiting.
+     */
+    List<OutboxEventResponse> orderEventsAfter(Integer beerOrderId, long after, Integer limit);
+}
@@ -0,0 +1,17 @@
+package guru.springframework.juniemvc.services;
+
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+
+import java.util.List;
+
+/**
+ * Destination of the outbox relay. Every {@code OutboxSink} bean receives each published batch, in position order,
+ * before the batch is marked as published; a sink that throws makes the relay retry the whole batch later, so
+ * delivery is at-least-once and sinks should tolerate duplicates. De-duplicate by {@code id}, not by
+ * {@code position}: positions only become final when the batch commits, and the retry of a rolled back batch may
+ * give them to other events, e.g. one with a lower id that committed in the meantime.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEventResponse> events);
+}
@@ -0,0 +1,29 @@
+package guru.springframework.juniemvc.services;
+
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.models.ReportDtos.BeerSalesRow;
+import guru.springframework.juniemvc.models.ReportDtos.OrderStatusRow;
+import guru.springframework.juniemvc.models.ReportDtos.StyleSalesRow;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily figures between {@code from} and {@code to} (both inclusive), read from the rollups only. A null filter
+ * returns every beer, style or status; days without orders have no row.
+ *
+ * @throws guru.springframework.juniemvc.exceptions.InvalidReportRangeException if {@code to} is before
+ *         {@code from} or the range is longer than {@code juniemvc.reports.max-days}
+ */
+public interface ReportService {
+
+    @Transactional(readOnly = true)
+    List<BeerSalesRow> beerSales(LocalDate from, LocalDate to, Integer beerId);
+
+    @Transactional(readOnly = true)
+    List<StyleSalesRow> styleSales(LocalDate from, LocalDate to, String beerStyle);
+
+    @Transactional(readOnly = true)
+    List<OrderStatusRow> orderStatuses(LocalDate from, LocalDate to, OrderStatus status);
+}
@@ -0,0 +1,143 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.BeerOrderProperties;
+import guru.springframework.juniemvc.exceptions.AllocationBacklogFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded hand-off of new order ids from the request threads to the {@link AllocationWorker}.
+ * <p>
+ * Backpressure is applied before an order is written: {@link #checkCapacity()} rejects order creation while the
+ * queue is full. Ids are offered only after the creating transaction committed, never blocking; an id that does
+ * not fit any more is left for the worker's sweep, which re-queues unallocated orders from the database.
+ */
+@Slf4j
+@Component
+class AllocationQueue {
+
+    record Pending(Integer orderId, long enqueuedNanos) {}
+
+    private final BlockingQueue<Pending> queue;
+    // queued plus taken by the worker but not done yet
+    private final AtomicInteger unfinished = new AtomicInteger();
+    private final int capacity;
+    private final Counter rejected;
+    private final Counter overflowed;
+
+    AllocationQueue(BeerOrderProperties properties, MeterRegistry meterRegistry) {
+        this.capacity = properties.allocation().queueCapacity();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("juniemvc.allocation.queue.depth", queue, BlockingQueue::size)
+                .description("Orders waiting for stock allocation")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("juniemvc.allocation.rejected")
+                .description("Order creations rejected because the allocation queue was full")
+                .register(meterRegistry);
+        this.overflowed = Counter.builder("juniemvc.allocation.overflowed")
+                .description("Created orders that did not fit into the queue and wait for the sweep")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fails fast with {@link AllocationBacklogFullException} while no order can be queued.
+     */
+    void checkCapacity() {
+        if (queue.remainingCapacity() == 0) {
+            rejected.increment();
+            throw new AllocationBacklogFullException(capacity);
+        }
+    }
+
+    /**
+     * Queues the orders once the current transaction commits, or right away when there is none. Nothing is
+     * queued for a rolled back transaction.
+     */
+    void submitAfterCommit(Collection<Integer> orderIds) {
+        List<Integer> ids = List.copyOf(orderIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offer(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                offer(ids);
+            }
+        });
+    }
+
+    /**
+     * Offers the ids without waiting; returns how many were queued.
+     */
+    int offer(Collection<Integer> orderIds) {
+        long now = System.nanoTime();
+        int queued = 0;
+        for (Integer id : orderIds) {
+            // counted before it becomes visible to the worker, so unfinished() never misses it
+            unfinished.incrementAndGet();
+            if (queue.offer(new Pending(id, now))) {
+                queued++;
+            } else {
+                unfinished.decrementAndGet();
+            }
+        }
+        int dropped = orderIds.size() - queued;
+        if (dropped > 0) {
+            overflowed.increment(dropped);
+            log.warn("Allocation queue full, {} orders left for the sweep", dropped);
+        }
+        return queued;
+    }
+
+    /**
+     * Waits up to {@code timeout} for the first pending order, then takes whatever else is queued, up to
+     * {@code max} entries. Returns an empty list on timeout.
+     */
+    List<Pending> poll(int max, Duration timeout) throws InterruptedException {
+        Pending first = queue.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return List.of();
+        }
+        List<Pending> batch = new ArrayList<>(Math.min(max, queue.size() + 1));
+        batch.add(first);
+        queue.drainTo(batch, max - 1);
+        return batch;
+    }
+
+    /**
+     * Marks orders taken with {@link #poll} as processed, whether their allocation succeeded or not.
+     */
+    void done(int count) {
+        unfinished.addAndGet(-count);
+    }
+
+    /**
+     * Orders queued or still being allocated; zero once the worker finished everything offered so far.
+     */
+    int unfinished() {
+        return unfinished.get();
+    }
+
+    int depth() {
+        return queue.size();
+    }
+
+    int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+}
@@ -0,0 +1,265 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.BeerOrderProperties;
+import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.entities.OutboxEventType;
+import guru.springframework.juniemvc.mappers.BeerOrderMapper;
+import guru.springframework.juniemvc.models.OutboxDtos.OrderChangedPayload;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.services.impl.AllocationQueue.Pending;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single background thread that allocates stock for queued orders in batches.
+ * <p>
+ * Each batch is one transaction: the orders are loaded with their lines and handed to {@link InventoryAllocator}
+ * together, so a hot beer ordered by many pending orders costs one conditional stock update per batch instead
+ * of one per order. Status and line changes are written to the outbox in the same transaction. A failing batch is retried order by order so one bad order does not hold back the others.
+ * Every failed allocation of a single order is counted on the order; once it failed
+ * {@code juniemvc.orders.allocation.max-attempts} times, the order is parked and no longer re-queued.
+ * <p>
+ * Backordered lines are retried when their beer is restocked ({@link BeerRestockedEvent}), and as a fallback the
+ * periodic sweep of an idle worker re-queues backorders whose beer is in stock again, together with orders that
+ * are still {@code NEW} with untouched lines (queue overflow, restart). Allocation only takes the open quantity,
+ * so seeing an order twice is harmless.
+ * <p>
+ * Stops after the web server (lower lifecycle phase): shutdown first stops accepting requests, then lets the
+ * worker drain the queue within {@code juniemvc.orders.allocation.shutdown-timeout}.
+ */
+@Slf4j
+@Component
+class AllocationWorker implements SmartLifecycle {
+
+    // below the web server lifecycles, so it starts before and stops after them
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+
+    private final AllocationQueue queue;
+    private final BeerOrderRepository beerOrderRepository;
+    private final InventoryAllocator inventoryAllocator;
+    private final OutboxWriter outboxWriter;
+    private final BeerOrderMapper beerOrderMapper;
+    private final EntityManager entityManager;
+    private final TransactionOperations transactionOperations;
+    private final BeerOrderProperties.Allocation properties;
+    private final Timer latency;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter parked;
+    // beers restocked since the worker last looked at their backorders
+    private final Set<Integer> restocked = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private volatile Thread thread;
+    private long nextSweepNanos;
+
+    AllocationWorker(AllocationQueue queue, BeerOrderRepository beerOrderRepository, InventoryAllocator inventoryAllocator,
+                     OutboxWriter outboxWriter, BeerOrderMapper beerOrderMapper, EntityManager entityManager,
+                     TransactionOperations transactionOperations, BeerOrderProperties properties, MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.beerOrderRepository = beerOrderRepository;
+        this.inventoryAllocator = inventoryAllocator;
+        this.outboxWriter = outboxWriter;
+        this.beerOrderMapper = beerOrderMapper;
+        this.entityManager = entityManager;
+        this.transactionOperations = transactionOperations;
+        this.properties = properties.allocation();
+        this.latency = Timer.builder("juniemvc.allocation.latency")
+                .description("Time from order commit until its allocation committed")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("juniemvc.allocation.batch")
+                .description("Duration of one allocation batch transaction")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("juniemvc.allocation.batch.size")
+                .description("Orders per allocation batch")
+                .register(meterRegistry);
+        this.parked = Counter.builder("juniemvc.allocation.parked")
+                .description("Orders no longer re-queued after max-attempts failed allocations")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        // sweep right away: picks up orders left unallocated by the previous run
+        nextSweepNanos = System.nanoTime();
+        Thread worker = new Thread(this::run, "allocation-worker");
+        worker.start();
+        thread = worker;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread worker = thread;
+        if (worker == null) {
+            return;
+        }
+        try {
+            worker.join(properties.shutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            log.warn("Allocation worker did not drain within {}, {} orders left for the next sweep",
+                    properties.shutdownTimeout(), queue.depth());
+            worker.interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void run() {
+        // keeps going after stop() until the queue is drained
+        while (running || queue.depth() > 0) {
+            try {
+                List<Pending> batch = queue.poll(properties.batchSize(), POLL_TIMEOUT);
+                if (!batch.isEmpty()) {
+                    try {
+                        allocate(batch);
+                    } finally {
+                        queue.done(batch.size());
+                    }
+                } else if (running && !restocked.isEmpty()) {
+                    retryBackorders();
+                } else if (running && System.nanoTime() - nextSweepNanos >= 0) {
+                    sweep();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Allocation worker iteration failed", e);
+            }
+        }
+    }
+
+    void allocate(List<Pending> batch) {
+        batchSize.record(batch.size());
+        try {
+            batchTimer.record(() -> allocateInTransaction(batch));
+        } catch (RuntimeException batchFailure) {
+            if (batch.size() == 1) {
+                recordFailure(batch.get(0).orderId(), batchFailure);
+                return;
+            }
+            log.warn("Allocation batch of {} failed, retrying orders individually: {}", batch.size(), batchFailure.getMessage());
+            for (Pending pending : batch) {
+                allocate(List.of(pending));
+            }
+            return;
+        }
+        long now = System.nanoTime();
+        for (Pending pending : batch) {
+            latency.record(now - pending.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void allocateInTransaction(List<Pending> batch) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        batch.forEach(p -> ids.add(p.orderId()));
+        transactionOperations.executeWithoutResult(status -> {
+            // ordered by id, i.e. creation order: earlier orders are served first when stock runs short
+            List<BeerOrder> orders = beerOrderRepository.findAllWithLinesByIdIn(ids);
+            List<InventoryAllocator.Change> changes = inventoryAllocator.allocate(orders);
+            // a change of lines only must still move the order's version, its ETag; the pessimistic variant
+            // increments right away, where the optimistic one would only do so at commit, after the payloads
+            for (InventoryAllocator.Change change : changes) {
+                if (!change.statusChanged()) {
+                    entityManager.lock(change.order(), LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+                }
+            }
+            // flush first so the event payloads carry the versions being committed
+            beerOrderRepository.flush();
+            outboxWriter.appendAll(changes.stream()
+                    .map(c -> new OutboxWriter.Entry(
+                            c.statusChanged() ? OutboxEventType.ORDER_STATUS_CHANGED : OutboxEventType.ORDER_LINES_CHANGED,
+                            c.order().getId(),
+                            new OrderChangedPayload(c.previousStatus(), beerOrderMapper.toResponse(c.order()))))
+                    .toList());
+        });
+    }
+
+    private void recordFailure(Integer orderId, RuntimeException failure) {
+        Integer failures = transactionOperations.execute(status -> {
+            beerOrderRepository.incrementAllocationFailures(orderId);
+            return beerOrderRepository.findAllocationFailuresById(orderId).orElse(0);
+        });
+        if (failures != null && failures >= properties.maxAttempts()) {
+            parked.increment();
+            log.warn("Allocation of order id={} failed {} times, parking it: {}", orderId, failures, failure.getMessage());
+        } else {
+            log.warn("Allocation of order id={} failed (attempt {}): {}", orderId, failures, failure.getMessage());
+        }
+    }
+
+    // runs after the restocking transaction committed; the lookup happens on the worker thread
+    @TransactionalEventListener(fallbackExecution = true)
+    void onRestocked(BeerRestockedEvent event) {
+        restocked.addAll(event.beerIds());
+    }
+
+    private void retryBackorders() {
+        Set<Integer> beerIds = new HashSet<>(restocked);
+        restocked.removeAll(beerIds);
+        // a full queue leaves them to the sweep
+        int room = Math.min(queue.remainingCapacity(), properties.batchSize());
+        if (room == 0) {
+            return;
+        }
+        List<Integer> backordered = beerOrderRepository.findIdsWithLineStatusInStock(InventoryAllocator.ALLOCATABLE,
+                LineStatus.BACKORDER, beerIds, properties.maxAttempts(), Limit.of(room));
+        if (!backordered.isEmpty()) {
+            log.info("Restock of {} beers re-queued {} backordered orders", beerIds.size(), queue.offer(backordered));
+        }
+    }
+
+    private void sweep() {
+        nextSweepNanos = System.nanoTime() + properties.sweepInterval().toNanos();
+        int room = Math.min(queue.remainingCapacity(), properties.batchSize());
+        if (room == 0) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(beerOrderRepository.findIdsWithLineStatus(OrderStatus.NEW, LineStatus.NEW,
+                properties.maxAttempts(), Limit.of(room)));
+        if (ids.size() < room) {
+            ids.addAll(beerOrderRepository.findIdsWithLineStatusInStock(InventoryAllocator.ALLOCATABLE,
+                    LineStatus.BACKORDER, properties.maxAttempts(), Limit.of(room - ids.size())));
+        }
+        if (!ids.isEmpty()) {
+            log.info("Allocation sweep re-queued {} orders", queue.offer(ids));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package guru.springframework.juniemvc.services.impl;
+
+/**
+ * Published by {@link BeerServiceImpl} after a beer was created or modified; carries the searchable fields and the
+ * entity version they were read at, so a listener can tell an older snapshot that arrives late.
+ */
+record BeerChangedEvent(Integer id, Integer version, String beerName, String description) {}
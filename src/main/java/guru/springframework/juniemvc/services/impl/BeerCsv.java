@@ -0,0 +1,208 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.exceptions.UnsupportedFileFormatException;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerFileFormat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV of beers as written by the export and read by the import. Fields containing a separator, quote or
+ * line break are quoted and embedded quotes doubled.
+ */
+final class BeerCsv {
+
+    static final String HEADER = "id,version,beerName,beerStyle,upc,quantityOnHand,price,description,createdDate,updatedDate";
+
+    private BeerCsv() {}
+
+    static void write(Writer writer, BeerDto beer) throws IOException {
+        writer.write(String.valueOf(beer.getId()));
+        writer.write(',');
+        writer.write(beer.getVersion() == null ? "" : beer.getVersion().toString());
+        writer.write(',');
+        writer.write(quote(beer.getBeerName()));
+        writer.write(',');
+        writer.write(quote(beer.getBeerStyle()));
+        writer.write(',');
+        writer.write(quote(beer.getUpc()));
+        writer.write(',');
+        writer.write(beer.getQuantityOnHand() == null ? "" : beer.getQuantityOnHand().toString());
+        writer.write(',');
+        writer.write(beer.getPrice() == null ? "" : beer.getPrice().toPlainString());
+        writer.write(',');
+        writer.write(quote(beer.getDescription()));
+        writer.write(',');
+        writer.write(beer.getCreatedDate() == null ? "" : beer.getCreatedDate().toString());
+        writer.write(',');
+        writer.write(beer.getUpdatedDate() == null ? "" : beer.getUpdatedDate().toString());
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Reads one record at a time, so a file of any size is parsed in constant memory. The first record is the
+     * header; columns are matched by name, in any order, and unknown or read-only columns are ignored. A record
+     * longer than {@code maxRecordLength} characters, typically an unterminated quote swallowing the rest of the
+     * file, rejects the file with {@link UnsupportedFileFormatException}: there is no telling where the next record
+     * would start.
+     */
+    static final class RecordReader {
+
+        private final Reader in;
+        private final int maxRecordLength;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line = 1;
+        private int lookahead = -2;
+
+        RecordReader(Reader in, int maxRecordLength) throws IOException {
+            this.in = in;
+            this.maxRecordLength = maxRecordLength;
+            List<String> header = readRecord();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+        }
+
+        /** Line on which the next record starts. */
+        long line() {
+            return line;
+        }
+
+        boolean hasColumn(String name) {
+            return columns.containsKey(name);
+        }
+
+        /**
+         * The next record as a beer, or null at the end of the input. Numbers that do not parse raise
+         * {@link IllegalArgumentException}; the reader is then positioned on the following record.
+         */
+        BeerDto next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isEmpty());
+            BeerDto beer = new BeerDto();
+            beer.setBeerName(field(record, "beerName"));
+            beer.setBeerStyle(field(record, "beerStyle"));
+            beer.setUpc(field(record, "upc"));
+            beer.setDescription(field(record, "description"));
+            String quantity = field(record, "quantityOnHand");
+            String price = field(record, "price");
+            try {
+                beer.setQuantityOnHand(quantity == null ? null : Integer.valueOf(quantity.trim()));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("quantityOnHand is not a number: " + quantity);
+            }
+            try {
+                beer.setPrice(price == null ? null : new BigDecimal(price.trim()));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("price is not a number: " + price);
+            }
+            return beer;
+        }
+
+        // empty fields are absent values, so an update leaves those properties unchanged
+        private String field(List<String> record, String name) {
+            Integer index = columns.get(name);
+            if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+                return null;
+            }
+            return record.get(index);
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            long start = line;
+            int length = 0;
+            while (true) {
+                if (++length > maxRecordLength) {
+                    throw new UnsupportedFileFormatException(BeerFileFormat.CSV.extension(),
+                            "record on line " + start + " is longer than " + maxRecordLength + " characters");
+                }
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field before line " + line);
+                    }
+                    if (c == '"') {
+                        int after = read();
+                        if (after == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = after;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == '\r') {
+                    int after = read();
+                    if (after != '\n') {
+                        unread(after);
+                    }
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (lookahead != -2) {
+                int c = lookahead;
+                lookahead = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        private void unread(int c) {
+            lookahead = c;
+        }
+    }
+}
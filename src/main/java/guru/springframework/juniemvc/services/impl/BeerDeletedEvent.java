@@ -0,0 +1,6 @@
+package guru.springframework.juniemvc.services.impl;
+
+/**
+ * Published by {@link BeerServiceImpl} after a beer was deleted.
+ */
+record BeerDeletedEvent(Integer id) {}
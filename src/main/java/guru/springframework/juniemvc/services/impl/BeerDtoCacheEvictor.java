@@ -0,0 +1,51 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.CacheNames;
+import guru.springframework.juniemvc.models.BeerDto;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+
+/**
+ * Evicts the beer DTO caches for writes that do not go through {@link BeerServiceImpl}. Runs after commit so a
+ * concurrent read cannot re-populate the caches with the pre-commit state.
+ */
+@Component
+class BeerDtoCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    BeerDtoCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onStockChanged(BeerStockChangedEvent event) {
+        Cache byId = cacheManager.getCache(CacheNames.BEER_BY_ID);
+        if (byId != null) {
+            event.beerIds().forEach(byId::evict);
+        }
+        Cache lists = cacheManager.getCache(CacheNames.BEER_LISTS);
+        if (lists == null) {
+            return;
+        }
+        if (event.stockOnly() && lists.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> entries) {
+            // an allocation only stales the pages showing one of its beers, or ordered by stock
+            entries.asMap().values().removeIf(value -> shows(value, event.beerIds()));
+        } else {
+            lists.clear();
+        }
+    }
+
+    private static boolean shows(Object cached, Set<Integer> beerIds) {
+        if (!(cached instanceof Slice<?> page)) {
+            return true;
+        }
+        return page.getSort().getOrderFor("quantityOnHand") != null
+                || page.getContent().stream().anyMatch(dto -> dto instanceof BeerDto beer && beerIds.contains(beer.getId()));
+    }
+}
@@ -0,0 +1,77 @@
+package guru.springframework.juniemvc.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import guru.springframework.juniemvc.config.BeerExportProperties;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.mappers.BeerMapper;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerFileFormat;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.services.BeerExportService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the catalog from one forward-only cursor straight into the response. Rows are mapped and written one at
+ * a time, and the persistence context is cleared every {@code clear-every} rows, so the heap holds at most that
+ * many beers however large the catalog is.
+ */
+@Timed("juniemvc.service")
+@Service
+class BeerExportServiceImpl implements BeerExportService {
+
+    private final BeerRepository beerRepository;
+    private final BeerMapper beerMapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+    private final BeerExportProperties properties;
+
+    BeerExportServiceImpl(BeerRepository beerRepository, BeerMapper beerMapper, EntityManager entityManager,
+                          ObjectMapper objectMapper, BeerExportProperties properties) {
+        this.beerRepository = beerRepository;
+        this.beerMapper = beerMapper;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writerFor(BeerDto.class);
+        this.properties = properties;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(BeerFileFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), (int) properties.bufferSize().toBytes());
+        if (format == BeerFileFormat.CSV) {
+            writer.write(BeerCsv.HEADER);
+            writer.write('\n');
+        }
+        long rows = 0;
+        try (Stream<Beer> beers = beerRepository.streamAllOrderById(properties.fetchSize())) {
+            for (Iterator<Beer> it = beers.iterator(); it.hasNext(); ) {
+                BeerDto beer = beerMapper.toDto(it.next());
+                if (format == BeerFileFormat.CSV) {
+                    BeerCsv.write(writer, beer);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(beer));
+                }
+                writer.write('\n');
+                if (++rows % properties.clearEvery() == 0) {
+                    // the cursor stays open; only the beers already written are released
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+}
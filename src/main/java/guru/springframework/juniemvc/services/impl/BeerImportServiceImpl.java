@@ -0,0 +1,274 @@
+package guru.springframework.juniemvc.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import guru.springframework.juniemvc.config.BeerImportProperties;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.exceptions.UnsupportedFileFormatException;
+import guru.springframework.juniemvc.mappers.BeerMapper;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerFileFormat;
+import guru.springframework.juniemvc.models.BeerImportDtos.BeerImportError;
+import guru.springframework.juniemvc.models.BeerImportDtos.BeerImportResponse;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.services.BeerImportService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Upserts an uploaded catalog by upc. Rows are parsed one at a time and collected into chunks of
+ * {@code juniemvc.import.chunk-size}; each chunk is one transaction with a single {@code upc IN (...)} lookup,
+ * followed by JDBC-batched inserts and updates at commit. The persistence context ends with the chunk, so memory is
+ * bounded by the chunk size whatever the size of the upload. A chunk that fails in the database is retried row by
+ * row, so one bad row only rejects itself. The chunk session neither reads nor fills the second-level cache: a bulk
+ * upload would only churn the {@code beer} regions, while the entries of changed beers are still invalidated.
+ */
+@Slf4j
+@Timed("juniemvc.service")
+@Service
+class BeerImportServiceImpl implements BeerImportService {
+
+    private final BeerRepository beerRepository;
+    private final BeerMapper beerMapper;
+    private final EntityManager entityManager;
+    private final TransactionOperations transactionOperations;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader jsonReader;
+    private final BeerImportProperties properties;
+
+    BeerImportServiceImpl(BeerRepository beerRepository, BeerMapper beerMapper, EntityManager entityManager,
+                          TransactionOperations transactionOperations, Validator validator, ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                          BeerImportProperties properties) {
+        this.beerRepository = beerRepository;
+        this.beerMapper = beerMapper;
+        this.entityManager = entityManager;
+        this.transactionOperations = transactionOperations;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.jsonReader = objectMapper.readerFor(BeerDto.class);
+        this.properties = properties;
+    }
+
+    // a parsed row; error rejects it up front, missing lists required fields it may only omit as an update
+    private record Row(long line, BeerDto beer, String error, String missing) {}
+
+    private record ChunkResult(int inserted, int updated, List<Row> rejected) {}
+
+    private interface RowSource {
+        /** The next row, or null at the end of the input. */
+        Row next() throws IOException;
+    }
+
+    private final class Totals {
+        long inserted;
+        long updated;
+        long rejected;
+        final List<BeerImportError> errors = new ArrayList<>();
+
+        void reject(Row row, String error) {
+            rejected++;
+            if (errors.size() < properties.maxErrors()) {
+                errors.add(new BeerImportError(row.line(), row.beer() == null ? null : row.beer().getUpc(), error));
+            }
+        }
+    }
+
+    @Override
+    public BeerImportResponse importBeers(BeerFileFormat format, InputStream in) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource rows = format == BeerFileFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+        Totals totals = new Totals();
+        List<Row> chunk = new ArrayList<>(properties.chunkSize());
+        for (Row row = rows.next(); row != null; row = rows.next()) {
+            if (row.error() != null) {
+                totals.reject(row, row.error());
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == properties.chunkSize()) {
+                upsertChunk(chunk, totals);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            upsertChunk(chunk, totals);
+        }
+        if (log.isInfoEnabled()) {
+            long millis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), 1);
+            long total = totals.inserted + totals.updated + totals.rejected;
+            log.info("Beer import processed rows={} inserted={} updated={} rejected={} in {} ms ({} rows/s)",
+                    total, totals.inserted, totals.updated, totals.rejected, millis, total * 1000 / millis);
+        }
+        return new BeerImportResponse(totals.inserted, totals.updated, totals.rejected, List.copyOf(totals.errors));
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] line = {0};
+        return () -> {
+            String json;
+            do {
+                json = reader.readLine();
+                line[0]++;
+                if (json == null) {
+                    return null;
+                }
+            } while (json.isBlank());
+            try {
+                return validated(line[0], jsonReader.readValue(json));
+            } catch (JsonProcessingException ex) {
+                return new Row(line[0], null, "Malformed JSON: " + ex.getOriginalMessage(), null);
+            }
+        };
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        BeerCsv.RecordReader records = new BeerCsv.RecordReader(reader, properties.maxRecordLength());
+        if (!records.hasColumn("upc")) {
+            throw new UnsupportedFileFormatException(BeerFileFormat.CSV.extension(), "header row has no upc column");
+        }
+        return () -> {
+            long line = records.line();
+            try {
+                BeerDto beer = records.next();
+                return beer == null ? null : validated(line, beer);
+            } catch (IllegalArgumentException ex) {
+                return new Row(line, null, ex.getMessage(), null);
+            }
+        };
+    }
+
+    private Row validated(long line, BeerDto beer) {
+        // server-managed properties are never taken from the file
+        beer.setId(null);
+        beer.setVersion(null);
+        beer.setCreatedDate(null);
+        beer.setUpdatedDate(null);
+        if (beer.getUpc() == null || beer.getUpc().isBlank()) {
+            return new Row(line, beer, "upc: must not be blank", null);
+        }
+        Set<ConstraintViolation<BeerDto>> violations = validator.validate(beer);
+        String invalid = describe(violations.stream().filter(v -> v.getInvalidValue() != null).collect(Collectors.toSet()));
+        if (invalid != null) {
+            return new Row(line, beer, invalid, null);
+        }
+        return new Row(line, beer, null, describe(violations));
+    }
+
+    private static String describe(Set<ConstraintViolation<BeerDto>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void upsertChunk(List<Row> chunk, Totals totals) {
+        try {
+            ChunkResult result = transactionOperations.execute(status -> upsert(chunk));
+            totals.inserted += result.inserted();
+            totals.updated += result.updated();
+            result.rejected().forEach(row -> totals.reject(row, row.missing()));
+        } catch (RuntimeException chunkFailure) {
+            if (chunk.size() == 1) {
+                log.warn("Beer import row at line {} failed: {}", chunk.get(0).line(), chunkFailure.getMessage());
+                totals.reject(chunk.get(0), chunkFailure.getMessage());
+                return;
+            }
+            log.warn("Beer import chunk of {} failed, retrying rows individually: {}", chunk.size(), chunkFailure.getMessage());
+            for (Row row : new ArrayList<>(chunk)) {
+                upsertChunk(List.of(row), totals);
+            }
+        }
+    }
+
+    private ChunkResult upsert(List<Row> chunk) {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try {
+            return upsert(chunk, session);
+        } finally {
+            // the chunk ends here even where a request-scoped persistence context (open-in-view) outlives the transaction
+            session.clear();
+            session.setCacheMode(cacheMode);
+        }
+    }
+
+    private ChunkResult upsert(List<Row> chunk, Session session) {
+        Set<String> upcs = chunk.stream().map(row -> row.beer().getUpc()).collect(Collectors.toSet());
+        Map<String, Beer> byUpc = new HashMap<>(upcs.size() * 2);
+        beerRepository.findAllByUpcIn(upcs).forEach(beer -> byUpc.put(beer.getUpc(), beer));
+
+        List<Beer> inserts = new ArrayList<>();
+        Set<Beer> changed = new LinkedHashSet<>();
+        Set<Beer> restocked = new LinkedHashSet<>();
+        List<Row> rejected = new ArrayList<>();
+        int updated = 0;
+        // rows apply in file order: a upc repeated within the chunk updates the beer its first row inserted
+        for (Row row : chunk) {
+            Beer beer = byUpc.get(row.beer().getUpc());
+            if (beer == null) {
+                if (row.missing() != null) {
+                    rejected.add(row);
+                    continue;
+                }
+                beer = beerMapper.toEntity(row.beer());
+                inserts.add(beer);
+                byUpc.put(beer.getUpc(), beer);
+            } else {
+                Integer quantityBefore = beer.getQuantityOnHand();
+                beerMapper.updateEntity(beer, row.beer());
+                if (BeerRestockedEvent.isRestock(quantityBefore, beer.getQuantityOnHand())) {
+                    restocked.add(beer);
+                }
+                updated++;
+            }
+            changed.add(beer);
+        }
+        beerRepository.saveAll(inserts);
+        session.flush();
+
+        if (!changed.isEmpty()) {
+            Set<Integer> ids = new HashSet<>();
+            for (Beer beer : changed) {
+                ids.add(beer.getId());
+                eventPublisher.publishEvent(new BeerChangedEvent(beer.getId(), beer.getVersion(), beer.getBeerName(), beer.getDescription()));
+            }
+            eventPublisher.publishEvent(new BeerStockChangedEvent(ids, false));
+        }
+        if (!restocked.isEmpty()) {
+            Set<Integer> ids = new HashSet<>();
+            restocked.forEach(beer -> ids.add(beer.getId()));
+            eventPublisher.publishEvent(new BeerRestockedEvent(ids));
+        }
+        return new ChunkResult(inserts.size(), updated, rejected);
+    }
+}
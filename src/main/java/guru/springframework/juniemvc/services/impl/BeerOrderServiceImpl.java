@@ -1,34 +1,86 @@
 package guru.springframework.juniemvc.services.impl;
 
+import guru.springframework.juniemvc.config.BeerOrderProperties;
 import guru.springframework.juniemvc.entities.Beer;
 import guru.springframework.juniemvc.entities.BeerOrder;
 import guru.springframework.juniemvc.entities.BeerOrderLine;
 import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OutboxEventType;
 import guru.springframework.juniemvc.exceptions.BeerNotFoundException;
+import guru.springframework.juniemvc.exceptions.CustomerNotFoundException;
 import guru.springframework.juniemvc.exceptions.InvalidOrderException;
 import guru.springframework.juniemvc.mappers.BeerOrderMapper;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BatchItemStatus;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchItemResult;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchResponse;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineResponse;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderSearchCriteria;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderSummary;
+import guru.springframework.juniemvc.models.CursorPage;
 import guru.springframework.juniemvc.repositories.BeerOrderLineRepository;
+import guru.springframework.juniemvc.repositories.BeerOrderLineRow;
 import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerOrderSpecifications;
 import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.repositories.CustomerRepository;
 import guru.springframework.juniemvc.services.BeerOrderService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
+@Timed("juniemvc.service")
 @Service
 @RequiredArgsConstructor
 class BeerOrderServiceImpl implements BeerOrderService {
 
+    // upper bound of ids bound into a single IN (...) list when resolving order lines
+    static final int BEER_LOOKUP_CHUNK_SIZE = 500;
+
+    // order search sorts on the trailing (created_date, id) columns of the V10 indexes only
+    static final Map<String, Class<?>> SEARCH_CURSOR_KEYS = Map.of(
+            "id", Integer.class,
+            "createdDate", LocalDateTime.class);
+
+    static final Sort SEARCH_DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "createdDate", "id");
+
     private final BeerRepository beerRepository;
     private final BeerOrderRepository beerOrderRepository;
     private final BeerOrderLineRepository beerOrderLineRepository;
     private final BeerOrderMapper beerOrderMapper;
+    private final TransactionOperations transactionOperations;
+    private final Validator validator;
+    private final BeerOrderProperties properties;
+    private final AllocationQueue allocationQueue;
+    private final OutboxWriter outboxWriter;
+    private final CustomerRepository customerRepository;
+    private final CustomerOrderStatsWriter customerOrderStatsWriter;
 
     @Override
     public BeerOrderResponse create(BeerOrderCreateRequest request) {
@@ -36,36 +88,257 @@ class BeerOrderServiceImpl implements BeerOrderService {
             throw new InvalidOrderException("Order must contain at least one line");
         }
 
+        Set<Integer> beerIds = new LinkedHashSet<>();
+        for (BeerOrderLineCreateItem item : request.lines()) {
+            Objects.requireNonNull(item, "line item must not be null");
+            beerIds.add(Objects.requireNonNull(item.beerId(), "beerId must not be null"));
+        }
+        Map<Integer, Beer> beers = loadBeers(beerIds);
+        List<Integer> missing = beerIds.stream().filter(id -> !beers.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw missing.size() == 1 ? new BeerNotFoundException(missing.get(0)) : new BeerNotFoundException(missing);
+        }
+        if (request.customerId() != null && !customerRepository.existsById(request.customerId())) {
+            throw new CustomerNotFoundException(request.customerId());
+        }
+
+        allocationQueue.checkCapacity();
+        BeerOrder saved = beerOrderRepository.save(buildOrder(request, beers::get));
+        customerOrderStatsWriter.addAll(List.of(saved));
+        // stock is allocated asynchronously; the order is returned as NEW
+        allocationQueue.submitAfterCommit(List.of(saved.getId()));
+        BeerOrderResponse response = beerOrderMapper.toResponse(saved);
+        outboxWriter.append(OutboxEventType.ORDER_CREATED, saved.getId(), response);
+        if (log.isInfoEnabled()) {
+            log.info("BeerOrder created id={}", saved.getId());
+        }
+        return response;
+    }
+
+    @Override
+    public BeerOrderBatchResponse createAll(List<BeerOrderCreateRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidOrderException("Batch must contain at least one order");
+        }
+        int maxSize = properties.batch().maxSize();
+        if (requests.size() > maxSize) {
+            throw new InvalidOrderException("Batch must not contain more than " + maxSize + " orders");
+        }
+        allocationQueue.checkCapacity();
+
+        BeerOrderBatchItemResult[] results = new BeerOrderBatchItemResult[requests.size()];
+        List<Integer> accepted = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String violations = validate(requests.get(i));
+            if (violations == null) {
+                accepted.add(i);
+            } else {
+                results[i] = rejected(i, violations);
+            }
+        }
+
+        // one lookup for every beer referenced anywhere in the batch
+        Set<Integer> beerIds = accepted.stream()
+                .flatMap(i -> requests.get(i).lines().stream())
+                .map(BeerOrderLineCreateItem::beerId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Integer> knownBeerIds = loadBeers(beerIds).keySet();
+        // and one for every customer
+        Set<Integer> customerIds = accepted.stream()
+                .map(i -> requests.get(i).customerId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Integer> knownCustomerIds = customerIds.isEmpty() ? Set.of() : customerRepository.findExistingIds(customerIds);
+
+        List<Integer> persistable = new ArrayList<>(accepted.size());
+        for (Integer i : accepted) {
+            List<Integer> missing = requests.get(i).lines().stream()
+                    .map(BeerOrderLineCreateItem::beerId)
+                    .filter(id -> !knownBeerIds.contains(id))
+                    .distinct()
+                    .toList();
+            Integer customerId = requests.get(i).customerId();
+            if (!missing.isEmpty()) {
+                results[i] = rejected(i, new BeerNotFoundException(missing).getMessage());
+            } else if (customerId != null && !knownCustomerIds.contains(customerId)) {
+                results[i] = rejected(i, new CustomerNotFoundException(customerId).getMessage());
+            } else {
+                persistable.add(i);
+            }
+        }
+
+        int chunkSize = properties.batch().chunkSize();
+        for (int from = 0; from < persistable.size(); from += chunkSize) {
+            List<Integer> chunk = persistable.subList(from, Math.min(from + chunkSize, persistable.size()));
+            persistChunk(requests, chunk, results);
+        }
+
+        List<BeerOrderBatchItemResult> all = Arrays.asList(results);
+        int created = (int) all.stream().filter(r -> r.status() == BatchItemStatus.CREATED).count();
+        if (log.isInfoEnabled()) {
+            log.info("BeerOrder batch processed size={} created={} rejected={}", all.size(), created, all.size() - created);
+        }
+        return new BeerOrderBatchResponse(created, all.size() - created, all);
+    }
+
+    @Override
+    public BeerOrderResponse getById(Integer id) {
+        List<BeerOrderLineRow> rows = beerOrderRepository.findLineRowsById(id);
+        if (rows.isEmpty()) {
+            throw new InvalidOrderException("Order not found: id=" + id);
+        }
+        BeerOrderLineRow order = rows.get(0);
+        List<BeerOrderLineResponse> lines = rows.stream()
+                .filter(row -> row.beerId() != null)
+                .map(row -> new BeerOrderLineResponse(row.beerId(), row.orderQuantity(), row.quantityAllocated(), row.lineStatus()))
+                .toList();
+        return new BeerOrderResponse(order.id(), order.version(), order.customerRef(), order.paymentAmount(), order.status(),
+                order.createdDate(), order.updatedDate(), lines);
+    }
+
+    @Override
+    public Integer getVersion(Integer id) {
+        return beerOrderRepository.findVersionById(id)
+                .orElseThrow(() -> new InvalidOrderException("Order not found: id=" + id));
+    }
+
+    @Override
+    public CursorPage<BeerOrderSummary> search(BeerOrderSearchCriteria criteria, String cursor, Pageable pageable) {
+        return KeysetCursors.toPage(scroll(criteria, cursor, pageable), beerOrderMapper::toSummary);
+    }
+
+    @Override
+    public CursorPage<BeerOrderResponse> searchWithLines(BeerOrderSearchCriteria criteria, String cursor, Pageable pageable) {
+        // phase 1 pages the orders alone, so the row limit is applied by the database
+        Window<BeerOrder> page = scroll(criteria, cursor, pageable);
+        if (!page.isEmpty()) {
+            // phase 2: one IN query fetches the lines of the whole page into the orders already in the persistence context
+            beerOrderRepository.findAllWithLinesByIdIn(page.map(BeerOrder::getId).getContent());
+        }
+        return KeysetCursors.toPage(page, beerOrderMapper::toResponse);
+    }
+
+    private Window<BeerOrder> scroll(BeerOrderSearchCriteria criteria, String cursor, Pageable pageable) {
+        if (pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), SEARCH_DEFAULT_SORT);
+        }
+        Sort sort = KeysetCursors.sort(pageable, SEARCH_CURSOR_KEYS);
+        ScrollPosition position = KeysetCursors.position(cursor, sort, SEARCH_CURSOR_KEYS);
+        int limit = pageable.getPageSize();
+        return beerOrderRepository.findBy(matching(criteria), query -> query.sortBy(sort).limit(limit).scroll(position));
+    }
+
+    private static Specification<BeerOrder> matching(BeerOrderSearchCriteria criteria) {
+        List<Specification<BeerOrder>> filters = new ArrayList<>();
+        if (criteria.status() != null) {
+            filters.add(BeerOrderSpecifications.hasStatus(criteria.status()));
+        }
+        if (criteria.customerId() != null) {
+            filters.add(BeerOrderSpecifications.hasCustomerId(criteria.customerId()));
+        }
+        if (criteria.customerRef() != null && !criteria.customerRef().isBlank()) {
+            filters.add(BeerOrderSpecifications.hasCustomerRef(criteria.customerRef()));
+        }
+        if (criteria.createdFrom() != null) {
+            filters.add(BeerOrderSpecifications.createdFrom(criteria.createdFrom()));
+        }
+        if (criteria.createdTo() != null) {
+            filters.add(BeerOrderSpecifications.createdBefore(criteria.createdTo()));
+        }
+        return Specification.allOf(filters);
+    }
+
+    /**
+     * Resolves all referenced beers from the second-level cache, fetching the misses with one query per
+     * {@link #BEER_LOOKUP_CHUNK_SIZE} ids instead of one lookup per order line. Ids without a matching beer
+     * are absent from the result.
+     */
+    Map<Integer, Beer> loadBeers(Collection<Integer> beerIds) {
+        Map<Integer, Beer> beers = new HashMap<>(beerIds.size() * 2);
+        List<Integer> ids = new ArrayList<>(beerIds);
+        for (int from = 0; from < ids.size(); from += BEER_LOOKUP_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + BEER_LOOKUP_CHUNK_SIZE, ids.size()));
+            for (Beer beer : beerRepository.loadAllById(chunk)) {
+                beers.put(beer.getId(), beer);
+            }
+        }
+        return beers;
+    }
+
+    private BeerOrder buildOrder(BeerOrderCreateRequest request, Function<Integer, Beer> beerLookup) {
         BeerOrder order = new BeerOrder();
         order.setCustomerRef(request.customerRef());
         order.setPaymentAmount(request.paymentAmount());
+        if (request.customerId() != null) {
+            order.setCustomer(customerRepository.getReferenceById(request.customerId()));
+        }
 
         for (BeerOrderLineCreateItem item : request.lines()) {
-            Objects.requireNonNull(item, "line item must not be null");
-            Integer beerId = item.beerId();
-            Beer beer = beerRepository.findById(beerId)
-                    .orElseThrow(() -> new BeerNotFoundException(beerId));
-
             BeerOrderLine line = new BeerOrderLine();
-            line.setBeer(beer);
+            line.setBeer(beerLookup.apply(item.beerId()));
             line.setOrderQuantity(item.orderQuantity());
             line.setQuantityAllocated(0);
             line.setStatus(LineStatus.NEW);
 
             order.addLine(line);
         }
+        return order;
+    }
 
-        BeerOrder saved = beerOrderRepository.save(order);
-        if (log.isInfoEnabled()) {
-            log.info("BeerOrder created id={}", saved.getId());
+    // Persists one chunk in a single transaction; if it fails, retries its orders one by one
+    // so that only the offending orders are reported as rejected.
+    private void persistChunk(List<BeerOrderCreateRequest> requests, List<Integer> chunk, BeerOrderBatchItemResult[] results) {
+        try {
+            List<BeerOrderResponse> saved = transactionOperations.execute(status -> persist(requests, chunk));
+            for (int k = 0; k < chunk.size(); k++) {
+                results[chunk.get(k)] = new BeerOrderBatchItemResult(chunk.get(k), BatchItemStatus.CREATED, saved.get(k), null);
+            }
+        } catch (RuntimeException chunkFailure) {
+            if (chunk.size() == 1) {
+                log.warn("BeerOrder batch item {} failed: {}", chunk.get(0), chunkFailure.getMessage());
+                results[chunk.get(0)] = rejected(chunk.get(0), chunkFailure.getMessage());
+                return;
+            }
+            log.warn("BeerOrder batch chunk of {} failed, retrying orders individually: {}", chunk.size(), chunkFailure.getMessage());
+            for (Integer i : chunk) {
+                persistChunk(requests, List.of(i), results);
+            }
         }
-        return beerOrderMapper.toResponse(saved);
     }
 
-    @Override
-    public BeerOrderResponse getById(Integer id) {
-        BeerOrder found = beerOrderRepository.findByIdWithLines(id)
-                .orElseThrow(() -> new InvalidOrderException("Order not found: id=" + id));
-        return beerOrderMapper.toResponse(found);
+    private List<BeerOrderResponse> persist(List<BeerOrderCreateRequest> requests, List<Integer> chunk) {
+        // existence was checked up front, so lines only need a reference to the beer and customer rows
+        List<BeerOrder> orders = chunk.stream()
+                .map(i -> buildOrder(requests.get(i), beerRepository::getReferenceById))
+                .toList();
+        List<BeerOrder> saved = beerOrderRepository.saveAllAndFlush(orders);
+        customerOrderStatsWriter.addAll(saved);
+        allocationQueue.submitAfterCommit(saved.stream().map(BeerOrder::getId).toList());
+        List<BeerOrderResponse> responses = saved.stream().map(beerOrderMapper::toResponse).toList();
+        outboxWriter.appendAll(responses.stream()
+                .map(r -> new OutboxWriter.Entry(OutboxEventType.ORDER_CREATED, r.id(), r))
+                .toList());
+        return responses;
+    }
+
+    private String validate(BeerOrderCreateRequest request) {
+        if (request == null) {
+            return "Order must not be null";
+        }
+        Set<ConstraintViolation<BeerOrderCreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (request.lines().stream().anyMatch(Objects::isNull)) {
+            return "lines: line item must not be null";
+        }
+        return null;
+    }
+
+    private static BeerOrderBatchItemResult rejected(int index, String error) {
+        return new BeerOrderBatchItemResult(index, BatchItemStatus.REJECTED, null, error);
     }
 }
@@ -2,31 +2,47 @@ package guru.springframework.juniemvc.services.impl;
 
 import guru.springframework.juniemvc.entities.BeerOrder;
 import guru.springframework.juniemvc.entities.BeerOrderShipment;
+import guru.springframework.juniemvc.entities.OutboxEventType;
 import guru.springframework.juniemvc.mappers.BeerOrderShipmentMapper;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentRequest;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentResponse;
+import guru.springframework.juniemvc.models.CursorPage;
 import guru.springframework.juniemvc.repositories.BeerOrderRepository;
 import guru.springframework.juniemvc.repositories.BeerOrderShipmentRepository;
 import guru.springframework.juniemvc.services.BeerOrderShipmentService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+@Timed("juniemvc.service")
 @Service
 class BeerOrderShipmentServiceImpl implements BeerOrderShipmentService {
 
+    static final Map<String, Class<?>> CURSOR_KEYS = Map.of(
+            "id", Integer.class,
+            "shipmentDate", LocalDate.class);
+
     private final BeerOrderRepository beerOrderRepository;
     private final BeerOrderShipmentRepository beerOrderShipmentRepository;
     private final BeerOrderShipmentMapper mapper;
+    private final OutboxWriter outboxWriter;
 
     BeerOrderShipmentServiceImpl(BeerOrderRepository beerOrderRepository,
                                  BeerOrderShipmentRepository beerOrderShipmentRepository,
-                                 BeerOrderShipmentMapper mapper) {
+                                 BeerOrderShipmentMapper mapper,
+                                 OutboxWriter outboxWriter) {
         this.beerOrderRepository = beerOrderRepository;
         this.beerOrderShipmentRepository = beerOrderShipmentRepository;
         this.mapper = mapper;
+        this.outboxWriter = outboxWriter;
     }
 
     @Override
@@ -37,7 +53,9 @@ class BeerOrderShipmentServiceImpl implements BeerOrderShipmentService {
         BeerOrderShipment entity = mapper.toEntity(request);
         entity.setBeerOrder(parent);
         BeerOrderShipment saved = beerOrderShipmentRepository.save(entity);
-        return mapper.toResponse(saved);
+        BeerOrderShipmentResponse response = mapper.toResponse(saved);
+        outboxWriter.append(OutboxEventType.SHIPMENT_CREATED, beerOrderId, response);
+        return response;
     }
 
     @Override
@@ -48,6 +66,13 @@ class BeerOrderShipmentServiceImpl implements BeerOrderShipmentService {
         return mapper.toResponse(entity);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Integer getVersion(Integer beerOrderId, Integer id) {
+        return beerOrderShipmentRepository.findVersionByIdAndBeerOrderId(id, beerOrderId)
+                .orElseThrow(() -> new EntityNotFoundException("Shipment not found: " + id + " for order: " + beerOrderId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<BeerOrderShipmentResponse> list(Integer beerOrderId, Pageable pageable) {
@@ -55,13 +80,25 @@ class BeerOrderShipmentServiceImpl implements BeerOrderShipmentService {
                 .map(mapper::toResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BeerOrderShipmentResponse> scroll(Integer beerOrderId, String cursor, Pageable pageable) {
+        Sort sort = KeysetCursors.sort(pageable, CURSOR_KEYS);
+        return KeysetCursors.toPage(
+                beerOrderShipmentRepository.findAllByBeerOrderId(beerOrderId,
+                        KeysetCursors.position(cursor, sort, CURSOR_KEYS), sort, KeysetCursors.limit(pageable)),
+                mapper::toResponse);
+    }
+
     @Override
     @Transactional
-    public BeerOrderShipmentResponse update(Integer beerOrderId, Integer id, BeerOrderShipmentRequest request) {
+    public BeerOrderShipmentResponse update(Integer beerOrderId, Integer id, BeerOrderShipmentRequest request, Set<Integer> expectedVersions) {
         BeerOrderShipment entity = beerOrderShipmentRepository.findByIdAndBeerOrderId(id, beerOrderId)
                 .orElseThrow(() -> new EntityNotFoundException("Shipment not found: " + id + " for order: " + beerOrderId));
+        VersionPreconditions.check(expectedVersions, entity.getVersion(), id);
         mapper.update(entity, request);
-        BeerOrderShipment saved = beerOrderShipmentRepository.save(entity);
+        // flush so the response (and its ETag) carries the incremented version
+        BeerOrderShipment saved = beerOrderShipmentRepository.saveAndFlush(entity);
         return mapper.toResponse(saved);
     }
 
@@ -0,0 +1,14 @@
+package guru.springframework.juniemvc.services.impl;
+
+import java.util.Set;
+
+/**
+ * Published when the quantity on hand of the given beers went up, by a beer update or patch or by an import, so
+ * the {@link AllocationWorker} retries the lines backordered on them.
+ */
+record BeerRestockedEvent(Set<Integer> beerIds) {
+
+    static boolean isRestock(Integer quantityBefore, Integer quantityAfter) {
+        return quantityAfter != null && quantityAfter > (quantityBefore == null ? 0 : quantityBefore);
+    }
+}
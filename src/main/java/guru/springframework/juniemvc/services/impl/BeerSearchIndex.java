@@ -0,0 +1,230 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.BeerSearchProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over beer name and description.
+ * <p>
+ * Text is split into lower-cased alphanumeric tokens; each token maps to the beers containing it with a
+ * weight (name matches count {@value #NAME_WEIGHT}x a description match). A query matches beers that contain
+ * every query token, the last one also as a prefix so that search-as-you-type works. Hits are ranked by
+ * the sum of weight x idf over the query tokens, ties broken by id.
+ * <p>
+ * Lookups touch only the postings of the query tokens, so their cost depends on how selective the query is,
+ * not on the size of the catalog. The index is kept in sync through {@link BeerChangedEvent} and
+ * {@link BeerDeletedEvent}, applied after the publishing transaction commits. Listeners of concurrent transactions
+ * can run in any order, so each beer remembers the version it was indexed at and older snapshots are ignored;
+ * a deleted beer keeps a tombstone (ids are never reused) so a late change cannot bring it back.
+ */
+@Slf4j
+@Component
+class BeerSearchIndex {
+
+    static final float NAME_WEIGHT = 3f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+    private static final int DELETED = Integer.MAX_VALUE;
+
+    record Hit(Integer id, double score) {}
+
+    private final BeerSearchProperties properties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // token -> (beer id -> weight); sorted so that prefix queries are a range scan
+    private final NavigableMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+    // beer id -> its tokens, needed to remove stale postings on update/delete
+    private final Map<Integer, Map<String, Float>> documents = new HashMap<>();
+    // beer id -> version indexed last, DELETED once removed
+    private final Map<Integer, Integer> versions = new HashMap<>();
+
+    BeerSearchIndex(BeerSearchProperties properties) {
+        this.properties = properties;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onChanged(BeerChangedEvent event) {
+        put(event.id(), event.version(), event.beerName(), event.description());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onDeleted(BeerDeletedEvent event) {
+        remove(event.id());
+    }
+
+    /** Indexes the beer as of {@code version}; ignored if a newer version is indexed already. */
+    void put(Integer id, Integer version, String beerName, String description) {
+        int snapshot = version == null ? 0 : version;
+        Map<String, Float> terms = new HashMap<>();
+        for (String token : tokenize(beerName)) {
+            terms.merge(token, NAME_WEIGHT, Float::sum);
+        }
+        for (String token : tokenize(description)) {
+            terms.merge(token, DESCRIPTION_WEIGHT, Float::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer indexed = versions.get(id);
+            if (indexed != null && indexed > snapshot) {
+                log.debug("Ignoring beer id={} version={}, version {} is indexed", id, snapshot, indexed);
+                return;
+            }
+            unindex(id);
+            versions.put(id, snapshot);
+            documents.put(id, terms);
+            terms.forEach((token, weight) -> postings.computeIfAbsent(token, t -> new HashMap<>()).put(id, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            versions.put(id, DELETED);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            versions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} hits ordered by descending score; empty when the query has no tokens.
+     */
+    List<Hit> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int total = documents.size();
+            Map<Integer, Double> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean last = i == tokens.size() - 1;
+                Map<Integer, Double> termScores = last ? prefixScores(tokens.get(i), total) : exactScores(tokens.get(i), total);
+                scores = scores == null ? termScores : intersect(scores, termScores);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void unindex(Integer id) {
+        Map<String, Float> previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous.keySet()) {
+            Map<Integer, Float> posting = postings.get(token);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private Map<Integer, Double> exactScores(String token, int total) {
+        Map<Integer, Float> posting = postings.get(token);
+        if (posting == null) {
+            return Map.of();
+        }
+        Map<Integer, Double> scores = new HashMap<>(posting.size() * 2);
+        accumulate(scores, posting, total);
+        return scores;
+    }
+
+    private Map<Integer, Double> prefixScores(String prefix, int total) {
+        Map<Integer, Double> scores = new HashMap<>();
+        int expansions = 0;
+        for (Map<Integer, Float> posting : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (++expansions > properties.maxPrefixExpansions()) {
+                break;
+            }
+            accumulate(scores, posting, total);
+        }
+        return scores;
+    }
+
+    private static void accumulate(Map<Integer, Double> scores, Map<Integer, Float> posting, int total) {
+        double idf = Math.log(1.0 + (double) total / posting.size());
+        posting.forEach((id, weight) -> scores.merge(id, weight * idf, Double::sum));
+    }
+
+    private static Map<Integer, Double> intersect(Map<Integer, Double> left, Map<Integer, Double> right) {
+        Map<Integer, Double> smaller = left.size() <= right.size() ? left : right;
+        Map<Integer, Double> larger = smaller == left ? right : left;
+        Map<Integer, Double> result = new HashMap<>(smaller.size() * 2);
+        smaller.forEach((id, score) -> {
+            Double other = larger.get(id);
+            if (other != null) {
+                result.put(id, score + other);
+            }
+        });
+        return result;
+    }
+
+    private static List<Hit> top(Map<Integer, Double> scores, int limit) {
+        Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::id);
+        // min-heap of the best 'limit' hits seen so far, worst on top
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+        scores.forEach((id, score) -> {
+            best.add(new Hit(id, score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(ranking);
+        return hits;
+    }
+}
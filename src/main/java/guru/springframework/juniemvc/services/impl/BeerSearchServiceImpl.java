@@ -0,0 +1,78 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.BeerSearchProperties;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.mappers.BeerMapper;
+import guru.springframework.juniemvc.models.BeerSearchDtos.BeerSearchHit;
+import guru.springframework.juniemvc.models.BeerSearchDtos.BeerSearchResponse;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.services.BeerSearchService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Timed("juniemvc.service")
+@Service
+@RequiredArgsConstructor
+class BeerSearchServiceImpl implements BeerSearchService {
+
+    private final BeerSearchIndex index;
+    private final BeerRepository beerRepository;
+    private final BeerMapper beerMapper;
+    private final BeerSearchProperties properties;
+
+    @Override
+    @Transactional(readOnly = true)
+    public BeerSearchResponse search(String query, Integer limit) {
+        int effectiveLimit = limit == null ? properties.defaultLimit() : Math.max(1, Math.min(limit, properties.maxLimit()));
+        List<BeerSearchIndex.Hit> hits = index.search(query, effectiveLimit);
+        if (hits.isEmpty()) {
+            return new BeerSearchResponse(query, List.of());
+        }
+        // hydrate only the ranked hits by primary key; ids deleted meanwhile are skipped
+        Map<Integer, Beer> beers = beerRepository.loadAllById(hits.stream().map(BeerSearchIndex.Hit::id).toList())
+                .stream().collect(Collectors.toMap(Beer::getId, Function.identity()));
+        List<BeerSearchHit> result = hits.stream()
+                .filter(hit -> beers.containsKey(hit.id()))
+                .map(hit -> new BeerSearchHit(hit.score(), beerMapper.toDto(beers.get(hit.id()))))
+                .toList();
+        return new BeerSearchResponse(query, result);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int reindex() {
+        // no surrounding transaction: each chunk is read in its own, so loaded beers do not pile up in one session
+        index.clear();
+        Sort byId = Sort.by("id");
+        Limit chunk = Limit.of(properties.rebuildChunkSize());
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Beer> window;
+        do {
+            window = beerRepository.findBy(position, byId, chunk);
+            window.forEach(beer -> index.put(beer.getId(), beer.getVersion(), beer.getBeerName(), beer.getDescription()));
+            if (!window.isEmpty()) {
+                position = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+        int size = index.size();
+        if (log.isInfoEnabled()) {
+            log.info("Beer search index built, beers={}", size);
+        }
+        return size;
+    }
+}
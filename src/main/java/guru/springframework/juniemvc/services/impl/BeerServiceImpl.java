@@ -1,84 +1,189 @@
 package guru.springframework.juniemvc.services.impl;
 
+import guru.springframework.juniemvc.config.CacheNames;
 import guru.springframework.juniemvc.entities.Beer;
 import guru.springframework.juniemvc.mappers.BeerMapper;
 import guru.springframework.juniemvc.models.BeerDto;
 import guru.springframework.juniemvc.models.BeerPatchDto;
+import guru.springframework.juniemvc.models.CursorPage;
 import guru.springframework.juniemvc.repositories.BeerRepository;
 import guru.springframework.juniemvc.services.BeerService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+@Timed("juniemvc.service")
 @Service
 public class BeerServiceImpl implements BeerService {
 
+    // properties a cursor may be built on; all map to NOT NULL columns so keyset predicates stay exact
+    static final Map<String, Class<?>> CURSOR_KEYS = Map.of(
+            "id", Integer.class,
+            "beerName", String.class,
+            "beerStyle", String.class,
+            "upc", String.class,
+            "price", BigDecimal.class);
+
     private final BeerRepository beerRepository;
     private final BeerMapper beerMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public BeerServiceImpl(BeerRepository beerRepository, BeerMapper beerMapper) {
+    public BeerServiceImpl(BeerRepository beerRepository, BeerMapper beerMapper, ApplicationEventPublisher eventPublisher) {
         this.beerRepository = beerRepository;
         this.beerMapper = beerMapper;
+        this.eventPublisher = eventPublisher;
     }
 
+    // a new beer may belong to any cached list
     @Override
+    @CacheEvict(cacheNames = CacheNames.BEER_LISTS, allEntries = true)
     public BeerDto create(BeerDto beerDto) {
         Beer toSave = beerMapper.toEntity(beerDto);
         Beer saved = beerRepository.save(toSave);
+        publishChanged(saved);
         return beerMapper.toDto(saved);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.BEER_BY_ID, key = "#id", unless = "#result == null")
     public Optional<BeerDto> getById(Integer id) {
         return beerRepository.findById(id).map(beerMapper::toDto);
     }
 
     @Override
+    public Optional<Integer> getVersion(Integer id) {
+        // beers live in the second-level cache, so a revalidation is answered without touching the database
+        return beerRepository.findById(id).map(beer -> beer.getVersion() == null ? 0 : beer.getVersion());
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.BEER_LISTS, keyGenerator = CacheNames.BEER_LIST_KEY_GENERATOR)
     public Page<BeerDto> list(Pageable pageable, String beerName, String beerStyle) {
-        Page<Beer> page;
         boolean hasName = beerName != null && !beerName.isBlank();
         boolean hasStyle = beerStyle != null && !beerStyle.isBlank();
+        String style = Beer.normalizeStyle(beerStyle);
+        if (hasName && hasStyle) {
+            return beerRepository.findDtosByBeerNameAndBeerStyleNormalized(beerName, style, pageable);
+        } else if (hasName) {
+            return beerRepository.findDtosByBeerName(beerName, pageable);
+        } else if (hasStyle) {
+            return beerRepository.findDtosByBeerStyleNormalized(style, pageable);
+        }
+        return beerRepository.findDtosBy(pageable);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.BEER_LISTS, keyGenerator = CacheNames.BEER_LIST_KEY_GENERATOR)
+    public Slice<BeerDto> listSlice(Pageable pageable, String beerName, String beerStyle) {
+        boolean hasName = beerName != null && !beerName.isBlank();
+        boolean hasStyle = beerStyle != null && !beerStyle.isBlank();
+        String style = Beer.normalizeStyle(beerStyle);
         if (hasName && hasStyle) {
-            page = beerRepository.findByBeerNameContainingIgnoreCaseAndBeerStyleIgnoreCase(beerName, beerStyle, pageable);
+            return beerRepository.findDtoSliceByBeerNameAndBeerStyleNormalized(beerName, style, pageable);
         } else if (hasName) {
-            page = beerRepository.findByBeerNameContainingIgnoreCase(beerName, pageable);
+            return beerRepository.findDtoSliceByBeerName(beerName, pageable);
         } else if (hasStyle) {
-            page = beerRepository.findByBeerStyleIgnoreCase(beerStyle, pageable);
+            return beerRepository.findDtoSliceByBeerStyleNormalized(style, pageable);
+        }
+        return beerRepository.findDtoSliceBy(pageable);
+    }
+
+    @Override
+    public CursorPage<BeerDto> scroll(String cursor, Pageable pageable, String beerName, String beerStyle) {
+        Sort sort = KeysetCursors.sort(pageable, CURSOR_KEYS);
+        ScrollPosition position = KeysetCursors.position(cursor, sort, CURSOR_KEYS);
+        Limit limit = KeysetCursors.limit(pageable);
+        Window<Beer> window;
+        boolean hasName = beerName != null && !beerName.isBlank();
+        boolean hasStyle = beerStyle != null && !beerStyle.isBlank();
+        String style = Beer.normalizeStyle(beerStyle);
+        if (hasName && hasStyle) {
+            window = beerRepository.findByBeerNameContainingIgnoreCaseAndBeerStyleNormalized(beerName, style, position, sort, limit);
+        } else if (hasName) {
+            window = beerRepository.findByBeerNameContainingIgnoreCase(beerName, position, sort, limit);
+        } else if (hasStyle) {
+            window = beerRepository.findByBeerStyleNormalized(style, position, sort, limit);
         } else {
-            page = beerRepository.findAll(pageable);
+            window = beerRepository.findBy(position, sort, limit);
         }
-        return page.map(beerMapper::toDto);
+        return KeysetCursors.toPage(window, beerMapper::toDto);
     }
 
     @Override
-    public Optional<BeerDto> update(Integer id, BeerDto beerDto) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.BEER_BY_ID, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.BEER_LISTS, allEntries = true)
+    })
+    public Optional<BeerDto> update(Integer id, BeerDto beerDto, Set<Integer> expectedVersions) {
         return beerRepository.findById(id).map(existing -> {
+            VersionPreconditions.check(expectedVersions, existing.getVersion(), id);
+            Integer quantityBefore = existing.getQuantityOnHand();
             // keep id/createdDate/updatedDate from existing entity
             beerMapper.updateEntity(existing, beerDto);
             existing.setId(id);
-            Beer saved = beerRepository.save(existing);
+            // flush so the response (and its ETag) carries the incremented version
+            Beer saved = beerRepository.saveAndFlush(existing);
+            publishChanged(saved);
+            publishRestocked(quantityBefore, saved);
             return beerMapper.toDto(saved);
         });
     }
 
     @Override
-    public Optional<BeerDto> patch(Integer id, BeerPatchDto beerPatchDto) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.BEER_BY_ID, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.BEER_LISTS, allEntries = true)
+    })
+    public Optional<BeerDto> patch(Integer id, BeerPatchDto beerPatchDto, Set<Integer> expectedVersions) {
         return beerRepository.findById(id).map(existing -> {
+            VersionPreconditions.check(expectedVersions, existing.getVersion(), id);
+            Integer quantityBefore = existing.getQuantityOnHand();
             beerMapper.updateFromPatch(existing, beerPatchDto);
             existing.setId(id);
-            Beer saved = beerRepository.save(existing);
+            // flush so the response (and its ETag) carries the incremented version
+            Beer saved = beerRepository.saveAndFlush(existing);
+            publishChanged(saved);
+            publishRestocked(quantityBefore, saved);
             return beerMapper.toDto(saved);
         });
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.BEER_BY_ID, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.BEER_LISTS, allEntries = true)
+    })
     public boolean delete(Integer id) {
         if (beerRepository.existsById(id)) {
             beerRepository.deleteById(id);
+            eventPublisher.publishEvent(new BeerDeletedEvent(id));
             return true;
         }
         return false;
     }
+
+    private void publishChanged(Beer beer) {
+        eventPublisher.publishEvent(new BeerChangedEvent(beer.getId(), beer.getVersion(), beer.getBeerName(), beer.getDescription()));
+    }
+
+    private void publishRestocked(Integer quantityBefore, Beer beer) {
+        if (BeerRestockedEvent.isRestock(quantityBefore, beer.getQuantityOnHand())) {
+            eventPublisher.publishEvent(new BeerRestockedEvent(Set.of(beer.getId())));
+        }
+    }
 }
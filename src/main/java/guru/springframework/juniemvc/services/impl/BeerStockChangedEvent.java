@@ -0,0 +1,10 @@
+package guru.springframework.juniemvc.services.impl;
+
+import java.util.Set;
+
+/**
+ * Published by {@link InventoryAllocator} after stock of the given beers was taken by conditional updates, and by
+ * {@link BeerImportServiceImpl} after an import chunk; both bypass {@link BeerServiceImpl} and its cache evictions.
+ * {@code stockOnly} is set when nothing but the quantity on hand changed, so no beer joins or leaves a cached list.
+ */
+record BeerStockChangedEvent(Set<Integer> beerIds, boolean stockOnly) {}
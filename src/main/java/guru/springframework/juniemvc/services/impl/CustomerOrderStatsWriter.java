@@ -0,0 +1,44 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.repositories.CustomerOrderStatsRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Adds new orders to the lifetime totals of their customers. Must run inside the transaction that creates the
+ * orders, so the totals change exactly when the orders are committed.
+ */
+@Component
+class CustomerOrderStatsWriter {
+
+    private record Totals(long orders, BigDecimal spend) {
+
+        Totals plus(Totals other) {
+            return new Totals(orders + other.orders, spend.add(other.spend));
+        }
+    }
+
+    private final CustomerOrderStatsRepository customerOrderStatsRepository;
+
+    CustomerOrderStatsWriter(CustomerOrderStatsRepository customerOrderStatsRepository) {
+        this.customerOrderStatsRepository = customerOrderStatsRepository;
+    }
+
+    void addAll(Collection<BeerOrder> orders) {
+        // one merge per customer, in id order so concurrent batches lock the rows in the same order
+        Map<Integer, Totals> byCustomer = new TreeMap<>();
+        for (BeerOrder order : orders) {
+            if (order.getCustomer() != null) {
+                BigDecimal spend = order.getPaymentAmount() == null ? BigDecimal.ZERO : order.getPaymentAmount();
+                byCustomer.merge(order.getCustomer().getId(), new Totals(1, spend), Totals::plus);
+            }
+        }
+        byCustomer.forEach((customerId, totals) ->
+                customerOrderStatsRepository.addOrders(customerId, totals.orders(), totals.spend()));
+    }
+}
@@ -1,57 +1,147 @@
 package guru.springframework.juniemvc.services.impl;
 
 import guru.springframework.juniemvc.entities.Customer;
+import guru.springframework.juniemvc.entities.CustomerOrderStats;
+import guru.springframework.juniemvc.exceptions.CustomerNotFoundException;
 import guru.springframework.juniemvc.mappers.CustomerMapper;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerOrderHistory;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerOrderSummary;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerOrderTotals;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerUpdateRequest;
+import guru.springframework.juniemvc.models.CursorPage;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.CustomerOrderStatsRepository;
 import guru.springframework.juniemvc.repositories.CustomerRepository;
 import guru.springframework.juniemvc.services.CustomerService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+@Timed("juniemvc.service")
 @Service
 @RequiredArgsConstructor
 class CustomerServiceImpl implements CustomerService {
 
+    static final Map<String, Class<?>> CURSOR_KEYS = Map.of(
+            "id", Integer.class,
+            "name", String.class,
+            "city", String.class,
+            "state", String.class,
+            "postalCode", String.class);
+
+    // order history pages newest first; the cursor is the (createdDate, id) of the last order of a page
+    static final Map<String, Class<?>> ORDER_HISTORY_CURSOR_KEYS = Map.of(
+            "createdDate", LocalDateTime.class,
+            "id", Integer.class);
+
+    static final Sort ORDER_HISTORY_SORT = Sort.by(Sort.Direction.DESC, "createdDate", "id");
+
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
+    private final CustomerOrderStatsRepository customerOrderStatsRepository;
+    private final BeerOrderRepository beerOrderRepository;
 
     @Override
     @Transactional
     public CustomerResponse create(CustomerCreateRequest cmd) {
         Customer entity = customerMapper.toEntity(cmd);
         Customer saved = customerRepository.save(entity);
+        // the totals row exists from the start, so orders only ever increment it
+        customerOrderStatsRepository.save(CustomerOrderStats.builder().customer(saved).build());
         return customerMapper.toResponse(saved);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<CustomerResponse> getById(Integer id) {
-        return customerRepository.findById(id).map(customerMapper::toResponse);
+        return customerRepository.findResponseById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Integer> getVersion(Integer id) {
+        return customerRepository.findVersionById(id);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<CustomerResponse> list(Pageable pageable) {
-        Page<Customer> page = customerRepository.findAll(pageable);
-        List<CustomerResponse> mapped = page.getContent().stream().map(customerMapper::toResponse).toList();
-        return new PageImpl<>(mapped, pageable, page.getTotalElements());
+        return customerRepository.findResponsesBy(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CustomerResponse> listSlice(Pageable pageable) {
+        return customerRepository.findResponseSliceBy(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CustomerResponse> scroll(String cursor, Pageable pageable) {
+        Sort sort = KeysetCursors.sort(pageable, CURSOR_KEYS);
+        return KeysetCursors.toPage(
+                customerRepository.findBy(KeysetCursors.position(cursor, sort, CURSOR_KEYS), sort, KeysetCursors.limit(pageable)),
+                customerMapper::toResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerOrderHistory getOrderHistory(Integer id, String cursor, Pageable pageable) {
+        CustomerOrderTotals totals = customerOrderStatsRepository.findTotalsByCustomerId(id).orElseGet(() -> {
+            // customers stored without going through create() have no totals row yet
+            if (!customerRepository.existsById(id)) {
+                throw new CustomerNotFoundException(id);
+            }
+            return beerOrderRepository.sumCustomerOrders(id);
+        });
+
+        int size = pageable.getPageSize();
+        // one more row than requested tells whether there is a next page
+        Limit limit = Limit.of(size + 1);
+        KeysetScrollPosition position = (KeysetScrollPosition) KeysetCursors.position(cursor, ORDER_HISTORY_SORT, ORDER_HISTORY_CURSOR_KEYS);
+        List<CustomerOrderSummary> rows = position.isInitial()
+                ? beerOrderRepository.findCustomerOrderSummaries(id, limit)
+                : beerOrderRepository.findCustomerOrderSummariesBefore(id, (LocalDateTime) position.getKeys().get("createdDate"),
+                        (Integer) position.getKeys().get(KeysetCursors.ID), limit);
+
+        boolean hasNext = rows.size() > size;
+        List<CustomerOrderSummary> content = hasNext ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasNext) {
+            CustomerOrderSummary last = content.get(content.size() - 1);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("createdDate", last.createdDate());
+            keys.put(KeysetCursors.ID, last.id());
+            next = KeysetCursors.encode(ScrollPosition.forward(keys));
+        }
+        return new CustomerOrderHistory(id, totals, new CursorPage<>(content, content.size(), hasNext, next));
     }
 
     @Override
     @Transactional
-    public Optional<CustomerResponse> update(Integer id, CustomerUpdateRequest cmd) {
+    public Optional<CustomerResponse> update(Integer id, CustomerUpdateRequest cmd, Set<Integer> expectedVersions) {
         return customerRepository.findById(id).map(existing -> {
+            VersionPreconditions.check(expectedVersions, existing.getVersion(), id);
             customerMapper.updateEntity(existing, cmd);
-            Customer saved = customerRepository.save(existing);
+            // flush so the response (and its ETag) carries the incremented version
+            Customer saved = customerRepository.saveAndFlush(existing);
             return customerMapper.toResponse(saved);
         });
     }
@@ -0,0 +1,53 @@
+package guru.springframework.juniemvc.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.config.OutboxProperties;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import guru.springframework.juniemvc.services.OutboxSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends published events as NDJSON, one event per line, to {@code juniemvc.outbox.file}
+ * ({@code juniemvc.outbox.sink=file}). Each batch is written and forced to disk before the relay commits it.
+ */
+@Component
+@ConditionalOnProperty(name = "juniemvc.outbox.sink", havingValue = "file")
+class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    FileOutboxSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        this.file = properties.file();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEventResponse> events) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE, StandardOpenOption.SYNC)) {
+                for (OutboxEventResponse event : events) {
+                    writer.write(objectMapper.writeValueAsString(event));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append outbox events to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.OutboxProperties;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import guru.springframework.juniemvc.services.OutboxSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent published events in memory; for local runs and tests ({@code juniemvc.outbox.sink=memory}).
+ */
+@Component
+@ConditionalOnProperty(name = "juniemvc.outbox.sink", havingValue = "memory", matchIfMissing = true)
+class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<OutboxEventResponse> events = new ArrayDeque<>();
+
+    InMemoryOutboxSink(OutboxProperties properties) {
+        this.capacity = properties.memoryCapacity();
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEventResponse> batch) {
+        for (OutboxEventResponse event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    synchronized List<OutboxEventResponse> events() {
+        return new ArrayList<>(events);
+    }
+}
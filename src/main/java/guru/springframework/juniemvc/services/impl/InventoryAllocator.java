@@ -0,0 +1,170 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.entities.BeerOrderLine;
+import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Takes stock for order lines and moves lines and orders through their allocation states.
+ * <p>
+ * Stock is taken with conditional single-row UPDATEs on {@code beer} rather than read-modify-write on the entity,
+ * so there is no application-level lock at all: the database row lock serializes allocations of the same beer,
+ * allocations of different beers never contend, and the {@code quantity_on_hand >= :qty} and compare-and-set guards
+ * make it impossible to take more than is on hand. Beers are always updated in ascending id order so two
+ * transactions allocating overlapping beers cannot deadlock.
+ * <p>
+ * Must be called inside a transaction; the caller's commit makes the stock change and the line updates atomic.
+ */
+@Slf4j
+@Component
+class InventoryAllocator {
+
+    // beyond this many lost compare-and-set races the beer is treated as out of stock for this attempt
+    static final int MAX_CAS_ATTEMPTS = 16;
+
+    static final Set<OrderStatus> ALLOCATABLE =
+            EnumSet.of(OrderStatus.NEW, OrderStatus.VALIDATED, OrderStatus.PARTIALLY_ALLOCATED);
+
+    private final BeerRepository beerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    InventoryAllocator(BeerRepository beerRepository, ApplicationEventPublisher eventPublisher) {
+        this.beerRepository = beerRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * An order whose lines were changed by an allocation run, with its status before the run. When the status did
+     * not change, nothing marks the order itself dirty.
+     */
+    record Change(BeerOrder order, OrderStatus previousStatus) {
+        boolean statusChanged() {
+            return order.getStatus() != previousStatus;
+        }
+    }
+
+    /**
+     * Allocates the open quantity of every line of the given orders, one stock update per distinct beer. Lines
+     * are served in the order given, so earlier orders win when stock runs short. Orders that are no longer
+     * allocatable (shipped, canceled, fully allocated) are skipped. Returns the orders whose lines changed; a line
+     * that stays on backorder with nothing more allocated is no change.
+     */
+    List<Change> allocate(Collection<BeerOrder> orders) {
+        SortedMap<Integer, List<BeerOrderLine>> openLinesByBeer = new TreeMap<>();
+        List<BeerOrder> allocatable = new ArrayList<>(orders.size());
+        for (BeerOrder order : orders) {
+            if (!ALLOCATABLE.contains(order.getStatus())) {
+                continue;
+            }
+            allocatable.add(order);
+            for (BeerOrderLine line : order.getLines()) {
+                if (line.getStatus() != LineStatus.CANCELED && open(line) > 0) {
+                    openLinesByBeer.computeIfAbsent(line.getBeer().getId(), id -> new ArrayList<>()).add(line);
+                }
+            }
+        }
+
+        // take all stock first: touching the lines in between would flush them before every stock update
+        Map<Integer, Integer> grants = new HashMap<>();
+        for (Map.Entry<Integer, List<BeerOrderLine>> entry : openLinesByBeer.entrySet()) {
+            int requested = entry.getValue().stream().mapToInt(InventoryAllocator::open).sum();
+            grants.put(entry.getKey(), take(entry.getKey(), requested));
+        }
+
+        Set<Integer> changed = new LinkedHashSet<>();
+        Set<BeerOrderLine> changedLines = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Integer, List<BeerOrderLine>> entry : openLinesByBeer.entrySet()) {
+            int granted = grants.get(entry.getKey());
+            if (granted > 0) {
+                changed.add(entry.getKey());
+            }
+            for (BeerOrderLine line : entry.getValue()) {
+                int share = Math.min(open(line), granted);
+                granted -= share;
+                LineStatus previous = line.getStatus();
+                line.setQuantityAllocated(line.getQuantityAllocated() + share);
+                line.setStatus(open(line) == 0 ? LineStatus.ALLOCATED : LineStatus.BACKORDER);
+                if (share > 0 || line.getStatus() != previous) {
+                    changedLines.add(line);
+                }
+            }
+        }
+
+        List<Change> changes = new ArrayList<>();
+        for (BeerOrder order : allocatable) {
+            OrderStatus previous = order.getStatus();
+            order.setStatus(statusOf(order));
+            if (order.getLines().stream().anyMatch(changedLines::contains)) {
+                changes.add(new Change(order, previous));
+            }
+        }
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new BeerStockChangedEvent(changed, true));
+        }
+        return changes;
+    }
+
+    /**
+     * Takes up to {@code requested} units of the beer and returns how many were taken: all of them when enough
+     * is on hand (one UPDATE), otherwise whatever is left, claimed with a compare-and-set on the observed level.
+     */
+    int take(Integer beerId, int requested) {
+        if (requested <= 0) {
+            return 0;
+        }
+        if (beerRepository.decrementQuantityOnHand(beerId, requested) == 1) {
+            return requested;
+        }
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            int onHand = beerRepository.findQuantityOnHandById(beerId).orElse(0);
+            if (onHand <= 0) {
+                return 0;
+            }
+            int granted = Math.min(onHand, requested);
+            if (beerRepository.compareAndSetQuantityOnHand(beerId, onHand, onHand - granted) == 1) {
+                return granted;
+            }
+        }
+        log.warn("Allocation of beer id={} lost {} stock updates in a row, backordering", beerId, MAX_CAS_ATTEMPTS);
+        return 0;
+    }
+
+    private static int open(BeerOrderLine line) {
+        return line.getOrderQuantity() - line.getQuantityAllocated();
+    }
+
+    private static OrderStatus statusOf(BeerOrder order) {
+        boolean complete = true;
+        boolean any = false;
+        for (BeerOrderLine line : order.getLines()) {
+            if (line.getStatus() == LineStatus.CANCELED) {
+                continue;
+            }
+            complete &= open(line) == 0;
+            any |= line.getQuantityAllocated() > 0;
+        }
+        if (complete) {
+            return OrderStatus.ALLOCATED;
+        }
+        // nothing taken yet: the order stays where it was with its lines on BACKORDER
+        return any ? OrderStatus.PARTIALLY_ALLOCATED : order.getStatus();
+    }
+}
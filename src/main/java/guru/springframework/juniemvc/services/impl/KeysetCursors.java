@@ -0,0 +1,120 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.exceptions.InvalidCursorException;
+import guru.springframework.juniemvc.models.CursorPage;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Helpers for keyset (cursor) pagination on top of Spring Data {@link Window} queries.
+ * <p>
+ * A cursor is the Base64url form of the sort key values of the last row of a page, e.g.
+ * {@code beerName=Pilsner&id=42}. The sort always ends with {@code id}, so rows sharing a sort
+ * value keep a stable order and the next page starts strictly after the last row returned.
+ */
+final class KeysetCursors {
+
+    static final String ID = "id";
+
+    private KeysetCursors() {}
+
+    /**
+     * Validates the requested sort against the properties allowed for keyset paging (non-null columns only)
+     * and appends {@code id} as tie-breaker.
+     */
+    static Sort sort(Pageable pageable, Map<String, Class<?>> sortableKeys) {
+        Sort sort = Sort.unsorted();
+        for (Sort.Order order : pageable.getSort()) {
+            if (!sortableKeys.containsKey(order.getProperty())) {
+                throw new InvalidCursorException("Unsupported sort property for cursor paging: " + order.getProperty());
+            }
+            if (!ID.equals(order.getProperty())) {
+                sort = sort.and(Sort.by(order.getDirection(), order.getProperty()));
+            }
+        }
+        Sort.Order idOrder = pageable.getSort().getOrderFor(ID);
+        return sort.and(Sort.by(idOrder != null ? idOrder.getDirection() : Sort.Direction.ASC, ID));
+    }
+
+    static Limit limit(Pageable pageable) {
+        return Limit.of(pageable.getPageSize());
+    }
+
+    /**
+     * Decodes a cursor into the position to continue from; a null or blank cursor starts at the first row.
+     * The cursor must carry exactly the properties of {@code sort}.
+     */
+    static ScrollPosition position(String cursor, Sort sort, Map<String, Class<?>> keyTypes) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            for (String pair : decoded.split("&")) {
+                int eq = pair.indexOf('=');
+                String property = URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8);
+                String value = URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                Class<?> type = keyTypes.get(property);
+                if (type == null || sort.getOrderFor(property) == null) {
+                    throw new InvalidCursorException("Cursor does not match the requested sort");
+                }
+                keys.put(property, convert(value, type));
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (keys.size() != sort.stream().count()) {
+            throw new InvalidCursorException("Cursor does not match the requested sort");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    static <T, R> CursorPage<R> toPage(Window<T> window, Function<T, R> mapper) {
+        String next = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            next = encode((KeysetScrollPosition) window.positionAt(window.size() - 1));
+        }
+        return new CursorPage<>(window.map(mapper).getContent(), window.size(), window.hasNext(), next);
+    }
+
+    static String encode(KeysetScrollPosition position) {
+        StringJoiner joiner = new StringJoiner("&");
+        position.getKeys().forEach((property, value) -> joiner.add(
+                URLEncoder.encode(property, StandardCharsets.UTF_8) + "=" + URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object convert(String value, Class<?> type) {
+        if (type == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == BigDecimal.class) {
+            return new BigDecimal(value);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.parse(value);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        return value;
+    }
+}
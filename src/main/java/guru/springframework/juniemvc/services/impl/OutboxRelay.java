@@ -0,0 +1,188 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.OutboxProperties;
+import guru.springframework.juniemvc.entities.OutboxEvent;
+import guru.springframework.juniemvc.mappers.OutboxEventMapper;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import guru.springframework.juniemvc.repositories.OutboxEventRepository;
+import guru.springframework.juniemvc.services.OutboxSink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background thread that moves outbox events to the {@link OutboxSink}s.
+ * <p>
+ * Each round is one transaction: up to {@code batch-size} unpublished events are read in id order, stamped with
+ * the next positions, handed to every sink and marked published. If a sink fails, the transaction rolls back and
+ * the same events are retried, so delivery is at-least-once. Positions are assigned here and not by the id
+ * sequence: ids are pre-allocated in pooled blocks and committed out of order, positions are gap-free in publish
+ * order, so a consumer reading {@code position > after} never skips an event that committed late. A position is
+ * only final once its round committed: a retried round hands the same positions out again, possibly to other
+ * events, which is why sinks de-duplicate on the event id. This relies on a single relay per database; a second
+ * one fails on the unique position and retries.
+ */
+@Slf4j
+@Component
+class OutboxRelay implements SmartLifecycle {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventMapper mapper;
+    private final ObjectProvider<OutboxSink> sinks;
+    private final TransactionOperations transactionOperations;
+    private final OutboxProperties properties;
+    private final Counter published;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    private volatile long lastPosition = -1;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxEventMapper mapper, ObjectProvider<OutboxSink> sinks,
+                TransactionOperations transactionOperations, OutboxProperties properties, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.mapper = mapper;
+        this.sinks = sinks;
+        this.transactionOperations = transactionOperations;
+        this.properties = properties;
+        this.published = Counter.builder("juniemvc.outbox.published")
+                .description("Outbox events handed to the sinks")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread relay = new Thread(this::run, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+        thread = relay;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread relay = thread;
+        if (relay != null) {
+            // let the current round finish instead of interrupting JDBC calls
+            try {
+                relay.join(properties.pollInterval().toMillis() + 5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (relay.isAlive()) {
+                relay.interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // stops after the allocation worker, which still writes events while it drains
+        return AllocationWorker.PHASE - 1024;
+    }
+
+    /**
+     * Highest published position; -1 until the relay has read the table.
+     */
+    long lastPosition() {
+        return lastPosition;
+    }
+
+    /**
+     * Blocks until an event beyond {@code position} was published or {@code timeout} elapsed.
+     */
+    void awaitPublishedAfter(long position, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (lastPosition <= position && remaining > 0) {
+                remaining = advanced.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (lastPosition < 0) {
+                    advanceTo(outboxEventRepository.findMaxPosition());
+                }
+                if (publishBatch() == 0) {
+                    TimeUnit.MILLISECONDS.sleep(properties.pollInterval().toMillis());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay round failed, retrying: {}", e.getMessage());
+                // re-read the position: another relay or a rolled back round may have moved it
+                lastPosition = -1;
+                sleepQuietly();
+            }
+        }
+    }
+
+    int publishBatch() {
+        long[] position = {lastPosition};
+        Integer count = transactionOperations.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.findByPositionIsNullOrderById(Limit.of(properties.batchSize()));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (OutboxEvent event : batch) {
+                event.setPosition(++position[0]);
+                event.setPublishedDate(now);
+            }
+            List<OutboxEventResponse> events = batch.stream().map(mapper::toResponse).toList();
+            sinks.orderedStream().forEach(sink -> sink.publish(events));
+            return batch.size();
+        });
+        if (count != null && count > 0) {
+            published.increment(count);
+            advanceTo(position[0]);
+        }
+        return count == null ? 0 : count;
+    }
+
+    private void advanceTo(long position) {
+        lock.lock();
+        try {
+            lastPosition = position;
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(properties.pollInterval().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
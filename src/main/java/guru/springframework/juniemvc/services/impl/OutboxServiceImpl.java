@@ -0,0 +1,61 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.OutboxProperties;
+import guru.springframework.juniemvc.mappers.OutboxEventMapper;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import guru.springframework.juniemvc.repositories.OutboxEventRepository;
+import guru.springframework.juniemvc.services.OutboxService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+@Timed("juniemvc.service")
+@Service
+class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventMapper mapper;
+    private final OutboxRelay relay;
+    private final OutboxProperties properties;
+
+    OutboxServiceImpl(OutboxEventRepository outboxEventRepository, OutboxEventMapper mapper, OutboxRelay relay,
+                      OutboxProperties properties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.mapper = mapper;
+        this.relay = relay;
+        this.properties = properties;
+    }
+
+    @Override
+    public List<OutboxEventResponse> eventsAfter(long after, Integer limit, Duration wait) {
+        int bounded = bound(limit);
+        Duration boundedWait = wait.compareTo(properties.maxWait()) > 0 ? properties.maxWait() : wait;
+        // a caller that is already caught up waits for the relay instead of querying again and again
+        if (!boundedWait.isZero() && !boundedWait.isNegative() && relay.lastPosition() >= 0 && relay.lastPosition() <= after) {
+            try {
+                relay.awaitPublishedAfter(after, boundedWait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+        }
+        return outboxEventRepository.findByPositionGreaterThanOrderByPosition(after, Limit.of(bounded)).stream()
+                .map(mapper::toResponse)
+                .toList();
+    }
+
+    @Override
+    public List<OutboxEventResponse> orderEventsAfter(Integer beerOrderId, long after, Integer limit) {
+        return outboxEventRepository.findByBeerOrderIdAndPositionGreaterThanOrderByPosition(beerOrderId, after, Limit.of(bound(limit)))
+                .stream()
+                .map(mapper::toResponse)
+                .toList();
+    }
+
+    private int bound(Integer limit) {
+        return limit == null || limit <= 0 ? properties.defaultLimit() : Math.min(limit, properties.maxLimit());
+    }
+}
@@ -0,0 +1,54 @@
+package guru.springframework.juniemvc.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.OutboxEvent;
+import guru.springframework.juniemvc.entities.OutboxEventType;
+import guru.springframework.juniemvc.repositories.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Appends events to the outbox table. Must run inside the transaction of the state change, so the event is
+ * committed exactly when the change is.
+ */
+@Component
+class OutboxWriter {
+
+    record Entry(OutboxEventType type, Integer beerOrderId, Object payload) {}
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    OutboxWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    void append(OutboxEventType type, Integer beerOrderId, Object payload) {
+        appendAll(List.of(new Entry(type, beerOrderId, payload)));
+    }
+
+    void appendAll(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // saveAll lets the inserts go out as one JDBC batch
+        outboxEventRepository.saveAll(entries.stream()
+                .map(e -> OutboxEvent.builder()
+                        .type(e.type())
+                        .beerOrderId(e.beerOrderId())
+                        .payload(toJson(e.payload()))
+                        .build())
+                .toList());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload " + payload.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.ReportProperties;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.exceptions.InvalidReportRangeException;
+import guru.springframework.juniemvc.models.ReportDtos.BeerSalesRow;
+import guru.springframework.juniemvc.models.ReportDtos.OrderStatusRow;
+import guru.springframework.juniemvc.models.ReportDtos.StyleSalesRow;
+import guru.springframework.juniemvc.repositories.SalesRollupRepository;
+import guru.springframework.juniemvc.services.ReportService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Timed("juniemvc.service")
+@Service
+@RequiredArgsConstructor
+class ReportServiceImpl implements ReportService {
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final ReportProperties properties;
+
+    @Override
+    public List<BeerSalesRow> beerSales(LocalDate from, LocalDate to, Integer beerId) {
+        checkRange(from, to);
+        return beerId == null
+                ? salesRollupRepository.findBeerSales(from, to)
+                : salesRollupRepository.findBeerSales(beerId, from, to);
+    }
+
+    @Override
+    public List<StyleSalesRow> styleSales(LocalDate from, LocalDate to, String beerStyle) {
+        checkRange(from, to);
+        String style = Beer.normalizeStyle(beerStyle);
+        return style == null || style.isEmpty()
+                ? salesRollupRepository.findStyleSales(from, to)
+                : salesRollupRepository.findStyleSales(style, from, to);
+    }
+
+    @Override
+    public List<OrderStatusRow> orderStatuses(LocalDate from, LocalDate to, OrderStatus status) {
+        checkRange(from, to);
+        return status == null
+                ? salesRollupRepository.findOrderStatuses(from, to)
+                : salesRollupRepository.findOrderStatuses(status, from, to);
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new InvalidReportRangeException("to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= properties.maxDays()) {
+            throw new InvalidReportRangeException("Range must not be longer than " + properties.maxDays() + " days");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package guru.springframework.juniemvc.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineResponse;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.OutboxDtos.OrderChangedPayload;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import guru.springframework.juniemvc.repositories.SalesRollupRepository;
+import guru.springframework.juniemvc.repositories.SalesRollupWriter.BeerSalesDelta;
+import guru.springframework.juniemvc.repositories.SalesRollupWriter.OrderStatusDelta;
+import guru.springframework.juniemvc.services.OutboxSink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the daily reporting rollups current from the order events. Runs as an {@link OutboxSink}, i.e. on the
+ * relay thread inside the transaction that marks the batch published: the rollups change exactly once per event,
+ * off the request path, and a batch that rolls back is re-aggregated with its retry. A batch is summed in memory
+ * first, so it costs one batched statement per rollup table whatever the number of events. Events are counted on
+ * the day they were written. An order counts as backordered under the status it reaches with backordered lines,
+ * and under NEW when its first allocation backorders every line, which changes its lines but not its status.
+ */
+@Slf4j
+@Component
+class SalesRollupAggregator implements OutboxSink {
+
+    private record BeerDay(LocalDate date, Integer beerId) {}
+
+    private record StatusDay(LocalDate date, OrderStatus status) {}
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final ObjectMapper objectMapper;
+
+    SalesRollupAggregator(SalesRollupRepository salesRollupRepository, ObjectMapper objectMapper) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<OutboxEventResponse> events) {
+        Map<BeerDay, long[]> sales = new LinkedHashMap<>();
+        Map<StatusDay, long[]> statuses = new LinkedHashMap<>();
+        for (OutboxEventResponse event : events) {
+            LocalDate date = event.occurredAt().toLocalDate();
+            try {
+                switch (event.type()) {
+                    case ORDER_CREATED -> {
+                        BeerOrderResponse order = objectMapper.readValue(event.payload(), BeerOrderResponse.class);
+                        for (BeerOrderLineResponse line : order.lines()) {
+                            long[] units = sales.computeIfAbsent(new BeerDay(date, line.beerId()), key -> new long[2]);
+                            units[0] += line.orderQuantity();
+                            units[1]++;
+                        }
+                        count(statuses, date, order, 1);
+                    }
+                    case ORDER_STATUS_CHANGED -> {
+                        OrderChangedPayload change = objectMapper.readValue(event.payload(), OrderChangedPayload.class);
+                        count(statuses, date, change.order(), 1);
+                    }
+                    case ORDER_LINES_CHANGED -> {
+                        // the order keeps its status; only an order still NEW changes lines by being backordered
+                        OrderChangedPayload change = objectMapper.readValue(event.payload(), OrderChangedPayload.class);
+                        if (change.order().status() == OrderStatus.NEW) {
+                            count(statuses, date, change.order(), 0);
+                        }
+                    }
+                    default -> {
+                        // shipments do not move any rollup
+                    }
+                }
+            } catch (IOException ex) {
+                // retrying would not make the payload readable; skip it rather than block the relay
+                log.warn("Unreadable payload of outbox event {}, left out of the rollups", event.position(), ex);
+            }
+        }
+        salesRollupRepository.addBeerSales(sales.entrySet().stream()
+                .map(e -> new BeerSalesDelta(e.getKey().date(), e.getKey().beerId(), e.getValue()[0], e.getValue()[1]))
+                .toList());
+        salesRollupRepository.addOrderStatuses(statuses.entrySet().stream()
+                .map(e -> new OrderStatusDelta(e.getKey().date(), e.getKey().status(), e.getValue()[0], e.getValue()[1]))
+                .toList());
+    }
+
+    private static void count(Map<StatusDay, long[]> statuses, LocalDate date, BeerOrderResponse order, long reached) {
+        long[] counts = statuses.computeIfAbsent(new StatusDay(date, order.status()), key -> new long[2]);
+        counts[0] += reached;
+        if (order.lines().stream().anyMatch(line -> line.status() == LineStatus.BACKORDER)) {
+            counts[1]++;
+        }
+    }
+}
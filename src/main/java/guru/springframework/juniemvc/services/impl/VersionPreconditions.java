@@ -0,0 +1,27 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.exceptions.PreconditionFailedException;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Checks of a client-supplied version (from {@code If-Match}) against the version of the loaded entity.
+ * The flush still runs with {@code where version = ?}, so a write that races past this check fails with an
+ * optimistic locking exception instead of overwriting.
+ */
+final class VersionPreconditions {
+
+    private VersionPreconditions() {}
+
+    /** Passes when the entity has any of the {@code expected} versions; no-op when null (unconditional write). */
+    static void check(Set<Integer> expected, Integer actual, Object id) {
+        int version = Objects.requireNonNullElse(actual, 0);
+        if (expected != null && !expected.contains(version)) {
+            String versions = expected.size() == 1 ? expected.iterator().next().toString() : "one of " + new TreeSet<>(expected);
+            throw new PreconditionFailedException(
+                    "Resource " + id + " was modified: expected version " + versions + " but found " + version);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchResponse;
+import guru.springframework.juniemvc.services.BeerOrderService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Custom method on the beer-orders collection; mapped separately because a class-level
+// "/api/v1/beer-orders" prefix would insert a "/" before ":batch".
+@RestController
+@RequestMapping("/api/v1")
+@Validated
+class BeerOrderBatchController {
+
+    private final BeerOrderService beerOrderService;
+
+    BeerOrderBatchController(BeerOrderService beerOrderService) {
+        this.beerOrderService = beerOrderService;
+    }
+
+    @PostMapping("/beer-orders:batch")
+    ResponseEntity<BeerOrderBatchResponse> createAll(@Valid @RequestBody BeerOrderBatchRequest request) {
+        return ResponseEntity.ok(beerOrderService.createAll(request.orders()));
+    }
+}
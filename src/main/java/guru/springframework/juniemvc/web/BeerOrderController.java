@@ -1,14 +1,23 @@
 package guru.springframework.juniemvc.web;
 
+import guru.springframework.juniemvc.entities.OrderStatus;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderSearchCriteria;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderSummary;
+import guru.springframework.juniemvc.models.CursorPage;
 import guru.springframework.juniemvc.services.BeerOrderService;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/v1/beer-orders")
@@ -27,9 +36,41 @@ class BeerOrderController {
         return ResponseEntity.created(URI.create("/api/v1/beer-orders/" + response.id())).body(response);
     }
 
+    // order search: always keyset-paged (no cursor or an empty one requests the first page), newest first by default
+    @GetMapping
+    ResponseEntity<CursorPage<BeerOrderSummary>> search(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "customerId", required = false) Integer customerId,
+            @RequestParam(value = "customerRef", required = false) String customerRef,
+            @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            Pageable pageable) {
+        BeerOrderSearchCriteria criteria = new BeerOrderSearchCriteria(status, customerId, customerRef, createdFrom, createdTo);
+        return ResponseEntity.ok(beerOrderService.search(criteria, cursor, pageable));
+    }
+
+    // the same search with the lines of every order, fetched for the whole page at once
+    @GetMapping(params = "lines=true")
+    ResponseEntity<CursorPage<BeerOrderResponse>> searchWithLines(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "customerId", required = false) Integer customerId,
+            @RequestParam(value = "customerRef", required = false) String customerRef,
+            @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            Pageable pageable) {
+        BeerOrderSearchCriteria criteria = new BeerOrderSearchCriteria(status, customerId, customerRef, createdFrom, createdTo);
+        return ResponseEntity.ok(beerOrderService.searchWithLines(criteria, cursor, pageable));
+    }
+
     @GetMapping("/{id}")
-    ResponseEntity<BeerOrderResponse> getById(@PathVariable Integer id) {
+    ResponseEntity<BeerOrderResponse> getById(@PathVariable Integer id, WebRequest request) {
+        Integer version = beerOrderService.getVersion(id);
+        if (request.checkNotModified(ETags.of(id, version))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(id, version)).build();
+        }
         BeerOrderResponse response = beerOrderService.getById(id);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(ETags.of(response.id(), response.version())).body(response);
     }
 }
@@ -2,13 +2,16 @@ package guru.springframework.juniemvc.web;
 
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentRequest;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentResponse;
+import guru.springframework.juniemvc.models.CursorPage;
 import guru.springframework.juniemvc.services.BeerOrderShipmentService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 
@@ -36,16 +39,31 @@ class BeerOrderShipmentController {
         return ResponseEntity.ok(service.list(beerOrderId, pageable));
     }
 
+    @GetMapping(params = "cursor")
+    ResponseEntity<CursorPage<BeerOrderShipmentResponse>> scroll(@PathVariable Integer beerOrderId,
+                                                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                                                 Pageable pageable) {
+        return ResponseEntity.ok(service.scroll(beerOrderId, cursor, pageable));
+    }
+
     @GetMapping("/{id}")
-    ResponseEntity<BeerOrderShipmentResponse> getById(@PathVariable Integer beerOrderId, @PathVariable Integer id) {
-        return ResponseEntity.ok(service.getById(beerOrderId, id));
+    ResponseEntity<BeerOrderShipmentResponse> getById(@PathVariable Integer beerOrderId, @PathVariable Integer id,
+                                                      WebRequest request) {
+        Integer version = service.getVersion(beerOrderId, id);
+        if (request.checkNotModified(ETags.of(id, version))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(id, version)).build();
+        }
+        BeerOrderShipmentResponse response = service.getById(beerOrderId, id);
+        return ResponseEntity.ok().eTag(ETags.of(response.id(), response.version())).body(response);
     }
 
     @PutMapping("/{id}")
     ResponseEntity<BeerOrderShipmentResponse> update(@PathVariable Integer beerOrderId,
                                                      @PathVariable Integer id,
-                                                     @Valid @RequestBody BeerOrderShipmentRequest request) {
-        return ResponseEntity.ok(service.update(beerOrderId, id, request));
+                                                     @Valid @RequestBody BeerOrderShipmentRequest request,
+                                                     @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        BeerOrderShipmentResponse response = service.update(beerOrderId, id, request, ETags.expectedVersions(ifMatch, id));
+        return ResponseEntity.ok().eTag(ETags.of(response.id(), response.version())).body(response);
     }
 
     @DeleteMapping("/{id}")
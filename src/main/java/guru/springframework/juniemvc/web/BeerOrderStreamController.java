@@ -0,0 +1,80 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.config.OutboxProperties;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import guru.springframework.juniemvc.services.BeerOrderService;
+import guru.springframework.juniemvc.services.OutboxService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Live status of one order as Server-Sent Events: an {@code order} event with the current state, then an
+ * {@code order} event with the full {@link BeerOrderResponse} whenever status or lines change and a
+ * {@code shipment} event per shipment. A client reconnecting with {@code Last-Event-ID} gets the events it missed
+ * instead of the snapshot.
+ */
+@RestController
+@RequestMapping("/api/v1/beer-orders")
+class BeerOrderStreamController {
+
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final BeerOrderService beerOrderService;
+    private final OutboxService outboxService;
+    private final OrderStreamRegistry registry;
+    private final int maxReplay;
+
+    BeerOrderStreamController(BeerOrderService beerOrderService, OutboxService outboxService,
+                              OrderStreamRegistry registry, OutboxProperties outboxProperties) {
+        this.beerOrderService = beerOrderService;
+        this.outboxService = outboxService;
+        this.registry = registry;
+        this.maxReplay = outboxProperties.maxLimit();
+    }
+
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter stream(@PathVariable Integer id,
+                      @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        long lastPosition = parsePosition(lastEventId);
+        // subscribed first: whatever the relay publishes from now on is held back, anything earlier is already
+        // committed and therefore part of the snapshot or of the missed events read below
+        OrderStreamRegistry.Subscription subscription = registry.subscribe(id, lastPosition);
+        BeerOrderResponse snapshot;
+        try {
+            // rejects an unknown order (400, like GET /{id})
+            snapshot = beerOrderService.getById(id);
+        } catch (RuntimeException ex) {
+            registry.cancel(subscription);
+            throw ex;
+        }
+        if (lastPosition > 0) {
+            List<OutboxEventResponse> missed = outboxService.orderEventsAfter(id, lastPosition, maxReplay);
+            // too far behind to replay: start over from the current state
+            if (missed.size() < maxReplay) {
+                registry.start(subscription, null, missed);
+                return subscription.emitter();
+            }
+        }
+        registry.start(subscription, snapshot, List.of());
+        return subscription.emitter();
+    }
+
+    private static long parsePosition(String lastEventId) {
+        if (lastEventId == null) {
+            return 0;
+        }
+        try {
+            return Math.max(Long.parseLong(lastEventId.trim()), 0);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.models.BeerSearchDtos.BeerSearchResponse;
+import guru.springframework.juniemvc.services.BeerSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/beer/search")
+class BeerSearchController {
+
+    private final BeerSearchService beerSearchService;
+
+    BeerSearchController(BeerSearchService beerSearchService) {
+        this.beerSearchService = beerSearchService;
+    }
+
+    @GetMapping
+    ResponseEntity<BeerSearchResponse> search(@RequestParam("q") String q,
+                                              @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(beerSearchService.search(q, limit));
+    }
+}
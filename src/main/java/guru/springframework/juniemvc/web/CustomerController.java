@@ -2,15 +2,20 @@ package guru.springframework.juniemvc.web;
 
 import guru.springframework.juniemvc.exceptions.CustomerNotFoundException;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerOrderHistory;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerUpdateRequest;
+import guru.springframework.juniemvc.models.CursorPage;
+import guru.springframework.juniemvc.models.SliceResponse;
 import guru.springframework.juniemvc.services.CustomerService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 
@@ -32,10 +37,15 @@ class CustomerController {
     }
 
     @GetMapping("/{id}")
-    ResponseEntity<CustomerResponse> getById(@PathVariable Integer id) {
+    ResponseEntity<CustomerResponse> getById(@PathVariable Integer id, WebRequest request) {
+        Integer version = customerService.getVersion(id)
+                .orElseThrow(() -> new CustomerNotFoundException(id));
+        if (request.checkNotModified(ETags.of(id, version))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(id, version)).build();
+        }
         CustomerResponse body = customerService.getById(id)
                 .orElseThrow(() -> new CustomerNotFoundException(id));
-        return ResponseEntity.ok(body);
+        return ResponseEntity.ok().eTag(ETags.of(body.id(), body.version())).body(body);
     }
 
     @GetMapping
@@ -43,12 +53,31 @@ class CustomerController {
         return ResponseEntity.ok(customerService.list(pageable));
     }
 
+    @GetMapping(params = {"slice=true", "!cursor"})
+    ResponseEntity<SliceResponse<CustomerResponse>> listSlice(Pageable pageable) {
+        return ResponseEntity.ok(SliceResponse.of(customerService.listSlice(pageable)));
+    }
+
+    @GetMapping(params = "cursor")
+    ResponseEntity<CursorPage<CustomerResponse>> scroll(@RequestParam(value = "cursor", required = false) String cursor,
+                                                        Pageable pageable) {
+        return ResponseEntity.ok(customerService.scroll(cursor, pageable));
+    }
+
+    @GetMapping("/{id}/orders")
+    ResponseEntity<CustomerOrderHistory> orderHistory(@PathVariable Integer id,
+                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                      Pageable pageable) {
+        return ResponseEntity.ok(customerService.getOrderHistory(id, cursor, pageable));
+    }
+
     @PutMapping("/{id}")
     ResponseEntity<CustomerResponse> update(@PathVariable Integer id,
-                                            @Valid @RequestBody CustomerUpdateRequest request) {
-        CustomerResponse body = customerService.update(id, request)
+                                            @Valid @RequestBody CustomerUpdateRequest request,
+                                            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        CustomerResponse body = customerService.update(id, request, ETags.expectedVersions(ifMatch, id))
                 .orElseThrow(() -> new CustomerNotFoundException(id));
-        return ResponseEntity.ok(body);
+        return ResponseEntity.ok().eTag(ETags.of(body.id(), body.version())).body(body);
     }
 
     @DeleteMapping("/{id}")
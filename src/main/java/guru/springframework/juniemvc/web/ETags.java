@@ -0,0 +1,49 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.exceptions.PreconditionFailedException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Strong entity tags derived from a resource's id and its JPA {@code @Version}: {@code "<id>-<version>"}.
+ * Any committed change bumps the version, so the tag changes exactly when the representation can.
+ */
+public final class ETags {
+
+    private ETags() {}
+
+    public static String of(Integer id, Integer version) {
+        return "\"" + id + "-" + (version == null ? 0 : version) + "\"";
+    }
+
+    /**
+     * Translates an {@code If-Match} header into the versions a write may find. The header may list several tags;
+     * the write goes ahead if the resource still has any of them.
+     *
+     * @return the expected versions, or null when the write is unconditional (no header, or {@code *})
+     * @throws PreconditionFailedException if no listed tag is a strong tag of the resource {@code id}
+     */
+    public static Set<Integer> expectedVersions(String ifMatch, Integer id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        Set<Integer> versions = new HashSet<>();
+        for (String element : ifMatch.split(",")) {
+            String tag = element.trim();
+            // weak tags (W/"..."), tags of other resources and malformed tags can never match
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    versions.add(Integer.valueOf(tag.substring(prefix.length(), tag.length() - 1)));
+                } catch (NumberFormatException ignored) {
+                    // not one of our tags
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match does not match the current ETag of resource " + id);
+        }
+        return versions;
+    }
+}
@@ -1,10 +1,22 @@
 package guru.springframework.juniemvc.web;
 
+import guru.springframework.juniemvc.exceptions.AllocationBacklogFullException;
 import guru.springframework.juniemvc.exceptions.BeerNotFoundException;
 import guru.springframework.juniemvc.exceptions.CustomerNotFoundException;
+import guru.springframework.juniemvc.exceptions.InvalidCursorException;
 import guru.springframework.juniemvc.exceptions.InvalidOrderException;
+import guru.springframework.juniemvc.exceptions.InvalidReportRangeException;
+import guru.springframework.juniemvc.exceptions.PreconditionFailedException;
+import guru.springframework.juniemvc.exceptions.QueryBudgetExceededException;
+import guru.springframework.juniemvc.exceptions.TooManyExportsException;
+import guru.springframework.juniemvc.exceptions.TooManyOrderStreamsException;
+import guru.springframework.juniemvc.exceptions.UnsupportedFileFormatException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.http.ProblemDetail;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -42,6 +54,89 @@ class GlobalExceptionHandler {
         return pd;
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    ProblemDetail handleInvalidCursor(InvalidCursorException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        pd.setTitle("Invalid Cursor");
+        pd.setType(URI.create("https://httpstatuses.com/400"));
+        return pd;
+    }
+
+    @ExceptionHandler(InvalidReportRangeException.class)
+    ProblemDetail handleInvalidReportRange(InvalidReportRangeException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        pd.setTitle("Invalid Report Range");
+        pd.setType(URI.create("https://httpstatuses.com/400"));
+        return pd;
+    }
+
+    @ExceptionHandler(UnsupportedFileFormatException.class)
+    ProblemDetail handleUnsupportedFileFormat(UnsupportedFileFormatException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        pd.setTitle("Unsupported File Format");
+        pd.setType(URI.create("https://httpstatuses.com/400"));
+        return pd;
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    ProblemDetail handlePreconditionFailed(PreconditionFailedException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+        pd.setTitle("Precondition Failed");
+        pd.setType(URI.create("https://httpstatuses.com/412"));
+        return pd;
+    }
+
+    // a concurrent write committed between our read and our flush
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    ProblemDetail handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "Resource was modified concurrently, reload and retry");
+        pd.setTitle("Concurrent Modification");
+        pd.setType(URI.create("https://httpstatuses.com/409"));
+        return pd;
+    }
+
+    // only raised with juniemvc.query-budget.fail-on-exceed, i.e. in tests and development
+    @ExceptionHandler(QueryBudgetExceededException.class)
+    ProblemDetail handleQueryBudgetExceeded(QueryBudgetExceededException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        pd.setTitle("Query Budget Exceeded");
+        pd.setType(URI.create("https://httpstatuses.com/500"));
+        return pd;
+    }
+
+    // no connection within the bulkhead's acquire timeout (or the database is down)
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    ProblemDetail handleNoConnection(CannotCreateTransactionException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Database is busy, retry later");
+        pd.setTitle("Database Unavailable");
+        pd.setType(URI.create("https://httpstatuses.com/503"));
+        return pd;
+    }
+
+    @ExceptionHandler(AllocationBacklogFullException.class)
+    ResponseEntity<ProblemDetail> handleAllocationBacklogFull(AllocationBacklogFullException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        pd.setTitle("Allocation Backlog Full");
+        pd.setType(URI.create("https://httpstatuses.com/503"));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(pd);
+    }
+
+    @ExceptionHandler(TooManyOrderStreamsException.class)
+    ResponseEntity<ProblemDetail> handleTooManyOrderStreams(TooManyOrderStreamsException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        pd.setTitle("Too Many Order Streams");
+        pd.setType(URI.create("https://httpstatuses.com/503"));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").body(pd);
+    }
+
+    @ExceptionHandler(TooManyExportsException.class)
+    ResponseEntity<ProblemDetail> handleTooManyExports(TooManyExportsException ex) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        pd.setTitle("Too Many Exports");
+        pd.setType(URI.create("https://httpstatuses.com/503"));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").body(pd);
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     ProblemDetail handleEntityNotFound(EntityNotFoundException ex) {
         ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
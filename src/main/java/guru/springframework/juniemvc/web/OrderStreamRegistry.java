@@ -0,0 +1,356 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.config.BeerOrderProperties;
+import guru.springframework.juniemvc.entities.OutboxEventType;
+import guru.springframework.juniemvc.exceptions.TooManyOrderStreamsException;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import guru.springframework.juniemvc.services.OutboxSink;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The single subscription registry behind {@code GET /api/v1/beer-orders/{id}/stream}.
+ * <p>
+ * Open streams are plain {@link SseEmitter}s parked in an async request, so an idle connection holds no thread and
+ * no database connection. The registry is an {@link OutboxSink}: the relay hands it every published batch, each
+ * event is serialized once and fanned out to the subscribers of its order once the relay's transaction committed, so
+ * a client never sees a position that a rolled back round hands out again. One dispatch thread fans out and queues
+ * the events, and the heartbeat comments that find connections the client dropped, per subscription; a small pool
+ * of sender threads writes them. Writes block, so a client that stops reading holds one sender until its write
+ * times out while the other clients keep getting theirs, and once more than {@code send-buffer} events wait for
+ * it, it is disconnected and resumes with {@code Last-Event-ID}.
+ * Every event carries its outbox position as SSE id, so a reconnecting client resumes with {@code Last-Event-ID}
+ * and a subscriber never gets the same position twice.
+ */
+@Slf4j
+@Component
+class OrderStreamRegistry implements OutboxSink, SmartLifecycle {
+
+    static final String ORDER_EVENT = "order";
+    static final String SHIPMENT_EVENT = "shipment";
+
+    private final Map<Integer, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final ObjectMapper objectMapper;
+    private final BeerOrderProperties.Stream properties;
+    private final ScheduledExecutorService dispatcher;
+    private final ThreadPoolExecutor senders;
+    private volatile boolean running;
+
+    OrderStreamRegistry(ObjectMapper objectMapper, BeerOrderProperties properties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.properties = properties.stream();
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-stream-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderIds = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(this.properties.senderThreads(), this.properties.senderThreads(),
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "order-stream-sender-" + senderIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        senders.allowCoreThreadTimeOut(true);
+        long heartbeat = this.properties.heartbeat().toMillis();
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        Gauge.builder("juniemvc.orders.stream.subscribers", count, AtomicInteger::get)
+                .description("Open order status streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a stream for one order. Live events are held back until {@link #start} sent what the client
+     * needs first, so nothing published in between is lost or sent out of order. Subscribe before reading that
+     * state: an event relayed between the read and the subscription would otherwise be in neither.
+     */
+    Subscription subscribe(Integer beerOrderId, long lastPosition) {
+        if (count.incrementAndGet() > properties.maxSubscribers()) {
+            count.decrementAndGet();
+            throw new TooManyOrderStreamsException(properties.maxSubscribers());
+        }
+        Subscription subscription = new Subscription(beerOrderId, new SseEmitter(properties.timeout().toMillis()), lastPosition);
+        subscription.emitter.onCompletion(() -> remove(subscription));
+        subscription.emitter.onTimeout(() -> remove(subscription));
+        subscription.emitter.onError(ex -> remove(subscription));
+        subscribers.compute(beerOrderId, (id, forOrder) -> {
+            Set<Subscription> set = forOrder == null ? ConcurrentHashMap.newKeySet() : forOrder;
+            set.add(subscription);
+            return set;
+        });
+        return subscription;
+    }
+
+    /**
+     * Sends the current state of the order, or the events a reconnecting client missed, followed by the live events
+     * held back since {@link #subscribe}.
+     */
+    void start(Subscription subscription, BeerOrderResponse snapshot, List<OutboxEventResponse> replay) {
+        List<Message> initial = new ArrayList<>();
+        if (snapshot != null) {
+            try {
+                initial.add(new Message(snapshot.id(), null, ORDER_EVENT, snapshot.version(), objectMapper.writeValueAsString(snapshot)));
+            } catch (IOException ex) {
+                subscription.emitter.completeWithError(ex);
+                return;
+            }
+        }
+        replay.forEach(event -> initial.add(toMessage(event)));
+        dispatcher.execute(() -> {
+            List<Message> held = subscription.held;
+            subscription.held = null;
+            initial.forEach(subscription::deliver);
+            if (snapshot != null && snapshot.version() != null) {
+                subscription.snapshotVersion = snapshot.version();
+            }
+            held.forEach(subscription::deliver);
+        });
+    }
+
+    /**
+     * Drops a subscription that will not be started, because the request failed before it could stream.
+     */
+    void cancel(Subscription subscription) {
+        remove(subscription);
+    }
+
+    int subscriberCount() {
+        return count.get();
+    }
+
+    @Override
+    public void publish(List<OutboxEventResponse> batch) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<Message> messages = new ArrayList<>();
+        for (OutboxEventResponse event : batch) {
+            if (event.beerOrderId() != null && subscribers.containsKey(event.beerOrderId())) {
+                messages.add(toMessage(event));
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatcher.execute(() -> dispatch(messages));
+            return;
+        }
+        // positions are only final once the relay commits; a rolled back round hands them out again
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatcher.execute(() -> dispatch(messages));
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // ends the open streams before the web server's graceful shutdown would wait for them
+    @Override
+    public void stop() {
+        running = false;
+        subscribers.values().forEach(forOrder -> forOrder.forEach(Subscription::close));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void dispatch(List<Message> messages) {
+        for (Message message : messages) {
+            Set<Subscription> forOrder = subscribers.get(message.beerOrderId());
+            if (forOrder != null) {
+                forOrder.forEach(subscription -> subscription.deliver(message));
+            }
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(forOrder -> forOrder.forEach(Subscription::keepAlive));
+    }
+
+    // parsed and serialized once per event, whatever the number of subscribers
+    private Message toMessage(OutboxEventResponse event) {
+        if (event.type() == OutboxEventType.SHIPMENT_CREATED) {
+            return new Message(event.beerOrderId(), event.position(), SHIPMENT_EVENT, null, event.payload());
+        }
+        try {
+            JsonNode payload = objectMapper.readTree(event.payload());
+            JsonNode order = event.type() == OutboxEventType.ORDER_CREATED ? payload : payload.path("order");
+            JsonNode version = order.path("version");
+            return new Message(event.beerOrderId(), event.position(), ORDER_EVENT,
+                    version.isNumber() ? version.asInt() : null, order.isMissingNode() ? event.payload() : order.toString());
+        } catch (IOException ex) {
+            log.warn("Unreadable payload of outbox event {}", event.position(), ex);
+            return new Message(event.beerOrderId(), event.position(), ORDER_EVENT, null, event.payload());
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscribers.computeIfPresent(subscription.beerOrderId, (id, forOrder) -> {
+            if (forOrder.remove(subscription)) {
+                count.decrementAndGet();
+            }
+            return forOrder.isEmpty() ? null : forOrder;
+        });
+    }
+
+    // version is the order's version for order events, used to skip changes the snapshot includes; shipment events have none
+    private record Message(Integer beerOrderId, Long position, String name, Integer version, String data) {}
+
+    final class Subscription {
+
+        private final Integer beerOrderId;
+        private final SseEmitter emitter;
+        // only touched on the dispatch thread
+        private long lastPosition;
+        private int snapshotVersion = -1;
+        private List<Message> held = new ArrayList<>();
+        // events waiting for the client, written by one sender at a time; guarded by pending
+        private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+
+        private Subscription(Integer beerOrderId, SseEmitter emitter, long lastPosition) {
+            this.beerOrderId = beerOrderId;
+            this.emitter = emitter;
+            this.lastPosition = lastPosition;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        private void deliver(Message message) {
+            if (message.position() != null && message.position() <= lastPosition) {
+                return;
+            }
+            // the relay may still be behind the snapshot: changes up to its version are already part of it
+            if (message.version() != null && message.version() <= snapshotVersion) {
+                return;
+            }
+            if (held != null && message.position() != null) {
+                held.add(message);
+                return;
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(message.name());
+            if (message.position() != null) {
+                event.id(message.position().toString());
+                lastPosition = message.position();
+            }
+            enqueue(event.data(message.data(), MediaType.APPLICATION_JSON), false);
+        }
+
+        // a comment only for a client that has nothing else waiting: pending events will find a dropped connection
+        private void keepAlive() {
+            enqueue(SseEmitter.event().comment("keep-alive"), true);
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event, boolean onlyIfIdle) {
+            synchronized (pending) {
+                if (closed || onlyIfIdle && (sending || !pending.isEmpty())) {
+                    return;
+                }
+                if (pending.size() >= properties.sendBuffer()) {
+                    // too far behind: drop it rather than buffer without bound, it resumes with Last-Event-ID
+                    log.debug("Order stream of order {} is {} events behind, disconnecting", beerOrderId, pending.size());
+                    closeLocked();
+                    return;
+                }
+                pending.addLast(event);
+                startSender();
+            }
+        }
+
+        private void close() {
+            synchronized (pending) {
+                closeLocked();
+            }
+        }
+
+        // the sender completes the emitter: completing blocks while a write to the client is stuck
+        private void closeLocked() {
+            if (!closed) {
+                closed = true;
+                pending.clear();
+                remove(this);
+                startSender();
+            }
+        }
+
+        private void startSender() {
+            if (!sending) {
+                sending = true;
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (pending) {
+                    if (closed) {
+                        sending = false;
+                        break;
+                    }
+                    event = pending.pollFirst();
+                    if (event == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException ex) {
+                    synchronized (pending) {
+                        closed = true;
+                        pending.clear();
+                        sending = false;
+                    }
+                    remove(this);
+                    return;
+                }
+            }
+            emitter.complete();
+        }
+    }
+}
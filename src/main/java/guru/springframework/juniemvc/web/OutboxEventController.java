@@ -0,0 +1,54 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import guru.springframework.juniemvc.services.OutboxService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tail of the order event outbox as NDJSON, one event per line. Consumers pass the last position they saw as
+ * {@code after} and may {@code wait} (seconds) for new events instead of re-polling; {@code X-Next-After} carries
+ * the cursor for the next call.
+ */
+@RestController
+@RequestMapping("/api/v1/events")
+class OutboxEventController {
+
+    static final String NEXT_AFTER_HEADER = "X-Next-After";
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
+
+    OutboxEventController(OutboxService outboxService, ObjectMapper objectMapper) {
+        this.outboxService = outboxService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping
+    ResponseEntity<StreamingResponseBody> events(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                 @RequestParam(value = "limit", required = false) Integer limit,
+                                                 @RequestParam(value = "wait", defaultValue = "0") long waitSeconds) {
+        List<OutboxEventResponse> events = outboxService.eventsAfter(Math.max(after, 0), limit, Duration.ofSeconds(Math.max(waitSeconds, 0)));
+        long next = events.isEmpty() ? Math.max(after, 0) : events.get(events.size() - 1).position();
+        StreamingResponseBody body = out -> {
+            for (OutboxEventResponse event : events) {
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(NEXT_AFTER_HEADER, Long.toString(next))
+                .body(body);
+    }
+}
@@ -0,0 +1,58 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.config.QueryBudgetProperties;
+import guru.springframework.juniemvc.config.QueryCounter;
+import guru.springframework.juniemvc.exceptions.QueryBudgetExceededException;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds {@code X-Query-Count} to response bodies and, with {@code fail-on-exceed}, turns an over-budget request
+ * into a 500 while the response can still be changed. Responses without a body are only logged by
+ * {@link QueryBudgetFilter}.
+ */
+@RestControllerAdvice
+class QueryBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private final QueryBudgetProperties properties;
+
+    QueryBudgetAdvice(QueryBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.exposeHeader() || properties.failOnExceed();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        int statements = QueryCounter.current();
+        if (properties.exposeHeader()) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, Integer.toString(statements));
+        }
+        // the problem body of an already failed request is never failed again
+        if (properties.failOnExceed() && !(body instanceof ProblemDetail)
+                && request instanceof ServletServerHttpRequest servletRequest) {
+            Object pattern = servletRequest.getServletRequest().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String method = servletRequest.getMethod().name();
+            int budget = pattern == null ? 0 : properties.budgetFor(method, pattern.toString());
+            if (budget > 0 && statements > budget) {
+                throw new QueryBudgetExceededException(method + " " + pattern, statements, budget);
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,61 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.config.QueryBudgetProperties;
+import guru.springframework.juniemvc.config.QueryCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link QueryCounter} scope per request, records the count as {@code http.server.requests.statements}
+ * and logs requests that exceed their budget. Failing such requests and the {@code X-Query-Count} header happen
+ * in {@link QueryBudgetAdvice}, before the body is written. Registered by {@code QueryBudgetConfig}, so MVC test
+ * slices run without it.
+ */
+@Slf4j
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetFilter(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = QueryCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                record(request.getMethod(), pattern.toString(), statements);
+            }
+        }
+    }
+
+    private void record(String method, String pattern, int statements) {
+        DistributionSummary.builder("http.server.requests.statements")
+                .description("SQL statements prepared per request")
+                .tag("method", method)
+                .tag("uri", pattern)
+                .register(meterRegistry)
+                .record(statements);
+        int budget = properties.budgetFor(method, pattern);
+        if (budget > 0 && statements > budget) {
+            log.warn("Query budget exceeded: {} {} issued {} SQL statements, budget is {}", method, pattern, statements, budget);
+        }
+    }
+}
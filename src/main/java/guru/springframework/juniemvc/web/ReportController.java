@@ -0,0 +1,48 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.models.ReportDtos.BeerSalesRow;
+import guru.springframework.juniemvc.models.ReportDtos.OrderStatusRow;
+import guru.springframework.juniemvc.models.ReportDtos.StyleSalesRow;
+import guru.springframework.juniemvc.services.ReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/reports")
+class ReportController {
+
+    private final ReportService reportService;
+
+    ReportController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @GetMapping("/beer-sales")
+    ResponseEntity<List<BeerSalesRow>> beerSales(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(value = "beerId", required = false) Integer beerId) {
+        return ResponseEntity.ok(reportService.beerSales(from, to, beerId));
+    }
+
+    @GetMapping("/style-sales")
+    ResponseEntity<List<StyleSalesRow>> styleSales(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                   @RequestParam(value = "beerStyle", required = false) String beerStyle) {
+        return ResponseEntity.ok(reportService.styleSales(from, to, beerStyle));
+    }
+
+    @GetMapping("/order-statuses")
+    ResponseEntity<List<OrderStatusRow>> orderStatuses(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                       @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                       @RequestParam(value = "status", required = false) OrderStatus status) {
+        return ResponseEntity.ok(reportService.orderStatuses(from, to, status));
+    }
+}
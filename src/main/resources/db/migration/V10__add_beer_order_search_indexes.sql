@@ -0,0 +1,18 @@
+-- Flyway V10: Indexed order search (GET /api/v1/beer-orders)
+-- H2-compatible SQL. Every search is ordered by (created_date, id) and pages by keyset, so each index leads with
+-- the equality filter it serves and ends with created_date and id: the filter, the created_date range and the
+-- sort are all resolved inside one index range, and only the rows of the requested page are read from the table.
+-- created_date becomes NOT NULL so it can be a keyset sort key; rows written before @CreationTimestamp are
+-- backfilled from updated_date.
+
+UPDATE beer_order SET created_date = COALESCE(updated_date, CURRENT_TIMESTAMP) WHERE created_date IS NULL;
+
+ALTER TABLE beer_order ALTER COLUMN created_date SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS ix_beer_order_status_created ON beer_order (status, created_date, id);
+CREATE INDEX IF NOT EXISTS ix_beer_order_customer_created ON beer_order (customer_id, created_date, id);
+CREATE INDEX IF NOT EXISTS ix_beer_order_customer_ref_created ON beer_order (customer_ref, created_date, id);
+CREATE INDEX IF NOT EXISTS ix_beer_order_created ON beer_order (created_date, id);
+
+-- superseded by ix_beer_order_customer_created, which has customer_id as its prefix
+DROP INDEX IF EXISTS ix_beer_order_customer;
@@ -0,0 +1,17 @@
+-- Flyway V11: Per-customer lifetime order totals
+-- One row per customer, incremented in the transaction that creates the customer's orders, so the order
+-- history summary is a primary key lookup instead of an aggregate over all of the customer's orders.
+-- H2-compatible DDL
+
+CREATE TABLE IF NOT EXISTS customer_order_stats (
+    customer_id INT PRIMARY KEY,
+    order_count BIGINT NOT NULL,
+    total_spend DECIMAL(19,2) NOT NULL,
+    CONSTRAINT fk_customer_order_stats_customer FOREIGN KEY (customer_id) REFERENCES customer(id) ON DELETE CASCADE
+);
+
+-- existing customers start from the orders they already have
+INSERT INTO customer_order_stats (customer_id, order_count, total_spend)
+SELECT c.id, COUNT(o.id), COALESCE(SUM(o.payment_amount), 0)
+FROM customer c LEFT JOIN beer_order o ON o.customer_id = c.id
+GROUP BY c.id;
@@ -0,0 +1,6 @@
+-- Flyway V13: Failed allocation attempts per order
+-- The allocation worker counts the allocations of an order that failed and stops re-queuing it once the
+-- count reaches juniemvc.orders.allocation.max-attempts. Setting the count back to 0 unparks the order.
+-- H2-compatible DDL
+
+ALTER TABLE beer_order ADD COLUMN IF NOT EXISTS allocation_failures INT DEFAULT 0 NOT NULL;
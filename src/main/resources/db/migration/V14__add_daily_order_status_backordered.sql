@@ -0,0 +1,23 @@
+-- Flyway V14: Backordered orders in the daily status rollup
+-- An order whose lines allocation cannot fill at all stays NEW, so order_count alone cannot tell it from one not
+-- allocated yet. backordered_count counts the orders that were left with backordered lines on that day, under
+-- the status they had then.
+-- H2-compatible DDL
+
+ALTER TABLE daily_order_status ADD COLUMN IF NOT EXISTS backordered_count BIGINT DEFAULT 0 NOT NULL;
+
+-- history before V14 is not recorded: orders that still have backordered lines count on the day they were last
+-- updated; those with allocation events still unpublished are left to the relay
+MERGE INTO daily_order_status t
+USING (
+    SELECT CAST(COALESCE(o.updated_date, o.created_date) AS DATE) AS status_date, o.status, COUNT(*) AS orders
+    FROM beer_order o
+    WHERE EXISTS (SELECT 1 FROM beer_order_line l WHERE l.beer_order_id = o.id AND l.status = 'BACKORDER')
+      AND NOT EXISTS (SELECT 1 FROM outbox_event e
+                      WHERE e.beer_order_id = o.id AND e.event_type IN ('ORDER_STATUS_CHANGED', 'ORDER_LINES_CHANGED')
+                        AND e.position IS NULL)
+    GROUP BY CAST(COALESCE(o.updated_date, o.created_date) AS DATE), o.status
+) s
+ON t.status_date = s.status_date AND t.status = s.status
+WHEN MATCHED THEN UPDATE SET backordered_count = t.backordered_count + s.orders
+WHEN NOT MATCHED THEN INSERT (status_date, status, order_count, backordered_count) VALUES (s.status_date, s.status, 0, s.orders);
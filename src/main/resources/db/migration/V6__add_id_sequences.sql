@@ -0,0 +1,21 @@
+-- Flyway V6: Sequence-based id generation
+-- IDENTITY columns force Hibernate to insert row by row; sequences with a pooled optimizer
+-- let it pre-allocate ids and send inserts as JDBC batches.
+-- INCREMENT BY must match allocationSize (50) on the entities. Each sequence restarts one
+-- allocation block past the current max id so pooled ranges never overlap existing rows.
+-- H2-compatible DDL
+
+CREATE SEQUENCE IF NOT EXISTS beer_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE beer_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM beer);
+
+CREATE SEQUENCE IF NOT EXISTS beer_order_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE beer_order_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM beer_order);
+
+CREATE SEQUENCE IF NOT EXISTS beer_order_line_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE beer_order_line_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM beer_order_line);
+
+CREATE SEQUENCE IF NOT EXISTS customer_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE customer_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM customer);
+
+CREATE SEQUENCE IF NOT EXISTS beer_order_shipment_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE beer_order_shipment_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM beer_order_shipment);
@@ -0,0 +1,13 @@
+-- Flyway V7: Indexed, case-insensitive beer style filtering
+-- H2-compatible SQL. beer_style_normalized holds UPPER(TRIM(beer_style)) and is maintained by the Beer
+-- entity; style filters compare it by equality so they can use ix_beer_style_normalized instead of
+-- scanning UPPER(beer_style) on every row. id is part of the index so filtered pages ordered by id
+-- are served from the index as well.
+
+ALTER TABLE beer ADD COLUMN IF NOT EXISTS beer_style_normalized VARCHAR(40);
+
+UPDATE beer SET beer_style_normalized = UPPER(TRIM(beer_style)) WHERE beer_style_normalized IS NULL;
+
+ALTER TABLE beer ALTER COLUMN beer_style_normalized SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS ix_beer_style_normalized ON beer (beer_style_normalized, id);
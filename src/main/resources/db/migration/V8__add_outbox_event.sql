@@ -0,0 +1,18 @@
+-- Flyway V8: Transactional outbox for order and shipment events
+-- Rows are written in the business transaction with position NULL; the relay publishes them in id order and
+-- stamps a gap-free, monotonically increasing position that consumers use as their cursor.
+-- H2-compatible DDL
+
+CREATE SEQUENCE IF NOT EXISTS outbox_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGINT PRIMARY KEY,
+    position BIGINT,
+    event_type VARCHAR(40) NOT NULL,
+    beer_order_id INT NOT NULL,
+    payload CHARACTER LARGE OBJECT NOT NULL,
+    created_date TIMESTAMP,
+    published_date TIMESTAMP
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_outbox_event_position ON outbox_event (position);
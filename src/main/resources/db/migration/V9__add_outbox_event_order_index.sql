@@ -0,0 +1,4 @@
+-- Flyway V9: Per-order lookup of published outbox events (SSE resume via Last-Event-ID)
+-- H2-compatible DDL
+
+CREATE INDEX IF NOT EXISTS ix_outbox_event_order ON outbox_event (beer_order_id, position);
@@ -0,0 +1,63 @@
+package guru.springframework.juniemvc.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class BulkheadDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+
+    @Test
+    void permitsAreHeldUntilTheConnectionIsClosed() throws Exception {
+        given(target.getConnection()).willAnswer(inv -> mock(Connection.class));
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 2, Duration.ofMillis(50));
+
+        Connection first = bulkhead.getConnection();
+        Connection second = bulkhead.getConnection();
+        assertThat(bulkhead.available()).isZero();
+        assertThatThrownBy(bulkhead::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("bulkhead full");
+
+        first.close();
+        // closing twice must not hand out a second permit
+        first.close();
+        assertThat(bulkhead.available()).isEqualTo(1);
+        bulkhead.getConnection();
+        assertThat(bulkhead.available()).isZero();
+        second.close();
+        assertThat(bulkhead.available()).isEqualTo(1);
+    }
+
+    @Test
+    void failedAcquisitionFromThePoolReturnsThePermit() throws Exception {
+        SQLException poolTimeout = new SQLTransientConnectionException("pool timeout");
+        given(target.getConnection()).willThrow(poolTimeout);
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(bulkhead::getConnection).isSameAs(poolTimeout);
+        assertThat(bulkhead.available()).isEqualTo(1);
+    }
+
+    @Test
+    void closeReachesThePooledConnection() throws Exception {
+        Connection pooled = mock(Connection.class);
+        given(target.getConnection()).willReturn(pooled);
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, Duration.ofMillis(50));
+
+        bulkhead.getConnection().close();
+
+        verify(pooled).close();
+    }
+}
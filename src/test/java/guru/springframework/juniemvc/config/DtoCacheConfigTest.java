@@ -0,0 +1,124 @@
+package guru.springframework.juniemvc.config;
+
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.mappers.BeerMapper;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerPatchDto;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.services.BeerService;
+import guru.springframework.juniemvc.services.impl.BeerServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(DtoCacheConfigTest.TestConfig.class)
+class DtoCacheConfigTest {
+
+    @Configuration
+    @Import(DtoCacheConfig.class)
+    @EnableConfigurationProperties(DtoCacheProperties.class)
+    static class TestConfig {
+        @Bean
+        BeerRepository beerRepository() {
+            return Mockito.mock(BeerRepository.class);
+        }
+
+        @Bean
+        BeerMapper beerMapper() {
+            return Mockito.mock(BeerMapper.class);
+        }
+
+        @Bean
+        BeerServiceImpl beerService(BeerRepository beerRepository, BeerMapper beerMapper, ApplicationEventPublisher publisher) {
+            return new BeerServiceImpl(beerRepository, beerMapper, publisher);
+        }
+    }
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerMapper beerMapper;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    private static Beer beer(Integer id) {
+        return Beer.builder().id(id).beerName("Lager").beerStyle("LAGER").upc("U" + id).price(BigDecimal.ONE).build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        reset(beerRepository, beerMapper);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        when(beerMapper.toDto(any(Beer.class))).thenAnswer(inv -> {
+            Beer b = inv.getArgument(0);
+            return BeerDto.builder().id(b.getId()).beerName(b.getBeerName()).build();
+        });
+    }
+
+    @Test
+    @DisplayName("getById is served from the cache until a write evicts it; misses are not cached")
+    void getByIdCachedAndEvicted() {
+        when(beerRepository.findById(1)).thenReturn(Optional.of(beer(1)));
+        when(beerRepository.findById(2)).thenReturn(Optional.empty());
+
+        assertThat(beerService.getById(1)).isPresent();
+        assertThat(beerService.getById(1)).isPresent();
+        verify(beerRepository, times(1)).findById(1);
+
+        beerService.getById(2);
+        beerService.getById(2);
+        verify(beerRepository, times(2)).findById(2);
+
+        when(beerRepository.saveAndFlush(any(Beer.class))).thenAnswer(inv -> inv.getArgument(0));
+        beerService.patch(1, new BeerPatchDto(), null);
+        beerService.getById(1);
+        // patch's own lookup plus the reload after eviction
+        verify(beerRepository, times(3)).findById(1);
+    }
+
+    @Test
+    @DisplayName("list results are keyed by normalized query and evicted by any write")
+    void listCachedByNormalizedQuery() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(beerRepository.findDtosByBeerStyleNormalized(eq("IPA"), any(Pageable.class)))
+                .thenAnswer(inv -> new PageImpl<>(List.of(BeerDto.builder().id(1).build()), inv.getArgument(1), 11));
+
+        beerService.list(pageable, null, "ipa");
+        beerService.list(pageable, "  ", " IPA ");
+        verify(beerRepository, times(1)).findDtosByBeerStyleNormalized(eq("IPA"), eq(pageable));
+
+        beerService.list(PageRequest.of(1, 10), null, "IPA");
+        verify(beerRepository, times(1)).findDtosByBeerStyleNormalized(eq("IPA"), eq(PageRequest.of(1, 10)));
+
+        when(beerRepository.existsById(9)).thenReturn(true);
+        beerService.delete(9);
+        beerService.list(pageable, null, "IPA");
+        verify(beerRepository, times(2)).findDtosByBeerStyleNormalized(eq("IPA"), eq(pageable));
+    }
+}
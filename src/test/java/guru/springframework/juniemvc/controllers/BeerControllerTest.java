@@ -1,6 +1,7 @@
 package guru.springframework.juniemvc.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.config.QueryBudgetProperties;
 import guru.springframework.juniemvc.models.BeerDto;
 import guru.springframework.juniemvc.models.BeerPatchDto;
 import guru.springframework.juniemvc.services.BeerService;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
@@ -28,6 +30,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(BeerController.class)
 @Import(BeerControllerTest.MockConfig.class)
+@EnableConfigurationProperties(QueryBudgetProperties.class)
 class BeerControllerTest {
 
     @Autowired
@@ -76,10 +79,12 @@ class BeerControllerTest {
     @Test
     @DisplayName("GET /api/v1/beer/{id} - found")
     void getByIdFound() throws Exception {
+        Mockito.when(beerService.getVersion(eq(1))).thenReturn(Optional.of(0));
         Mockito.when(beerService.getById(eq(1))).thenReturn(Optional.of(sampleBeer(1)));
 
         mockMvc.perform(get("/api/v1/beer/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0\""))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.beerStyle", is("LAGER")));
     }
@@ -87,7 +92,7 @@ class BeerControllerTest {
     @Test
     @DisplayName("GET /api/v1/beer/{id} - not found")
     void getByIdNotFound() throws Exception {
-        Mockito.when(beerService.getById(eq(999))).thenReturn(Optional.empty());
+        Mockito.when(beerService.getVersion(eq(999))).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/v1/beer/999"))
                 .andExpect(status().isNotFound());
@@ -134,7 +139,7 @@ class BeerControllerTest {
     void updateBeerSuccess() throws Exception {
         BeerDto updated = sampleBeer(5);
         updated.setBeerName("Updated Lager");
-        Mockito.when(beerService.update(eq(5), any(BeerDto.class))).thenReturn(Optional.of(updated));
+        Mockito.when(beerService.update(eq(5), any(BeerDto.class), any())).thenReturn(Optional.of(updated));
 
         mockMvc.perform(put("/api/v1/beer/5")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -148,7 +153,7 @@ class BeerControllerTest {
     @DisplayName("PUT /api/v1/beer/{id} - not found")
     void updateBeerNotFound() throws Exception {
         BeerDto payload = sampleBeer(999);
-        Mockito.when(beerService.update(eq(999), any(BeerDto.class))).thenReturn(Optional.empty());
+        Mockito.when(beerService.update(eq(999), any(BeerDto.class), any())).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/api/v1/beer/999")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -180,7 +185,7 @@ class BeerControllerTest {
         BeerPatchDto patch = BeerPatchDto.builder().beerName("Patched Name").build();
         BeerDto updated = sampleBeer(12);
         updated.setBeerName("Patched Name");
-        Mockito.when(beerService.patch(eq(12), any(BeerPatchDto.class))).thenReturn(Optional.of(updated));
+        Mockito.when(beerService.patch(eq(12), any(BeerPatchDto.class), any())).thenReturn(Optional.of(updated));
 
         mockMvc.perform(patch("/api/v1/beer/12")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -194,7 +199,7 @@ class BeerControllerTest {
     @DisplayName("PATCH /api/v1/beer/{id} - not found")
     void patchBeerNotFound() throws Exception {
         BeerPatchDto patch = BeerPatchDto.builder().beerName("X").build();
-        Mockito.when(beerService.patch(eq(999), any(BeerPatchDto.class))).thenReturn(Optional.empty());
+        Mockito.when(beerService.patch(eq(999), any(BeerPatchDto.class), any())).thenReturn(Optional.empty());
 
         mockMvc.perform(patch("/api/v1/beer/999")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,49 @@
+package guru.springframework.juniemvc.db;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerOrderSearchIndexTest {
+
+    @Test
+    void migrate_backfillsCreatedDate_andSearchesUseCompositeIndexes() throws Exception {
+        String url = "jdbc:h2:mem:ordersearch_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        // stop before V10 to check the backfill of orders without a created_date
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").target("9").load().migrate();
+
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO beer_order (id, version, status, updated_date) VALUES (1, 0, 'NEW', TIMESTAMP '2025-01-02 03:04:05')");
+
+            Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").load().migrate();
+
+            try (ResultSet rs = st.executeQuery("SELECT created_date FROM beer_order WHERE id = 1")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).startsWith("2025-01-02 03:04:05");
+            }
+
+            assertThat(plan(st, "SELECT id FROM beer_order WHERE status = 'NEW' AND created_date >= TIMESTAMP '2025-01-01 00:00:00' "
+                    + "ORDER BY created_date DESC, id DESC")).containsIgnoringCase("IX_BEER_ORDER_STATUS_CREATED");
+            assertThat(plan(st, "SELECT id FROM beer_order WHERE customer_id = 7 ORDER BY created_date DESC, id DESC"))
+                    .containsIgnoringCase("IX_BEER_ORDER_CUSTOMER_CREATED");
+            assertThat(plan(st, "SELECT id FROM beer_order WHERE customer_ref = 'R-1' ORDER BY created_date DESC, id DESC"))
+                    .containsIgnoringCase("IX_BEER_ORDER_CUSTOMER_REF_CREATED");
+            assertThat(plan(st, "SELECT id FROM beer_order WHERE created_date < TIMESTAMP '2025-01-01 00:00:00' ORDER BY created_date DESC, id DESC"))
+                    .containsIgnoringCase("IX_BEER_ORDER_CREATED");
+        }
+    }
+
+    private static String plan(Statement st, String sql) throws Exception {
+        try (ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            assertThat(rs.next()).isTrue();
+            return rs.getString(1);
+        }
+    }
+}
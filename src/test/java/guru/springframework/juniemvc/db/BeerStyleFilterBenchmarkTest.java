@@ -0,0 +1,82 @@
+package guru.springframework.juniemvc.db;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the former {@code UPPER(beer_style) = ?} filter with the indexed {@code beer_style_normalized = ?}
+ * filter on 100k beers, using the count query that accompanies every style-filtered page. Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class BeerStyleFilterBenchmarkTest {
+
+    private static final int BEERS = 100_000;
+    private static final String[] STYLES = {"ALE", "PALE ALE", "IPA", "LAGER", "PILSNER", "STOUT", "PORTER", "SAISON",
+            "GOSE", "WHEAT", "RED ALE", "SOUR", "BOCK", "KOLSCH", "ALTBIER", "DUNKEL", "HELLES", "MARZEN", "RAUCHBIER", "BARLEYWINE"};
+    private static final int ROUNDS = 200;
+
+    @Test
+    void normalizedStyleFilterBeatsUpperScan() throws Exception {
+        String url = "jdbc:h2:mem:beerstylebench_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").load().migrate();
+
+        try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO beer (id, version, beer_name, beer_style, beer_style_normalized, upc, price) VALUES (?, 0, ?, ?, ?, ?, 5.00)")) {
+                for (int i = 1; i <= BEERS; i++) {
+                    String style = STYLES[i % STYLES.length];
+                    insert.setInt(1, i);
+                    insert.setString(2, "Beer " + i);
+                    insert.setString(3, style.toLowerCase());
+                    insert.setString(4, style);
+                    insert.setString(5, "UPC-" + i);
+                    insert.addBatch();
+                    if (i % 1_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            conn.commit();
+
+            // the COUNT query Spring Data issues next to every style-filtered page
+            String scan = "SELECT COUNT(*) FROM beer WHERE UPPER(beer_style) = ?";
+            String indexed = "SELECT COUNT(*) FROM beer WHERE beer_style_normalized = ?";
+
+            // warm-up
+            time(conn, scan, 20);
+            time(conn, indexed, 20);
+            long scanNanos = time(conn, scan, ROUNDS);
+            long indexedNanos = time(conn, indexed, ROUNDS);
+
+            log.info("beer style count on {} beers: UPPER(beer_style) {} ms/query, beer_style_normalized {} ms/query",
+                    BEERS, "%.3f".formatted(scanNanos / 1e6 / ROUNDS), "%.3f".formatted(indexedNanos / 1e6 / ROUNDS));
+            assertThat(indexedNanos).isLessThan(scanNanos);
+        }
+    }
+
+    private static long time(Connection conn, String sql, int rounds) throws Exception {
+        long start = System.nanoTime();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int r = 0; r < rounds; r++) {
+                ps.setString(1, STYLES[r % STYLES.length]);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getInt(1);
+                    }
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,38 @@
+package guru.springframework.juniemvc.db;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerStyleIndexTest {
+
+    @Test
+    void migrate_backfillsNormalizedStyle_andStyleFilterUsesIndex() throws Exception {
+        String url = "jdbc:h2:mem:beerstyle_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        // stop before V7 to check the backfill of rows written by older versions
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").target("6").load().migrate();
+
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO beer (id, version, beer_name, beer_style, upc, price) VALUES (1, 0, 'Old', ' ipa ', 'U1', 1.00)");
+
+            Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").load().migrate();
+
+            try (ResultSet rs = st.executeQuery("SELECT beer_style_normalized FROM beer WHERE id = 1")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo("IPA");
+            }
+
+            try (ResultSet rs = st.executeQuery("EXPLAIN SELECT id FROM beer WHERE beer_style_normalized = 'IPA' ORDER BY id")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).containsIgnoringCase("IX_BEER_STYLE_NORMALIZED");
+            }
+        }
+    }
+}
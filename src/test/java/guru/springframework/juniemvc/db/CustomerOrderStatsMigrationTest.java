@@ -0,0 +1,50 @@
+package guru.springframework.juniemvc.db;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerOrderStatsMigrationTest {
+
+    @Test
+    void migrate_backfillsTotalsOfExistingCustomers_andDropsThemWithTheCustomer() throws Exception {
+        String url = "jdbc:h2:mem:orderstats_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        // stop before V11 so the backfill sees customers with and without orders
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").target("10").load().migrate();
+
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO customer (id, name, address_line1, city, state, postal_code) VALUES "
+                    + "(1, 'A', '1 Main St', 'Springfield', 'IL', '62701'), (2, 'B', '2 Main St', 'Springfield', 'IL', '62701')");
+            st.executeUpdate("INSERT INTO beer_order (id, version, status, customer_id, payment_amount, created_date) VALUES "
+                    + "(1, 0, 'NEW', 1, 10.50, CURRENT_TIMESTAMP), (2, 0, 'NEW', 1, NULL, CURRENT_TIMESTAMP), "
+                    + "(3, 0, 'NEW', 1, 4.25, CURRENT_TIMESTAMP), (4, 0, 'NEW', NULL, 99.00, CURRENT_TIMESTAMP)");
+
+            Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").load().migrate();
+
+            try (ResultSet rs = st.executeQuery("SELECT customer_id, order_count, total_spend FROM customer_order_stats ORDER BY customer_id")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getInt(1)).isEqualTo(1);
+                assertThat(rs.getLong(2)).isEqualTo(3);
+                assertThat(rs.getBigDecimal(3)).isEqualByComparingTo("14.75");
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getInt(1)).isEqualTo(2);
+                assertThat(rs.getLong(2)).isZero();
+                assertThat(rs.getBigDecimal(3)).isEqualByComparingTo("0");
+                assertThat(rs.next()).isFalse();
+            }
+
+            st.executeUpdate("DELETE FROM customer WHERE id = 2");
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM customer_order_stats")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getLong(1)).isEqualTo(1);
+            }
+        }
+    }
+}
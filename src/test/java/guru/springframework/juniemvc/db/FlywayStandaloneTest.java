@@ -37,6 +37,13 @@ class FlywayStandaloneTest {
                 assertThat(rs.next()).isTrue();
                 assertThat(rs.getInt(1)).isGreaterThan(0);
             }
+
+            // Check id sequences match the entities' allocationSize
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES WHERE INCREMENT = 50 AND SEQUENCE_NAME IN "
+                    + "('BEER_SEQ', 'BEER_ORDER_SEQ', 'BEER_ORDER_LINE_SEQ', 'CUSTOMER_SEQ', 'BEER_ORDER_SHIPMENT_SEQ')")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getInt(1)).isEqualTo(5);
+            }
         }
     }
 }
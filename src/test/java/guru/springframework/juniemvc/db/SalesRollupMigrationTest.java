@@ -0,0 +1,92 @@
+package guru.springframework.juniemvc.db;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesRollupMigrationTest {
+
+    @Test
+    void migrate_backfillsRollupsFromPublishedOrders() throws Exception {
+        String url = "jdbc:h2:mem:rollups_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        // stop before V12 so the backfill sees orders, and an order whose creation event is not published yet
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").target("11").load().migrate();
+
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO beer (id, version, beer_name, beer_style, beer_style_normalized, upc, price) VALUES "
+                    + "(1, 0, 'Stout', 'Stout', 'STOUT', 'U-1', 3.00), (2, 0, 'Porter', 'stout ', 'STOUT', 'U-2', 3.00)");
+            st.executeUpdate("INSERT INTO beer_order (id, version, status, created_date, updated_date) VALUES "
+                    + "(1, 0, 'NEW', TIMESTAMP '2025-03-01 10:00:00', TIMESTAMP '2025-03-01 10:00:00'), "
+                    + "(2, 1, 'ALLOCATED', TIMESTAMP '2025-03-01 23:00:00', TIMESTAMP '2025-03-02 00:01:00'), "
+                    + "(3, 0, 'NEW', TIMESTAMP '2025-03-02 08:00:00', TIMESTAMP '2025-03-02 08:00:00')");
+            st.executeUpdate("INSERT INTO beer_order_line (beer_order_id, beer_id, order_quantity, quantity_allocated, status) VALUES "
+                    + "(1, 1, 2, 0, 'NEW'), (1, 2, 3, 0, 'NEW'), (2, 1, 4, 4, 'ALLOCATED'), (3, 1, 9, 0, 'NEW')");
+            st.executeUpdate("INSERT INTO outbox_event (id, position, event_type, beer_order_id, payload) VALUES "
+                    + "(1, 1, 'ORDER_CREATED', 1, '{}'), (2, 2, 'ORDER_CREATED', 2, '{}'), (3, 3, 'ORDER_STATUS_CHANGED', 2, '{}'), "
+                    + "(4, NULL, 'ORDER_CREATED', 3, '{}')");
+
+            Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").load().migrate();
+
+            assertThat(rows(st, "SELECT sales_date, beer_id, units_ordered, order_lines FROM daily_beer_sales ORDER BY sales_date, beer_id"))
+                    .containsExactly("2025-03-01 1 6 2", "2025-03-01 2 3 1");
+            assertThat(rows(st, "SELECT sales_date, beer_style, units_ordered, order_lines FROM daily_style_sales ORDER BY sales_date"))
+                    .containsExactly("2025-03-01 STOUT 9 3");
+            assertThat(rows(st, "SELECT status_date, status, order_count FROM daily_order_status ORDER BY status_date, status"))
+                    .containsExactly("2025-03-01 NEW 2", "2025-03-02 ALLOCATED 1");
+        }
+    }
+
+    @Test
+    void migrate_backfillsBackorderedOrdersUnderTheirStatus() throws Exception {
+        String url = "jdbc:h2:mem:backordered_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        // stop before V14 so the rollups already hold the status counts of V12
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").target("13").load().migrate();
+
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO beer (id, version, beer_name, beer_style, beer_style_normalized, upc, price) VALUES "
+                    + "(1, 0, 'Stout', 'Stout', 'STOUT', 'U-1', 3.00)");
+            st.executeUpdate("INSERT INTO beer_order (id, version, status, created_date, updated_date) VALUES "
+                    + "(1, 1, 'NEW', TIMESTAMP '2025-03-01 10:00:00', TIMESTAMP '2025-03-01 10:05:00'), "
+                    + "(2, 1, 'PARTIALLY_ALLOCATED', TIMESTAMP '2025-03-01 11:00:00', TIMESTAMP '2025-03-02 09:00:00'), "
+                    + "(3, 1, 'ALLOCATED', TIMESTAMP '2025-03-01 12:00:00', TIMESTAMP '2025-03-01 12:05:00'), "
+                    + "(4, 1, 'NEW', TIMESTAMP '2025-03-01 13:00:00', TIMESTAMP '2025-03-01 13:05:00')");
+            st.executeUpdate("INSERT INTO beer_order_line (beer_order_id, beer_id, order_quantity, quantity_allocated, status) VALUES "
+                    + "(1, 1, 2, 0, 'BACKORDER'), (2, 1, 4, 1, 'BACKORDER'), (3, 1, 1, 1, 'ALLOCATED'), (4, 1, 5, 0, 'BACKORDER')");
+            st.executeUpdate("INSERT INTO daily_order_status (status_date, status, order_count) VALUES "
+                    + "(DATE '2025-03-01', 'NEW', 4), (DATE '2025-03-01', 'ALLOCATED', 1)");
+            // the backorder of order 4 is still waiting for the relay
+            st.executeUpdate("INSERT INTO outbox_event (id, position, event_type, beer_order_id, payload) VALUES "
+                    + "(1, NULL, 'ORDER_LINES_CHANGED', 4, '{}')");
+
+            Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").load().migrate();
+
+            assertThat(rows(st, "SELECT status_date, status, order_count, backordered_count FROM daily_order_status ORDER BY status_date, status"))
+                    .containsExactly("2025-03-01 ALLOCATED 1 0", "2025-03-01 NEW 4 1", "2025-03-02 PARTIALLY_ALLOCATED 0 1");
+        }
+    }
+
+    private static List<String> rows(Statement st, String sql) throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (ResultSet rs = st.executeQuery(sql)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columns; i++) {
+                    row.append(i > 1 ? " " : "").append(rs.getString(i));
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+}
@@ -4,12 +4,17 @@ import guru.springframework.juniemvc.entities.Beer;
 import guru.springframework.juniemvc.entities.BeerOrder;
 import guru.springframework.juniemvc.entities.BeerOrderLine;
 import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -54,8 +59,8 @@ class BeerOrderRepositoryTest {
         order.addLine(l1);
         order.addLine(l2);
 
-        // when
-        BeerOrder saved = beerOrderRepository.save(order);
+        // when (sequence ids defer the INSERTs to flush, when the timestamps are generated)
+        BeerOrder saved = beerOrderRepository.saveAndFlush(order);
 
         // then
         assertThat(saved.getId()).isNotNull();
@@ -66,4 +71,39 @@ class BeerOrderRepositoryTest {
         assertThat(saved.getLines().get(0).getId()).isNotNull();
         assertThat(saved.getLines().get(0).getBeerOrder()).isNotNull();
     }
+
+    private BeerOrder order(OrderStatus status, int allocationFailures, Beer beer, LineStatus lineStatus) {
+        BeerOrder order = BeerOrder.builder().status(status).allocationFailures(allocationFailures).build();
+        order.addLine(BeerOrderLine.builder().beer(beer).orderQuantity(2).status(lineStatus).build());
+        return beerOrderRepository.save(order);
+    }
+
+    @Test
+    @DisplayName("allocation sweep queries skip parked orders and find backorders whose beer is in stock again")
+    void allocationSweepQueries() {
+        Beer inStock = beerRepository.save(Beer.builder().beerName("IPA").beerStyle("IPA").upc("SW1")
+                .quantityOnHand(5).price(new BigDecimal("3.50")).build());
+        Beer soldOut = beerRepository.save(Beer.builder().beerName("Lager").beerStyle("LAGER").upc("SW2")
+                .quantityOnHand(0).price(new BigDecimal("4.00")).build());
+        BeerOrder untouched = order(OrderStatus.NEW, 0, inStock, LineStatus.NEW);
+        BeerOrder parked = order(OrderStatus.NEW, 3, inStock, LineStatus.NEW);
+        BeerOrder restocked = order(OrderStatus.PARTIALLY_ALLOCATED, 0, inStock, LineStatus.BACKORDER);
+        order(OrderStatus.NEW, 0, soldOut, LineStatus.BACKORDER);
+        order(OrderStatus.ALLOCATED, 0, inStock, LineStatus.BACKORDER);
+        Set<OrderStatus> allocatable = EnumSet.of(OrderStatus.NEW, OrderStatus.PARTIALLY_ALLOCATED);
+
+        assertThat(beerOrderRepository.findIdsWithLineStatus(OrderStatus.NEW, LineStatus.NEW, 3, Limit.of(10)))
+                .containsExactly(untouched.getId());
+        assertThat(beerOrderRepository.findIdsWithLineStatus(OrderStatus.NEW, LineStatus.NEW, 4, Limit.of(10)))
+                .containsExactly(untouched.getId(), parked.getId());
+        assertThat(beerOrderRepository.findIdsWithLineStatusInStock(allocatable, LineStatus.BACKORDER, 3, Limit.of(10)))
+                .containsExactly(restocked.getId());
+        assertThat(beerOrderRepository.findIdsWithLineStatusInStock(allocatable, LineStatus.BACKORDER,
+                List.of(inStock.getId()), 3, Limit.of(10))).containsExactly(restocked.getId());
+        assertThat(beerOrderRepository.findIdsWithLineStatusInStock(allocatable, LineStatus.BACKORDER,
+                List.of(soldOut.getId()), 3, Limit.of(10))).isEmpty();
+
+        assertThat(beerOrderRepository.incrementAllocationFailures(untouched.getId())).isEqualTo(1);
+        assertThat(beerOrderRepository.findAllocationFailuresById(untouched.getId())).contains(1);
+    }
 }
@@ -6,9 +6,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -43,4 +49,36 @@ class BeerOrderShipmentRepositoryTest {
         assertThat(beerOrderShipmentRepository.findByIdAndBeerOrderId(s1.getId(), order.getId())).isPresent();
         assertThat(beerOrderShipmentRepository.findByIdAndBeerOrderId(-999, order.getId())).isNotPresent();
     }
+
+    @Test
+    void findAllByBeerOrderId_scrollsByShipmentDateThenId() {
+        BeerOrder order = beerOrderRepository.save(BeerOrder.builder().customerRef("C2").build());
+        BeerOrder other = beerOrderRepository.save(BeerOrder.builder().customerRef("C3").build());
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 5; i++) {
+            BeerOrderShipment s = new BeerOrderShipment();
+            s.setBeerOrder(i == 4 ? other : order);
+            // two shipments share each date so the id tie-breaker decides their order
+            s.setShipmentDate(day.plusDays(i / 2));
+            beerOrderShipmentRepository.save(s);
+        }
+
+        Sort sort = Sort.by("shipmentDate", "id");
+        List<BeerOrderShipment> seen = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<BeerOrderShipment> window;
+        do {
+            window = beerOrderShipmentRepository.findAllByBeerOrderId(order.getId(), position, sort, Limit.of(3));
+            seen.addAll(window.getContent());
+            if (!window.isEmpty()) {
+                position = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+
+        assertThat(seen).hasSize(4)
+                .allMatch(s -> s.getBeerOrder().getId().equals(order.getId()))
+                .isSortedAccordingTo((a, b) -> a.getShipmentDate().equals(b.getShipmentDate())
+                        ? a.getId().compareTo(b.getId())
+                        : a.getShipmentDate().compareTo(b.getShipmentDate()));
+    }
 }
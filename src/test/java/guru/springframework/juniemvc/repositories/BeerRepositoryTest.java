@@ -1,12 +1,15 @@
 package guru.springframework.juniemvc.repositories;
 
 import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerDto;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -100,7 +103,7 @@ class BeerRepositoryTest {
     }
 
     @Test
-    @DisplayName("findByBeerNameContainingIgnoreCase(filter, Pageable) returns filtered page")
+    @DisplayName("findDtosByBeerName(filter, Pageable) returns filtered page of DTOs")
     void findByBeerNameFilteredPaged() {
         beerRepository.saveAndFlush(Beer.builder()
                 .beerName("Galaxy Cat IPA")
@@ -117,13 +120,13 @@ class BeerRepositoryTest {
                 .price(new BigDecimal("6.00"))
                 .build());
 
-        Page<Beer> page = beerRepository.findByBeerNameContainingIgnoreCase("porter", PageRequest.of(0, 10));
+        Page<BeerDto> page = beerRepository.findDtosByBeerName("porter", PageRequest.of(0, 10));
         assertThat(page.getTotalElements()).isEqualTo(1);
         assertThat(page.getContent().get(0).getBeerName()).containsIgnoringCase("porter");
     }
 
     @Test
-    @DisplayName("findByBeerStyleIgnoreCase(style, Pageable) returns style filtered page")
+    @DisplayName("findDtosByBeerStyleNormalized(style, Pageable) returns style filtered page of DTOs")
     void findByBeerStyleFilteredPaged() {
         beerRepository.saveAndFlush(Beer.builder()
                 .beerName("Crisp Pils")
@@ -140,13 +143,18 @@ class BeerRepositoryTest {
                 .price(new BigDecimal("7.00"))
                 .build());
 
-        Page<Beer> page = beerRepository.findByBeerStyleIgnoreCase("IPA", PageRequest.of(0, 10));
+        Page<BeerDto> page = beerRepository.findDtosByBeerStyleNormalized("IPA", PageRequest.of(0, 10));
         assertThat(page.getTotalElements()).isEqualTo(1);
-        assertThat(page.getContent().get(0).getBeerStyle()).isEqualToIgnoringCase("IPA");
+        BeerDto dto = page.getContent().get(0);
+        assertThat(dto.getBeerStyle()).isEqualToIgnoringCase("IPA");
+        assertThat(dto.getBeerName()).isEqualTo("Juicy Hops");
+        assertThat(dto.getPrice()).isEqualByComparingTo("7.00");
+        assertThat(dto.getId()).isNotNull();
+        assertThat(dto.getCreatedDate()).isNotNull();
     }
 
     @Test
-    @DisplayName("combined filter by name contains and style exact (ignore case)")
+    @DisplayName("combined filter by name contains and normalized style")
     void findByNameAndStyleFilteredPaged() {
         beerRepository.saveAndFlush(Beer.builder()
                 .beerName("Galaxy Cat IPA")
@@ -163,9 +171,44 @@ class BeerRepositoryTest {
                 .price(new BigDecimal("5.75"))
                 .build());
 
-        Page<Beer> page = beerRepository.findByBeerNameContainingIgnoreCaseAndBeerStyleIgnoreCase("galaxy", "IPA", PageRequest.of(0, 10));
+        Page<BeerDto> page = beerRepository.findDtosByBeerNameAndBeerStyleNormalized("galaxy", "IPA", PageRequest.of(0, 10));
         assertThat(page.getTotalElements()).isEqualTo(1);
         assertThat(page.getContent().get(0).getBeerStyle()).isEqualToIgnoringCase("IPA");
         assertThat(page.getContent().get(0).getBeerName()).containsIgnoringCase("galaxy");
     }
+
+    @Test
+    @DisplayName("beerStyleNormalized follows beerStyle on insert and update")
+    void beerStyleNormalizedIsMaintained() {
+        Beer saved = beerRepository.saveAndFlush(Beer.builder()
+                .beerName("Mixed Case")
+                .beerStyle(" Pale Ale ")
+                .upc("77777")
+                .quantityOnHand(1)
+                .price(new BigDecimal("3.00"))
+                .build());
+        assertThat(saved.getBeerStyleNormalized()).isEqualTo("PALE ALE");
+
+        saved.setBeerStyle("Porter");
+        beerRepository.saveAndFlush(saved);
+        assertThat(beerRepository.findDtosByBeerStyleNormalized("PORTER", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+        assertThat(beerRepository.findDtosByBeerStyleNormalized("PALE ALE", PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
+    @Test
+    @DisplayName("name filter treats % and _ literally and the slice variant skips the count")
+    void nameFilterEscapesWildcards() {
+        beerRepository.saveAndFlush(Beer.builder().beerName("100% Malt").beerStyle("ALE").upc("88881")
+                .quantityOnHand(1).price(new BigDecimal("3.00")).build());
+        beerRepository.saveAndFlush(Beer.builder().beerName("1000 Hops").beerStyle("ALE").upc("88882")
+                .quantityOnHand(1).price(new BigDecimal("3.00")).build());
+
+        assertThat(beerRepository.findDtosByBeerName("0% m", PageRequest.of(0, 10)).getContent())
+                .extracting(BeerDto::getBeerName).containsExactly("100% Malt");
+        assertThat(beerRepository.findDtosByBeerName("1_0", PageRequest.of(0, 10)).getTotalElements()).isZero();
+
+        Slice<BeerDto> slice = beerRepository.findDtoSliceBy(PageRequest.of(0, 1, Sort.by("beerName")));
+        assertThat(slice.getContent()).extracting(BeerDto::getBeerName).containsExactly("100% Malt");
+        assertThat(slice.hasNext()).isTrue();
+    }
 }
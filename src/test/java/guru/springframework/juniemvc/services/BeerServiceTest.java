@@ -11,6 +11,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -27,6 +28,7 @@ class BeerServiceTest {
 
     BeerRepository beerRepository;
     BeerMapper beerMapper;
+    ApplicationEventPublisher eventPublisher;
     BeerService beerService;
 
     private Beer sampleBeer(Integer id) {
@@ -55,7 +57,8 @@ class BeerServiceTest {
     void setUp() {
         beerRepository = Mockito.mock(BeerRepository.class);
         beerMapper = Mockito.mock(BeerMapper.class);
-        beerService = new BeerServiceImpl(beerRepository, beerMapper);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        beerService = new BeerServiceImpl(beerRepository, beerMapper, eventPublisher);
     }
 
     @Test
@@ -76,6 +79,8 @@ class BeerServiceTest {
         verify(beerMapper).toEntity(any(BeerDto.class));
         verify(beerRepository).save(any(Beer.class));
         verify(beerMapper).toDto(any(Beer.class));
+        // keeps the search index in sync
+        verify(eventPublisher).publishEvent(any(Object.class));
     }
 
     @Test
@@ -101,45 +106,61 @@ class BeerServiceTest {
     }
 
     @Test
-    @DisplayName("list(pageable, null) should use findAll(pageable) and map page of DTOs")
+    @DisplayName("list(pageable, null) should return the DTO page projected by findDtosBy(pageable)")
     void listPagedNoFilter() {
         org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, 2);
-        List<Beer> entities = Arrays.asList(sampleBeer(1), sampleBeer(2));
-        org.springframework.data.domain.Page<Beer> entityPage = new org.springframework.data.domain.PageImpl<>(entities, pageable, 2);
+        List<BeerDto> dtos = Arrays.asList(sampleDto(1), sampleDto(2));
+        org.springframework.data.domain.Page<BeerDto> dtoPage = new org.springframework.data.domain.PageImpl<>(dtos, pageable, 2);
 
-        when(beerRepository.findAll(eq(pageable))).thenReturn(entityPage);
-        when(beerMapper.toDto(any(Beer.class)))
-                .thenReturn(sampleDto(1))
-                .thenReturn(sampleDto(2));
+        when(beerRepository.findDtosBy(eq(pageable))).thenReturn(dtoPage);
 
         org.springframework.data.domain.Page<BeerDto> result = beerService.list(pageable, null, null);
 
         assertThat(result.getContent()).hasSize(2);
         assertThat(result.getContent().get(0).getId()).isEqualTo(1);
-        verify(beerRepository, times(1)).findAll(eq(pageable));
-        verify(beerRepository, never()).findByBeerNameContainingIgnoreCase(anyString(), any());
-        verify(beerRepository, never()).findByBeerStyleIgnoreCase(anyString(), any());
-        verify(beerRepository, never()).findByBeerNameContainingIgnoreCaseAndBeerStyleIgnoreCase(anyString(), anyString(), any());
+        verify(beerRepository, times(1)).findDtosBy(eq(pageable));
+        verify(beerRepository, never()).findAll(any(org.springframework.data.domain.Pageable.class));
+        verify(beerRepository, never()).findDtosByBeerName(anyString(), any());
+        verify(beerRepository, never()).findDtosByBeerStyleNormalized(anyString(), any());
+        verify(beerRepository, never()).findDtosByBeerNameAndBeerStyleNormalized(anyString(), anyString(), any());
+        verifyNoInteractions(beerMapper);
+    }
+
+    @Test
+    @DisplayName("listSlice(pageable, null, beerStyle) should normalize the style, use the Slice finder and never count")
+    void listSliceWithStyleFilter() {
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(1, 1);
+        org.springframework.data.domain.Slice<BeerDto> dtoSlice =
+                new org.springframework.data.domain.SliceImpl<>(List.of(sampleDto(1)), pageable, true);
+
+        when(beerRepository.findDtoSliceByBeerStyleNormalized(eq("LAGER"), eq(pageable))).thenReturn(dtoSlice);
+
+        org.springframework.data.domain.Slice<BeerDto> result = beerService.listSlice(pageable, null, " lager ");
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.getNumber()).isEqualTo(1);
+        verify(beerRepository, never()).findDtosByBeerStyleNormalized(anyString(), any());
+        verify(beerRepository, never()).count();
     }
 
     @Test
-    @DisplayName("list(pageable, beerName) should use filter method and map page of DTOs")
+    @DisplayName("list(pageable, beerName) should use the name filter projection")
     void listPagedWithFilter() {
         org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, 5);
-        List<Beer> entities = Arrays.asList(sampleBeer(1));
-        org.springframework.data.domain.Page<Beer> entityPage = new org.springframework.data.domain.PageImpl<>(entities, pageable, 1);
+        List<BeerDto> dtos = Arrays.asList(sampleDto(1));
+        org.springframework.data.domain.Page<BeerDto> dtoPage = new org.springframework.data.domain.PageImpl<>(dtos, pageable, 1);
 
-        when(beerRepository.findByBeerNameContainingIgnoreCase(eq("Lager"), eq(pageable))).thenReturn(entityPage);
-        when(beerMapper.toDto(any(Beer.class))).thenReturn(sampleDto(1));
+        when(beerRepository.findDtosByBeerName(eq("Lager"), eq(pageable))).thenReturn(dtoPage);
 
         org.springframework.data.domain.Page<BeerDto> result = beerService.list(pageable, "Lager", null);
 
         assertThat(result.getTotalElements()).isEqualTo(1);
         assertThat(result.getContent().get(0).getBeerName()).isEqualTo("Test Lager");
-        verify(beerRepository, times(1)).findByBeerNameContainingIgnoreCase(eq("Lager"), eq(pageable));
-        verify(beerRepository, never()).findAll(any(org.springframework.data.domain.Pageable.class));
-        verify(beerRepository, never()).findByBeerStyleIgnoreCase(anyString(), any());
-        verify(beerRepository, never()).findByBeerNameContainingIgnoreCaseAndBeerStyleIgnoreCase(anyString(), anyString(), any());
+        verify(beerRepository, times(1)).findDtosByBeerName(eq("Lager"), eq(pageable));
+        verify(beerRepository, never()).findDtosBy(any(org.springframework.data.domain.Pageable.class));
+        verify(beerRepository, never()).findDtosByBeerStyleNormalized(anyString(), any());
+        verify(beerRepository, never()).findDtosByBeerNameAndBeerStyleNormalized(anyString(), anyString(), any());
     }
 
     @Test
@@ -152,16 +173,16 @@ class BeerServiceTest {
 
         when(beerRepository.findById(eq(5))).thenReturn(Optional.of(existing));
         doAnswer(invocation -> null).when(beerMapper).updateEntity(any(Beer.class), any(BeerDto.class));
-        when(beerRepository.save(any(Beer.class))).thenReturn(saved);
+        when(beerRepository.saveAndFlush(any(Beer.class))).thenReturn(saved);
         when(beerMapper.toDto(any(Beer.class))).thenReturn(savedDto);
 
-        Optional<BeerDto> updated = beerService.update(5, payload);
+        Optional<BeerDto> updated = beerService.update(5, payload, null);
 
         assertThat(updated).isPresent();
         assertThat(updated.get().getId()).isEqualTo(5);
 
         ArgumentCaptor<Beer> captor = ArgumentCaptor.forClass(Beer.class);
-        verify(beerRepository).save(captor.capture());
+        verify(beerRepository).saveAndFlush(captor.capture());
         assertThat(captor.getValue().getId()).isEqualTo(5);
     }
 
@@ -171,10 +192,10 @@ class BeerServiceTest {
         BeerDto payload = sampleDto(1);
         when(beerRepository.findById(eq(42))).thenReturn(Optional.empty());
 
-        Optional<BeerDto> updated = beerService.update(42, payload);
+        Optional<BeerDto> updated = beerService.update(42, payload, null);
 
         assertThat(updated).isEmpty();
-        verify(beerRepository, never()).save(any());
+        verify(beerRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -187,6 +208,7 @@ class BeerServiceTest {
 
         assertThat(result).isTrue();
         verify(beerRepository).deleteById(7);
+        verify(eventPublisher).publishEvent(any(Object.class));
     }
 
     @Test
@@ -198,44 +220,43 @@ class BeerServiceTest {
 
         assertThat(result).isFalse();
         verify(beerRepository, never()).deleteById(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     @DisplayName("list(pageable, null, style) should use style filter only")
     void listPagedWithStyleOnly() {
         org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, 3);
-        java.util.List<Beer> entities = java.util.Arrays.asList(sampleBeer(3));
-        org.springframework.data.domain.Page<Beer> entityPage = new org.springframework.data.domain.PageImpl<>(entities, pageable, 1);
+        java.util.List<BeerDto> dtos = java.util.Arrays.asList(sampleDto(3));
+        org.springframework.data.domain.Page<BeerDto> dtoPage = new org.springframework.data.domain.PageImpl<>(dtos, pageable, 1);
 
-        when(beerRepository.findByBeerStyleIgnoreCase(eq("IPA"), eq(pageable))).thenReturn(entityPage);
-        when(beerMapper.toDto(any(Beer.class))).thenReturn(sampleDto(3));
+        when(beerRepository.findDtosByBeerStyleNormalized(eq("IPA"), eq(pageable))).thenReturn(dtoPage);
 
         org.springframework.data.domain.Page<BeerDto> result = beerService.list(pageable, null, "IPA");
 
         assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(beerRepository, times(1)).findByBeerStyleIgnoreCase(eq("IPA"), eq(pageable));
-        verify(beerRepository, never()).findAll(any(org.springframework.data.domain.Pageable.class));
-        verify(beerRepository, never()).findByBeerNameContainingIgnoreCase(anyString(), any());
-        verify(beerRepository, never()).findByBeerNameContainingIgnoreCaseAndBeerStyleIgnoreCase(anyString(), anyString(), any());
+        verify(beerRepository, times(1)).findDtosByBeerStyleNormalized(eq("IPA"), eq(pageable));
+        verify(beerRepository, never()).findDtosBy(any(org.springframework.data.domain.Pageable.class));
+        verify(beerRepository, never()).findDtosByBeerName(anyString(), any());
+        verify(beerRepository, never()).findDtosByBeerNameAndBeerStyleNormalized(anyString(), anyString(), any());
     }
 
     @Test
     @DisplayName("list(pageable, name, style) should use combined filter")
     void listPagedWithBothFilters() {
-        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(1, 5);
-        java.util.List<Beer> entities = java.util.Arrays.asList(sampleBeer(4));
-        org.springframework.data.domain.Page<Beer> entityPage = new org.springframework.data.domain.PageImpl<>(entities, pageable, 1);
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, 5);
+        java.util.List<BeerDto> dtos = java.util.Arrays.asList(sampleDto(4));
+        org.springframework.data.domain.Page<BeerDto> dtoPage = new org.springframework.data.domain.PageImpl<>(dtos, pageable, 1);
 
-        when(beerRepository.findByBeerNameContainingIgnoreCaseAndBeerStyleIgnoreCase(eq("Cat"), eq("LAGER"), eq(pageable))).thenReturn(entityPage);
-        when(beerMapper.toDto(any(Beer.class))).thenReturn(sampleDto(4));
+        when(beerRepository.findDtosByBeerNameAndBeerStyleNormalized(eq("Cat"), eq("LAGER"), eq(pageable))).thenReturn(dtoPage);
 
         org.springframework.data.domain.Page<BeerDto> result = beerService.list(pageable, "Cat", "LAGER");
 
         assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(beerRepository, times(1)).findByBeerNameContainingIgnoreCaseAndBeerStyleIgnoreCase(eq("Cat"), eq("LAGER"), eq(pageable));
-        verify(beerRepository, never()).findAll(any(org.springframework.data.domain.Pageable.class));
-        verify(beerRepository, never()).findByBeerNameContainingIgnoreCase(anyString(), any());
-        verify(beerRepository, never()).findByBeerStyleIgnoreCase(anyString(), any());
+        verify(beerRepository, times(1)).findDtosByBeerNameAndBeerStyleNormalized(eq("Cat"), eq("LAGER"), eq(pageable));
+        verify(beerRepository, never()).findDtosBy(any(org.springframework.data.domain.Pageable.class));
+        verify(beerRepository, never()).findDtosByBeerName(anyString(), any());
+        verify(beerRepository, never()).findDtosByBeerStyleNormalized(anyString(), any());
     }
 
     @Test
@@ -252,10 +273,10 @@ class BeerServiceTest {
 
         when(beerRepository.findById(eq(6))).thenReturn(Optional.of(existing));
         doAnswer(invocation -> null).when(beerMapper).updateFromPatch(any(Beer.class), any(BeerPatchDto.class));
-        when(beerRepository.save(any(Beer.class))).thenReturn(saved);
+        when(beerRepository.saveAndFlush(any(Beer.class))).thenReturn(saved);
         when(beerMapper.toDto(any(Beer.class))).thenReturn(savedDto);
 
-        Optional<BeerDto> result = beerService.patch(6, patch);
+        Optional<BeerDto> result = beerService.patch(6, patch, null);
 
         assertThat(result).isPresent();
         assertThat(result.get().getId()).isEqualTo(6);
@@ -267,9 +288,9 @@ class BeerServiceTest {
         BeerPatchDto patch = BeerPatchDto.builder().beerName("X").build();
         when(beerRepository.findById(eq(77))).thenReturn(Optional.empty());
 
-        Optional<BeerDto> result = beerService.patch(77, patch);
+        Optional<BeerDto> result = beerService.patch(77, patch, null);
 
         assertThat(result).isEmpty();
-        verify(beerRepository, never()).save(any());
+        verify(beerRepository, never()).saveAndFlush(any());
     }
 }
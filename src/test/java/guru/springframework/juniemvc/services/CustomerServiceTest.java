@@ -40,7 +40,7 @@ class CustomerServiceTest {
         // update
         CustomerUpdateRequest upd = new CustomerUpdateRequest("Alice2", null, null,
                 "A1-2", null, "City2", "ST", "00002");
-        Optional<CustomerResponse> updated = service.update(id, upd);
+        Optional<CustomerResponse> updated = service.update(id, upd, null);
         assertThat(updated).isPresent();
         assertThat(updated.get().name()).isEqualTo("Alice2");
 
@@ -0,0 +1,35 @@
+package guru.springframework.juniemvc.services.impl;
+
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * Lets the allocation worker finish the orders queued by earlier tests before the next test starts, so cleanup in
+ * {@code @BeforeEach} never races with it: deleting an order the worker is updating fails its version check.
+ * Registered for every Spring test in {@code META-INF/spring.factories}; contexts without the worker are skipped.
+ */
+public class AllocationDrainingTestExecutionListener extends AbstractTestExecutionListener {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) throws InterruptedException {
+        if (!testContext.hasApplicationContext()) {
+            return;
+        }
+        AllocationQueue queue = testContext.getApplicationContext().getBeanProvider(AllocationQueue.class).getIfAvailable();
+        if (queue == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (queue.unfinished() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Allocation worker did not drain within " + TIMEOUT + ", "
+                        + queue.unfinished() + " orders unfinished");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
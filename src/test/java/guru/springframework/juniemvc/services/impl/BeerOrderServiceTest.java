@@ -1,32 +1,49 @@
 package guru.springframework.juniemvc.services.impl;
 
+import guru.springframework.juniemvc.config.BeerOrderProperties;
 import guru.springframework.juniemvc.entities.Beer;
 import guru.springframework.juniemvc.entities.BeerOrder;
 import guru.springframework.juniemvc.entities.BeerOrderLine;
 import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.exceptions.AllocationBacklogFullException;
 import guru.springframework.juniemvc.exceptions.BeerNotFoundException;
+import guru.springframework.juniemvc.exceptions.CustomerNotFoundException;
 import guru.springframework.juniemvc.exceptions.InvalidOrderException;
 import guru.springframework.juniemvc.mappers.BeerOrderMapper;
 import guru.springframework.juniemvc.models.BeerOrderDtos;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BatchItemStatus;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchResponse;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineResponse;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
 import guru.springframework.juniemvc.repositories.BeerOrderLineRepository;
+import guru.springframework.juniemvc.repositories.BeerOrderLineRow;
 import guru.springframework.juniemvc.repositories.BeerOrderRepository;
 import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.repositories.CustomerRepository;
 import guru.springframework.juniemvc.services.BeerOrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +53,10 @@ class BeerOrderServiceTest {
     BeerOrderRepository beerOrderRepository;
     BeerOrderLineRepository beerOrderLineRepository;
     BeerOrderMapper beerOrderMapper;
+    CustomerRepository customerRepository;
+
+    AllocationQueue allocationQueue;
+    AtomicInteger nextId = new AtomicInteger();
 
     BeerOrderService service;
 
@@ -45,7 +66,21 @@ class BeerOrderServiceTest {
         beerOrderRepository = Mockito.mock(BeerOrderRepository.class);
         beerOrderLineRepository = Mockito.mock(BeerOrderLineRepository.class);
         beerOrderMapper = Mockito.mock(BeerOrderMapper.class);
-        service = new BeerOrderServiceImpl(beerRepository, beerOrderRepository, beerOrderLineRepository, beerOrderMapper);
+        customerRepository = Mockito.mock(CustomerRepository.class);
+        BeerOrderProperties properties = new BeerOrderProperties(new BeerOrderProperties.Batch(2, 10),
+                new BeerOrderProperties.Allocation(3, 10, Duration.ofSeconds(30), Duration.ofSeconds(30), 5),
+                new BeerOrderProperties.Stream(Duration.ofMinutes(30), Duration.ofSeconds(15), 10, 64, 16));
+        allocationQueue = new AllocationQueue(properties, new SimpleMeterRegistry());
+        service = new BeerOrderServiceImpl(beerRepository, beerOrderRepository, beerOrderLineRepository, beerOrderMapper,
+                TransactionOperations.withoutTransaction(), Validation.buildDefaultValidatorFactory().getValidator(),
+                properties, allocationQueue, Mockito.mock(OutboxWriter.class), customerRepository,
+                Mockito.mock(CustomerOrderStatsWriter.class));
+    }
+
+    // assigns the id the repository would generate
+    private BeerOrder persisted(BeerOrder order) {
+        order.setId(nextId.incrementAndGet());
+        return order;
     }
 
     private Beer sampleBeer(Integer id) {
@@ -61,8 +96,7 @@ class BeerOrderServiceTest {
                 List.of(new BeerOrderLineCreateItem(1, 2), new BeerOrderLineCreateItem(2, 3))
         );
 
-        when(beerRepository.findById(eq(1))).thenReturn(Optional.of(sampleBeer(1)));
-        when(beerRepository.findById(eq(2))).thenReturn(Optional.of(sampleBeer(2)));
+        when(beerRepository.loadAllById(eq(List.of(1, 2)))).thenReturn(List.of(sampleBeer(1), sampleBeer(2)));
 
         // Return saved order
         BeerOrder saved = new BeerOrder();
@@ -80,8 +114,13 @@ class BeerOrderServiceTest {
         BeerOrderResponse res = service.create(req);
 
         assertThat(res.id()).isEqualTo(99);
+        verify(beerRepository, times(1)).loadAllById(any());
+        verify(beerRepository, never()).findById(any());
         verify(beerOrderRepository).save(any(BeerOrder.class));
         verify(beerOrderMapper).toResponse(any(BeerOrder.class));
+        // allocation is left to the worker
+        assertThat(allocationQueue.depth()).isEqualTo(1);
+        verify(beerRepository, never()).decrementQuantityOnHand(any(), anyInt());
     }
 
     @Test
@@ -92,13 +131,62 @@ class BeerOrderServiceTest {
                 null,
                 List.of(new BeerOrderLineCreateItem(1, 1))
         );
-        when(beerRepository.findById(eq(1))).thenReturn(Optional.empty());
+        when(beerRepository.loadAllById(eq(List.of(1)))).thenReturn(List.of());
 
         assertThatThrownBy(() -> service.create(req))
                 .isInstanceOf(BeerNotFoundException.class);
         verify(beerOrderRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("create(): throws when the customerId is unknown")
+    void createUnknownCustomer() {
+        BeerOrderCreateRequest req = new BeerOrderCreateRequest(null, null, List.of(new BeerOrderLineCreateItem(1, 1)), 7);
+        when(beerRepository.loadAllById(eq(List.of(1)))).thenReturn(List.of(sampleBeer(1)));
+        when(customerRepository.existsById(7)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.create(req))
+                .isInstanceOf(CustomerNotFoundException.class);
+        verify(beerOrderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("create(): reports every missing beerId at once")
+    void createReportsAllMissingBeers() {
+        BeerOrderCreateRequest req = new BeerOrderCreateRequest(
+                null,
+                null,
+                List.of(new BeerOrderLineCreateItem(1, 1), new BeerOrderLineCreateItem(2, 1), new BeerOrderLineCreateItem(3, 1))
+        );
+        when(beerRepository.loadAllById(eq(List.of(1, 2, 3)))).thenReturn(List.of(sampleBeer(2)));
+
+        assertThatThrownBy(() -> service.create(req))
+                .isInstanceOf(BeerNotFoundException.class)
+                .hasMessageContaining("[1, 3]");
+        verify(beerOrderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("create(): resolves beers in chunks of BEER_LOOKUP_CHUNK_SIZE")
+    void createResolvesBeersInChunks() {
+        int lineCount = BeerOrderServiceImpl.BEER_LOOKUP_CHUNK_SIZE + 1;
+        List<BeerOrderLineCreateItem> lines = new java.util.ArrayList<>();
+        for (int i = 1; i <= lineCount; i++) {
+            lines.add(new BeerOrderLineCreateItem(i, 1));
+        }
+        when(beerRepository.loadAllById(any())).thenAnswer(inv -> {
+            Iterable<Integer> ids = inv.getArgument(0);
+            List<Beer> found = new java.util.ArrayList<>();
+            ids.forEach(id -> found.add(sampleBeer(id)));
+            return found;
+        });
+        when(beerOrderRepository.save(any(BeerOrder.class))).thenAnswer(inv -> persisted(inv.getArgument(0)));
+
+        service.create(new BeerOrderCreateRequest(null, null, lines));
+
+        verify(beerRepository, times(2)).loadAllById(any());
+    }
+
     @Test
     @DisplayName("create(): throws InvalidOrderException when lines empty")
     void createInvalid() {
@@ -108,23 +196,122 @@ class BeerOrderServiceTest {
     }
 
     @Test
-    @DisplayName("getById(): success")
-    void getByIdSuccess() {
-        BeerOrder order = new BeerOrder();
-        order.setId(10);
-        when(beerOrderRepository.findByIdWithLines(eq(10))).thenReturn(Optional.of(order));
+    @DisplayName("createAll(): rejects invalid and unknown-beer orders, persists the rest in chunks")
+    void createAllPartialFailure() {
+        List<BeerOrderCreateRequest> reqs = List.of(
+                new BeerOrderCreateRequest("A", null, List.of(new BeerOrderLineCreateItem(1, 1))),
+                new BeerOrderCreateRequest("B", null, List.of()),
+                new BeerOrderCreateRequest("C", null, List.of(new BeerOrderLineCreateItem(3, 1))),
+                new BeerOrderCreateRequest("D", null, List.of(new BeerOrderLineCreateItem(2, 1))),
+                new BeerOrderCreateRequest("E", null, List.of(new BeerOrderLineCreateItem(1, 2)))
+        );
+        when(beerRepository.loadAllById(any())).thenReturn(List.of(sampleBeer(1), sampleBeer(2)));
+        when(beerRepository.getReferenceById(any())).thenAnswer(inv -> sampleBeer(inv.getArgument(0)));
+        when(beerOrderRepository.saveAllAndFlush(any())).thenAnswer(inv -> {
+            List<BeerOrder> orders = inv.getArgument(0);
+            orders.forEach(this::persisted);
+            return orders;
+        });
+        when(beerOrderMapper.toResponse(any(BeerOrder.class))).thenAnswer(inv -> {
+            BeerOrder o = inv.getArgument(0);
+            return new BeerOrderResponse(null, null, o.getCustomerRef(), null, null, null, null, List.of());
+        });
+
+        BeerOrderBatchResponse res = service.createAll(reqs);
+
+        assertThat(res.created()).isEqualTo(3);
+        assertThat(res.rejected()).isEqualTo(2);
+        assertThat(res.results()).extracting(BeerOrderDtos.BeerOrderBatchItemResult::status)
+                .containsExactly(BatchItemStatus.CREATED, BatchItemStatus.REJECTED, BatchItemStatus.REJECTED,
+                        BatchItemStatus.CREATED, BatchItemStatus.CREATED);
+        assertThat(res.results().get(2).error()).contains("3");
+        assertThat(res.results().get(4).order().customerRef()).isEqualTo("E");
+        // one beer lookup for the whole batch, three accepted orders in chunks of two
+        verify(beerRepository, times(1)).loadAllById(any());
+        verify(beerOrderRepository, times(2)).saveAllAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("createAll(): a failing chunk is retried order by order")
+    void createAllChunkFailureRetriedIndividually() {
+        List<BeerOrderCreateRequest> reqs = List.of(
+                new BeerOrderCreateRequest("OK", null, List.of(new BeerOrderLineCreateItem(1, 1))),
+                new BeerOrderCreateRequest("BOOM", null, List.of(new BeerOrderLineCreateItem(1, 1)))
+        );
+        when(beerRepository.loadAllById(any())).thenReturn(List.of(sampleBeer(1)));
+        when(beerRepository.getReferenceById(any())).thenAnswer(inv -> sampleBeer(inv.getArgument(0)));
+        when(beerOrderRepository.saveAllAndFlush(any())).thenAnswer(inv -> {
+            List<BeerOrder> orders = inv.getArgument(0);
+            if (orders.stream().anyMatch(o -> "BOOM".equals(o.getCustomerRef()))) {
+                throw new IllegalStateException("constraint violated");
+            }
+            orders.forEach(this::persisted);
+            return orders;
+        });
         when(beerOrderMapper.toResponse(any(BeerOrder.class)))
-                .thenReturn(new BeerOrderResponse(10, 0, null, null, null, null, null, List.of()));
+                .thenReturn(new BeerOrderResponse(1, 0, "OK", null, null, null, null, List.of()));
+
+        BeerOrderBatchResponse res = service.createAll(reqs);
+
+        assertThat(res.created()).isEqualTo(1);
+        assertThat(res.results().get(1).status()).isEqualTo(BatchItemStatus.REJECTED);
+        assertThat(res.results().get(1).error()).isEqualTo("constraint violated");
+        verify(beerOrderRepository, times(3)).saveAllAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("create(): rejected before anything is written while the allocation queue is full")
+    void createRejectedWhenAllocationQueueFull() {
+        allocationQueue.offer(List.of(1, 2, 3));
+        BeerOrderCreateRequest req = new BeerOrderCreateRequest(null, null, List.of(new BeerOrderLineCreateItem(1, 1)));
+        when(beerRepository.loadAllById(eq(List.of(1)))).thenReturn(List.of(sampleBeer(1)));
+
+        assertThatThrownBy(() -> service.create(req))
+                .isInstanceOf(AllocationBacklogFullException.class);
+        verify(beerOrderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("createAll(): rejects batches above the configured max size")
+    void createAllTooLarge() {
+        List<BeerOrderCreateRequest> reqs = java.util.Collections.nCopies(11,
+                new BeerOrderCreateRequest("X", null, List.of(new BeerOrderLineCreateItem(1, 1))));
+        assertThatThrownBy(() -> service.createAll(reqs))
+                .isInstanceOf(InvalidOrderException.class);
+        verify(beerOrderRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("getById(): folds the projected rows into one response without the mapper")
+    void getByIdSuccess() {
+        LocalDateTime created = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(beerOrderRepository.findLineRowsById(eq(10))).thenReturn(List.of(
+                new BeerOrderLineRow(10, 2, "PO-1", new BigDecimal("9.50"), OrderStatus.ALLOCATED, created, created, 1, 5, 5, LineStatus.ALLOCATED),
+                new BeerOrderLineRow(10, 2, "PO-1", new BigDecimal("9.50"), OrderStatus.ALLOCATED, created, created, 2, 3, 1, LineStatus.BACKORDER)));
 
         BeerOrderResponse res = service.getById(10);
+
         assertThat(res.id()).isEqualTo(10);
-        verify(beerOrderRepository).findByIdWithLines(10);
+        assertThat(res.version()).isEqualTo(2);
+        assertThat(res.status()).isEqualTo(OrderStatus.ALLOCATED);
+        assertThat(res.lines()).extracting(BeerOrderLineResponse::beerId, BeerOrderLineResponse::status)
+                .containsExactly(tuple(1, LineStatus.ALLOCATED), tuple(2, LineStatus.BACKORDER));
+        verifyNoInteractions(beerOrderMapper);
+    }
+
+    @Test
+    @DisplayName("getById(): an order without lines has one row with null line columns")
+    void getByIdWithoutLines() {
+        when(beerOrderRepository.findLineRowsById(eq(11))).thenReturn(List.of(
+                new BeerOrderLineRow(11, 0, "PO-2", null, OrderStatus.NEW, null, null, null, null, null, null)));
+
+        assertThat(service.getById(11).lines()).isEmpty();
     }
 
     @Test
     @DisplayName("getById(): throws when not found")
     void getByIdNotFound() {
-        when(beerOrderRepository.findByIdWithLines(eq(404))).thenReturn(Optional.empty());
+        when(beerOrderRepository.findLineRowsById(eq(404))).thenReturn(List.of());
         assertThatThrownBy(() -> service.getById(404))
                 .isInstanceOf(InvalidOrderException.class);
     }
@@ -2,6 +2,7 @@ package guru.springframework.juniemvc.services.impl;
 
 import guru.springframework.juniemvc.entities.BeerOrder;
 import guru.springframework.juniemvc.entities.BeerOrderShipment;
+import guru.springframework.juniemvc.entities.OutboxEventType;
 import guru.springframework.juniemvc.mappers.BeerOrderShipmentMapper;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentRequest;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentResponse;
@@ -23,6 +24,7 @@ class BeerOrderShipmentServiceImplTest {
     BeerOrderRepository beerOrderRepository;
     BeerOrderShipmentRepository beerOrderShipmentRepository;
     BeerOrderShipmentMapper mapper;
+    OutboxWriter outboxWriter;
 
     BeerOrderShipmentServiceImpl service;
 
@@ -31,7 +33,8 @@ class BeerOrderShipmentServiceImplTest {
         beerOrderRepository = mock(BeerOrderRepository.class);
         beerOrderShipmentRepository = mock(BeerOrderShipmentRepository.class);
         mapper = mock(BeerOrderShipmentMapper.class);
-        service = new BeerOrderShipmentServiceImpl(beerOrderRepository, beerOrderShipmentRepository, mapper);
+        outboxWriter = mock(OutboxWriter.class);
+        service = new BeerOrderShipmentServiceImpl(beerOrderRepository, beerOrderShipmentRepository, mapper, outboxWriter);
     }
 
     @Test
@@ -47,7 +50,7 @@ class BeerOrderShipmentServiceImplTest {
         BeerOrderShipment saved = new BeerOrderShipment();
         when(beerOrderShipmentRepository.save(entity)).thenReturn(saved);
 
-        BeerOrderShipmentResponse resp = new BeerOrderShipmentResponse(10, req.shipmentDate(), req.carrier(), req.trackingNumber());
+        BeerOrderShipmentResponse resp = new BeerOrderShipmentResponse(10, 0, req.shipmentDate(), req.carrier(), req.trackingNumber());
         when(mapper.toResponse(saved)).thenReturn(resp);
 
         BeerOrderShipmentResponse result = service.create(orderId, req);
@@ -56,6 +59,7 @@ class BeerOrderShipmentServiceImplTest {
         ArgumentCaptor<BeerOrderShipment> captor = ArgumentCaptor.forClass(BeerOrderShipment.class);
         verify(beerOrderShipmentRepository).save(captor.capture());
         assertThat(captor.getValue().getBeerOrder()).isSameAs(parent);
+        verify(outboxWriter).append(OutboxEventType.SHIPMENT_CREATED, orderId, resp);
     }
 
     @Test
@@ -64,7 +68,7 @@ class BeerOrderShipmentServiceImplTest {
         Integer shipmentId = 2;
         BeerOrderShipment entity = new BeerOrderShipment();
         when(beerOrderShipmentRepository.findByIdAndBeerOrderId(shipmentId, orderId)).thenReturn(Optional.of(entity));
-        when(mapper.toResponse(entity)).thenReturn(new BeerOrderShipmentResponse(shipmentId, LocalDate.now(), "UPS", "TN"));
+        when(mapper.toResponse(entity)).thenReturn(new BeerOrderShipmentResponse(shipmentId, 0, LocalDate.now(), "UPS", "TN"));
 
         BeerOrderShipmentResponse result = service.getById(orderId, shipmentId);
         assertThat(result.id()).isEqualTo(2);
@@ -83,10 +87,10 @@ class BeerOrderShipmentServiceImplTest {
             return null;
         }).when(mapper).update(any(BeerOrderShipment.class), any(BeerOrderShipmentRequest.class));
 
-        when(beerOrderShipmentRepository.save(entity)).thenReturn(entity);
-        when(mapper.toResponse(entity)).thenReturn(new BeerOrderShipmentResponse(shipmentId, LocalDate.now(), "FedEx", "TN"));
+        when(beerOrderShipmentRepository.saveAndFlush(entity)).thenReturn(entity);
+        when(mapper.toResponse(entity)).thenReturn(new BeerOrderShipmentResponse(shipmentId, 0, LocalDate.now(), "FedEx", "TN"));
 
-        BeerOrderShipmentResponse result = service.update(orderId, shipmentId, new BeerOrderShipmentRequest(LocalDate.now(), "FedEx", "TN"));
+        BeerOrderShipmentResponse result = service.update(orderId, shipmentId, new BeerOrderShipmentRequest(LocalDate.now(), "FedEx", "TN"), null);
         assertThat(result.carrier()).isEqualTo("FedEx");
     }
 
@@ -0,0 +1,80 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.config.BeerSearchProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerSearchIndexTest {
+
+    BeerSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BeerSearchIndex(new BeerSearchProperties(20, 100, 64, 1000));
+        index.put(1, 0, "Galaxy Cat IPA", "Hazy India pale ale");
+        index.put(2, 0, "Mango Bobs", "Fruity IPA with mango");
+        index.put(3, 0, "Pilsner Urquell", "Czech lager");
+        index.put(4, 0, "Cat's Pajamas", "Session ale");
+    }
+
+    private static List<Integer> ids(List<BeerSearchIndex.Hit> hits) {
+        return hits.stream().map(BeerSearchIndex.Hit::id).toList();
+    }
+
+    @Test
+    @DisplayName("name matches outrank description matches")
+    void ranksNameAboveDescription() {
+        assertThat(ids(index.search("ipa", 10))).containsExactly(1, 2);
+        assertThat(ids(index.search("mango", 10))).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("all words must match, the last one as prefix, case-insensitively")
+    void matchesAllTokensWithTrailingPrefix() {
+        assertThat(ids(index.search("CAT", 10))).containsExactly(1, 4);
+        assertThat(ids(index.search("cat paj", 10))).containsExactly(4);
+        assertThat(ids(index.search("pale l", 10))).isEmpty();
+        assertThat(ids(index.search("pil", 10))).containsExactly(3);
+        assertThat(index.search("  ", 10)).isEmpty();
+        assertThat(index.search("stout", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("limit keeps only the best hits")
+    void limitsHits() {
+        // "p" expands to pale, pajamas and pilsner
+        assertThat(index.search("p", 10)).hasSize(3);
+        assertThat(ids(index.search("p", 2))).containsExactlyElementsOf(ids(index.search("p", 10)).subList(0, 2));
+    }
+
+    @Test
+    @DisplayName("updates replace old tokens and deletes remove the beer")
+    void updateAndRemove() {
+        index.onChanged(new BeerChangedEvent(3, 1, "Budvar", "Czech lager"));
+        assertThat(index.search("pilsner", 10)).isEmpty();
+        assertThat(ids(index.search("budvar", 10))).containsExactly(3);
+
+        index.onDeleted(new BeerDeletedEvent(3));
+        assertThat(index.search("czech", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("a change applied late with an older version does not replace a newer one or revive a deleted beer")
+    void ignoresStaleChanges() {
+        index.onChanged(new BeerChangedEvent(3, 2, "Budvar", "Czech lager"));
+        index.onChanged(new BeerChangedEvent(3, 1, "Staropramen", "Czech lager"));
+        assertThat(index.search("staropramen", 10)).isEmpty();
+        assertThat(ids(index.search("budvar", 10))).containsExactly(3);
+
+        index.onDeleted(new BeerDeletedEvent(4));
+        index.onChanged(new BeerChangedEvent(4, 1, "Cat's Pajamas", "Session ale"));
+        assertThat(index.search("pajamas", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+}
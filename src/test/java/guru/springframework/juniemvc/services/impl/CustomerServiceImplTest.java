@@ -5,6 +5,8 @@ import guru.springframework.juniemvc.mappers.CustomerMapper;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerUpdateRequest;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.CustomerOrderStatsRepository;
 import guru.springframework.juniemvc.repositories.CustomerRepository;
 import guru.springframework.juniemvc.services.CustomerService;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,19 +21,22 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class CustomerServiceImplTest {
 
     CustomerRepository repository;
     CustomerMapper mapper;
+    CustomerOrderStatsRepository statsRepository;
     CustomerService service;
 
     @BeforeEach
     void setUp() {
         repository = mock(CustomerRepository.class);
         mapper = mock(CustomerMapper.class);
-        service = new CustomerServiceImpl(repository, mapper);
+        statsRepository = mock(CustomerOrderStatsRepository.class);
+        service = new CustomerServiceImpl(repository, mapper, statsRepository, mock(BeerOrderRepository.class));
     }
 
     @Test
@@ -49,25 +54,26 @@ class CustomerServiceImplTest {
         CustomerResponse out = service.create(req);
         assertThat(out.id()).isEqualTo(10);
         verify(repository).save(entity);
+        verify(statsRepository).save(argThat(stats -> stats.getCustomer() == saved && stats.getOrderCount() == 0));
     }
 
     @Test
-    void getById_mapsOptional() {
-        Customer cust = new Customer();
-        when(repository.findById(1)).thenReturn(Optional.of(cust));
-        when(mapper.toResponse(cust)).thenReturn(new CustomerResponse(1, null, null, null, null, null, null, null, null, null, null, null));
+    void getById_readsProjection() {
+        when(repository.findResponseById(1)).thenReturn(Optional.of(new CustomerResponse(1, null, null, null, null, null, null, null, null, null, null, null)));
         Optional<CustomerResponse> res = service.getById(1);
         assertThat(res).isPresent();
+        verifyNoInteractions(mapper);
     }
 
     @Test
-    void list_paginatesAndMaps() {
-        Customer c1 = new Customer();
-        when(repository.findAll(PageRequest.of(0, 2))).thenReturn(new PageImpl<>(List.of(c1), PageRequest.of(0,2), 1));
-        when(mapper.toResponse(c1)).thenReturn(new CustomerResponse(1, null, null, null, null, null, null, null, null, null, null, null));
+    void list_readsProjectedPage() {
+        CustomerResponse c1 = new CustomerResponse(1, null, null, null, null, null, null, null, null, null, null, null);
+        when(repository.findResponsesBy(PageRequest.of(0, 2))).thenReturn(new PageImpl<>(List.of(c1), PageRequest.of(0,2), 1));
         Page<CustomerResponse> page = service.list(PageRequest.of(0, 2));
         assertThat(page.getTotalElements()).isEqualTo(1);
         assertThat(page.getContent()).hasSize(1);
+        verify(repository, never()).findAll(any(org.springframework.data.domain.Pageable.class));
+        verifyNoInteractions(mapper);
     }
 
     @Test
@@ -76,13 +82,13 @@ class CustomerServiceImplTest {
         existing.setId(5); // mimic JPA-managed entity loaded with ID 5
         when(repository.findById(5)).thenReturn(Optional.of(existing));
         Customer saved = new Customer(); saved.setId(5);
-        when(repository.save(existing)).thenReturn(saved);
+        when(repository.saveAndFlush(existing)).thenReturn(saved);
         when(mapper.toResponse(saved)).thenReturn(new CustomerResponse(5, null, null, null, null, null, null, null, null, null, null, null));
 
-        Optional<CustomerResponse> res = service.update(5, new CustomerUpdateRequest("n", null, null, "a1", null, "c", "s", "p"));
+        Optional<CustomerResponse> res = service.update(5, new CustomerUpdateRequest("n", null, null, "a1", null, "c", "s", "p"), null);
         assertThat(res).isPresent();
         ArgumentCaptor<Customer> captor = ArgumentCaptor.forClass(Customer.class);
-        verify(repository).save(captor.capture());
+        verify(repository).saveAndFlush(captor.capture());
         assertThat(captor.getValue().getId()).isEqualTo(5);
         verify(mapper).updateEntity(existing, new CustomerUpdateRequest("n", null, null, "a1", null, "c", "s", "p"));
     }
@@ -90,9 +96,9 @@ class CustomerServiceImplTest {
     @Test
     void update_whenNotFound_returnsEmpty() {
         when(repository.findById(99)).thenReturn(Optional.empty());
-        Optional<CustomerResponse> res = service.update(99, new CustomerUpdateRequest("n", null, null, "a1", null, "c", "s", "p"));
+        Optional<CustomerResponse> res = service.update(99, new CustomerUpdateRequest("n", null, null, "a1", null, "c", "s", "p"), null);
         assertThat(res).isEmpty();
-        verify(repository, never()).save(any());
+        verify(repository, never()).saveAndFlush(any());
     }
 
     @Test
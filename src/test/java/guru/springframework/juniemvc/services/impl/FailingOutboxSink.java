@@ -0,0 +1,49 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import guru.springframework.juniemvc.services.OutboxSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test sink that fails one relay round, after running a callback that can commit another event while the round
+ * still holds its positions, and records the rounds that carry the events of interest. Inert until
+ * {@link #failOnce}; add it to a test context with {@code @Import(FailingOutboxSink.class)}.
+ */
+public class FailingOutboxSink implements OutboxSink {
+
+    private final List<List<OutboxEventResponse>> rounds = new ArrayList<>();
+    private long watchFrom = Long.MAX_VALUE;
+    private long failingId;
+    private Runnable beforeFailure;
+
+    /**
+     * Fails the first round that carries event {@code failingId}, running {@code beforeFailure} first, and records
+     * every round with an event id of at least {@code watchFrom}.
+     */
+    public synchronized void failOnce(long failingId, long watchFrom, Runnable beforeFailure) {
+        this.failingId = failingId;
+        this.watchFrom = watchFrom;
+        this.beforeFailure = beforeFailure;
+        rounds.clear();
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEventResponse> events) {
+        if (events.stream().noneMatch(e -> e.id() >= watchFrom)) {
+            return;
+        }
+        rounds.add(List.copyOf(events));
+        if (beforeFailure != null && events.stream().anyMatch(e -> e.id() == failingId)) {
+            Runnable failure = beforeFailure;
+            beforeFailure = null;
+            failure.run();
+            throw new IllegalStateException("sink unavailable");
+        }
+    }
+
+    public synchronized List<List<OutboxEventResponse>> rounds() {
+        return new ArrayList<>(rounds);
+    }
+}
@@ -0,0 +1,43 @@
+package guru.springframework.juniemvc.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import guru.springframework.juniemvc.config.OutboxProperties;
+import guru.springframework.juniemvc.entities.OutboxEventType;
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileOutboxSinkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("batches are appended as one JSON object per line with the payload embedded as JSON")
+    void appendsNdjson() throws Exception {
+        Path file = dir.resolve("events/outbox.ndjson");
+        OutboxProperties properties = new OutboxProperties(200, Duration.ofMillis(200), "file", 1000, file, 100, 1000,
+                Duration.ofSeconds(30));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        FileOutboxSink sink = new FileOutboxSink(properties, objectMapper);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+        sink.publish(List.of(new OutboxEventResponse(51L, 1L, OutboxEventType.ORDER_CREATED, 7, now, "{\"id\":7}")));
+        sink.publish(List.of(new OutboxEventResponse(52L, 2L, OutboxEventType.SHIPMENT_CREATED, 7, now, "{\"id\":3}")));
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(0)).get("payload").get("id").asInt()).isEqualTo(7);
+        assertThat(objectMapper.readTree(lines.get(1)).get("type").asText()).isEqualTo("SHIPMENT_CREATED");
+    }
+}
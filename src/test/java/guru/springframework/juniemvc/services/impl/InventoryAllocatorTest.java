@@ -0,0 +1,125 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.entities.BeerOrderLine;
+import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InventoryAllocatorTest {
+
+    BeerRepository beerRepository;
+    List<Object> events;
+    InventoryAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        beerRepository = Mockito.mock(BeerRepository.class);
+        events = new ArrayList<>();
+        allocator = new InventoryAllocator(beerRepository, events::add);
+    }
+
+    private static BeerOrder order(int id, int... beerIdAndQuantity) {
+        BeerOrder order = new BeerOrder();
+        order.setId(id);
+        for (int i = 0; i < beerIdAndQuantity.length; i += 2) {
+            BeerOrderLine line = new BeerOrderLine();
+            line.setBeer(Beer.builder().id(beerIdAndQuantity[i]).build());
+            line.setOrderQuantity(beerIdAndQuantity[i + 1]);
+            order.addLine(line);
+        }
+        return order;
+    }
+
+    @Test
+    @DisplayName("one stock update per beer for a whole batch of orders")
+    void groupsLinesPerBeer() {
+        BeerOrder first = order(1, 7, 2, 8, 1);
+        BeerOrder second = order(2, 7, 3);
+        when(beerRepository.decrementQuantityOnHand(7, 5)).thenReturn(1);
+        when(beerRepository.decrementQuantityOnHand(8, 1)).thenReturn(1);
+
+        allocator.allocate(List.of(first, second));
+
+        verify(beerRepository).decrementQuantityOnHand(7, 5);
+        verify(beerRepository).decrementQuantityOnHand(8, 1);
+        verifyNoMoreInteractions(beerRepository);
+        assertThat(first.getStatus()).isEqualTo(OrderStatus.ALLOCATED);
+        assertThat(second.getStatus()).isEqualTo(OrderStatus.ALLOCATED);
+        assertThat(first.getLines()).extracting(BeerOrderLine::getStatus).containsOnly(LineStatus.ALLOCATED);
+        assertThat(events).containsExactly(new BeerStockChangedEvent(java.util.Set.of(7, 8), true));
+    }
+
+    @Test
+    @DisplayName("short stock is claimed by compare-and-set and handed out to the earliest orders first")
+    void partialStockServesEarlierOrdersFirst() {
+        BeerOrder first = order(1, 7, 3);
+        BeerOrder second = order(2, 7, 3);
+        BeerOrder third = order(3, 7, 3);
+        when(beerRepository.findQuantityOnHandById(7)).thenReturn(Optional.of(4));
+        when(beerRepository.compareAndSetQuantityOnHand(7, 4, 0)).thenReturn(1);
+
+        allocator.allocate(List.of(first, second, third));
+
+        assertThat(first.getStatus()).isEqualTo(OrderStatus.ALLOCATED);
+        assertThat(second.getStatus()).isEqualTo(OrderStatus.PARTIALLY_ALLOCATED);
+        assertThat(second.getLines().get(0).getQuantityAllocated()).isEqualTo(1);
+        assertThat(second.getLines().get(0).getStatus()).isEqualTo(LineStatus.BACKORDER);
+        // nothing left for the last order: it stays NEW with a backordered line
+        assertThat(third.getStatus()).isEqualTo(OrderStatus.NEW);
+        assertThat(third.getLines().get(0).getStatus()).isEqualTo(LineStatus.BACKORDER);
+    }
+
+    @Test
+    @DisplayName("a lost compare-and-set re-reads the stock and retries")
+    void retriesLostCompareAndSet() {
+        when(beerRepository.findQuantityOnHandById(7)).thenReturn(Optional.of(4), Optional.of(2));
+        when(beerRepository.compareAndSetQuantityOnHand(7, 4, 0)).thenReturn(0);
+        when(beerRepository.compareAndSetQuantityOnHand(7, 2, 0)).thenReturn(1);
+
+        assertThat(allocator.take(7, 5)).isEqualTo(2);
+        verify(beerRepository, times(2)).compareAndSetQuantityOnHand(eq(7), anyInt(), eq(0));
+    }
+
+    @Test
+    @DisplayName("orders that are already allocated or canceled are left alone")
+    void skipsOrdersThatAreNotAllocatable() {
+        BeerOrder canceled = order(1, 7, 1);
+        canceled.setStatus(OrderStatus.CANCELED);
+
+        allocator.allocate(List.of(canceled));
+
+        verifyNoInteractions(beerRepository);
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a line left on backorder with nothing more allocated is no change")
+    void unchangedBackorderIsNoChange() {
+        BeerOrder waiting = order(1, 7, 3);
+        waiting.getLines().get(0).setStatus(LineStatus.BACKORDER);
+        BeerOrder fresh = order(2, 7, 2);
+        when(beerRepository.findQuantityOnHandById(7)).thenReturn(Optional.of(0));
+
+        List<InventoryAllocator.Change> changes = allocator.allocate(List.of(waiting, fresh));
+
+        // the new order's line moved to BACKORDER: a change of lines only, its status stays NEW
+        assertThat(changes).extracting(InventoryAllocator.Change::order).containsExactly(fresh);
+        assertThat(changes.get(0).statusChanged()).isFalse();
+        assertThat(events).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.exceptions.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorsTest {
+
+    private static final Map<String, Class<?>> KEYS = Map.of(
+            "id", Integer.class,
+            "name", String.class,
+            "price", BigDecimal.class,
+            "shipped", LocalDate.class);
+
+    @Test
+    void sortAppendsIdAsTieBreaker() {
+        Sort sort = KeysetCursors.sort(PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "name")), KEYS);
+        assertThat(sort).isEqualTo(Sort.by(Sort.Order.desc("name"), Sort.Order.asc("id")));
+
+        Sort unsorted = KeysetCursors.sort(PageRequest.of(0, 5), KEYS);
+        assertThat(unsorted).isEqualTo(Sort.by("id"));
+
+        Sort idDesc = KeysetCursors.sort(PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "id")), KEYS);
+        assertThat(idDesc).isEqualTo(Sort.by(Sort.Order.desc("id")));
+    }
+
+    @Test
+    void sortRejectsUnknownProperty() {
+        assertThatThrownBy(() -> KeysetCursors.sort(PageRequest.of(0, 5, Sort.by("createdDate")), KEYS))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessageContaining("createdDate");
+    }
+
+    @Test
+    void blankCursorStartsAtFirstRow() {
+        Sort sort = Sort.by("id");
+        assertThat(KeysetCursors.position(null, sort, KEYS)).isEqualTo(ScrollPosition.keyset());
+        assertThat(KeysetCursors.position("", sort, KEYS)).isEqualTo(ScrollPosition.keyset());
+    }
+
+    @Test
+    void encodeAndDecodeRoundTripTypedKeys() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("name", "Pale & Hoppy = 100%");
+        keys.put("price", new BigDecimal("12.50"));
+        keys.put("shipped", LocalDate.of(2024, 2, 29));
+        keys.put("id", 42);
+        String cursor = KeysetCursors.encode(ScrollPosition.forward(keys));
+
+        Sort sort = Sort.by("name", "price", "shipped", "id");
+        KeysetScrollPosition decoded = (KeysetScrollPosition) KeysetCursors.position(cursor, sort, KEYS);
+        assertThat(decoded.getKeys()).isEqualTo(keys);
+        assertThat(decoded.scrollsForward()).isTrue();
+    }
+
+    @Test
+    void cursorMustMatchSort() {
+        String cursor = KeysetCursors.encode(ScrollPosition.forward(Map.of("id", 7)));
+        assertThatThrownBy(() -> KeysetCursors.position(cursor, Sort.by("name", "id"), KEYS))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> KeysetCursors.position("%%%", Sort.by("id"), KEYS))
+                .isInstanceOf(InvalidCursorException.class);
+        String badValue = KeysetCursors.encode(ScrollPosition.forward(Map.of("id", "abc")));
+        assertThatThrownBy(() -> KeysetCursors.position(badValue, Sort.by("id"), KEYS))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Malformed cursor");
+    }
+}
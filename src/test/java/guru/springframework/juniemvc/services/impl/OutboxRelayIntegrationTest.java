@@ -0,0 +1,64 @@
+package guru.springframework.juniemvc.services.impl;
+
+import guru.springframework.juniemvc.models.OutboxDtos.OutboxEventResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(FailingOutboxSink.class)
+class OutboxRelayIntegrationTest {
+
+    // far above the pooled sequence, so the test decides which event has the lower id
+    static final long LOWER_ID = 900_000_001L;
+    static final long HIGHER_ID = 900_000_002L;
+
+    @Autowired
+    FailingOutboxSink sink;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private void insertEvent(long id) {
+        jdbcTemplate.update("insert into outbox_event (id, event_type, beer_order_id, payload, created_date) "
+                + "values (?, 'SHIPMENT_CREATED', 1, '{}', current_timestamp)", id);
+    }
+
+    @Test
+    @DisplayName("a retried round may give its positions to other events, while the event ids stay put")
+    void retriedRoundKeepsIds() throws InterruptedException {
+        // commits outside the relay transaction, while the failing round still holds its positions
+        sink.failOnce(HIGHER_ID, LOWER_ID, () -> CompletableFuture.runAsync(() -> insertEvent(LOWER_ID)).join());
+        insertEvent(HIGHER_ID);
+
+        for (int i = 0; i < 200 && sink.rounds().size() < 2; i++) {
+            Thread.sleep(50);
+        }
+        List<List<OutboxEventResponse>> rounds = sink.rounds();
+        assertThat(rounds).hasSize(2);
+        OutboxEventResponse failed = rounds.get(0).get(0);
+        List<OutboxEventResponse> retried = rounds.get(1);
+        assertThat(failed.id()).isEqualTo(HIGHER_ID);
+        assertThat(retried).extracting(OutboxEventResponse::id).containsExactly(LOWER_ID, HIGHER_ID);
+        // the failed round's position now belongs to the other event
+        assertThat(retried.get(0).position()).isEqualTo(failed.position());
+
+        // a sink that de-duplicates on the id keeps each event once, at its committed position
+        Map<Long, Long> positionsById = new LinkedHashMap<>();
+        rounds.forEach(round -> round.forEach(e -> positionsById.put(e.id(), e.position())));
+        assertThat(positionsById).containsExactly(Map.entry(HIGHER_ID, failed.position() + 1),
+                Map.entry(LOWER_ID, failed.position()));
+        assertThat(jdbcTemplate.queryForObject("select position from outbox_event where id = ?", Long.class, HIGHER_ID))
+                .isEqualTo(failed.position() + 1);
+    }
+}
@@ -0,0 +1,113 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(JdbcStatementRecorder.class)
+class BeerCursorPaginationIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        List<Beer> beers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            beers.add(Beer.builder()
+                    .beerName(i % 2 == 0 ? "Lager" : "Stout")
+                    .beerStyle(i % 2 == 0 ? "LAGER" : "STOUT")
+                    .upc("CUR-" + i)
+                    .price(new BigDecimal("5.00"))
+                    .quantityOnHand(10)
+                    .build());
+        }
+        beerRepository.saveAll(beers);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    @Test
+    @DisplayName("cursor mode walks every beer exactly once in (beerName, id) order without a count query")
+    void walksAllPagesWithoutCount() {
+        List<String> seen = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        recorder.clear();
+        do {
+            ResponseEntity<JsonNode> resp = rest.getForEntity(
+                    url("/api/v1/beer?size=3&sort=beerName,desc&cursor=" + cursor), JsonNode.class);
+            assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+            JsonNode body = resp.getBody();
+            assertThat(body).isNotNull();
+            assertThat(body.has("totalElements")).isFalse();
+            body.get("content").forEach(b -> {
+                seen.add(b.get("upc").asText());
+                names.add(b.get("beerName").asText());
+            });
+            cursor = body.get("hasNext").asBoolean() ? body.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(7).doesNotHaveDuplicates();
+        assertThat(names).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(recorder.statements()).noneMatch(sql -> sql.toLowerCase().contains("count("));
+    }
+
+    @Test
+    @DisplayName("cursor mode honours filters")
+    void filtersApply() {
+        ResponseEntity<JsonNode> resp = rest.getForEntity(url("/api/v1/beer?cursor=&size=10&beerStyle=stout"), JsonNode.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getBody().get("content")).hasSize(3);
+        assertThat(resp.getBody().get("hasNext").asBoolean()).isFalse();
+        assertThat(resp.getBody().get("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    @DisplayName("tampered cursor or unsupported sort yields 400 ProblemDetail")
+    void invalidCursor() {
+        ResponseEntity<JsonNode> bad = rest.getForEntity(url("/api/v1/beer?cursor=not-a-cursor"), JsonNode.class);
+        assertThat(bad.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(bad.getBody().get("title").asText()).isEqualTo("Invalid Cursor");
+
+        ResponseEntity<JsonNode> sort = rest.getForEntity(url("/api/v1/beer?cursor=&sort=createdDate"), JsonNode.class);
+        assertThat(sort.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
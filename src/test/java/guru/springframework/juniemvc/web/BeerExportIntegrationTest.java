@@ -0,0 +1,234 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerFileFormat;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.services.BeerExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "juniemvc.export.max-concurrent=1")
+@Import(JdbcStatementRecorder.class)
+class BeerExportIntegrationTest {
+
+    // more than juniemvc.export.clear-every, so the persistence context is cleared while the cursor is open
+    static final int BEERS = 2500;
+
+    @TestConfiguration
+    static class GateConfig {
+        @Bean
+        @Primary
+        GatedExportService gatedExportService(@Qualifier("beerExportServiceImpl") BeerExportService delegate) {
+            return new GatedExportService(delegate);
+        }
+    }
+
+    // holds an export on its connection until the test opens the gate, like a client that reads slowly
+    static class GatedExportService implements BeerExportService {
+        private final BeerExportService delegate;
+        volatile CountDownLatch entered = new CountDownLatch(0);
+        volatile CountDownLatch gate = new CountDownLatch(0);
+
+        GatedExportService(BeerExportService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long export(BeerFileFormat format, OutputStream out) throws IOException {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            return delegate.export(format, out);
+        }
+    }
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    GatedExportService gatedExportService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        List<Beer> beers = new ArrayList<>();
+        for (int i = 0; i < BEERS; i++) {
+            beers.add(Beer.builder()
+                    .beerName("Export " + i)
+                    .beerStyle("LAGER")
+                    .upc("EXP-" + i)
+                    .quantityOnHand(i)
+                    .price(new BigDecimal("3.50"))
+                    .description(i == 0 ? "crisp, \"dry\"\nfinish" : null)
+                    .build());
+        }
+        beerRepository.saveAll(beers);
+    }
+
+    private HttpResponse<InputStream> get(String query, boolean gzip) throws Exception {
+        return get(query, gzip ? "gzip" : null);
+    }
+
+    private HttpResponse<InputStream> get(String query, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/beer/export" + query));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private static List<String> lines(InputStream body) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("NDJSON export streams every beer in id order from a single query")
+    void exportsNdjson() throws Exception {
+        recorder.clear();
+        HttpResponse<InputStream> response = get("", false);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/x-ndjson"));
+        assertThat(response.headers().firstValue("Content-Disposition")).hasValue("attachment; filename=\"beers.ndjson\"");
+        List<String> lines = lines(response.body());
+        assertThat(lines).hasSize(BEERS);
+        int previousId = 0;
+        for (String line : lines) {
+            JsonNode beer = objectMapper.readTree(line);
+            assertThat(beer.get("id").asInt()).isGreaterThan(previousId);
+            previousId = beer.get("id").asInt();
+        }
+        assertThat(objectMapper.readTree(lines.get(0)).get("beerName").asText()).isEqualTo("Export 0");
+        assertThat(recorder.statements()).filteredOn(sql -> sql.toLowerCase().contains("from beer ")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("CSV export has a header and quotes fields with separators, quotes and line breaks")
+    void exportsCsv() throws Exception {
+        HttpResponse<InputStream> response = get("?format=CSV", false);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("text/csv"));
+        List<String> lines = lines(response.body());
+        // header, the beer with a two-line description, then one line per remaining beer
+        assertThat(lines).hasSize(BEERS + 2);
+        assertThat(lines.get(0)).isEqualTo("id,version,beerName,beerStyle,upc,quantityOnHand,price,description,createdDate,updatedDate");
+        assertThat(lines.get(1)).contains(",Export 0,LAGER,EXP-0,0,3.50,\"crisp, \"\"dry\"\"");
+        assertThat(lines.get(2)).startsWith("finish\",");
+        assertThat(lines.get(3)).contains(",Export 1,LAGER,EXP-1,1,3.50,,");
+    }
+
+    @Test
+    @DisplayName("the export is gzip-compressed when the client accepts it")
+    void exportsGzip() throws Exception {
+        HttpResponse<InputStream> response = get("?format=ndjson", true);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(lines(new GZIPInputStream(response.body()))).hasSize(BEERS);
+    }
+
+    @Test
+    @DisplayName("gzip is only used when Accept-Encoding lists it with a non-zero q-value")
+    void honoursGzipQValue() throws Exception {
+        HttpResponse<InputStream> refused = get("", "br, gzip;q=0");
+        assertThat(refused.statusCode()).isEqualTo(200);
+        assertThat(refused.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(lines(refused.body())).hasSize(BEERS);
+
+        HttpResponse<InputStream> weighted = get("", "identity;q=1, GZIP ; q=0.5");
+        assertThat(weighted.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(lines(new GZIPInputStream(weighted.body()))).hasSize(BEERS);
+    }
+
+    @Test
+    @DisplayName("an unknown format is rejected with 400")
+    void rejectsUnknownFormat() throws Exception {
+        HttpResponse<InputStream> response = get("?format=xml", false);
+
+        assertThat(response.statusCode()).isEqualTo(400);
+        response.body().close();
+    }
+
+    @Test
+    @DisplayName("an export beyond juniemvc.export.max-concurrent is answered with 503 instead of taking a connection")
+    void rejectsExportsBeyondLimit() throws Exception {
+        gatedExportService.entered = new CountDownLatch(1);
+        gatedExportService.gate = new CountDownLatch(1);
+        CompletableFuture<HttpResponse<InputStream>> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return get("", false);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(gatedExportService.entered.await(10, TimeUnit.SECONDS)).isTrue();
+
+        HttpResponse<InputStream> rejected = get("", false);
+        assertThat(rejected.statusCode()).isEqualTo(503);
+        assertThat(rejected.headers().firstValue("Retry-After")).isPresent();
+        rejected.body().close();
+
+        gatedExportService.gate.countDown();
+        HttpResponse<InputStream> response = first.get(10, TimeUnit.SECONDS);
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(lines(response.body())).hasSize(BEERS);
+        // the permit is back once the first download is done
+        HttpResponse<InputStream> next = get("", false);
+        assertThat(next.statusCode()).isEqualTo(200);
+        next.body().close();
+    }
+}
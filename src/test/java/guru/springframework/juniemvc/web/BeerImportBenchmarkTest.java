@@ -0,0 +1,144 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows per second of {@code POST /api/v1/beer/import}: an insert pass and an update pass over the same generated
+ * NDJSON upload, compared with the former one {@code PUT /api/v1/beer/{id}} per row. The upload is generated while
+ * it is sent and the peak heap is sampled, to show that memory does not grow with the row count. Defaults to 200k
+ * rows; {@code -Dimport.rows=5000000} runs the full-size nightly sync. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmark -Dtest=BeerImportBenchmarkTest}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn",
+        "logging.level.org.hibernate.orm.cache=warn"})
+class BeerImportBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("import.rows", 200_000);
+    private static final int PUT_ROWS = 2_000;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    HttpClient client = HttpClient.newHttpClient();
+
+    // NDJSON rows produced on demand, never held in memory as a whole
+    static InputStream generated(int rows, String price) {
+        return new InputStream() {
+            private int row;
+            private byte[] current = new byte[0];
+            private int pos;
+
+            @Override
+            public int read() {
+                if (pos == current.length) {
+                    if (row == rows) {
+                        return -1;
+                    }
+                    row++;
+                    current = ("{\"upc\":\"BENCH-" + row + "\",\"beerName\":\"Bench " + row + "\",\"beerStyle\":\"LAGER\","
+                            + "\"price\":" + price + ",\"quantityOnHand\":" + row % 500 + "}\n").getBytes(StandardCharsets.UTF_8);
+                    pos = 0;
+                }
+                return current[pos++] & 0xff;
+            }
+        };
+    }
+
+    record Pass(String name, long rows, double rowsPerSecond, long peakHeapMb) {}
+
+    private Pass importPass(String name, String price) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        AtomicLong peak = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/beer/import"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> generated(ROWS, price)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.interrupt();
+        sampler.join();
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonNode result = objectMapper.readTree(response.body());
+        assertThat(result.get("rejected").asLong()).isZero();
+        long rows = result.get("inserted").asLong() + result.get("updated").asLong();
+        return new Pass(name, rows, rows / seconds, peak.get() / (1024 * 1024));
+    }
+
+    private Pass putPass() throws Exception {
+        List<Integer> ids = beerRepository.findAll(PageRequest.of(0, PUT_ROWS)).map(Beer::getId).getContent();
+        long start = System.nanoTime();
+        for (Integer id : ids) {
+            String body = "{\"beerName\":\"Bench " + id + "\",\"beerStyle\":\"LAGER\",\"upc\":\"BENCH-PUT-" + id + "\",\"price\":4.75,\"quantityOnHand\":7}";
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/beer/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Pass("put/row", ids.size(), ids.size() / seconds, -1);
+    }
+
+    @Test
+    void importThroughput() throws Exception {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAllInBatch();
+
+        List<Pass> passes = List.of(importPass("insert", "3.50"), importPass("update", "3.75"), putPass());
+        for (Pass p : passes) {
+            log.info("{} {} rows  {} rows/s  peak heap {}", p.name(), p.rows(), "%.0f".formatted(p.rowsPerSecond()),
+                    p.peakHeapMb() < 0 ? "-" : p.peakHeapMb() + " MB");
+        }
+        assertThat(passes.get(0).rows()).isEqualTo(ROWS);
+        assertThat(passes.get(1).rows()).isEqualTo(ROWS);
+    }
+}
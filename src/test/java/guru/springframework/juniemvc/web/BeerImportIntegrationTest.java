@@ -0,0 +1,181 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerImportDtos.BeerImportResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "juniemvc.import.chunk-size=3")
+@Import(JdbcStatementRecorder.class)
+class BeerImportIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    Integer existingId;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        existingId = beerRepository.save(Beer.builder().beerName("Known Pils").beerStyle("PILSNER").upc("IMP-1")
+                .quantityOnHand(5).price(new BigDecimal("2.00")).description("kept").build()).getId();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private ResponseEntity<BeerImportResponse> post(byte[] body, String contentType, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return rest.postForEntity(url("/api/v1/beer/import"), new HttpEntity<>(body, headers), BeerImportResponse.class);
+    }
+
+    @Test
+    @DisplayName("CSV rows are upserted by upc; updates only touch the columns given, bad rows are reported")
+    void upsertsCsvByUpc() {
+        // warm the DTO cache so the import has to evict it
+        assertThat(rest.getForObject(url("/api/v1/beer/" + existingId), BeerDto.class).getPrice()).isEqualByComparingTo("2.00");
+        String csv = """
+                upc,price,quantityOnHand,beerName,beerStyle,description
+                IMP-1,2.50,40,,,
+                IMP-2,3.10,12,New Weizen,WHEAT,"cloudy, ""banana""\"
+                IMP-3,abc,1,Broken,ALE,
+                IMP-4,4.00,3,,,
+                ,1.00,1,No Upc,ALE,
+                IMP-5,-1,3,Negative,ALE,
+                IMP-2,3.20,,,,
+                """;
+
+        ResponseEntity<BeerImportResponse> resp = post(csv.getBytes(StandardCharsets.UTF_8), "text/csv", false);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BeerImportResponse result = resp.getBody();
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.updated()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(4);
+        assertThat(result.errors()).extracting(e -> e.line() + " " + e.upc()).containsExactlyInAnyOrder(
+                "4 null", "5 IMP-4", "6 null", "7 IMP-5");
+
+        Beer known = beerRepository.findById(existingId).orElseThrow();
+        assertThat(known.getPrice()).isEqualByComparingTo("2.50");
+        assertThat(known.getQuantityOnHand()).isEqualTo(40);
+        assertThat(known.getBeerName()).isEqualTo("Known Pils");
+        assertThat(known.getDescription()).isEqualTo("kept");
+        Beer inserted = beerRepository.findAllByUpcIn(List.of("IMP-2")).get(0);
+        assertThat(inserted.getBeerStyleNormalized()).isEqualTo("WHEAT");
+        assertThat(inserted.getDescription()).isEqualTo("cloudy, \"banana\"");
+        assertThat(inserted.getPrice()).isEqualByComparingTo("3.20");
+        assertThat(inserted.getQuantityOnHand()).isEqualTo(12);
+
+        assertThat(rest.getForObject(url("/api/v1/beer/" + existingId), BeerDto.class).getPrice()).isEqualByComparingTo("2.50");
+    }
+
+    @Test
+    @DisplayName("gzip NDJSON is imported with one upc lookup per chunk")
+    void importsGzipNdjsonInChunks() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 7; i++) {
+            ndjson.append("{\"upc\":\"IMP-").append(i).append("\",\"beerName\":\"Bulk ").append(i)
+                    .append("\",\"beerStyle\":\"ALE\",\"price\":").append(i).append(".00,\"quantityOnHand\":").append(i).append("}\n");
+        }
+        ndjson.append("{not json}\n");
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gz)) {
+            out.write(ndjson.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        recorder.clear();
+        ResponseEntity<BeerImportResponse> resp = post(gz.toByteArray(), "application/x-ndjson", true);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getBody().inserted()).isEqualTo(6);
+        assertThat(resp.getBody().updated()).isEqualTo(1);
+        assertThat(resp.getBody().rejected()).isEqualTo(1);
+        assertThat(resp.getBody().errors()).singleElement().satisfies(e -> assertThat(e.line()).isEqualTo(8));
+        assertThat(beerRepository.count()).isEqualTo(7);
+        assertThat(beerRepository.findById(existingId).orElseThrow().getBeerName()).isEqualTo("Bulk 1");
+        // chunks of 3 rows: 7 valid rows need 3 lookups
+        assertThat(recorder.statements()).filteredOn(sql -> sql.toLowerCase().contains("where b1_0.upc in")).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("CSV without a upc column in its header row is answered with 400")
+    void rejectsCsvWithoutUpcHeader() {
+        String csv = """
+                beerName,price
+                Headless,2.00
+                """;
+        ResponseEntity<String> resp = rest.postForEntity(url("/api/v1/beer/import"),
+                new HttpEntity<>(csv, headersFor(MediaType.parseMediaType("text/csv"))), String.class);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(resp.getBody()).contains("upc column");
+        assertThat(beerRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a CSV record over the length limit, such as an unterminated quote, rejects the file with 400")
+    void rejectsOverlongCsvRecord() {
+        String csv = "upc,beerName,price\nOPEN-1,\"Unterminated,2.00\n" + "x,".repeat(40_000);
+        ResponseEntity<String> resp = rest.postForEntity(url("/api/v1/beer/import"),
+                new HttpEntity<>(csv, headersFor(MediaType.parseMediaType("text/csv"))), String.class);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(resp.getBody()).contains("record on line 2 is longer than 65536 characters");
+        assertThat(beerRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("uploads in other formats are answered with 415")
+    void rejectsOtherContentTypes() {
+        ResponseEntity<String> resp = rest.postForEntity(url("/api/v1/beer/import"),
+                new HttpEntity<>("<beers/>", headersFor(MediaType.APPLICATION_XML)), String.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    private static HttpHeaders headersFor(MediaType type) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(type);
+        return headers;
+    }
+}
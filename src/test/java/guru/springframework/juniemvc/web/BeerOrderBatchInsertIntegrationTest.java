@@ -0,0 +1,92 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(JdbcStatementRecorder.class)
+class BeerOrderBatchInsertIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    List<Integer> beerIds;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        recorder.clear();
+        List<Beer> beers = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            beers.add(Beer.builder().beerName("Batch " + i).beerStyle("ALE")
+                    .upc("BATCH-" + i).price(new BigDecimal("2.00")).build());
+        }
+        beerIds = beerRepository.saveAll(beers).stream().map(Beer::getId).toList();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    @Test
+    @DisplayName("saveAll: 120 beers are sent as JDBC batches of hibernate.jdbc.batch_size")
+    void beersInsertedInBatches() {
+        assertThat(recorder.batches())
+                .filteredOn(batch -> batch.isInsertInto("beer"))
+                .extracting(JdbcStatementRecorder.Batch::size)
+                .containsExactly(50, 50, 20);
+    }
+
+    @Test
+    @DisplayName("POST create: 120 order lines are sent as 3 JDBC batches")
+    void orderLinesInsertedInBatches() {
+        List<BeerOrderLineCreateItem> lines = beerIds.stream().map(id -> new BeerOrderLineCreateItem(id, 1)).toList();
+        recorder.clear();
+
+        ResponseEntity<BeerOrderResponse> resp = rest.postForEntity(url("/api/v1/beer-orders"),
+                new BeerOrderCreateRequest("BATCH", null, lines), BeerOrderResponse.class);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(recorder.batches())
+                .filteredOn(batch -> batch.isInsertInto("beer_order_line"))
+                .extracting(JdbcStatementRecorder.Batch::size)
+                .containsExactly(50, 50, 20);
+        assertThat(recorder.batches())
+                .filteredOn(batch -> batch.isInsertInto("beer_order"))
+                .extracting(JdbcStatementRecorder.Batch::size)
+                .containsExactly(1);
+    }
+}
@@ -0,0 +1,107 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BatchItemStatus;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchItemResult;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchResponse;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "juniemvc.orders.batch.chunk-size=2")
+@Import(JdbcStatementRecorder.class)
+class BeerOrderBatchIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    Integer beerId1;
+    Integer beerId2;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        beerId1 = beerRepository.save(Beer.builder().beerName("IPA").beerStyle("IPA").upc("BULK-UP1").quantityOnHand(1000).price(new BigDecimal("4.50")).build()).getId();
+        beerId2 = beerRepository.save(Beer.builder().beerName("Lager").beerStyle("LAGER").upc("BULK-UP2").quantityOnHand(1000).price(new BigDecimal("5.00")).build()).getId();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    @Test
+    @DisplayName("POST :batch: valid orders are created, invalid ones reported per item")
+    void postBatchPartialFailure() {
+        List<BeerOrderCreateRequest> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orders.add(new BeerOrderCreateRequest("EDI-" + i, null,
+                    List.of(new BeerOrderLineCreateItem(beerId1, i + 1), new BeerOrderLineCreateItem(beerId2, 1))));
+        }
+        orders.add(new BeerOrderCreateRequest("EDI-UNKNOWN", null, List.of(new BeerOrderLineCreateItem(999999, 1))));
+        orders.add(new BeerOrderCreateRequest("EDI-EMPTY", null, List.of()));
+        recorder.clear();
+
+        ResponseEntity<BeerOrderBatchResponse> resp = rest.postForEntity(url("/api/v1/beer-orders:batch"),
+                new BeerOrderBatchRequest(orders), BeerOrderBatchResponse.class);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BeerOrderBatchResponse body = resp.getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.created()).isEqualTo(5);
+        assertThat(body.rejected()).isEqualTo(2);
+        assertThat(body.results()).extracting(BeerOrderBatchItemResult::index).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(body.results().get(5).status()).isEqualTo(BatchItemStatus.REJECTED);
+        assertThat(body.results().get(5).error()).contains("999999");
+        assertThat(body.results().get(6).status()).isEqualTo(BatchItemStatus.REJECTED);
+        assertThat(recorder.selectsFrom("beer")).isEqualTo(1L);
+
+        BeerOrderResponse created = body.results().get(4).order();
+        ResponseEntity<BeerOrderResponse> getResp = rest.getForEntity(url("/api/v1/beer-orders/" + created.id()), BeerOrderResponse.class);
+        assertThat(getResp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(getResp.getBody()).isNotNull();
+        assertThat(getResp.getBody().customerRef()).isEqualTo("EDI-4");
+        assertThat(getResp.getBody().lines()).hasSize(2);
+        assertThat(beerOrderRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("POST :batch: empty batch -> 400")
+    void postEmptyBatch() {
+        ResponseEntity<String> resp = rest.postForEntity(url("/api/v1/beer-orders:batch"),
+                new BeerOrderBatchRequest(List.of()), String.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
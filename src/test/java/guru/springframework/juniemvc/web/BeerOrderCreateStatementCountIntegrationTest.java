@@ -0,0 +1,95 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(JdbcStatementRecorder.class)
+class BeerOrderCreateStatementCountIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    List<Integer> beerIds;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        beerIds = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Beer beer = beerRepository.save(Beer.builder().beerName("Beer " + i).beerStyle("ALE")
+                    .upc("STMT-" + i).quantityOnHand(1000).price(new BigDecimal("3.00")).build());
+            beerIds.add(beer.getId());
+        }
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    // SELECTs against the beer table issued by one create call
+    private long beerSelectsForOrderWith(int lineCount) {
+        List<BeerOrderLineCreateItem> lines = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new BeerOrderLineCreateItem(beerIds.get(i), 1));
+        }
+        // measure the cold path: beers cached in the second-level cache would not be selected at all
+        entityManagerFactory.getCache().evictAll();
+        recorder.clear();
+
+        ResponseEntity<BeerOrderResponse> resp = rest.postForEntity(url("/api/v1/beer-orders"),
+                new BeerOrderCreateRequest("STMT", null, lines), BeerOrderResponse.class);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(resp.getBody()).isNotNull();
+        assertThat(resp.getBody().lines()).hasSize(lineCount);
+        return recorder.selectsFrom("beer");
+    }
+
+    @Test
+    @DisplayName("POST create: beer lookups do not grow with the number of order lines")
+    void statementCountConstantAsLinesGrow() {
+        long withTwoLines = beerSelectsForOrderWith(2);
+        long withSixtyLines = beerSelectsForOrderWith(60);
+
+        assertThat(withTwoLines).isEqualTo(1L);
+        assertThat(withSixtyLines).isEqualTo(withTwoLines);
+    }
+}
@@ -5,6 +5,7 @@ import guru.springframework.juniemvc.models.BeerOrderDtos;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
 import guru.springframework.juniemvc.repositories.BeerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -33,11 +34,15 @@ class BeerOrderIntegrationTest {
     @Autowired
     BeerRepository beerRepository;
 
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
     Integer beerId1;
     Integer beerId2;
 
     @BeforeEach
     void setUp() {
+        beerOrderRepository.deleteAll();
         beerRepository.deleteAll();
         Beer b1 = beerRepository.save(Beer.builder().beerName("IPA").beerStyle("IPA").upc("INT-UP1").price(new BigDecimal("4.50")).build());
         Beer b2 = beerRepository.save(Beer.builder().beerName("Lager").beerStyle("LAGER").upc("INT-UP2").price(new BigDecimal("5.00")).build());
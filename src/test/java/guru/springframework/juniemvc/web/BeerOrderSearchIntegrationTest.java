@@ -0,0 +1,187 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.entities.BeerOrderLine;
+import guru.springframework.juniemvc.entities.Customer;
+import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.repositories.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(JdbcStatementRecorder.class)
+class BeerOrderSearchIntegrationTest {
+
+    static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    Integer customerId;
+
+    // order i is created i hours after START with i % 3 + 1 lines; even orders belong to the customer, every third
+    // one is ALLOCATED. The lines are already allocated, so the allocation sweep leaves the orders alone.
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        customerRepository.deleteAll();
+        beerRepository.deleteAll();
+        customerId = customerRepository.save(Customer.builder().name("Ops").addressLine1("1 Main St").city("Springfield")
+                .state("IL").postalCode("62701").build()).getId();
+        Beer beer = beerRepository.save(Beer.builder().beerName("Search Lager").beerStyle("LAGER").upc("SRCH-1")
+                .quantityOnHand(100).price(new BigDecimal("2.50")).build());
+        for (int i = 0; i < 9; i++) {
+            BeerOrder order = BeerOrder.builder()
+                    .customerRef("REF-" + (i % 2))
+                    .status(i % 3 == 0 ? OrderStatus.ALLOCATED : OrderStatus.NEW)
+                    .customer(i % 2 == 0 ? customerRepository.getReferenceById(customerId) : null)
+                    .build();
+            for (int l = 0; l <= i % 3; l++) {
+                order.addLine(BeerOrderLine.builder().beer(beer).orderQuantity(i + 1).quantityAllocated(i + 1)
+                        .status(LineStatus.ALLOCATED).build());
+            }
+            order = beerOrderRepository.save(order);
+            jdbcTemplate.update("update beer_order set created_date = ? where id = ?", START.plusHours(i), order.getId());
+        }
+    }
+
+    private static String at(int hours) {
+        return START.plusHours(hours).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private List<String> createdDates(String query) {
+        List<String> dates = new ArrayList<>();
+        String cursor = "";
+        do {
+            ResponseEntity<JsonNode> resp = rest.getForEntity(url("/api/v1/beer-orders?" + query + "&cursor=" + cursor), JsonNode.class);
+            assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+            resp.getBody().get("content").forEach(o -> dates.add(o.get("createdDate").asText()));
+            cursor = resp.getBody().get("hasNext").asBoolean() ? resp.getBody().get("nextCursor").asText() : null;
+        } while (cursor != null);
+        return dates;
+    }
+
+    @Test
+    @DisplayName("search pages newest first by keyset, one statement per page and no count")
+    void pagesNewestFirst() {
+        recorder.clear();
+        List<String> dates = createdDates("size=4");
+
+        assertThat(dates).hasSize(9).doesNotHaveDuplicates().isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(dates.get(0)).isEqualTo(at(8));
+        List<String> selects = recorder.statements().stream().filter(sql -> sql.toLowerCase().contains("from beer_order")).toList();
+        assertThat(selects).hasSize(3).noneMatch(sql -> sql.toLowerCase().contains("count("));
+    }
+
+    @Test
+    @DisplayName("status, customer, customerRef and created range filters combine")
+    void filtersCombine() {
+        assertThat(createdDates("size=2&status=ALLOCATED")).containsExactly(at(6), at(3), at(0));
+        assertThat(createdDates("size=10&customerId=" + customerId)).hasSize(5);
+        assertThat(createdDates("size=10&customerRef=REF-1&createdFrom=" + START.plusHours(3) + "&createdTo=" + START.plusHours(7)))
+                .containsExactly(at(5), at(3));
+        assertThat(createdDates("size=10&status=ALLOCATED&customerId=" + customerId + "&sort=createdDate,asc"))
+                .containsExactly(at(0), at(6));
+
+        JsonNode first = rest.getForObject(url("/api/v1/beer-orders?status=NEW&size=1"), JsonNode.class).get("content").get(0);
+        assertThat(first.get("status").asText()).isEqualTo("NEW");
+        assertThat(first.get("customerId").asInt()).isEqualTo(customerId);
+        assertThat(first.has("lines")).isFalse();
+    }
+
+    // order statements of one request; the allocation sweep polls beer_order with an exists(...) subquery
+    private List<String> orderStatements() {
+        return recorder.statements().stream().map(String::toLowerCase)
+                .filter(sql -> sql.contains("from beer_order") && !sql.contains("exists("))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("lines=true pages the orders in the database, then loads their lines with one IN query")
+    void pagesOrdersWithLinesInTwoStatements() {
+        for (int size : new int[] {2, 8}) {
+            recorder.clear();
+            JsonNode page = rest.getForObject(url("/api/v1/beer-orders?lines=true&size=" + size), JsonNode.class);
+
+            assertThat(page.get("content")).hasSize(size);
+            assertThat(page.get("hasNext").asBoolean()).isTrue();
+            JsonNode newest = page.get("content").get(0);
+            assertThat(newest.get("createdDate").asText()).isEqualTo(at(8));
+            assertThat(newest.get("lines")).hasSize(3);
+            assertThat(newest.get("lines").get(0).get("orderQuantity").asInt()).isEqualTo(9);
+            assertThat(page.get("content").get(1).get("lines")).hasSize(2);
+
+            List<String> statements = orderStatements();
+            assertThat(statements).as("statements for a page of %d", size).hasSize(2);
+            assertThat(statements.get(0)).contains("fetch first").doesNotContain("beer_order_line");
+            assertThat(statements.get(1)).contains("join beer_order_line").contains(" in (").doesNotContain("fetch first");
+        }
+
+        List<Integer> lineCounts = new ArrayList<>();
+        String cursor = "";
+        do {
+            JsonNode page = rest.getForObject(url("/api/v1/beer-orders?lines=true&size=4&status=NEW&cursor=" + cursor), JsonNode.class);
+            page.get("content").forEach(o -> lineCounts.add(o.get("lines").size()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        assertThat(lineCounts).containsExactly(3, 2, 3, 2, 3, 2);
+    }
+
+    @Test
+    @DisplayName("unsupported sort, tampered cursor or unknown status yield 400")
+    void rejectsBadRequests() {
+        ResponseEntity<JsonNode> sort = rest.getForEntity(url("/api/v1/beer-orders?sort=customerRef"), JsonNode.class);
+        assertThat(sort.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(sort.getBody().get("title").asText()).isEqualTo("Invalid Cursor");
+
+        ResponseEntity<JsonNode> cursor = rest.getForEntity(url("/api/v1/beer-orders?cursor=not-a-cursor"), JsonNode.class);
+        assertThat(cursor.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        ResponseEntity<String> status = rest.getForEntity(url("/api/v1/beer-orders?status=SHIPPED"), String.class);
+        assertThat(status.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
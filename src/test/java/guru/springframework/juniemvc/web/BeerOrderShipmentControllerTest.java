@@ -1,11 +1,13 @@
 package guru.springframework.juniemvc.web;
 
+import guru.springframework.juniemvc.config.QueryBudgetProperties;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentRequest;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentResponse;
 import guru.springframework.juniemvc.services.BeerOrderShipmentService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
@@ -19,6 +21,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = BeerOrderShipmentController.class)
+@EnableConfigurationProperties(QueryBudgetProperties.class)
 class BeerOrderShipmentControllerTest {
 
     @Autowired
@@ -31,7 +34,7 @@ class BeerOrderShipmentControllerTest {
     void create_returns201AndLocation() throws Exception {
         Integer orderId = 1;
         Mockito.when(service.create(eq(orderId), any(BeerOrderShipmentRequest.class)))
-                .thenReturn(new BeerOrderShipmentResponse(10, LocalDate.of(2025,1,2), "UPS", "TN"));
+                .thenReturn(new BeerOrderShipmentResponse(10, 0, LocalDate.of(2025,1,2), "UPS", "TN"));
 
         String json = "{\n  \"shipmentDate\": \"2025-01-02\",\n  \"carrier\": \"UPS\",\n  \"trackingNumber\": \"TN\"\n}";
 
@@ -47,11 +50,13 @@ class BeerOrderShipmentControllerTest {
     void getById_returns200() throws Exception {
         Integer orderId = 1;
         Integer shipmentId = 2;
+        Mockito.when(service.getVersion(orderId, shipmentId)).thenReturn(0);
         Mockito.when(service.getById(orderId, shipmentId))
-                .thenReturn(new BeerOrderShipmentResponse(shipmentId, LocalDate.of(2025,1,2), "UPS", "TN"));
+                .thenReturn(new BeerOrderShipmentResponse(shipmentId, 0, LocalDate.of(2025,1,2), "UPS", "TN"));
 
         mockMvc.perform(get("/api/v1/beer-orders/{beerOrderId}/shipments/{id}", orderId, shipmentId))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-0\""))
                 .andExpect(jsonPath("$.id").value(2));
     }
 }
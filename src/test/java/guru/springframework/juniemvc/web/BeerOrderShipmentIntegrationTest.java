@@ -6,6 +6,7 @@ import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateIte
 import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentRequest;
 import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
 import guru.springframework.juniemvc.repositories.BeerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -34,11 +35,15 @@ class BeerOrderShipmentIntegrationTest {
     @Autowired
     BeerRepository beerRepository;
 
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
     Integer beerId1;
     Integer beerId2;
 
     @BeforeEach
     void setUp() {
+        beerOrderRepository.deleteAll();
         beerRepository.deleteAll();
         Beer b1 = beerRepository.save(Beer.builder().beerName("IPA").beerStyle("IPA").upc("SHIP-UP1").price(new BigDecimal("4.50")).build());
         Beer b2 = beerRepository.save(Beer.builder().beerName("Lager").beerStyle("LAGER").upc("SHIP-UP2").price(new BigDecimal("5.00")).build());
@@ -0,0 +1,349 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentRequest;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerOrderShipmentRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.repositories.OutboxEventRepository;
+import guru.springframework.juniemvc.services.impl.FailingOutboxSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(FailingOutboxSink.class)
+class BeerOrderStreamIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerOrderShipmentRepository beerOrderShipmentRepository;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    OrderStreamRegistry registry;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    FailingOutboxSink failingSink;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    HttpClient client = HttpClient.newHttpClient();
+    Integer beerId;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderShipmentRepository.deleteAll();
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        beerId = beerRepository.save(Beer.builder().beerName("Stream Stout").beerStyle("STOUT").upc("STREAM-1")
+                .quantityOnHand(10).price(new BigDecimal("5.00")).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // other test classes delete orders without knowing about shipments
+        beerOrderShipmentRepository.deleteAll();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private record Frame(String id, String name, JsonNode data) {}
+
+    // parses the event stream into frames on a background thread; closing the result drops the connection
+    private AutoCloseable open(Integer orderId, String lastEventId, BlockingQueue<Frame> frames) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url("/api/v1/beer-orders/" + orderId + "/stream")))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header(BeerOrderStreamController.LAST_EVENT_ID_HEADER, lastEventId);
+        }
+        HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("text/event-stream"));
+        Stream<String> body = response.body();
+        CompletableFuture.runAsync(() -> {
+            String id = null;
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            try {
+                for (String line : (Iterable<String>) body::iterator) {
+                    if (line.isEmpty()) {
+                        if (!data.isEmpty()) {
+                            frames.add(new Frame(id, name, objectMapper.readTree(data.toString())));
+                        }
+                        id = null;
+                        name = null;
+                        data.setLength(0);
+                    } else if (line.startsWith("id:")) {
+                        id = line.substring(3);
+                    } else if (line.startsWith("event:")) {
+                        name = line.substring(6);
+                    } else if (line.startsWith("data:")) {
+                        data.append(line.substring(5));
+                    }
+                }
+            } catch (Exception ignored) {
+                // connection closed by the test
+            }
+        });
+        return body::close;
+    }
+
+    private Frame next(BlockingQueue<Frame> frames) throws InterruptedException {
+        Frame frame = frames.poll(10, TimeUnit.SECONDS);
+        assertThat(frame).as("next stream event").isNotNull();
+        return frame;
+    }
+
+    private BeerOrderResponse createOrder(String ref) {
+        return rest.postForEntity(url("/api/v1/beer-orders"),
+                new BeerOrderCreateRequest(ref, null, List.of(new BeerOrderLineCreateItem(beerId, 3))),
+                BeerOrderResponse.class).getBody();
+    }
+
+    private void awaitAllocated(Integer orderId) throws InterruptedException {
+        awaitStatus(orderId, "ALLOCATED");
+    }
+
+    private void awaitStatus(Integer orderId, String status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            BeerOrderResponse order = rest.getForObject(url("/api/v1/beer-orders/" + orderId), BeerOrderResponse.class);
+            if (status.equals(order.status().name())) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("order " + orderId + " did not reach " + status);
+    }
+
+    @Test
+    @DisplayName("a new stream starts with the current order and receives later changes and shipments")
+    void streamsSnapshotThenChanges() throws Exception {
+        BeerOrderResponse order = createOrder("SSE-LIVE");
+        awaitAllocated(order.id());
+
+        BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+        AutoCloseable connection = open(order.id(), null, frames);
+        try {
+            Frame snapshot = next(frames);
+            assertThat(snapshot.name()).isEqualTo(OrderStreamRegistry.ORDER_EVENT);
+            assertThat(snapshot.data().get("id").asInt()).isEqualTo(order.id());
+            assertThat(snapshot.data().get("status").asText()).isEqualTo("ALLOCATED");
+
+            rest.postForEntity(url("/api/v1/beer-orders/" + order.id() + "/shipments"),
+                    new BeerOrderShipmentRequest(LocalDate.now(), "DHL", "JD01"), String.class);
+            // the allocation event may be relayed after the snapshot was taken, but the snapshot includes it
+            Frame shipment = next(frames);
+            assertThat(shipment.name()).isEqualTo(OrderStreamRegistry.SHIPMENT_EVENT);
+            assertThat(shipment.id()).isNotBlank();
+            assertThat(shipment.data().get("carrier").asText()).isEqualTo("DHL");
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("an allocation that changes only lines is streamed, the order status unchanged")
+    void streamsLineOnlyChanges() throws Exception {
+        Integer porterId = beerRepository.save(Beer.builder().beerName("Stream Porter").beerStyle("PORTER").upc("STREAM-2")
+                .quantityOnHand(0).price(new BigDecimal("5.00")).build()).getId();
+        BeerOrderResponse order = rest.postForEntity(url("/api/v1/beer-orders"), new BeerOrderCreateRequest("SSE-LINES", null,
+                List.of(new BeerOrderLineCreateItem(beerId, 3), new BeerOrderLineCreateItem(porterId, 5))),
+                BeerOrderResponse.class).getBody();
+        awaitStatus(order.id(), "PARTIALLY_ALLOCATED");
+
+        BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+        AutoCloseable connection = open(order.id(), null, frames);
+        try {
+            Frame snapshot = next(frames);
+            assertThat(snapshot.data().get("status").asText()).isEqualTo("PARTIALLY_ALLOCATED");
+            assertThat(snapshot.data().get("lines").get(1).get("quantityAllocated").asInt()).isZero();
+
+            // two of the five porters arrive: the line stays on backorder and the order PARTIALLY_ALLOCATED
+            BeerDto porter = rest.getForObject(url("/api/v1/beer/" + porterId), BeerDto.class);
+            porter.setQuantityOnHand(2);
+            rest.put(url("/api/v1/beer/" + porterId), porter);
+
+            Frame change = next(frames);
+            assertThat(change.name()).isEqualTo(OrderStreamRegistry.ORDER_EVENT);
+            assertThat(change.id()).isNotBlank();
+            assertThat(change.data().get("status").asText()).isEqualTo("PARTIALLY_ALLOCATED");
+            assertThat(change.data().get("version").asInt()).isGreaterThan(snapshot.data().get("version").asInt());
+            assertThat(change.data().get("lines").get(1).get("quantityAllocated").asInt()).isEqualTo(2);
+            assertThat(change.data().get("lines").get(1).get("status").asText()).isEqualTo("BACKORDER");
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("events of a relay round that rolls back are not streamed; the retried round is, at its committed positions")
+    void streamsOnlyCommittedRounds() throws Exception {
+        BeerOrderResponse order = createOrder("SSE-ROLLBACK");
+        awaitAllocated(order.id());
+        // ids far above the pooled sequence: the shipment gets the lower one but commits only during the failing round
+        long shipmentId = 900_000_101L;
+        long changeId = 900_000_102L;
+
+        BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+        AutoCloseable connection = open(order.id(), null, frames);
+        try {
+            Frame snapshot = next(frames);
+            int version = snapshot.data().get("version").asInt();
+
+            failingSink.failOnce(changeId, shipmentId, () -> CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                    "insert into outbox_event (id, event_type, beer_order_id, payload, created_date) "
+                            + "values (?, 'SHIPMENT_CREATED', ?, '{\"carrier\":\"UPS\"}', current_timestamp)",
+                    shipmentId, order.id())).join());
+            jdbcTemplate.update("insert into outbox_event (id, event_type, beer_order_id, payload, created_date) "
+                            + "values (?, 'ORDER_LINES_CHANGED', ?, ?, current_timestamp)", changeId, order.id(),
+                    "{\"previousStatus\":\"ALLOCATED\",\"order\":{\"id\":" + order.id() + ",\"version\":" + (version + 1)
+                            + ",\"status\":\"ALLOCATED\",\"lines\":[]}}");
+
+            Frame shipment = next(frames);
+            assertThat(shipment.name()).isEqualTo(OrderStreamRegistry.SHIPMENT_EVENT);
+            assertThat(shipment.data().get("carrier").asText()).isEqualTo("UPS");
+            Frame change = next(frames);
+            assertThat(change.name()).isEqualTo(OrderStreamRegistry.ORDER_EVENT);
+            assertThat(change.data().get("version").asInt()).isEqualTo(version + 1);
+            assertThat(Long.parseLong(change.id())).isEqualTo(Long.parseLong(shipment.id()) + 1);
+            assertThat(frames.poll(300, TimeUnit.MILLISECONDS)).as("nothing from the rolled back round").isNull();
+            assertThat(failingSink.rounds()).hasSize(2);
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("a client that stops reading does not hold up the streams of other clients")
+    void stalledClientDoesNotDelayOthers() throws Exception {
+        BeerOrderResponse stalledOrder = createOrder("SSE-STALLED");
+        BeerOrderResponse liveOrder = createOrder("SSE-LIVELY");
+        awaitAllocated(stalledOrder.id());
+        awaitAllocated(liveOrder.id());
+
+        int before = registry.subscriberCount();
+        try (Socket stalled = new Socket()) {
+            // a tiny receive window that is never read
+            stalled.setReceiveBufferSize(4096);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            OutputStream out = stalled.getOutputStream();
+            out.write(("GET /api/v1/beer-orders/" + stalledOrder.id() + "/stream HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            for (int i = 0; i < 100 && registry.subscriberCount() == before; i++) {
+                Thread.sleep(50);
+            }
+            assertThat(registry.subscriberCount()).isEqualTo(before + 1);
+
+            BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+            AutoCloseable connection = open(liveOrder.id(), null, frames);
+            try {
+                next(frames);
+                // far more than the socket buffers take: the writes to the stalled client block
+                String payload = "{\"pad\":\"" + "x".repeat(512 * 1024) + "\"}";
+                for (int i = 0; i < 24; i++) {
+                    jdbcTemplate.update("insert into outbox_event (id, event_type, beer_order_id, payload, created_date) "
+                            + "values (?, 'SHIPMENT_CREATED', ?, ?, current_timestamp)", 900_000_200L + i, stalledOrder.id(), payload);
+                }
+                Thread.sleep(500);
+
+                rest.postForEntity(url("/api/v1/beer-orders/" + liveOrder.id() + "/shipments"),
+                        new BeerOrderShipmentRequest(LocalDate.now(), "DHL", "JD02"), String.class);
+                Frame shipment = frames.poll(3, TimeUnit.SECONDS);
+                assertThat(shipment).as("event of the live stream while the other one is stuck").isNotNull();
+                assertThat(shipment.data().get("trackingNumber").asText()).isEqualTo("JD02");
+            } finally {
+                connection.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a client reconnecting with Last-Event-ID gets the events it missed instead of the snapshot")
+    void resumesFromLastEventId() throws Exception {
+        long cursor = outboxEventRepository.findMaxPosition();
+        BeerOrderResponse order = createOrder("SSE-RESUME");
+        awaitAllocated(order.id());
+
+        BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+        AutoCloseable connection = open(order.id(), Long.toString(cursor), frames);
+        try {
+            Frame created = next(frames);
+            assertThat(created.name()).isEqualTo(OrderStreamRegistry.ORDER_EVENT);
+            assertThat(Long.parseLong(created.id())).isGreaterThan(cursor);
+            assertThat(created.data().get("status").asText()).isEqualTo("NEW");
+
+            Frame allocated = next(frames);
+            assertThat(Long.parseLong(allocated.id())).isGreaterThan(Long.parseLong(created.id()));
+            assertThat(allocated.data().get("id").asInt()).isEqualTo(order.id());
+            assertThat(allocated.data().get("status").asText()).isEqualTo("ALLOCATED");
+            assertThat(frames.poll(300, TimeUnit.MILLISECONDS)).as("no duplicate of a replayed event").isNull();
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("a stream of an unknown order is rejected without registering a subscriber")
+    void unknownOrderIsRejected() throws Exception {
+        int before = registry.subscriberCount();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url("/api/v1/beer-orders/999999/stream")))
+                .header("Accept", "text/event-stream").timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(registry.subscriberCount()).isEqualTo(before);
+    }
+}
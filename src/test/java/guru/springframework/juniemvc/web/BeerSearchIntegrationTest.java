@@ -0,0 +1,91 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.services.BeerSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BeerSearchIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerSearchService beerSearchService;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        beerSearchService.reindex();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private Integer createBeer(String name, String description, String upc) {
+        BeerDto dto = BeerDto.builder()
+                .beerName(name)
+                .beerStyle("IPA")
+                .upc(upc)
+                .quantityOnHand(5)
+                .price(new BigDecimal("6.50"))
+                .description(description)
+                .build();
+        ResponseEntity<BeerDto> resp = rest.postForEntity(url("/api/v1/beer"), dto, BeerDto.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return resp.getBody().getId();
+    }
+
+    @Test
+    @DisplayName("search follows creates, updates and deletes made through the beer API")
+    void searchTracksBeerWrites() {
+        Integer hazy = createBeer("Hazy Galaxy", "Juicy IPA", "S-1");
+        Integer dry = createBeer("Dry Stout", "Roasty, not hazy at all", "S-2");
+
+        ResponseEntity<JsonNode> resp = rest.getForEntity(url("/api/v1/beer/search?q=haz"), JsonNode.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode hits = resp.getBody().get("hits");
+        assertThat(hits).hasSize(2);
+        assertThat(hits.get(0).get("beer").get("id").asInt()).isEqualTo(hazy);
+        assertThat(hits.get(0).get("score").asDouble()).isGreaterThan(hits.get(1).get("score").asDouble());
+
+        rest.delete(url("/api/v1/beer/" + hazy));
+        JsonNode afterDelete = rest.getForEntity(url("/api/v1/beer/search?q=hazy"), JsonNode.class).getBody().get("hits");
+        assertThat(afterDelete).hasSize(1);
+        assertThat(afterDelete.get(0).get("beer").get("id").asInt()).isEqualTo(dry);
+    }
+
+    @Test
+    @DisplayName("reindex picks up beers written behind the service")
+    void reindexLoadsExistingBeers() {
+        createBeer("Kölsch", null, "S-3");
+        assertThat(beerSearchService.reindex()).isEqualTo(1);
+        assertThat(rest.getForEntity(url("/api/v1/beer/search?q=kölsch&limit=5"), JsonNode.class).getBody().get("hits")).hasSize(1);
+    }
+}
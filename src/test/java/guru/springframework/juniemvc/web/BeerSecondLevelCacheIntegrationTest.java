@@ -0,0 +1,136 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerPatchDto;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.http.client.factory=jdk")
+@Import(JdbcStatementRecorder.class)
+class BeerSecondLevelCacheIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Integer beerId;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        BeerDto dto = BeerDto.builder()
+                .beerName("Cached Lager")
+                .beerStyle("LAGER")
+                .upc("L2-1")
+                .quantityOnHand(3)
+                .price(new BigDecimal("4.20"))
+                .build();
+        beerId = rest.postForEntity(url("/api/v1/beer"), dto, BeerDto.class).getBody().getId();
+        entityManagerFactory.getCache().evictAll();
+        recorder.clear();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private BeerDto get() {
+        ResponseEntity<BeerDto> resp = rest.getForEntity(url("/api/v1/beer/" + beerId), BeerDto.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return resp.getBody();
+    }
+
+    @Test
+    @DisplayName("repeated getById is served from the cache after the first miss")
+    void getByIdHitsCache() {
+        get();
+        get();
+        get();
+        assertThat(recorder.selectsFrom("beer")).isEqualTo(1);
+
+        long hits = entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getDomainDataRegionStatistics("beer").getHitCount();
+        assertThat(hits).isGreaterThanOrEqualTo(2);
+        FunctionCounter hitMeter = meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", "beer", "result", "hit").functionCounter();
+        assertThat(hitMeter).isNotNull();
+        assertThat(hitMeter.count()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("update, patch and delete never leave a stale beer in the cache")
+    void writesInvalidate() {
+        BeerDto cached = get();
+
+        cached.setBeerName("Renamed Lager");
+        assertThat(rest.exchange(url("/api/v1/beer/" + beerId), HttpMethod.PUT, new HttpEntity<>(cached), BeerDto.class)
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get().getBeerName()).isEqualTo("Renamed Lager");
+
+        BeerPatchDto patch = new BeerPatchDto();
+        patch.setPrice(new BigDecimal("9.99"));
+        assertThat(rest.exchange(url("/api/v1/beer/" + beerId), HttpMethod.PATCH, new HttpEntity<>(patch), BeerDto.class)
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+        BeerDto patched = get();
+        assertThat(patched.getPrice()).isEqualByComparingTo("9.99");
+        assertThat(patched.getBeerName()).isEqualTo("Renamed Lager");
+
+        rest.delete(url("/api/v1/beer/" + beerId));
+        assertThat(rest.getForEntity(url("/api/v1/beer/" + beerId), BeerDto.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("natural id lookups by upc are cached and follow upc changes")
+    void upcLookupHitsNaturalIdCache() {
+        assertThat(beerRepository.loadByUpc("L2-1")).isPresent();
+        long selects = recorder.selectsFrom("beer");
+        assertThat(beerRepository.loadByUpc("L2-1")).get().extracting("id").isEqualTo(beerId);
+        assertThat(recorder.selectsFrom("beer")).isEqualTo(selects);
+
+        BeerDto cached = get();
+        cached.setUpc("L2-2");
+        rest.exchange(url("/api/v1/beer/" + beerId), HttpMethod.PUT, new HttpEntity<>(cached), BeerDto.class);
+        assertThat(beerRepository.loadByUpc("L2-1")).isEmpty();
+        assertThat(beerRepository.loadByUpc("L2-2")).isPresent();
+    }
+}
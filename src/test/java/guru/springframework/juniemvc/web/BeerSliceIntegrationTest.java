@@ -0,0 +1,90 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(JdbcStatementRecorder.class)
+class BeerSliceIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        List<Beer> beers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            beers.add(Beer.builder()
+                    .beerName("Slice " + i)
+                    .beerStyle("ALE")
+                    .upc("SLC-" + i)
+                    .price(new BigDecimal("4.00"))
+                    .quantityOnHand(1)
+                    .build());
+        }
+        beerRepository.saveAll(beers);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    @Test
+    @DisplayName("slice=true returns hasNext without totals and never issues a count query")
+    void sliceModeSkipsCount() {
+        recorder.clear();
+        ResponseEntity<JsonNode> first = rest.getForEntity(url("/api/v1/beer?slice=true&page=0&size=2&beerStyle=ale"), JsonNode.class);
+        ResponseEntity<JsonNode> last = rest.getForEntity(url("/api/v1/beer?slice=true&page=2&size=2"), JsonNode.class);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody().get("content")).hasSize(2);
+        assertThat(first.getBody().get("hasNext").asBoolean()).isTrue();
+        assertThat(first.getBody().has("totalElements")).isFalse();
+
+        assertThat(last.getBody().get("content")).hasSize(1);
+        assertThat(last.getBody().get("page").asInt()).isEqualTo(2);
+        assertThat(last.getBody().get("hasNext").asBoolean()).isFalse();
+
+        assertThat(recorder.statements()).noneMatch(sql -> sql.toLowerCase().contains("count("));
+    }
+
+    @Test
+    @DisplayName("without slice=true the Page response with totals is unchanged")
+    void pageModeKeepsTotals() {
+        ResponseEntity<JsonNode> resp = rest.getForEntity(url("/api/v1/beer?page=0&size=2"), JsonNode.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getBody().get("totalElements").asInt()).isEqualTo(5);
+    }
+}
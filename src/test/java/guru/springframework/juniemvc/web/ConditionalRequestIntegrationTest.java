@@ -0,0 +1,142 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerPatchDto;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerUpdateRequest;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.http.client.factory=jdk")
+@Import(JdbcStatementRecorder.class)
+class ConditionalRequestIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    Integer beerId;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        BeerDto dto = BeerDto.builder()
+                .beerName("Tagged Ale")
+                .beerStyle("ALE")
+                .upc("ETAG-1")
+                .quantityOnHand(5)
+                .price(new BigDecimal("3.50"))
+                .build();
+        beerId = rest.postForEntity(url("/api/v1/beer"), dto, BeerDto.class).getBody().getId();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private static HttpHeaders headers(String name, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(name, value);
+        return headers;
+    }
+
+    @Test
+    @DisplayName("GET returns an ETag and a matching If-None-Match is answered with 304 without loading the beer")
+    void conditionalGet() {
+        ResponseEntity<BeerDto> first = rest.getForEntity(url("/api/v1/beer/" + beerId), BeerDto.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isEqualTo(ETags.of(beerId, first.getBody().getVersion()));
+
+        recorder.clear();
+        ResponseEntity<String> revalidated = rest.exchange(url("/api/v1/beer/" + beerId), HttpMethod.GET,
+                new HttpEntity<>(headers(HttpHeaders.IF_NONE_MATCH, etag)), String.class);
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidated.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(revalidated.getBody()).isNull();
+        assertThat(recorder.selectsFrom("beer")).isZero();
+
+        ResponseEntity<BeerDto> stale = rest.exchange(url("/api/v1/beer/" + beerId), HttpMethod.GET,
+                new HttpEntity<>(headers(HttpHeaders.IF_NONE_MATCH, ETags.of(beerId, 99))), BeerDto.class);
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("If-Match guards PATCH: the current tag succeeds and returns the next tag, a stale tag gets 412")
+    void ifMatchOnBeer() {
+        String etag = rest.getForEntity(url("/api/v1/beer/" + beerId), BeerDto.class).getHeaders().getETag();
+
+        BeerPatchDto patch = new BeerPatchDto();
+        patch.setPrice(new BigDecimal("4.00"));
+        ResponseEntity<BeerDto> ok = rest.exchange(url("/api/v1/beer/" + beerId), HttpMethod.PATCH,
+                new HttpEntity<>(patch, headers(HttpHeaders.IF_MATCH, etag)), BeerDto.class);
+        assertThat(ok.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String next = ok.getHeaders().getETag();
+        assertThat(next).isNotEqualTo(etag).isEqualTo(ETags.of(beerId, ok.getBody().getVersion()));
+
+        patch.setPrice(new BigDecimal("5.00"));
+        ResponseEntity<String> conflict = rest.exchange(url("/api/v1/beer/" + beerId), HttpMethod.PATCH,
+                new HttpEntity<>(patch, headers(HttpHeaders.IF_MATCH, etag)), String.class);
+        assertThat(conflict.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(conflict.getBody()).contains("Precondition Failed");
+
+        BeerDto current = rest.getForEntity(url("/api/v1/beer/" + beerId), BeerDto.class).getBody();
+        assertThat(current.getPrice()).isEqualByComparingTo("4.00");
+        assertThat(ETags.of(beerId, current.getVersion())).isEqualTo(next);
+    }
+
+    @Test
+    @DisplayName("If-Match guards customer updates the same way")
+    void ifMatchOnCustomer() {
+        CustomerResponse created = rest.postForEntity(url("/api/v1/customers"),
+                new CustomerCreateRequest("Eve", null, null, "1 Tag St", null, "City", "ST", "00001"),
+                CustomerResponse.class).getBody();
+        String etag = rest.getForEntity(url("/api/v1/customers/" + created.id()), CustomerResponse.class)
+                .getHeaders().getETag();
+        assertThat(etag).isEqualTo(ETags.of(created.id(), created.version()));
+
+        CustomerUpdateRequest update = new CustomerUpdateRequest("Eve2", null, null, "2 Tag St", null, "City", "ST", "00002");
+        ResponseEntity<CustomerResponse> ok = rest.exchange(url("/api/v1/customers/" + created.id()), HttpMethod.PUT,
+                new HttpEntity<>(update, headers(HttpHeaders.IF_MATCH, etag)), CustomerResponse.class);
+        assertThat(ok.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ok.getHeaders().getETag()).isEqualTo(ETags.of(created.id(), created.version() + 1));
+
+        for (String stale : List.of(etag, "W/" + etag)) {
+            ResponseEntity<String> rejected = rest.exchange(url("/api/v1/customers/" + created.id()), HttpMethod.PUT,
+                    new HttpEntity<>(update, headers(HttpHeaders.IF_MATCH, stale)), String.class);
+            assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package guru.springframework.juniemvc.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.config.QueryBudgetProperties;
 import guru.springframework.juniemvc.exceptions.CustomerNotFoundException;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
 import guru.springframework.juniemvc.models.CustomerDtos.CustomerUpdateRequest;
+import guru.springframework.juniemvc.models.CursorPage;
 import guru.springframework.juniemvc.services.CustomerService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -27,6 +31,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = CustomerController.class)
+@EnableConfigurationProperties(QueryBudgetProperties.class)
 class CustomerControllerTest {
 
     @Autowired
@@ -53,21 +58,51 @@ class CustomerControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/customers?slice=true -> slice without totals")
+    void listSlice() throws Exception {
+        CustomerResponse resp = new CustomerResponse(4, 0, "Dan", null, null, "D1", null, "City", "ST", "00001", null, null);
+        given(customerService.listSlice(any())).willReturn(new SliceImpl<>(List.of(resp), PageRequest.of(0, 1), true));
+
+        mvc.perform(get("/api/v1/customers").param("slice", "true").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Dan"))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/customers?cursor= -> cursor page without totals")
+    void listByCursor() throws Exception {
+        CustomerResponse resp = new CustomerResponse(3, 0, "Cara", null, null, "C1", null, "City", "ST", "00001", null, null);
+        given(customerService.scroll(eq("abc"), any())).willReturn(new CursorPage<>(List.of(resp), 1, true, "next"));
+
+        mvc.perform(get("/api/v1/customers").param("cursor", "abc").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Cara"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
     @Test
     @DisplayName("GET /api/v1/customers/{id} -> 200 OK")
     void get200() throws Exception {
         CustomerResponse resp = new CustomerResponse(2, 0, "Bob", null, null, "B1", null, "City", "ST", "00001", null, null);
+        given(customerService.getVersion(2)).willReturn(Optional.of(0));
         given(customerService.getById(2)).willReturn(Optional.of(resp));
 
         mvc.perform(get("/api/v1/customers/{id}", 2))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-0\""))
                 .andExpect(jsonPath("$.name").value("Bob"));
     }
 
     @Test
     @DisplayName("GET /api/v1/customers/{id} -> 404 Not Found via exception handler")
     void get404() throws Exception {
-        given(customerService.getById(999)).willReturn(Optional.empty());
+        given(customerService.getVersion(999)).willReturn(Optional.empty());
         mvc.perform(get("/api/v1/customers/{id}", 999))
                 .andExpect(status().isNotFound());
     }
@@ -77,8 +112,8 @@ class CustomerControllerTest {
     void put200and404() throws Exception {
         CustomerUpdateRequest req = new CustomerUpdateRequest("New", null, null, "NA1", null, "NC", "ST", "00002");
         CustomerResponse updated = new CustomerResponse(5, 0, "New", null, null, "NA1", null, "NC", "ST", "00002", null, null);
-        given(customerService.update(eq(5), any())).willReturn(Optional.of(updated));
-        given(customerService.update(eq(404), any())).willReturn(Optional.empty());
+        given(customerService.update(eq(5), any(), any())).willReturn(Optional.of(updated));
+        given(customerService.update(eq(404), any(), any())).willReturn(Optional.empty());
 
         mvc.perform(put("/api/v1/customers/{id}", 5)
                         .contentType(MediaType.APPLICATION_JSON)
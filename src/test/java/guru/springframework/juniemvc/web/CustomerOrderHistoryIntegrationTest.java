@@ -0,0 +1,234 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.entities.BeerOrder;
+import guru.springframework.juniemvc.entities.BeerOrderLine;
+import guru.springframework.juniemvc.entities.Customer;
+import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchResponse;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerOrderTotals;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import guru.springframework.juniemvc.repositories.CustomerOrderStatsRepository;
+import guru.springframework.juniemvc.repositories.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(JdbcStatementRecorder.class)
+class CustomerOrderHistoryIntegrationTest {
+
+    static final LocalDateTime START = LocalDateTime.of(2025, 4, 1, 9, 0);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    @Autowired
+    CustomerOrderStatsRepository customerOrderStatsRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Integer customerId;
+    Integer beerId;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        customerRepository.deleteAll();
+        beerRepository.deleteAll();
+        beerId = beerRepository.save(Beer.builder().beerName("History Ale").beerStyle("ALE").upc("HIST-1")
+                .quantityOnHand(1000).price(new BigDecimal("3.00")).build()).getId();
+        customerId = rest.postForObject(url("/api/v1/customers"), new CustomerCreateRequest("Hilda", null, null,
+                "5 Elm St", null, "Springfield", "IL", "62704"), CustomerResponse.class).id();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    // order i has i + 1 lines of i + 1 beers each and pays i + 1
+    private BeerOrderCreateRequest order(int i, Integer customer) {
+        List<BeerOrderLineCreateItem> lines = Collections.nCopies(i + 1, new BeerOrderLineCreateItem(beerId, i + 1));
+        return new BeerOrderCreateRequest("HIST-" + i, BigDecimal.valueOf(i + 1), lines, customer);
+    }
+
+    // orders 0..4 one by one, 5..6 in a batch that also carries one for an unknown customer; order i is i hours old
+    private List<Integer> createOrders() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ResponseEntity<BeerOrderResponse> resp = rest.postForEntity(url("/api/v1/beer-orders"), order(i, customerId), BeerOrderResponse.class);
+            assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            ids.add(resp.getBody().id());
+        }
+        BeerOrderBatchResponse batch = rest.postForObject(url("/api/v1/beer-orders:batch"),
+                new BeerOrderBatchRequest(List.of(order(5, customerId), order(6, customerId), order(7, customerId + 1000))),
+                BeerOrderBatchResponse.class);
+        assertThat(batch.created()).isEqualTo(2);
+        assertThat(batch.results().get(2).error()).isEqualTo("Customer not found: id=" + (customerId + 1000));
+        batch.results().subList(0, 2).forEach(r -> ids.add(r.order().id()));
+        for (int i = 0; i < ids.size(); i++) {
+            jdbcTemplate.update("update beer_order set created_date = ? where id = ?", START.minusHours(i), ids.get(i));
+        }
+        return ids;
+    }
+
+    // statements of one history request; the allocation worker still loads the new orders by id in the background
+    private List<String> historyStatements() {
+        return recorder.statements().stream().map(String::toLowerCase)
+                .filter(sql -> sql.startsWith("select") && (sql.contains("customer_id=?") || sql.contains("from customer ")))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("order history pages newest first with per-order aggregates and lifetime totals, two statements a page")
+    void pagesOrderSummariesWithTotals() {
+        List<Integer> ids = createOrders();
+
+        List<JsonNode> orders = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            recorder.clear();
+            ResponseEntity<JsonNode> resp = rest.getForEntity(url("/api/v1/customers/" + customerId + "/orders?size=3&cursor=" + cursor), JsonNode.class);
+            assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+            JsonNode body = resp.getBody();
+            assertThat(body.get("customerId").asInt()).isEqualTo(customerId);
+            assertThat(body.get("summary").get("orderCount").asLong()).isEqualTo(7);
+            assertThat(body.get("summary").get("totalSpend").decimalValue()).isEqualByComparingTo("28");
+            body.get("orders").get("content").forEach(orders::add);
+            assertThat(historyStatements()).as("statements of page %d", pages).hasSize(2)
+                    .noneMatch(sql -> sql.contains("from customer "));
+            cursor = body.get("orders").get("hasNext").asBoolean() ? body.get("orders").get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(orders).extracting(o -> o.get("id").asInt()).containsExactlyElementsOf(ids);
+        for (int i = 0; i < orders.size(); i++) {
+            JsonNode o = orders.get(i);
+            assertThat(o.get("customerRef").asText()).isEqualTo("HIST-" + i);
+            assertThat(o.get("lineCount").asLong()).isEqualTo(i + 1);
+            assertThat(o.get("totalQuantity").asLong()).isEqualTo((long) (i + 1) * (i + 1));
+            assertThat(o.get("paymentAmount").decimalValue()).isEqualByComparingTo(BigDecimal.valueOf(i + 1));
+            assertThat(o.has("lines")).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("unknown customers yield 404, on the history and when ordering")
+    void unknownCustomer() {
+        ResponseEntity<JsonNode> history = rest.getForEntity(url("/api/v1/customers/" + (customerId + 1000) + "/orders"), JsonNode.class);
+        assertThat(history.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(history.getBody().get("title").asText()).isEqualTo("Customer Not Found");
+
+        ResponseEntity<String> create = rest.postForEntity(url("/api/v1/beer-orders"), order(0, customerId + 1000), String.class);
+        assertThat(create.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("customers stored without a totals row get their totals aggregated, and one on their next order")
+    void customerWithoutTotalsRow() {
+        Customer customer = customerRepository.save(Customer.builder().name("Legacy").addressLine1("1 Main St")
+                .city("Springfield").state("IL").postalCode("62701").build());
+        BeerOrder legacy = BeerOrder.builder().customerRef("LEGACY").paymentAmount(new BigDecimal("4.50")).customer(customer).build();
+        legacy.addLine(BeerOrderLine.builder().beer(beerRepository.getReferenceById(beerId)).orderQuantity(2).quantityAllocated(2)
+                .status(LineStatus.ALLOCATED).build());
+        beerOrderRepository.save(legacy);
+
+        JsonNode before = rest.getForObject(url("/api/v1/customers/" + customer.getId() + "/orders"), JsonNode.class);
+        assertThat(before.get("summary").get("orderCount").asLong()).isEqualTo(1);
+        assertThat(before.get("summary").get("totalSpend").decimalValue()).isEqualByComparingTo("4.50");
+        assertThat(before.get("orders").get("content").get(0).get("totalQuantity").asLong()).isEqualTo(2);
+
+        rest.postForEntity(url("/api/v1/beer-orders"), order(1, customer.getId()), BeerOrderResponse.class);
+        Long rows = jdbcTemplate.queryForObject("select count(*) from customer_order_stats where customer_id = ?", Long.class, customer.getId());
+        assertThat(rows).isEqualTo(1);
+        JsonNode after = rest.getForObject(url("/api/v1/customers/" + customer.getId() + "/orders"), JsonNode.class);
+        assertThat(after.get("summary").get("orderCount").asLong()).isEqualTo(2);
+        assertThat(after.get("summary").get("totalSpend").decimalValue()).isEqualByComparingTo("6.50");
+        assertThat(after.get("orders").get("hasNext").asBoolean()).isFalse();
+    }
+
+    @Test
+    @DisplayName("concurrent first orders of a customer without a totals row are all counted")
+    void concurrentFirstOrdersWithoutTotalsRow() throws Exception {
+        Customer customer = customerRepository.save(Customer.builder().name("Racy").addressLine1("2 Main St")
+                .city("Springfield").state("IL").postalCode("62701").build());
+        CountDownLatch firstMerged = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            addOrder(customer, "1.00");
+            firstMerged.countDown();
+            try {
+                // keep the inserted row uncommitted while the second transaction runs into it
+                secondStarted.await(5, TimeUnit.SECONDS);
+                Thread.sleep(200);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(firstMerged.await(5, TimeUnit.SECONDS)).isTrue();
+        transactionTemplate.executeWithoutResult(status -> {
+            secondStarted.countDown();
+            addOrder(customer, "2.00");
+        });
+        first.get(5, TimeUnit.SECONDS);
+
+        CustomerOrderTotals totals = customerOrderStatsRepository.findTotalsByCustomerId(customer.getId()).orElseThrow();
+        assertThat(totals.orderCount()).isEqualTo(2);
+        assertThat(totals.totalSpend()).isEqualByComparingTo("3.00");
+    }
+
+    private void addOrder(Customer customer, String payment) {
+        beerOrderRepository.save(BeerOrder.builder().customerRef("RACY").paymentAmount(new BigDecimal(payment)).customer(customer).build());
+        customerOrderStatsRepository.addOrders(customer.getId(), 1, new BigDecimal(payment));
+    }
+}
@@ -0,0 +1,45 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.exceptions.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ETagsTest {
+
+    @Test
+    void tagCombinesIdAndVersion() {
+        assertThat(ETags.of(7, 3)).isEqualTo("\"7-3\"");
+        assertThat(ETags.of(7, null)).isEqualTo("\"7-0\"");
+    }
+
+    @Test
+    void missingOrWildcardIfMatchIsUnconditional() {
+        assertThat(ETags.expectedVersions(null, 7)).isNull();
+        assertThat(ETags.expectedVersions(" ", 7)).isNull();
+        assertThat(ETags.expectedVersions("*", 7)).isNull();
+    }
+
+    @Test
+    void strongTagOfTheResourceYieldsItsVersion() {
+        assertThat(ETags.expectedVersions("\"7-3\"", 7)).containsExactly(3);
+        assertThat(ETags.expectedVersions(ETags.of(12, 0), 12)).containsExactly(0);
+    }
+
+    @Test
+    void listedTagsOfTheResourceYieldAllTheirVersions() {
+        assertThat(ETags.expectedVersions("\"7-3\", \"7-4\"", 7)).containsExactlyInAnyOrder(3, 4);
+        // tags that cannot match are skipped as long as one can
+        assertThat(ETags.expectedVersions("W/\"7-2\",\"8-5\" , \"7-4\"", 7)).containsExactly(4);
+    }
+
+    @Test
+    void weakForeignOrMalformedTagsFailThePrecondition() {
+        assertThatThrownBy(() -> ETags.expectedVersions("W/\"7-3\"", 7)).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ETags.expectedVersions("\"8-3\"", 7)).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ETags.expectedVersions("W/\"7-3\", \"8-4\"", 7)).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ETags.expectedVersions("\"7-x\"", 7)).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ETags.expectedVersions("\"7-\"", 7)).isInstanceOf(PreconditionFailedException.class);
+    }
+}
@@ -0,0 +1,138 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.JuniemvcApplication;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mixed load against platform-thread and virtual-thread request execution: half of the requests hold a
+ * connection in a slow (20 ms) query, the other half never touch the database. With 200 platform workers the
+ * slow half ties up the workers while it queues for connections; with virtual threads it queues on the DataSource
+ * bulkhead and the fast half keeps flowing. Virtual-thread runs also record {@code jdk.VirtualThreadPinned}
+ * events to spot carrier pinning on the JDBC paths. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ExecutionModeLoadBenchmarkTest {
+
+    private static final int REQUESTS = 4_000;
+    private static final int IN_FLIGHT = 1_000;
+
+    @RestController
+    static class LoadEndpoints {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        LoadEndpoints(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+            jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS SLEEP_MS FOR 'java.lang.Thread.sleep(long)'");
+        }
+
+        @GetMapping("/load/slow-db")
+        String slowDb() {
+            jdbcTemplate.execute("CALL SLEEP_MS(20)");
+            return "slow";
+        }
+
+        @GetMapping("/load/fast")
+        String fast() {
+            return "fast";
+        }
+    }
+
+    record Result(String mode, double throughput, long fastP99Millis, long slowP99Millis, int failures, int pinned) {}
+
+    @Test
+    void compareExecutionModes() throws Exception {
+        List<Result> results = List.of(run(false), run(true));
+        for (Result r : results) {
+            log.info("{} {} req/s  p99 fast {} ms  p99 slow-db {} ms  failures {}  pinned {}",
+                    r.mode(), "%.0f".formatted(r.throughput()), r.fastP99Millis(), r.slowP99Millis(), r.failures(), r.pinned());
+        }
+        assertThat(results).allSatisfy(r -> assertThat(r.failures()).isZero());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JuniemvcApplication.class, LoadEndpoints.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load_" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.hikari.maximum-pool-size=10",
+                        "--juniemvc.datasource.bulkhead.acquire-timeout=30s",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+             RecordingStream pinning = new RecordingStream()) {
+            AtomicInteger pinned = new AtomicInteger();
+            if (virtualThreads) {
+                pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1));
+                pinning.onEvent("jdk.VirtualThreadPinned", event -> pinned.incrementAndGet());
+                pinning.startAsync();
+            }
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+            load(client, port, 500, new ArrayList<>(), new ArrayList<>(), new AtomicInteger());
+
+            List<Long> fast = Collections.synchronizedList(new ArrayList<>());
+            List<Long> slow = Collections.synchronizedList(new ArrayList<>());
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            load(client, port, REQUESTS, fast, slow, failures);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return new Result(mode, REQUESTS / seconds, p99(fast), p99(slow), failures.get(), pinned.get());
+        }
+    }
+
+    private static void load(HttpClient client, int port, int requests, List<Long> fast, List<Long> slow,
+                             AtomicInteger failures) {
+        Semaphore inFlight = new Semaphore(IN_FLIGHT);
+        List<CompletableFuture<?>> calls = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            boolean slowDb = i % 2 == 0;
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + (slowDb ? "/load/slow-db" : "/load/fast")))
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            inFlight.acquireUninterruptibly();
+            long sent = System.nanoTime();
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        (slowDb ? slow : fast).add((System.nanoTime() - sent) / 1_000_000);
+                    }));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).exceptionally(ex -> null).join();
+    }
+
+    private static long p99(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.isEmpty() ? 0 : sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+}
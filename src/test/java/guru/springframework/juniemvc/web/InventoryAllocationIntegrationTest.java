@@ -0,0 +1,287 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.config.CacheNames;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.entities.LineStatus;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineResponse;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.Lifecycle;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+class InventoryAllocationIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ApplicationContext context;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    Integer ipaId;
+    Integer lagerId;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        ipaId = beerRepository.save(Beer.builder().beerName("IPA").beerStyle("IPA").upc("ALLOC-1")
+                .quantityOnHand(10).price(new BigDecimal("4.50")).build()).getId();
+        lagerId = beerRepository.save(Beer.builder().beerName("Lager").beerStyle("LAGER").upc("ALLOC-2")
+                .quantityOnHand(100).price(new BigDecimal("5.00")).build()).getId();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private Integer submit(BeerOrderLineCreateItem... lines) {
+        ResponseEntity<BeerOrderResponse> resp = rest.postForEntity(url("/api/v1/beer-orders"),
+                new BeerOrderCreateRequest(null, null, List.of(lines)), BeerOrderResponse.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(resp.getBody().status()).isEqualTo(OrderStatus.NEW);
+        return resp.getBody().id();
+    }
+
+    // polls until the allocation worker has processed every line of the order
+    private BeerOrderResponse awaitAllocation(Integer orderId) throws InterruptedException {
+        return awaitOrder(orderId, order -> order.lines().stream().noneMatch(l -> l.status() == LineStatus.NEW));
+    }
+
+    private BeerOrderResponse awaitOrder(Integer orderId, Predicate<BeerOrderResponse> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            BeerOrderResponse order = rest.getForObject(url("/api/v1/beer-orders/" + orderId), BeerOrderResponse.class);
+            if (condition.test(order)) {
+                return order;
+            }
+            assertThat(System.nanoTime()).as("order %s allocated in time", orderId).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private void restock(Integer beerId, int quantityOnHand) {
+        BeerDto beer = rest.getForObject(url("/api/v1/beer/" + beerId), BeerDto.class);
+        beer.setQuantityOnHand(quantityOnHand);
+        rest.put(url("/api/v1/beer/" + beerId), beer);
+    }
+
+    private BeerOrderResponse order(BeerOrderLineCreateItem... lines) throws InterruptedException {
+        return awaitAllocation(submit(lines));
+    }
+
+    @Test
+    @DisplayName("lines take stock up to what is on hand; the rest is backordered and the order partially allocated")
+    void allocatesAndBackorders() throws InterruptedException {
+        BeerOrderResponse full = order(new BeerOrderLineCreateItem(ipaId, 4), new BeerOrderLineCreateItem(lagerId, 10));
+        assertThat(full.status()).isEqualTo(OrderStatus.ALLOCATED);
+        assertThat(full.lines()).extracting(BeerOrderLineResponse::status).containsOnly(LineStatus.ALLOCATED);
+
+        BeerOrderResponse partial = order(new BeerOrderLineCreateItem(ipaId, 8), new BeerOrderLineCreateItem(lagerId, 1));
+        assertThat(partial.status()).isEqualTo(OrderStatus.PARTIALLY_ALLOCATED);
+        assertThat(partial.lines()).extracting(BeerOrderLineResponse::quantityAllocated).containsExactly(6, 1);
+        assertThat(partial.lines()).extracting(BeerOrderLineResponse::status)
+                .containsExactly(LineStatus.BACKORDER, LineStatus.ALLOCATED);
+
+        BeerOrderResponse none = order(new BeerOrderLineCreateItem(ipaId, 1));
+        assertThat(none.status()).isEqualTo(OrderStatus.NEW);
+        assertThat(none.lines()).extracting(BeerOrderLineResponse::status).containsExactly(LineStatus.BACKORDER);
+
+        // the stock change is visible through the cached read path and moves the ETag
+        ResponseEntity<BeerDto> beer = rest.getForEntity(url("/api/v1/beer/" + ipaId), BeerDto.class);
+        assertThat(beer.getBody().getQuantityOnHand()).isZero();
+        assertThat(beer.getHeaders().getETag()).isEqualTo(ETags.of(ipaId, beer.getBody().getVersion()));
+        assertThat(rest.getForObject(url("/api/v1/beer/" + lagerId), BeerDto.class).getQuantityOnHand()).isEqualTo(89);
+    }
+
+    @Test
+    @DisplayName("an allocation evicts only its own beer from the entity and DTO caches")
+    void allocationEvictsOnlyItsBeer() throws InterruptedException {
+        Cache secondLevel = entityManagerFactory.getCache();
+        secondLevel.evictAll();
+        beerRepository.findById(ipaId);
+        beerRepository.findById(lagerId);
+        rest.getForObject(url("/api/v1/beer?beerStyle=IPA"), String.class);
+        rest.getForObject(url("/api/v1/beer?beerStyle=LAGER"), String.class);
+        assertThat(secondLevel.contains(Beer.class, lagerId)).isTrue();
+        assertThat(cachedLists()).hasSize(2);
+
+        order(new BeerOrderLineCreateItem(ipaId, 4));
+        // the DTO caches are evicted by an after-commit listener, which may still be running
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cachedLists().size() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(secondLevel.contains(Beer.class, lagerId)).isTrue();
+        assertThat(cachedLists()).singleElement()
+                .satisfies(page -> assertThat(page.getContent()).extracting(BeerDto::getId).containsExactly(lagerId));
+        assertThat(rest.getForObject(url("/api/v1/beer/" + ipaId), BeerDto.class).getQuantityOnHand()).isEqualTo(6);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Slice<BeerDto>> cachedLists() {
+        Object entries = cacheManager.getCache(CacheNames.BEER_LISTS).getNativeCache();
+        return new ArrayList<>(((com.github.benmanes.caffeine.cache.Cache<Object, Slice<BeerDto>>) entries).asMap().values());
+    }
+
+    @Test
+    @DisplayName("restocking a beer allocates the lines backordered on it, oldest order first")
+    void restockAllocatesBackorders() throws InterruptedException {
+        BeerOrderResponse partial = order(new BeerOrderLineCreateItem(ipaId, 14), new BeerOrderLineCreateItem(lagerId, 1));
+        assertThat(partial.status()).isEqualTo(OrderStatus.PARTIALLY_ALLOCATED);
+        BeerOrderResponse none = order(new BeerOrderLineCreateItem(ipaId, 3));
+        assertThat(none.lines()).extracting(BeerOrderLineResponse::status).containsExactly(LineStatus.BACKORDER);
+
+        restock(ipaId, 5);
+
+        BeerOrderResponse allocated = awaitOrder(partial.id(), order -> order.status() == OrderStatus.ALLOCATED);
+        assertThat(allocated.lines()).extracting(BeerOrderLineResponse::quantityAllocated).containsExactly(14, 1);
+        BeerOrderResponse remainder = awaitOrder(none.id(), order -> order.status() == OrderStatus.PARTIALLY_ALLOCATED);
+        assertThat(remainder.lines()).extracting(BeerOrderLineResponse::quantityAllocated).containsExactly(1);
+        assertThat(beerRepository.findById(ipaId).orElseThrow().getQuantityOnHand()).isZero();
+    }
+
+    @Test
+    @DisplayName("an allocation that changes only lines still moves the order's ETag")
+    void lineOnlyAllocationMovesETag() throws InterruptedException {
+        BeerOrderResponse partial = order(new BeerOrderLineCreateItem(ipaId, 12), new BeerOrderLineCreateItem(lagerId, 1));
+        assertThat(partial.status()).isEqualTo(OrderStatus.PARTIALLY_ALLOCATED);
+        String etag = rest.getForEntity(url("/api/v1/beer-orders/" + partial.id()), BeerOrderResponse.class).getHeaders().getETag();
+
+        // one more unit: the ipa line stays on backorder and the order PARTIALLY_ALLOCATED
+        restock(ipaId, 1);
+        BeerOrderResponse more = awaitOrder(partial.id(), order -> order.lines().get(0).quantityAllocated() == 11);
+        assertThat(more.status()).isEqualTo(OrderStatus.PARTIALLY_ALLOCATED);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<BeerOrderResponse> conditional = rest.exchange(url("/api/v1/beer-orders/" + partial.id()),
+                HttpMethod.GET, new HttpEntity<>(headers), BeerOrderResponse.class);
+        assertThat(conditional.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(conditional.getHeaders().getETag()).isNotEqualTo(etag).isEqualTo(ETags.of(partial.id(), more.version()));
+        assertThat(more.version()).isGreaterThan(partial.version());
+    }
+
+    @Test
+    @DisplayName("concurrent orders for the same beers never oversell and never lose stock")
+    void concurrentOrdersConserveStock() throws Exception {
+        int orders = 60;
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> submitted = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            // alternate the line order so the batches see the beers in both orders
+            BeerOrderLineCreateItem ipa = new BeerOrderLineCreateItem(ipaId, 1);
+            BeerOrderLineCreateItem lager = new BeerOrderLineCreateItem(lagerId, 3);
+            boolean ipaFirst = i % 2 == 0;
+            submitted.add(pool.submit(() -> ipaFirst ? submit(ipa, lager) : submit(lager, ipa)));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        List<BeerOrderResponse> results = new ArrayList<>(orders);
+        for (Future<Integer> id : submitted) {
+            results.add(awaitAllocation(id.get()));
+        }
+
+        int ipaAllocated = 0;
+        int lagerAllocated = 0;
+        for (BeerOrderResponse result : results) {
+            for (BeerOrderLineResponse line : result.lines()) {
+                if (line.beerId().equals(ipaId)) {
+                    ipaAllocated += line.quantityAllocated();
+                } else {
+                    lagerAllocated += line.quantityAllocated();
+                }
+            }
+        }
+        int ipaOnHand = beerRepository.findById(ipaId).orElseThrow().getQuantityOnHand();
+        int lagerOnHand = beerRepository.findById(lagerId).orElseThrow().getQuantityOnHand();
+
+        assertThat(ipaAllocated).isEqualTo(10);
+        assertThat(ipaOnHand).isZero();
+        // 180 units requested against 100 on hand: the last partial grant takes the remainder
+        assertThat(lagerAllocated).isEqualTo(100);
+        assertThat(lagerOnHand).isZero();
+
+        Timer latency = meterRegistry.find("juniemvc.allocation.latency").timer();
+        assertThat(latency).isNotNull();
+        assertThat(latency.count()).isGreaterThanOrEqualTo(orders);
+        assertThat(meterRegistry.find("juniemvc.allocation.queue.depth").gauge()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("queued orders are allocated in one batch, and stopping the worker drains the queue first")
+    void queuedOrdersAreBatchedAndDrainedOnStop() {
+        Lifecycle worker = context.getBean("allocationWorker", Lifecycle.class);
+        worker.stop();
+        List<Integer> ids = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                ids.add(submit(new BeerOrderLineCreateItem(lagerId, 1)));
+            }
+            assertThat(beerRepository.findById(lagerId).orElseThrow().getQuantityOnHand()).isEqualTo(100);
+        } finally {
+            worker.start();
+        }
+        // returns only once the queue is empty
+        worker.stop();
+        worker.start();
+
+        assertThat(beerOrderRepository.findAllWithLinesByIdIn(ids))
+                .allSatisfy(order -> assertThat(order.getStatus()).isEqualTo(OrderStatus.ALLOCATED));
+        assertThat(beerRepository.findById(lagerId).orElseThrow().getQuantityOnHand()).isEqualTo(80);
+        assertThat(meterRegistry.find("juniemvc.allocation.batch.size").summary().max()).isGreaterThanOrEqualTo(20);
+    }
+}
@@ -0,0 +1,109 @@
+package guru.springframework.juniemvc.web;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Test helper that wraps the application DataSource and records every prepared SQL statement
+ * together with the size of every executed JDBC batch.
+ * Add it to a test context with {@code @Import(JdbcStatementRecorder.class)} (it is a {@link BeanPostProcessor}); the
+ * classes importing it declare the same configuration and can share a cached context.
+ */
+class JdbcStatementRecorder implements BeanPostProcessor {
+
+    record Batch(String sql, int size) {
+        boolean isInsertInto(String table) {
+            return sql.toLowerCase(Locale.ROOT).startsWith("insert into " + table + " ");
+        }
+    }
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    private final List<Batch> batches = new CopyOnWriteArrayList<>();
+
+    List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    long selectsFrom(String table) {
+        String from = " from " + table + " ";
+        return statements.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("select") && sql.contains(from))
+                .count();
+    }
+
+    List<Batch> batches() {
+        return List.copyOf(batches);
+    }
+
+    void clear() {
+        statements.clear();
+        batches.clear();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                return result instanceof Connection connection ? proxyConnection(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private Connection proxyConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                String sql = (String) args[0];
+                statements.add(sql);
+                return proxyStatement(statement, sql);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement proxyStatement(PreparedStatement statement, String sql) {
+        int[] pending = new int[1];
+        return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+            switch (method.getName()) {
+                case "addBatch" -> pending[0]++;
+                case "executeBatch" -> {
+                    batches.add(new Batch(sql, pending[0]));
+                    pending[0] = 0;
+                }
+                case "clearBatch" -> pending[0] = 0;
+                default -> { }
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (p, method, args) -> {
+            try {
+                return handler.invoke(target, method, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface Handler<T> {
+        Object invoke(T target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,86 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.endpoints.web.exposure.include=health,metrics,prometheus")
+class MetricsIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    @Test
+    @DisplayName("controller, service and repository calls are timed with percentiles and scraped in Prometheus format")
+    void requestIsTimedAtEveryLayer() {
+        BeerDto dto = BeerDto.builder()
+                .beerName("Metered Stout")
+                .beerStyle("STOUT")
+                .upc("MET-1")
+                .quantityOnHand(1)
+                .price(new BigDecimal("6.00"))
+                .build();
+        Integer id = rest.postForEntity(url("/api/v1/beer"), dto, BeerDto.class).getBody().getId();
+        assertThat(rest.getForEntity(url("/api/v1/beer/" + id), BeerDto.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Timer service = meterRegistry.find("juniemvc.service")
+                .tags("class", "guru.springframework.juniemvc.services.impl.BeerServiceImpl", "method", "create").timer();
+        assertThat(service).isNotNull();
+        assertThat(service.count()).isEqualTo(1);
+        assertThat(service.takeSnapshot().percentileValues()).hasSize(3);
+        assertThat(meterRegistry.find("spring.data.repository.invocations")
+                .tags("repository", "BeerRepository", "method", "save").timer()).isNotNull();
+
+        ResponseEntity<String> scrape = rest.getForEntity(url("/actuator/prometheus"), String.class);
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/v1/beer/{id}\"")
+                .contains("juniemvc_service_seconds_bucket{")
+                .contains("juniemvc_service_seconds_count{class=\"guru.springframework.juniemvc.services.impl.BeerServiceImpl\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("hibernate_statements_total")
+                .contains("hibernate_entities_loads_total")
+                .contains("hibernate_second_level_cache_requests_total");
+    }
+}
@@ -0,0 +1,164 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.BeerOrderShipmentDtos.BeerOrderShipmentRequest;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerOrderShipmentRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OutboxEventIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerOrderShipmentRepository beerOrderShipmentRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    Integer beerId;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderShipmentRepository.deleteAll();
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        beerId = beerRepository.save(Beer.builder().beerName("Outbox Ale").beerStyle("ALE").upc("OUTBOX-1")
+                .quantityOnHand(10).price(new BigDecimal("4.00")).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // other test classes delete orders without knowing about shipments
+        beerOrderShipmentRepository.deleteAll();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private record Feed(List<JsonNode> events, long nextAfter) {}
+
+    private Feed events(long after, int waitSeconds) throws Exception {
+        ResponseEntity<String> resp = rest.getForEntity(url("/api/v1/events?after=" + after + "&wait=" + waitSeconds), String.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getHeaders().getContentType()).hasToString("application/x-ndjson");
+        List<JsonNode> events = new ArrayList<>();
+        if (resp.getBody() != null) {
+            for (String line : resp.getBody().split("\n")) {
+                events.add(objectMapper.readTree(line));
+            }
+        }
+        return new Feed(events, Long.parseLong(resp.getHeaders().getFirst(OutboxEventController.NEXT_AFTER_HEADER)));
+    }
+
+    // cursor past everything published so far
+    private long tail() throws Exception {
+        long after = 0;
+        for (Feed feed = events(after, 0); !feed.events().isEmpty(); feed = events(after, 0)) {
+            after = feed.nextAfter();
+        }
+        return after;
+    }
+
+    // follows the feed until the order's events of the given types arrived
+    private List<JsonNode> collect(long after, Integer orderId, int expected) throws Exception {
+        List<JsonNode> collected = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (collected.size() < expected && System.nanoTime() < deadline) {
+            Feed feed = events(after, 2);
+            for (JsonNode event : feed.events()) {
+                assertThat(event.get("position").asLong()).isEqualTo(++after);
+                if (event.get("beerOrderId").asInt() == orderId) {
+                    collected.add(event);
+                }
+            }
+            assertThat(feed.nextAfter()).isEqualTo(after);
+        }
+        return collected;
+    }
+
+    @Test
+    @DisplayName("order creation, allocation and shipment are published in order with gap-free positions")
+    void orderLifecycleIsPublished() throws Exception {
+        long start = tail();
+        BeerOrderResponse order = rest.postForEntity(url("/api/v1/beer-orders"),
+                new BeerOrderCreateRequest("OUTBOX", null, List.of(new BeerOrderLineCreateItem(beerId, 4))),
+                BeerOrderResponse.class).getBody();
+
+        List<JsonNode> created = collect(start, order.id(), 2);
+        assertThat(created).extracting(e -> e.get("type").asText())
+                .containsExactly("ORDER_CREATED", "ORDER_STATUS_CHANGED");
+        assertThat(created.get(0).get("payload").get("status").asText()).isEqualTo("NEW");
+        JsonNode allocated = created.get(1).get("payload");
+        assertThat(allocated.get("previousStatus").asText()).isEqualTo("NEW");
+        assertThat(allocated.get("order").get("status").asText()).isEqualTo("ALLOCATED");
+        assertThat(allocated.get("order").get("lines").get(0).get("quantityAllocated").asInt()).isEqualTo(4);
+
+        long afterAllocation = created.get(1).get("position").asLong();
+        rest.postForEntity(url("/api/v1/beer-orders/" + order.id() + "/shipments"),
+                new BeerOrderShipmentRequest(LocalDate.now(), "UPS", "1Z"), String.class);
+        List<JsonNode> shipped = collect(afterAllocation, order.id(), 1);
+        assertThat(shipped).singleElement().satisfies(e -> {
+            assertThat(e.get("type").asText()).isEqualTo("SHIPMENT_CREATED");
+            assertThat(e.get("payload").get("carrier").asText()).isEqualTo("UPS");
+        });
+    }
+
+    @Test
+    @DisplayName("a caught-up consumer waiting on the feed is answered as soon as a new event is published")
+    void waitingConsumerIsWokenUp() throws Exception {
+        long start = tail();
+        CompletableFuture<Feed> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return events(start, 20);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        long sent = System.nanoTime();
+        rest.postForEntity(url("/api/v1/beer-orders"),
+                new BeerOrderCreateRequest("WAKE", null, List.of(new BeerOrderLineCreateItem(beerId, 1))), String.class);
+
+        Feed feed = waiting.get(20, TimeUnit.SECONDS);
+        assertThat(feed.events()).isNotEmpty();
+        assertThat(feed.events().get(0).get("type").asText()).isEqualTo("ORDER_CREATED");
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - sent)).isLessThan(10);
+    }
+}
@@ -0,0 +1,120 @@
+package guru.springframework.juniemvc.web;
+
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerCreateRequest;
+import guru.springframework.juniemvc.models.CustomerDtos.CustomerResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "juniemvc.query-budget.fail-on-exceed=true",
+        "juniemvc.query-budget.endpoints[0].method=GET",
+        "juniemvc.query-budget.endpoints[0].pattern=/api/v1/customers/{id}",
+        "juniemvc.query-budget.endpoints[0].max-statements=1"
+})
+class QueryBudgetIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    List<Integer> beerIds;
+
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        beerIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            beerIds.add(beerRepository.save(Beer.builder().beerName("Budget " + i).beerStyle("ALE")
+                    .upc("BUDGET-" + i).quantityOnHand(1000).price(new BigDecimal("3.00")).build()).getId());
+        }
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private ResponseEntity<BeerOrderResponse> createOrderWith(int lineCount) {
+        List<BeerOrderLineCreateItem> lines = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new BeerOrderLineCreateItem(beerIds.get(i), 1));
+        }
+        entityManagerFactory.getCache().evictAll();
+        ResponseEntity<BeerOrderResponse> resp = rest.postForEntity(url("/api/v1/beer-orders"),
+                new BeerOrderCreateRequest("BUDGET", null, lines), BeerOrderResponse.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return resp;
+    }
+
+    @Test
+    @DisplayName("exact statement counts are reported per request and do not grow with the order lines")
+    void exactCounts() {
+        // pooled sequences are read twice before their first block of ids is usable; keep that out of the counts
+        createOrderWith(1);
+        createOrderWith(1);
+        // one beer lookup, one order insert, one batched line insert and the outbox event;
+        // stock is allocated off the request thread
+        assertThat(QueryCounts.of(createOrderWith(2))).isEqualTo(4);
+        assertThat(QueryCounts.of(createOrderWith(20))).isEqualTo(4);
+
+        Integer orderId = createOrderWith(1).getBody().id();
+        ResponseEntity<BeerOrderResponse> get = rest.getForEntity(url("/api/v1/beer-orders/" + orderId), BeerOrderResponse.class);
+        // version lookup plus the order fetched together with its lines
+        assertThat(QueryCounts.of(get)).isEqualTo(2);
+
+        DistributionSummary summary = meterRegistry.find("http.server.requests.statements")
+                .tags("method", "POST", "uri", "/api/v1/beer-orders").summary();
+        assertThat(summary).isNotNull();
+        assertThat(summary.count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("an endpoint over its budget fails with a problem response when fail-on-exceed is set")
+    void overBudgetFails() {
+        CustomerResponse created = rest.postForEntity(url("/api/v1/customers"),
+                new CustomerCreateRequest("Bud", null, null, "1 Budget Rd", null, "City", "ST", "00001"),
+                CustomerResponse.class).getBody();
+
+        ResponseEntity<String> resp = rest.getForEntity(url("/api/v1/customers/" + created.id()), String.class);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(resp.getBody()).contains("Query Budget Exceeded").contains("budget is 1");
+        assertThat(QueryCounts.of(resp)).isEqualTo(2);
+    }
+}
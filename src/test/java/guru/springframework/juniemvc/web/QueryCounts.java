@@ -0,0 +1,20 @@
+package guru.springframework.juniemvc.web;
+
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test helper reading the number of SQL statements a request issued from its {@code X-Query-Count} header
+ * (enabled by {@code juniemvc.query-budget.expose-header=true} in the test configuration).
+ */
+final class QueryCounts {
+
+    private QueryCounts() {}
+
+    static int of(ResponseEntity<?> response) {
+        String header = response.getHeaders().getFirst(QueryBudgetAdvice.QUERY_COUNT_HEADER);
+        assertThat(header).as("X-Query-Count header").isNotNull();
+        return Integer.parseInt(header);
+    }
+}
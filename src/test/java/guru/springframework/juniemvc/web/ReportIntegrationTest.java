@@ -0,0 +1,195 @@
+package guru.springframework.juniemvc.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import guru.springframework.juniemvc.entities.Beer;
+import guru.springframework.juniemvc.entities.OrderStatus;
+import guru.springframework.juniemvc.models.BeerDto;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderBatchResponse;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderCreateRequest;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderLineCreateItem;
+import guru.springframework.juniemvc.models.BeerOrderDtos.BeerOrderResponse;
+import guru.springframework.juniemvc.repositories.BeerOrderRepository;
+import guru.springframework.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(JdbcStatementRecorder.class)
+class ReportIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    Integer stout;
+    Integer porter;
+    Integer pils;
+    Integer empty;
+
+    // two beers share a style and a fourth is out of stock; the styles are unique to this test, so their rollup rows start empty
+    @BeforeEach
+    void setUp() {
+        beerOrderRepository.deleteAll();
+        beerRepository.deleteAll();
+        stout = beer("Rollup Stout", "Rollup Dark", "RLP-1");
+        porter = beer("Rollup Porter", " rollup dark ", "RLP-2");
+        pils = beer("Rollup Pils", "Rollup Light", "RLP-3");
+        empty = beer("Rollup Bock", "Rollup Empty", "RLP-4", 0);
+    }
+
+    private Integer beer(String name, String style, String upc) {
+        return beer(name, style, upc, 1000);
+    }
+
+    private Integer beer(String name, String style, String upc, int quantityOnHand) {
+        return beerRepository.save(Beer.builder().beerName(name).beerStyle(style).upc(upc)
+                .quantityOnHand(quantityOnHand).price(new BigDecimal("3.00")).build()).getId();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private String today() {
+        return "from=" + LocalDate.now().minusDays(1) + "&to=" + LocalDate.now().plusDays(1);
+    }
+
+    private JsonNode report(String path) {
+        ResponseEntity<JsonNode> resp = rest.getForEntity(url("/api/v1/reports/" + path), JsonNode.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return resp.getBody();
+    }
+
+    private static long sum(JsonNode rows, String field) {
+        long total = 0;
+        for (JsonNode row : rows) {
+            total += row.get(field).asLong();
+        }
+        return total;
+    }
+
+    private long ordersReaching(String status) {
+        return sum(report("order-statuses?status=" + status + "&" + today()), "orders");
+    }
+
+    private long backorderedIn(String status) {
+        return sum(report("order-statuses?status=" + status + "&" + today()), "backordered");
+    }
+
+    // the relay aggregates shortly after the orders commit
+    private void await(String what, BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(condition.getAsBoolean()).as(what).isTrue();
+    }
+
+    @Test
+    @DisplayName("order creation and allocation roll up per beer, style and status, and reports read only the rollups")
+    void rollsUpOrdersAndStatuses() throws InterruptedException {
+        long newBefore = ordersReaching("NEW");
+        long allocatedBefore = ordersReaching("ALLOCATED");
+
+        ResponseEntity<BeerOrderResponse> single = rest.postForEntity(url("/api/v1/beer-orders"), new BeerOrderCreateRequest("RLP", null,
+                List.of(new BeerOrderLineCreateItem(stout, 3), new BeerOrderLineCreateItem(porter, 2))), BeerOrderResponse.class);
+        assertThat(single.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        BeerOrderBatchResponse batch = rest.postForObject(url("/api/v1/beer-orders:batch"), new BeerOrderBatchRequest(List.of(
+                new BeerOrderCreateRequest("RLP", null, List.of(new BeerOrderLineCreateItem(stout, 4))),
+                new BeerOrderCreateRequest("RLP", null, List.of(new BeerOrderLineCreateItem(pils, 5), new BeerOrderLineCreateItem(stout, 1))))),
+                BeerOrderBatchResponse.class);
+        assertThat(batch.created()).isEqualTo(2);
+
+        await("orders created and allocated", () -> ordersReaching("NEW") - newBefore == 3 && ordersReaching("ALLOCATED") - allocatedBefore == 3);
+
+        JsonNode stoutSales = report("beer-sales?beerId=" + stout + "&" + today());
+        assertThat(stoutSales).hasSize(1);
+        assertThat(stoutSales.get(0).get("date").asText()).isEqualTo(LocalDate.now().toString());
+        assertThat(stoutSales.get(0).get("unitsOrdered").asLong()).isEqualTo(8);
+        assertThat(stoutSales.get(0).get("orderLines").asLong()).isEqualTo(3);
+
+        JsonNode dark = report("style-sales?beerStyle=rollup dark&" + today());
+        assertThat(dark).hasSize(1);
+        assertThat(dark.get(0).get("beerStyle").asText()).isEqualTo("ROLLUP DARK");
+        assertThat(dark.get(0).get("unitsOrdered").asLong()).isEqualTo(10);
+        assertThat(dark.get(0).get("orderLines").asLong()).isEqualTo(4);
+        assertThat(report("style-sales?" + today())).extracting(row -> row.get("beerStyle").asText())
+                .contains("ROLLUP DARK", "ROLLUP LIGHT");
+        assertThat(report("beer-sales?" + today())).extracting(row -> row.get("beerId").asInt())
+                .contains(stout, porter, pils);
+
+        recorder.clear();
+        report("beer-sales?" + today());
+        report("style-sales?" + today());
+        report("order-statuses?" + today());
+        List<String> reads = recorder.statements().stream().map(String::toLowerCase)
+                .filter(sql -> sql.startsWith("select") && !sql.contains("exists(") && !sql.contains("outbox_event"))
+                .toList();
+        assertThat(reads).hasSize(3).allMatch(sql -> sql.contains(" from daily_")).noneMatch(sql -> sql.contains("beer_order"));
+    }
+
+    @Test
+    @DisplayName("an order of which nothing can be allocated counts as backordered under NEW, and again when restocking moves it on")
+    void rollsUpBackorderedOrders() throws InterruptedException {
+        long newBefore = ordersReaching("NEW");
+        long backorderedNewBefore = backorderedIn("NEW");
+        long partialBefore = ordersReaching("PARTIALLY_ALLOCATED");
+        long backorderedPartialBefore = backorderedIn("PARTIALLY_ALLOCATED");
+
+        BeerOrderResponse order = rest.postForObject(url("/api/v1/beer-orders"), new BeerOrderCreateRequest("RLP", null,
+                List.of(new BeerOrderLineCreateItem(empty, 3))), BeerOrderResponse.class);
+
+        await("order backordered", () -> backorderedIn("NEW") - backorderedNewBefore == 1);
+        assertThat(ordersReaching("NEW") - newBefore).isEqualTo(1);
+        assertThat(rest.getForObject(url("/api/v1/beer-orders/" + order.id()), BeerOrderResponse.class).status())
+                .isEqualTo(OrderStatus.NEW);
+
+        BeerDto beer = rest.getForObject(url("/api/v1/beer/" + empty), BeerDto.class);
+        beer.setQuantityOnHand(2);
+        rest.put(url("/api/v1/beer/" + empty), beer);
+
+        await("order partially allocated", () -> ordersReaching("PARTIALLY_ALLOCATED") - partialBefore == 1
+                && backorderedIn("PARTIALLY_ALLOCATED") - backorderedPartialBefore == 1);
+        assertThat(backorderedIn("NEW") - backorderedNewBefore).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("reversed, overlong or missing ranges yield 400")
+    void rejectsBadRanges() {
+        ResponseEntity<JsonNode> reversed = rest.getForEntity(url("/api/v1/reports/beer-sales?from=2025-03-02&to=2025-03-01"), JsonNode.class);
+        assertThat(reversed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(reversed.getBody().get("title").asText()).isEqualTo("Invalid Report Range");
+
+        ResponseEntity<JsonNode> overlong = rest.getForEntity(url("/api/v1/reports/order-statuses?from=2024-01-01&to=2025-03-01"), JsonNode.class);
+        assertThat(overlong.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        ResponseEntity<String> missing = rest.getForEntity(url("/api/v1/reports/style-sales?from=2025-03-01"), String.class);
+        assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}